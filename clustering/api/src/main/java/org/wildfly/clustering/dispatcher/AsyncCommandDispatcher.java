@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.dispatcher;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
+
+import org.wildfly.clustering.group.Node;
+
+/**
+ * A dispatcher for remote invocation of commands whose responses are delivered asynchronously.
+ * Commands submitted to the cluster within a short time of each other may be sent together in a single message.
+ *
+ * @param <C> the command context type
+ */
+public interface AsyncCommandDispatcher<C> extends CommandDispatcher<C> {
+
+    /**
+     * Submits the specified command for execution on the specified node.
+     *
+     * @param <R>     the return value type
+     * @param command the command to execute
+     * @param node    the node to execute the command on
+     * @return a completion stage of the result of the command execution
+     */
+    <R> CompletionStage<R> submitOnNodeAsync(Command<R, C> command, Node node);
+
+    /**
+     * Submits the specified command for execution on all nodes in the group, excluding the specified nodes.
+     * Nodes that left the group, or on which no dispatcher with the same identifier exists, are not included in the responses.
+     *
+     * @param <R>           the return value type
+     * @param command       the command to execute
+     * @param excludedNodes the set of nodes to exclude
+     * @return a completion stage of the command execution results per node
+     */
+    <R> CompletionStage<Map<Node, CommandResponse<R>>> submitOnClusterAsync(Command<R, C> command, Node... excludedNodes);
+
+    /**
+     * Submits the specified command for execution on all nodes in the group, excluding the specified nodes,
+     * and combines the results of all nodes using the specified reducer.
+     * If the command failed on any node, the returned stage completes exceptionally.
+     *
+     * @param <R>           the return value type
+     * @param <A>           the aggregate type
+     * @param command       the command to execute
+     * @param identity      the initial aggregate
+     * @param reducer       combines an aggregate with the result of a node
+     * @param excludedNodes the set of nodes to exclude
+     * @return a completion stage of the aggregated results
+     */
+    <R, A> CompletionStage<A> submitOnClusterAsync(Command<R, C> command, A identity, BiFunction<A, ? super R, A> reducer, Node... excludedNodes);
+}
@@ -46,4 +46,14 @@ public interface CommandDispatcherFactory {
      * @return a new command dispatcher
      */
     <C> CommandDispatcher<C> createCommandDispatcher(Object id, C context);
+
+    /**
+     * Creates a new command dispatcher using the specified identifier and context, whose responses are delivered asynchronously.
+     * The resulting {@link AsyncCommandDispatcher} will communicate with those dispatchers within the group sharing the same identifier.
+     *
+     * @param id      a unique identifier for this dispatcher
+     * @param context the context used for executing commands
+     * @return a new asynchronous command dispatcher
+     */
+    <C> AsyncCommandDispatcher<C> createAsyncCommandDispatcher(Object id, C context);
 }
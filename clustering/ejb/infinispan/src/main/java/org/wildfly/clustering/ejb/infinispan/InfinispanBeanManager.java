@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import org.infinispan.Cache;
@@ -60,9 +61,9 @@ import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
 import org.wildfly.clustering.group.Node;
 import org.wildfly.clustering.group.NodeFactory;
 import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
+import org.wildfly.clustering.infinispan.spi.distribution.ConsistentHashChangeLocality;
 import org.wildfly.clustering.infinispan.spi.distribution.ConsistentHashLocality;
 import org.wildfly.clustering.infinispan.spi.distribution.Locality;
-import org.wildfly.clustering.infinispan.spi.distribution.SimpleLocality;
 import org.wildfly.clustering.registry.Registry;
 
 /**
@@ -187,7 +188,7 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
         };
         this.dispatcher = this.dispatcherFactory.createCommandDispatcher(this.beanName + ".schedulers", this.scheduler);
         this.beanCache.addListener(this, this.filter);
-        this.schedule(this.beanCache, new SimpleLocality(false), new ConsistentHashLocality(this.beanCache));
+        this.schedule(this.beanCache, new ConsistentHashChangeLocality(this.beanCache));
     }
 
     @Override
@@ -334,21 +335,28 @@ public class InfinispanBeanManager<G, I, T> implements BeanManager<G, I, T, Tran
     public void dataRehashed(DataRehashedEvent<BeanKey<I>, BeanEntry<G>> event) {
         Cache<BeanKey<I>, BeanEntry<G>> cache = event.getCache();
         Address localAddress = cache.getCacheManager().getAddress();
-        Locality oldLocality = new ConsistentHashLocality(localAddress, event.getConsistentHashAtStart());
-        Locality newLocality = new ConsistentHashLocality(localAddress, event.getConsistentHashAtEnd());
         if (event.isPre()) {
-            this.scheduler.cancel(newLocality);
+            this.scheduler.cancel(new ConsistentHashLocality(localAddress, event.getConsistentHashAtEnd()));
         } else {
-            this.schedule(cache, oldLocality, newLocality);
+            this.schedule(cache, new ConsistentHashChangeLocality(localAddress, event.getConsistentHashAtStart(), event.getConsistentHashAtEnd()));
         }
     }
 
-    private void schedule(Cache<BeanKey<I>, BeanEntry<G>> cache, Locality oldLocality, Locality newLocality) {
+    private void schedule(Cache<BeanKey<I>, BeanEntry<G>> cache, ConsistentHashChangeLocality locality) {
+        // Nothing to do if we did not become the primary owner of any segment
+        if (locality.isEmpty()) return;
+        InfinispanEjbLogger.ROOT_LOGGER.debugf("Scheduling beans of %d new primary segments of cache %s", locality.getSegmentCount(), cache.getName());
+        long start = System.currentTimeMillis();
+        AtomicLong count = new AtomicLong();
         // Iterate over sessions in memory
         try (Stream<BeanKey<I>> stream = this.beanCache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD).keySet().stream()) {
             // If we are the new primary owner of this session then schedule expiration of this session locally
-            stream.filter(this.filter).map(key -> key.getId()).filter(id -> !oldLocality.isLocal(id) && newLocality.isLocal(id)).forEach(id -> this.scheduler.schedule(id));
+            stream.parallel().filter(this.filter).map(key -> key.getId()).filter(id -> locality.isLocal(id)).forEach(id -> {
+                this.scheduler.schedule(id);
+                count.incrementAndGet();
+            });
         }
+        InfinispanEjbLogger.ROOT_LOGGER.debugf("Scheduled %d beans of cache %s in %d ms", count.get(), cache.getName(), System.currentTimeMillis() - start);
     }
 
     private class SchedulableBean implements Bean<G, I, T> {
@@ -31,6 +31,7 @@ import org.infinispan.transaction.LockingMode;
 import org.infinispan.util.concurrent.IsolationLevel;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.ejb.BeanGroupGranularity;
 import org.wildfly.clustering.ejb.BeanManager;
 import org.wildfly.clustering.ejb.BeanManagerFactory;
 import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
@@ -39,9 +40,12 @@ import org.wildfly.clustering.ejb.IdentifierFactory;
 import org.wildfly.clustering.ejb.RemoveListener;
 import org.wildfly.clustering.ejb.Time;
 import org.wildfly.clustering.ejb.infinispan.bean.InfinispanBeanFactory;
+import org.wildfly.clustering.ejb.infinispan.group.BeanGroupMemberKey;
+import org.wildfly.clustering.ejb.infinispan.group.FineBeanGroupFactory;
 import org.wildfly.clustering.ejb.infinispan.group.InfinispanBeanGroupFactory;
 import org.wildfly.clustering.group.NodeFactory;
 import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
+import org.wildfly.clustering.marshalling.MarshalledValue;
 import org.wildfly.clustering.marshalling.MarshalledValueFactory;
 import org.wildfly.clustering.marshalling.MarshallingContext;
 import org.wildfly.clustering.marshalling.SimpleMarshalledValueFactory;
@@ -71,7 +75,13 @@ public class InfinispanBeanManagerFactory<G, I, T> implements BeanManagerFactory
         MarshalledValueFactory<MarshallingContext> factory = new SimpleMarshalledValueFactory(context);
         Cache<G, BeanGroupEntry<I, T>> groupCache = this.configuration.getCache();
         org.infinispan.configuration.cache.Configuration config = groupCache.getCacheConfiguration();
-        BeanGroupFactory<G, I, T> groupFactory = new InfinispanBeanGroupFactory<>(groupCache, factory, context);
+        BeanGroupFactory<G, I, T> groupFactory;
+        if (this.configuration.getGranularity() == BeanGroupGranularity.BEAN) {
+            Cache<BeanGroupMemberKey<G, I>, MarshalledValue<T, MarshallingContext>> memberCache = this.configuration.getCache();
+            groupFactory = new FineBeanGroupFactory<>(groupCache, memberCache, factory, context, this.configuration.getBeanContext().getSharedReferences());
+        } else {
+            groupFactory = new InfinispanBeanGroupFactory<>(groupCache, factory, context);
+        }
         Configuration<G, G, BeanGroupEntry<I, T>, BeanGroupFactory<G, I, T>> groupConfiguration = new SimpleConfiguration<>(groupCache, groupFactory, groupIdentifierFactory);
         Cache<BeanKey<I>, BeanEntry<G>> beanCache = this.configuration.getCache();
         final String beanName = this.configuration.getBeanContext().getBeanName();
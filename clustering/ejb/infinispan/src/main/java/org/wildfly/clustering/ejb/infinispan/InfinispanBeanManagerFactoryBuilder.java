@@ -37,6 +37,7 @@ import org.jboss.msc.value.Value;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.ejb.BeanContext;
+import org.wildfly.clustering.ejb.BeanGroupGranularity;
 import org.wildfly.clustering.ejb.BeanManagerFactory;
 import org.wildfly.clustering.ejb.BeanManagerFactoryBuilderConfiguration;
 import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
@@ -139,6 +140,11 @@ public class InfinispanBeanManagerFactoryBuilder<G, I, T> implements Builder<Bea
         return this.configuration;
     }
 
+    @Override
+    public BeanGroupGranularity getGranularity() {
+        return this.configuration.getGranularity();
+    }
+
     @Override
     public NodeFactory<Address> getNodeFactory() {
         return this.nodeFactory.getValue();
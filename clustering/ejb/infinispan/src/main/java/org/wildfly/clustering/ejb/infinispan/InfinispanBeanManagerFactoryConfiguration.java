@@ -29,6 +29,7 @@ import org.infinispan.Cache;
 import org.infinispan.remoting.transport.Address;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ejb.BeanContext;
+import org.wildfly.clustering.ejb.BeanGroupGranularity;
 import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
 import org.wildfly.clustering.group.NodeFactory;
 import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
@@ -46,6 +47,7 @@ public interface InfinispanBeanManagerFactoryConfiguration {
     ScheduledExecutorService getScheduler();
     Executor getExecutor();
     BeanPassivationConfiguration getPassivationConfiguration();
+    BeanGroupGranularity getGranularity();
     NodeFactory<Address> getNodeFactory();
     Registry<String, ?> getRegistry();
     CommandDispatcherFactory getCommandDispatcherFactory();
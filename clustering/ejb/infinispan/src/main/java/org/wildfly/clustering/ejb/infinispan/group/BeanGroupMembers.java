@@ -0,0 +1,211 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
+import org.wildfly.clustering.marshalling.MarshalledValue;
+import org.wildfly.clustering.marshalling.MarshallingContext;
+
+/**
+ * The beans of a group, each of which is stored in a separate cache entry.
+ * Only the beans used since the group was last mutated need to be replicated.
+ *
+ * @param <G> the group identifier type
+ * @param <I> the bean identifier type
+ * @param <T> the bean type
+ */
+public class BeanGroupMembers<G, I, T> implements MarshalledValue<Map<I, T>, MarshallingContext> {
+    private static final long serialVersionUID = -2146186938410393455L;
+
+    private final G groupId;
+    private final Set<I> ids = ConcurrentHashMap.newKeySet();
+    // Beans used since the group was last mutated
+    private final transient ConcurrentMap<I, T> usedBeans = new ConcurrentHashMap<>();
+    private final transient AtomicBoolean membershipChanged = new AtomicBoolean(false);
+    private final transient SharedReferenceDetector<I> detector = new SharedReferenceDetector<>();
+    private transient volatile Cache<BeanGroupMemberKey<G, I>, MarshalledValue<T, MarshallingContext>> cache;
+    private transient volatile boolean detached = false;
+
+    public BeanGroupMembers(G groupId) {
+        this(groupId, Collections.<I>emptySet());
+    }
+
+    public BeanGroupMembers(G groupId, Set<I> ids) {
+        this.groupId = groupId;
+        this.ids.addAll(ids);
+    }
+
+    public G getGroupId() {
+        return this.groupId;
+    }
+
+    public Set<I> getBeanIds() {
+        return Collections.unmodifiableSet(this.ids);
+    }
+
+    void setCache(Cache<BeanGroupMemberKey<G, I>, MarshalledValue<T, MarshallingContext>> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Map<I, T> get(MarshallingContext context) {
+        return new BeanMap(context);
+    }
+
+    /**
+     * Returns the beans used since the last invocation of this method.
+     * @return a map of bean identifier to bean
+     */
+    Map<I, T> removeUsedBeans() {
+        Map<I, T> beans = new HashMap<>();
+        for (I id: this.usedBeans.keySet()) {
+            T bean = this.usedBeans.remove(id);
+            if (bean != null) {
+                beans.put(id, bean);
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * Indicates whether beans were added or removed since the last invocation of this method.
+     * @return true, if the membership of this group changed, false otherwise
+     */
+    boolean resetMembershipChanged() {
+        return this.membershipChanged.getAndSet(false);
+    }
+
+    SharedReferenceDetector<I> getDetector() {
+        return this.detector;
+    }
+
+    /**
+     * Indicates that the beans of this group are no longer stored separately.
+     */
+    void detach() {
+        this.detached = true;
+    }
+
+    boolean isDetached() {
+        return this.detached;
+    }
+
+    BeanGroupMemberKey<G, I> createKey(I id) {
+        return new BeanGroupMemberKey<>(this.groupId, id);
+    }
+
+    private class BeanMap extends AbstractMap<I, T> {
+        private final MarshallingContext context;
+
+        BeanMap(MarshallingContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public int size() {
+            return BeanGroupMembers.this.ids.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return BeanGroupMembers.this.ids.isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(Object id) {
+            return BeanGroupMembers.this.ids.contains(id);
+        }
+
+        @Override
+        public Set<I> keySet() {
+            return BeanGroupMembers.this.getBeanIds();
+        }
+
+        @Override
+        public T get(Object key) {
+            if (!BeanGroupMembers.this.ids.contains(key)) return null;
+            @SuppressWarnings("unchecked")
+            I id = (I) key;
+            T bean = BeanGroupMembers.this.usedBeans.get(id);
+            if (bean == null) {
+                MarshalledValue<T, MarshallingContext> value = BeanGroupMembers.this.cache.get(BeanGroupMembers.this.createKey(id));
+                if (value == null) return null;
+                try {
+                    bean = value.get(this.context);
+                } catch (IOException | ClassNotFoundException e) {
+                    throw InfinispanEjbLogger.ROOT_LOGGER.deserializationFailure(e, BeanGroupMembers.this.groupId);
+                }
+                T existing = BeanGroupMembers.this.usedBeans.putIfAbsent(id, bean);
+                if (existing != null) {
+                    bean = existing;
+                }
+            }
+            return bean;
+        }
+
+        @Override
+        public T put(I id, T bean) {
+            if (BeanGroupMembers.this.ids.add(id)) {
+                BeanGroupMembers.this.membershipChanged.set(true);
+            }
+            return BeanGroupMembers.this.usedBeans.put(id, bean);
+        }
+
+        @Override
+        public T remove(Object key) {
+            T bean = this.get(key);
+            if (BeanGroupMembers.this.ids.remove(key)) {
+                @SuppressWarnings("unchecked")
+                I id = (I) key;
+                BeanGroupMembers.this.usedBeans.remove(id);
+                BeanGroupMembers.this.detector.remove(id);
+                BeanGroupMembers.this.membershipChanged.set(true);
+                BeanGroupMembers.this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(BeanGroupMembers.this.createKey(id));
+            }
+            return bean;
+        }
+
+        @Override
+        public Set<Map.Entry<I, T>> entrySet() {
+            Map<I, T> beans = new HashMap<>();
+            for (I id: BeanGroupMembers.this.ids) {
+                T bean = this.get(id);
+                if (bean != null) {
+                    beans.put(id, bean);
+                }
+            }
+            return Collections.unmodifiableMap(beans).entrySet();
+        }
+    }
+}
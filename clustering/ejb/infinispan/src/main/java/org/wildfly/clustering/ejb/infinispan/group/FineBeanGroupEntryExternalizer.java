@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.wildfly.clustering.infinispan.spi.io.AbstractSimpleExternalizer;
+
+/**
+ * Marshals the group identifier and bean identifiers of a {@link FineBeanGroupEntry}.
+ * The beans themselves are marshalled via their own cache entries.
+ */
+public class FineBeanGroupEntryExternalizer<G, I, T> extends AbstractSimpleExternalizer<FineBeanGroupEntry<G, I, T>> {
+    private static final long serialVersionUID = -8436011624917338214L;
+
+    public FineBeanGroupEntryExternalizer() {
+        this(FineBeanGroupEntry.class);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private FineBeanGroupEntryExternalizer(Class targetClass) {
+        super(targetClass);
+    }
+
+    @Override
+    public void writeObject(ObjectOutput output, FineBeanGroupEntry<G, I, T> entry) throws IOException {
+        BeanGroupMembers<G, I, T> members = entry.getBeans();
+        output.writeObject(members.getGroupId());
+        Set<I> ids = members.getBeanIds();
+        output.writeInt(ids.size());
+        for (I id: ids) {
+            output.writeObject(id);
+        }
+    }
+
+    @Override
+    public FineBeanGroupEntry<G, I, T> readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+        @SuppressWarnings("unchecked")
+        G groupId = (G) input.readObject();
+        int size = input.readInt();
+        Set<I> ids = new HashSet<>(size);
+        for (int i = 0; i < size; ++i) {
+            @SuppressWarnings("unchecked")
+            I id = (I) input.readObject();
+            ids.add(id);
+        }
+        return new FineBeanGroupEntry<>(new BeanGroupMembers<G, I, T>(groupId, ids));
+    }
+}
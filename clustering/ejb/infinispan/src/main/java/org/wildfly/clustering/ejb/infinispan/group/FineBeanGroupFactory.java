@@ -0,0 +1,189 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.wildfly.clustering.ee.infinispan.CacheEntryMutator;
+import org.wildfly.clustering.ee.infinispan.Mutator;
+import org.wildfly.clustering.ejb.infinispan.BeanGroup;
+import org.wildfly.clustering.ejb.infinispan.BeanGroupEntry;
+import org.wildfly.clustering.ejb.infinispan.BeanGroupFactory;
+import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
+import org.wildfly.clustering.marshalling.MarshalledValue;
+import org.wildfly.clustering.marshalling.MarshalledValueFactory;
+import org.wildfly.clustering.marshalling.MarshallingContext;
+
+/**
+ * Encapsulates a cache mapping strategy of a bean group that stores each bean of the group in a separate cache entry,
+ * such that mutating a group only replicates the beans that were used.
+ * Since beans marshalled separately can no longer share object references, a group whose beans are found to share
+ * references is reverted to a single cache entry containing all of its beans.
+ * References to objects that the container shares between all instances of a bean do not count as shared references.
+ *
+ * @param <G> the group identifier type
+ * @param <I> the bean identifier type
+ * @param <T> the bean type
+ */
+public class FineBeanGroupFactory<G, I, T> implements BeanGroupFactory<G, I, T> {
+
+    private final Cache<G, BeanGroupEntry<I, T>> groupCache;
+    private final Cache<BeanGroupMemberKey<G, I>, MarshalledValue<T, MarshallingContext>> memberCache;
+    private final MarshalledValueFactory<MarshallingContext> factory;
+    private final MarshallingContext context;
+    private final Set<Object> sharedReferences;
+
+    public FineBeanGroupFactory(Cache<G, BeanGroupEntry<I, T>> groupCache, Cache<BeanGroupMemberKey<G, I>, MarshalledValue<T, MarshallingContext>> memberCache, MarshalledValueFactory<MarshallingContext> factory, MarshallingContext context, Set<Object> sharedReferences) {
+        this.groupCache = groupCache;
+        this.memberCache = memberCache;
+        this.factory = factory;
+        this.context = context;
+        this.sharedReferences = sharedReferences;
+    }
+
+    @Override
+    public BeanGroupEntry<I, T> createValue(G id, Void context) {
+        BeanGroupEntry<I, T> entry = new FineBeanGroupEntry<>(new BeanGroupMembers<G, I, T>(id));
+        BeanGroupEntry<I, T> existing = this.groupCache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).putIfAbsent(id, entry);
+        return this.bind((existing != null) ? existing : entry);
+    }
+
+    @Override
+    public BeanGroupEntry<I, T> findValue(G id) {
+        return this.bind(this.groupCache.get(id));
+    }
+
+    private BeanGroupEntry<I, T> bind(BeanGroupEntry<I, T> entry) {
+        if (entry instanceof FineBeanGroupEntry) {
+            @SuppressWarnings("unchecked")
+            FineBeanGroupEntry<G, I, T> fineEntry = (FineBeanGroupEntry<G, I, T>) entry;
+            BeanGroupMembers<G, I, T> members = fineEntry.getBeans();
+            members.setCache(this.memberCache);
+            // A group may contain beans of several components, each of which contributes its shared references
+            members.getDetector().ignore(this.sharedReferences);
+        }
+        return entry;
+    }
+
+    @Override
+    public void evict(G id) {
+        try {
+            BeanGroupEntry<I, T> entry = this.groupCache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD).get(id);
+            if (entry instanceof FineBeanGroupEntry) {
+                @SuppressWarnings("unchecked")
+                BeanGroupMembers<G, I, T> members = ((FineBeanGroupEntry<G, I, T>) entry).getBeans();
+                for (I beanId: members.getBeanIds()) {
+                    this.memberCache.evict(members.createKey(beanId));
+                }
+            }
+            this.groupCache.evict(id);
+        } catch (Throwable e) {
+            InfinispanEjbLogger.ROOT_LOGGER.failedToPassivateBeanGroup(e, id);
+        }
+    }
+
+    @Override
+    public void remove(G id) {
+        BeanGroupEntry<I, T> entry = this.groupCache.getAdvancedCache().remove(id);
+        if (entry instanceof FineBeanGroupEntry) {
+            @SuppressWarnings("unchecked")
+            BeanGroupMembers<G, I, T> members = ((FineBeanGroupEntry<G, I, T>) entry).getBeans();
+            this.removeMembers(members);
+        }
+    }
+
+    void removeMembers(BeanGroupMembers<G, I, T> members) {
+        for (I beanId: members.getBeanIds()) {
+            this.memberCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(members.createKey(beanId));
+        }
+    }
+
+    @Override
+    public BeanGroup<G, I, T> createGroup(final G id, final BeanGroupEntry<I, T> entry) {
+        @SuppressWarnings("unchecked")
+        Mutator mutator = (entry instanceof FineBeanGroupEntry) ? new BeanGroupMembersMutator(id, (FineBeanGroupEntry<G, I, T>) entry) : new CacheEntryMutator<>(this.groupCache, id, entry);
+        return new InfinispanBeanGroup<>(id, entry, this.context, mutator, this);
+    }
+
+    /**
+     * Replicates only the beans of a group that were used since the group was last mutated.
+     */
+    private class BeanGroupMembersMutator implements Mutator {
+        private final G id;
+        private final FineBeanGroupEntry<G, I, T> entry;
+
+        BeanGroupMembersMutator(G id, FineBeanGroupEntry<G, I, T> entry) {
+            this.id = id;
+            this.entry = entry;
+        }
+
+        @Override
+        public void mutate() {
+            BeanGroupMembers<G, I, T> members = this.entry.getBeans();
+            if (members.isDetached()) {
+                // Group was reverted to a single entry by a concurrent invocation
+                BeanGroupEntry<I, T> entry = FineBeanGroupFactory.this.groupCache.get(this.id);
+                if (entry != null) {
+                    FineBeanGroupFactory.this.groupCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).replace(this.id, entry);
+                }
+                return;
+            }
+            Map<I, T> beans = members.removeUsedBeans();
+            SharedReferenceDetector<I> detector = members.getDetector();
+            boolean shared = false;
+            for (Map.Entry<I, T> bean: beans.entrySet()) {
+                if (detector.update(bean.getKey(), bean.getValue())) {
+                    shared = true;
+                }
+            }
+            if (shared) {
+                InfinispanEjbLogger.ROOT_LOGGER.debugf("Beans of group %s share object references and will no longer be stored separately", this.id);
+                // The used beans were already removed from the group, so only the remaining beans are read from the cache
+                Map<I, T> allBeans = new HashMap<>(beans);
+                Map<I, T> storedBeans = members.get(FineBeanGroupFactory.this.context);
+                for (I beanId: members.getBeanIds()) {
+                    if (!allBeans.containsKey(beanId)) {
+                        T bean = storedBeans.get(beanId);
+                        if (bean != null) {
+                            allBeans.put(beanId, bean);
+                        }
+                    }
+                }
+                members.detach();
+                BeanGroupEntry<I, T> entry = new InfinispanBeanGroupEntry<>(FineBeanGroupFactory.this.factory.createMarshalledValue(allBeans), this.entry);
+                FineBeanGroupFactory.this.groupCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).put(this.id, entry);
+                FineBeanGroupFactory.this.removeMembers(members);
+                return;
+            }
+            for (Map.Entry<I, T> bean: beans.entrySet()) {
+                FineBeanGroupFactory.this.memberCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).put(members.createKey(bean.getKey()), FineBeanGroupFactory.this.factory.createMarshalledValue(bean.getValue()));
+            }
+            if (members.resetMembershipChanged()) {
+                FineBeanGroupFactory.this.groupCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).replace(this.id, this.entry);
+            }
+        }
+    }
+}
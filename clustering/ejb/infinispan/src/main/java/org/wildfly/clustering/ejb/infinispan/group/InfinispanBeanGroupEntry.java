@@ -41,10 +41,24 @@ import org.wildfly.clustering.marshalling.MarshallingContext;
 public class InfinispanBeanGroupEntry<I, T> implements BeanGroupEntry<I, T> {
 
     private final MarshalledValue<Map<I, T>, MarshallingContext> beans;
-    private final ConcurrentMap<I, AtomicInteger> usage = new ConcurrentHashMap<>();
+    private final ConcurrentMap<I, AtomicInteger> usage;
 
     public InfinispanBeanGroupEntry(MarshalledValue<Map<I, T>, MarshallingContext> beans) {
+        this(beans, new ConcurrentHashMap<I, AtomicInteger>());
+    }
+
+    /**
+     * Creates a group entry with the specified beans that shares the bean usage of the specified entry.
+     * @param beans the marshalled beans of this group
+     * @param entry the entry from which bean usage is shared
+     */
+    InfinispanBeanGroupEntry(MarshalledValue<Map<I, T>, MarshallingContext> beans, InfinispanBeanGroupEntry<I, T> entry) {
+        this(beans, entry.usage);
+    }
+
+    private InfinispanBeanGroupEntry(MarshalledValue<Map<I, T>, MarshallingContext> beans, ConcurrentMap<I, AtomicInteger> usage) {
         this.beans = beans;
+        this.usage = usage;
     }
 
     @Override
@@ -0,0 +1,157 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detects whether the beans of a group share references to the same object, in which case they cannot be marshalled independently of each other.
+ * The objects referenced by a bean are collected by walking its serializable object graph.
+ * Objects shared by the container between all instances of a bean, e.g. interceptor context keys, are not part of the state
+ * of any single bean, and are therefore ignored.
+ *
+ * @param <I> the bean identifier type
+ */
+public class SharedReferenceDetector<I> {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.<Class<?>>asList(String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class));
+
+    // Objects referenced by each bean
+    private final Map<I, Set<Object>> references = new HashMap<>();
+    // The bean referencing each object
+    private final Map<Object, I> owners = new IdentityHashMap<>();
+    // Objects shared by the container
+    private final Set<Object> ignored = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+    /**
+     * Ignores references to the specified objects shared by the container.
+     * @param objects a collection of objects
+     */
+    public synchronized void ignore(Collection<?> objects) {
+        this.ignored.addAll(objects);
+    }
+
+    /**
+     * Records the objects referenced by the specified bean, replacing those recorded previously.
+     * @param id a bean identifier
+     * @param bean a bean
+     * @return true, if the bean references an object also referenced by another bean, or if its references could not be determined, false otherwise
+     */
+    public synchronized boolean update(I id, Object bean) {
+        Set<Object> objects;
+        try {
+            objects = collect(bean);
+        } catch (IOException e) {
+            // e.g. the bean is not serializable via java serialization, so assume the worst
+            return true;
+        }
+        objects.removeAll(this.ignored);
+        this.remove(id);
+        boolean shared = false;
+        for (Object object: objects) {
+            I owner = this.owners.put(object, id);
+            if ((owner != null) && !owner.equals(id)) {
+                shared = true;
+            }
+        }
+        this.references.put(id, objects);
+        return shared;
+    }
+
+    /**
+     * Forgets the objects referenced by the specified bean.
+     * @param id a bean identifier
+     */
+    public synchronized void remove(I id) {
+        Set<Object> objects = this.references.remove(id);
+        if (objects != null) {
+            for (Object object: objects) {
+                if (id.equals(this.owners.get(object))) {
+                    this.owners.remove(object);
+                }
+            }
+        }
+    }
+
+    private static Set<Object> collect(Object bean) throws IOException {
+        final Set<Object> objects = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        PrivilegedExceptionAction<ObjectOutputStream> action = new PrivilegedExceptionAction<ObjectOutputStream>() {
+            @Override
+            public ObjectOutputStream run() throws IOException {
+                return new ReferenceCollectingObjectOutputStream(objects);
+            }
+        };
+        try (ObjectOutputStream output = AccessController.doPrivileged(action)) {
+            output.writeObject(bean);
+        } catch (PrivilegedActionException e) {
+            throw (IOException) e.getException();
+        }
+        return objects;
+    }
+
+    static boolean isImmutable(Object object) {
+        return IMMUTABLE_TYPES.contains(object.getClass()) || (object instanceof Enum);
+    }
+
+    private static class ReferenceCollectingObjectOutputStream extends ObjectOutputStream {
+        private final Set<Object> objects;
+
+        ReferenceCollectingObjectOutputStream(Set<Object> objects) throws IOException {
+            super(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    // Discard
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) {
+                    // Discard
+                }
+            });
+            this.objects = objects;
+            this.enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object object) {
+            if (!isImmutable(object)) {
+                this.objects.add(object);
+            }
+            return object;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.context.Flag;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.MarshalledValue;
+import org.wildfly.clustering.marshalling.MarshallingContext;
+
+public class BeanGroupMembersTestCase {
+    private final AdvancedCache<BeanGroupMemberKey<String, String>, MarshalledValue<Object, MarshallingContext>> cache = mock(AdvancedCache.class);
+    private final MarshallingContext context = mock(MarshallingContext.class);
+    private final BeanGroupMembers<String, String, Object> members = new BeanGroupMembers<>("group", Collections.singleton("stored"));
+
+    @Before
+    public void init() {
+        when(this.cache.getAdvancedCache()).thenReturn(this.cache);
+        when(this.cache.withFlags(Flag.IGNORE_RETURN_VALUES)).thenReturn(this.cache);
+        this.members.setCache(this.cache);
+    }
+
+    @Test
+    public void createKey() {
+        BeanGroupMemberKey<String, String> key = this.members.createKey("bean");
+
+        Assert.assertEquals("group", key.getGroupId());
+        Assert.assertEquals("bean", key.getBeanId());
+        // Beans of the same group are co-located
+        Assert.assertEquals("group", key.getGroup());
+        Assert.assertEquals(new BeanGroupMemberKey<>("group", "bean"), key);
+    }
+
+    @Test
+    public void getBean() throws ClassNotFoundException, IOException {
+        MarshalledValue<Object, MarshallingContext> value = mock(MarshalledValue.class);
+        Object bean = new Object();
+
+        when(this.cache.get(new BeanGroupMemberKey<>("group", "stored"))).thenReturn(value);
+        when(value.get(this.context)).thenReturn(bean);
+
+        Map<String, Object> beans = this.members.get(this.context);
+
+        Assert.assertSame(bean, beans.get("stored"));
+        Assert.assertNull(beans.get("unknown"));
+
+        verify(this.cache, never()).get(new BeanGroupMemberKey<>("group", "unknown"));
+
+        // A bean is only read from the cache once
+        Assert.assertSame(bean, beans.get("stored"));
+
+        verify(this.cache, times(1)).get(new BeanGroupMemberKey<>("group", "stored"));
+
+        Assert.assertEquals(Collections.singletonMap("stored", bean), this.members.removeUsedBeans());
+        Assert.assertTrue(this.members.removeUsedBeans().isEmpty());
+        Assert.assertFalse(this.members.resetMembershipChanged());
+    }
+
+    @Test
+    public void addBean() {
+        Object bean = new Object();
+
+        this.members.get(this.context).put("added", bean);
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("stored", "added")), this.members.getBeanIds());
+        Assert.assertTrue(this.members.resetMembershipChanged());
+        Assert.assertFalse(this.members.resetMembershipChanged());
+        Assert.assertEquals(Collections.singletonMap("added", bean), this.members.removeUsedBeans());
+
+        verify(this.cache, never()).get(new BeanGroupMemberKey<>("group", "added"));
+    }
+
+    @Test
+    public void removeBean() throws ClassNotFoundException, IOException {
+        MarshalledValue<Object, MarshallingContext> value = mock(MarshalledValue.class);
+        Object bean = new Object();
+
+        when(this.cache.get(new BeanGroupMemberKey<>("group", "stored"))).thenReturn(value);
+        when(value.get(this.context)).thenReturn(bean);
+
+        Map<String, Object> beans = this.members.get(this.context);
+
+        Assert.assertSame(bean, beans.remove("stored"));
+        Assert.assertTrue(this.members.getBeanIds().isEmpty());
+        Assert.assertTrue(this.members.resetMembershipChanged());
+        Assert.assertTrue(this.members.removeUsedBeans().isEmpty());
+
+        verify(this.cache).remove(new BeanGroupMemberKey<>("group", "stored"));
+
+        Assert.assertNull(beans.remove("stored"));
+        Assert.assertFalse(this.members.resetMembershipChanged());
+    }
+}
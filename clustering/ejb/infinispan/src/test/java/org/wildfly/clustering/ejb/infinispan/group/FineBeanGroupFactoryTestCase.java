@@ -0,0 +1,262 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.context.Flag;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.wildfly.clustering.ejb.infinispan.BeanGroup;
+import org.wildfly.clustering.ejb.infinispan.BeanGroupEntry;
+import org.wildfly.clustering.marshalling.MarshalledValue;
+import org.wildfly.clustering.marshalling.MarshalledValueFactory;
+import org.wildfly.clustering.marshalling.MarshallingContext;
+
+public class FineBeanGroupFactoryTestCase {
+    private final AdvancedCache<String, BeanGroupEntry<String, Object>> groupCache = mock(AdvancedCache.class);
+    private final AdvancedCache<BeanGroupMemberKey<String, String>, MarshalledValue<Object, MarshallingContext>> memberCache = mock(AdvancedCache.class);
+    private final MarshalledValueFactory<MarshallingContext> marshalledValueFactory = mock(MarshalledValueFactory.class);
+    private final MarshallingContext context = mock(MarshallingContext.class);
+    // e.g. an interceptor context key
+    private final List<String> sharedReference = new ArrayList<>();
+
+    private final FineBeanGroupFactory<String, String, Object> factory = new FineBeanGroupFactory<>(this.groupCache, this.memberCache, this.marshalledValueFactory, this.context, Collections.<Object>singleton(this.sharedReference));
+
+    @Before
+    public void init() {
+        when(this.groupCache.getAdvancedCache()).thenReturn(this.groupCache);
+        when(this.groupCache.withFlags(Flag.FORCE_SYNCHRONOUS)).thenReturn(this.groupCache);
+        when(this.groupCache.withFlags(Flag.IGNORE_RETURN_VALUES)).thenReturn(this.groupCache);
+        when(this.groupCache.withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD)).thenReturn(this.groupCache);
+        when(this.memberCache.getAdvancedCache()).thenReturn(this.memberCache);
+        when(this.memberCache.withFlags(Flag.IGNORE_RETURN_VALUES)).thenReturn(this.memberCache);
+    }
+
+    @Test
+    public void createValue() throws ClassNotFoundException, IOException {
+        BeanGroupEntry<String, Object> result = this.factory.createValue("group", null);
+
+        Assert.assertTrue(result instanceof FineBeanGroupEntry);
+        Assert.assertTrue(((FineBeanGroupEntry<?, ?, ?>) result).getBeans().getBeanIds().isEmpty());
+
+        verify(this.groupCache).putIfAbsent("group", result);
+
+        FineBeanGroupEntry<String, String, Object> existing = createEntry("group", "bean");
+        Object bean = this.stored("group", "bean");
+
+        when(this.groupCache.putIfAbsent(eq("group"), any(BeanGroupEntry.class))).thenReturn(existing);
+
+        result = this.factory.createValue("group", null);
+
+        Assert.assertSame(existing, result);
+        // Beans of the existing group are read from the member cache
+        Assert.assertSame(bean, existing.getBeans().get(this.context).get("bean"));
+    }
+
+    @Test
+    public void findValue() throws ClassNotFoundException, IOException {
+        Assert.assertNull(this.factory.findValue("group"));
+
+        FineBeanGroupEntry<String, String, Object> entry = createEntry("group", "bean");
+        Object bean = this.stored("group", "bean");
+
+        when(this.groupCache.get("group")).thenReturn(entry);
+
+        Assert.assertSame(entry, this.factory.findValue("group"));
+        Assert.assertSame(bean, entry.getBeans().get(this.context).get("bean"));
+
+        // Groups stored as a single entry are returned as is
+        BeanGroupEntry<String, Object> coarseEntry = new InfinispanBeanGroupEntry<>(mock(MarshalledValue.class));
+
+        when(this.groupCache.get("coarse")).thenReturn(coarseEntry);
+
+        Assert.assertSame(coarseEntry, this.factory.findValue("coarse"));
+    }
+
+    @Test
+    public void mutate() throws ClassNotFoundException, IOException {
+        BeanGroupEntry<String, Object> entry = this.factory.createValue("group", null);
+        BeanGroup<String, String, Object> group = this.factory.createGroup("group", entry);
+        Bean bean1 = new Bean();
+        Bean bean2 = new Bean();
+        MarshalledValue<Object, MarshallingContext> value1 = this.marshal(bean1);
+        MarshalledValue<Object, MarshallingContext> value2 = this.marshal(bean2);
+
+        group.addBean("bean1", bean1);
+        group.addBean("bean2", bean2);
+        group.close();
+
+        verify(this.memberCache).put(new BeanGroupMemberKey<>("group", "bean1"), value1);
+        verify(this.memberCache).put(new BeanGroupMemberKey<>("group", "bean2"), value2);
+        // Membership changed
+        verify(this.groupCache).replace("group", entry);
+
+        // Only the used bean is replicated on subsequent invocations
+        when(this.memberCache.get(new BeanGroupMemberKey<>("group", "bean1"))).thenReturn(value1);
+        when(value1.get(this.context)).thenReturn(bean1);
+
+        group = this.factory.createGroup("group", entry);
+        Assert.assertSame(bean1, group.getBean("bean1", null));
+        group.close();
+
+        verify(this.memberCache, times(2)).put(new BeanGroupMemberKey<>("group", "bean1"), value1);
+        verify(this.memberCache, times(1)).put(new BeanGroupMemberKey<>("group", "bean2"), value2);
+        verify(this.groupCache, times(1)).replace("group", entry);
+        verify(this.groupCache, never()).put(anyString(), any(BeanGroupEntry.class));
+    }
+
+    @Test
+    public void mutateWithSharedReferenceOfContainer() {
+        BeanGroupEntry<String, Object> entry = this.factory.createValue("group", null);
+        BeanGroup<String, String, Object> group = this.factory.createGroup("group", entry);
+        Bean bean1 = new Bean();
+        Bean bean2 = new Bean();
+        bean1.reference = this.sharedReference;
+        bean2.reference = this.sharedReference;
+        MarshalledValue<Object, MarshallingContext> value1 = this.marshal(bean1);
+        MarshalledValue<Object, MarshallingContext> value2 = this.marshal(bean2);
+
+        group.addBean("bean1", bean1);
+        group.addBean("bean2", bean2);
+        group.close();
+
+        verify(this.memberCache).put(new BeanGroupMemberKey<>("group", "bean1"), value1);
+        verify(this.memberCache).put(new BeanGroupMemberKey<>("group", "bean2"), value2);
+        verify(this.groupCache, never()).put(anyString(), any(BeanGroupEntry.class));
+    }
+
+    @Test
+    public void mutateWithSharedReference() throws ClassNotFoundException, IOException {
+        FineBeanGroupEntry<String, String, Object> entry = createEntry("group", "stored");
+        Object storedBean = this.stored("group", "stored");
+
+        when(this.groupCache.get("group")).thenReturn(entry);
+
+        BeanGroup<String, String, Object> group = this.factory.createGroup("group", this.factory.findValue("group"));
+        Bean bean1 = new Bean();
+        Bean bean2 = new Bean();
+        bean1.reference = new ArrayList<>();
+        bean2.reference = bean1.reference;
+        MarshalledValue<Object, MarshallingContext> value = mock(MarshalledValue.class);
+        ArgumentCaptor<Object> capturedBeans = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<BeanGroupEntry> capturedEntry = ArgumentCaptor.forClass(BeanGroupEntry.class);
+
+        when(this.marshalledValueFactory.createMarshalledValue(any())).thenReturn(value);
+
+        group.addBean("bean1", bean1);
+        group.addBean("bean2", bean2);
+        group.close();
+
+        // The group reverts to a single entry containing all of its beans
+        verify(this.marshalledValueFactory).createMarshalledValue(capturedBeans.capture());
+        verify(this.groupCache).put(eq("group"), capturedEntry.capture());
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("stored", storedBean);
+        expected.put("bean1", bean1);
+        expected.put("bean2", bean2);
+        Assert.assertEquals(expected, capturedBeans.getValue());
+        Assert.assertFalse(capturedEntry.getValue() instanceof FineBeanGroupEntry);
+        Assert.assertSame(value, capturedEntry.getValue().getBeans());
+        Assert.assertTrue(entry.getBeans().isDetached());
+
+        verify(this.memberCache, never()).put(any(BeanGroupMemberKey.class), any(MarshalledValue.class));
+        verify(this.memberCache).remove(new BeanGroupMemberKey<>("group", "stored"));
+        verify(this.memberCache).remove(new BeanGroupMemberKey<>("group", "bean1"));
+        verify(this.memberCache).remove(new BeanGroupMemberKey<>("group", "bean2"));
+
+        // A concurrent invocation of the detached group replicates the single entry instead
+        BeanGroupEntry<String, Object> coarseEntry = capturedEntry.getValue();
+
+        when(this.groupCache.get("group")).thenReturn(coarseEntry);
+
+        this.factory.createGroup("group", entry).close();
+
+        verify(this.groupCache).replace("group", coarseEntry);
+    }
+
+    @Test
+    public void remove() {
+        when(this.groupCache.remove("group")).thenReturn(createEntry("group", "bean1", "bean2"));
+
+        this.factory.remove("group");
+
+        verify(this.memberCache).remove(new BeanGroupMemberKey<>("group", "bean1"));
+        verify(this.memberCache).remove(new BeanGroupMemberKey<>("group", "bean2"));
+
+        when(this.groupCache.remove("coarse")).thenReturn(new InfinispanBeanGroupEntry<String, Object>(mock(MarshalledValue.class)));
+
+        this.factory.remove("coarse");
+
+        verify(this.memberCache, times(2)).remove(any(BeanGroupMemberKey.class));
+    }
+
+    @Test
+    public void evict() {
+        when(this.groupCache.get("group")).thenReturn(createEntry("group", "bean"));
+
+        this.factory.evict("group");
+
+        verify(this.memberCache).evict(new BeanGroupMemberKey<>("group", "bean"));
+        verify(this.groupCache).evict("group");
+    }
+
+    private static FineBeanGroupEntry<String, String, Object> createEntry(String groupId, String... beanIds) {
+        return new FineBeanGroupEntry<>(new BeanGroupMembers<String, String, Object>(groupId, new HashSet<>(Arrays.asList(beanIds))));
+    }
+
+    private Object stored(String groupId, String beanId) throws ClassNotFoundException, IOException {
+        MarshalledValue<Object, MarshallingContext> value = mock(MarshalledValue.class);
+        Object bean = new Object();
+        when(this.memberCache.get(new BeanGroupMemberKey<>(groupId, beanId))).thenReturn(value);
+        when(value.get(this.context)).thenReturn(bean);
+        return bean;
+    }
+
+    private MarshalledValue<Object, MarshallingContext> marshal(Object bean) {
+        MarshalledValue<Object, MarshallingContext> value = mock(MarshalledValue.class);
+        when(this.marshalledValueFactory.createMarshalledValue(bean)).thenReturn(value);
+        return value;
+    }
+
+    static class Bean implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        Object reference;
+    }
+}
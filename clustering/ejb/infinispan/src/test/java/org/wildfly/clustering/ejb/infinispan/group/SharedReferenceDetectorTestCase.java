@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan.group;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SharedReferenceDetectorTestCase {
+
+    private final SharedReferenceDetector<String> detector = new SharedReferenceDetector<>();
+
+    @Test
+    public void independent() {
+        Assert.assertFalse(this.detector.update("a", new Bean("shared", 1)));
+        Assert.assertFalse(this.detector.update("b", new Bean("shared", 1)));
+        // Updating the same bean must not detect references to itself
+        Bean bean = new Bean("c", 2);
+        Assert.assertFalse(this.detector.update("c", bean));
+        Assert.assertFalse(this.detector.update("c", bean));
+    }
+
+    @Test
+    public void shared() {
+        List<String> list = new ArrayList<>();
+        Bean bean1 = new Bean("a", 1);
+        bean1.reference = list;
+        Bean bean2 = new Bean("b", 2);
+        bean2.reference = list;
+
+        Assert.assertFalse(this.detector.update("a", bean1));
+        Assert.assertTrue(this.detector.update("b", bean2));
+
+        // Once the other bean no longer references the object, neither does this one share it
+        bean1.reference = new ArrayList<>();
+        Assert.assertFalse(this.detector.update("a", bean1));
+
+        this.detector.remove("a");
+        Assert.assertFalse(this.detector.update("b", bean2));
+    }
+
+    @Test
+    public void ignored() {
+        List<String> list = new ArrayList<>();
+        Bean bean1 = new Bean("a", 1);
+        bean1.reference = list;
+        Bean bean2 = new Bean("b", 2);
+        bean2.reference = list;
+
+        this.detector.ignore(Collections.singleton(list));
+
+        Assert.assertFalse(this.detector.update("a", bean1));
+        Assert.assertFalse(this.detector.update("b", bean2));
+    }
+
+    @Test
+    public void unserializable() {
+        Bean bean = new Bean("a", 1);
+        bean.reference = new Object();
+        Assert.assertTrue(this.detector.update("a", bean));
+    }
+
+    static class Bean implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String name;
+        final Integer value;
+        Object reference;
+
+        Bean(String name, Integer value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
@@ -21,6 +21,8 @@
  */
 package org.wildfly.clustering.ejb;
 
+import java.util.Set;
+
 import org.jboss.modules.ModuleLoader;
 import org.jboss.msc.service.ServiceName;
 
@@ -59,4 +61,11 @@ public interface BeanContext {
      * @return the timeout of this bean
      */
     Time getTimeout();
+
+    /**
+     * Returns the objects that the container shares between all instances of this bean, e.g. interceptor context keys.
+     * These are not considered part of the state of any single bean instance.
+     * @return a set of objects
+     */
+    Set<Object> getSharedReferences();
 }
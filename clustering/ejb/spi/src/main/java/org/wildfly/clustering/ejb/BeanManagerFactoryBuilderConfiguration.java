@@ -30,4 +30,5 @@ public interface BeanManagerFactoryBuilderConfiguration extends BeanPassivationC
 
     String getContainerName();
     String getCacheName();
+    BeanGroupGranularity getGranularity();
 }
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.infinispan.spi.distribution;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.remoting.transport.Address;
+
+/**
+ * {@link Locality} of the keys for which the current node became the primary owner following a change of consistent hash.
+ * When possible, this is determined by segment, so that only the segments whose primary ownership changed need to be considered.
+ */
+public class ConsistentHashChangeLocality implements Locality {
+
+    private final ConsistentHash hash;
+    private final Set<Integer> segments;
+    private final Locality oldLocality;
+    private final Locality newLocality;
+
+    /**
+     * Creates the locality of all keys for which the current node is the primary owner, i.e. as if the current node previously owned nothing.
+     * @param cache a cache
+     */
+    public ConsistentHashChangeLocality(Cache<?, ?> cache) {
+        this(cache.getCacheManager().getAddress(), cache.getAdvancedCache().getDistributionManager());
+    }
+
+    private ConsistentHashChangeLocality(Address localAddress, DistributionManager dist) {
+        this(localAddress, null, (dist != null) ? dist.getConsistentHash() : null, new SimpleLocality(false));
+    }
+
+    /**
+     * Creates the locality of keys for which the current node became the primary owner between the specified consistent hashes.
+     * @param localAddress the address of the current node
+     * @param oldHash the consistent hash prior to the topology change
+     * @param newHash the consistent hash following the topology change
+     */
+    public ConsistentHashChangeLocality(Address localAddress, ConsistentHash oldHash, ConsistentHash newHash) {
+        this(localAddress, oldHash, newHash, new ConsistentHashLocality(localAddress, oldHash));
+    }
+
+    private ConsistentHashChangeLocality(Address localAddress, ConsistentHash oldHash, ConsistentHash newHash, Locality oldLocality) {
+        this.hash = newHash;
+        this.oldLocality = oldLocality;
+        this.newLocality = new ConsistentHashLocality(localAddress, newHash);
+        this.segments = findSegments(localAddress, oldHash, newHash);
+    }
+
+    private static Set<Integer> findSegments(Address localAddress, ConsistentHash oldHash, ConsistentHash newHash) {
+        if ((localAddress == null) || (newHash == null)) return null;
+        Set<Integer> segments = new HashSet<>(newHash.getPrimarySegmentsForOwner(localAddress));
+        if (oldHash != null) {
+            // Segments are only comparable if the number of segments did not change
+            if (oldHash.getNumSegments() != newHash.getNumSegments()) return null;
+            segments.removeAll(oldHash.getPrimarySegmentsForOwner(localAddress));
+        }
+        return segments;
+    }
+
+    /**
+     * Indicates whether the current node is known to not have become the primary owner of any key.
+     * @return true, if no key can be local, false otherwise
+     */
+    public boolean isEmpty() {
+        return (this.segments != null) && this.segments.isEmpty();
+    }
+
+    /**
+     * Returns the number of segments for which the current node became the primary owner, if known.
+     * @return a number of segments, or -1 if ownership cannot be determined by segment.
+     */
+    public int getSegmentCount() {
+        return (this.segments != null) ? this.segments.size() : -1;
+    }
+
+    @Override
+    public boolean isLocal(Object key) {
+        if (this.segments != null) {
+            return this.segments.contains(this.hash.getSegment(key));
+        }
+        return !this.oldLocality.isLocal(key) && this.newLocality.isLocal(key);
+    }
+}
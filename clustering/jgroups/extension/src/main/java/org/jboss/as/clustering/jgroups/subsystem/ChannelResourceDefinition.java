@@ -177,6 +177,7 @@ public class ChannelResourceDefinition extends SimpleResourceDefinition implemen
 
         if (this.allowRuntimeOnlyRegistration) {
             new MetricHandler<>(new ChannelMetricExecutor(), ChannelMetric.class).register(registration);
+            new MetricHandler<>(new CommandDispatcherMetricExecutor(), CommandDispatcherMetric.class).register(registration);
         }
     }
 
@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.jgroups.subsystem;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.clustering.controller.Metric;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.wildfly.clustering.spi.CommandDispatcherStatistics;
+
+/**
+ * Enumerates management metrics of the commands dispatched asynchronously over a channel.
+ */
+public enum CommandDispatcherMetric implements Metric<CommandDispatcherStatistics> {
+
+    ASYNC_COMMANDS(MetricKeys.ASYNC_COMMANDS, ModelType.LONG) {
+        @Override
+        public ModelNode execute(CommandDispatcherStatistics statistics) {
+            return new ModelNode(statistics.getCommandCount());
+        }
+    },
+    ASYNC_COMMAND_MESSAGES(MetricKeys.ASYNC_COMMAND_MESSAGES, ModelType.LONG) {
+        @Override
+        public ModelNode execute(CommandDispatcherStatistics statistics) {
+            return new ModelNode(statistics.getMessageCount());
+        }
+    },
+    ASYNC_COMMAND_MEAN_LATENCY(MetricKeys.ASYNC_COMMAND_MEAN_LATENCY, ModelType.LONG) {
+        @Override
+        public ModelNode execute(CommandDispatcherStatistics statistics) {
+            return new ModelNode(statistics.getMeanLatency(TimeUnit.MICROSECONDS));
+        }
+    },
+    ASYNC_COMMAND_MAX_LATENCY(MetricKeys.ASYNC_COMMAND_MAX_LATENCY, ModelType.LONG) {
+        @Override
+        public ModelNode execute(CommandDispatcherStatistics statistics) {
+            return new ModelNode(statistics.getMaxLatency(TimeUnit.MICROSECONDS));
+        }
+    },
+    ;
+    private final AttributeDefinition definition;
+
+    private CommandDispatcherMetric(String name, ModelType type) {
+        this.definition = new SimpleAttributeDefinitionBuilder(name, type, true).setStorageRuntime().build();
+    }
+
+    @Override
+    public AttributeDefinition getDefinition() {
+        return this.definition;
+    }
+}
@@ -29,6 +29,10 @@ package org.jboss.as.clustering.jgroups.subsystem;
 public class MetricKeys {
     public static final String ADDRESS = "address";
     public static final String ADDRESS_AS_UUID = "address-as-uuid";
+    public static final String ASYNC_COMMANDS = "async-commands";
+    public static final String ASYNC_COMMAND_MAX_LATENCY = "async-command-max-latency";
+    public static final String ASYNC_COMMAND_MEAN_LATENCY = "async-command-mean-latency";
+    public static final String ASYNC_COMMAND_MESSAGES = "async-command-messages";
     public static final String CHANNEL = "channel";
     public static final String DISCARD_OWN_MESSAGES  = "discard-own-messages";
     public static final String NUM_TASKS_IN_TIMER = "num-tasks-in-timer";
@@ -0,0 +1,324 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Compresses the serialized form of a {@link SimpleMarshalledValue} using deflate, optionally primed with a preset dictionary.
+ * Small, similar values (e.g. fine granularity session attributes) compress poorly on their own,
+ * but compress well against a dictionary of the content they share, see {@link #train(Iterable, int)}.
+ * A value compressed using a dictionary can only be decompressed using the same dictionary, so all nodes must use the same dictionary.
+ * The compressed form is distinguished by the high bit of its marshalling version, so that uncompressed values remain readable.
+ */
+public class Compression {
+
+    /**
+     * Compression without a preset dictionary.
+     */
+    public static final Compression NONE = new Compression(null);
+
+    // Serialized forms smaller than this are not worth compressing
+    static final int MIN_COMPRESSIBLE_SIZE = 64;
+
+    // Serialized form header: marshalling version
+    private static final int VERSION_SIZE = 4;
+    // Compressed form header: flagged marshalling version, followed by the size of the uncompressed marshalled object
+    private static final int HEADER_SIZE = 8;
+    private static final int COMPRESSED_FLAG = 0x80000000;
+
+    // Length of the substrings whose sample frequency determines the content of a trained dictionary
+    private static final int GRAM_SIZE = 8;
+    // Length of the sample segments from which a trained dictionary is assembled
+    private static final int SEGMENT_SIZE = 32;
+
+    private final byte[] dictionary;
+    private final int level;
+    // Pools of reset deflaters/inflaters
+    private final Queue<Deflater> deflaters;
+    private final Queue<Inflater> inflaters;
+
+    /**
+     * Creates compression using the default compression level.
+     * @param dictionary a preset dictionary, or null, if none
+     */
+    public Compression(byte[] dictionary) {
+        this(dictionary, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates compression using the specified compression level.
+     * @param dictionary a preset dictionary, or null, if none
+     * @param level a deflate compression level
+     */
+    public Compression(byte[] dictionary, int level) {
+        this.dictionary = ((dictionary != null) && (dictionary.length > 0)) ? dictionary : null;
+        this.level = level;
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        this.deflaters = new ArrayBlockingQueue<>(poolSize);
+        this.inflaters = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Indicates whether the specified serialized form was compressed.
+     * @param bytes a serialized or compressed form
+     * @return true, if the specified bytes are a compressed form, false otherwise
+     */
+    static boolean isCompressed(byte[] bytes) {
+        return (bytes.length >= VERSION_SIZE) && ((bytes[0] & 0x80) != 0);
+    }
+
+    /**
+     * Compresses the specified serialized form, releasing its buffer if compressed.
+     * @param buffer a buffer containing a marshalling version followed by a marshalled object
+     * @return a buffer containing the compressed form, or the specified buffer, if compression would not reduce its size
+     */
+    SerializationBuffer compress(SerializationBuffer buffer) {
+        int size = buffer.size();
+        if (size < MIN_COMPRESSIBLE_SIZE) return buffer;
+        byte[] bytes = buffer.getBuffer();
+        SerializationBuffer result = SerializationBuffer.acquire(size);
+        result.writeInt(SerializationBuffer.readInt(bytes, 0) | COMPRESSED_FLAG);
+        result.writeInt(size - VERSION_SIZE);
+        boolean compressed = false;
+        Deflater deflater = this.acquireDeflater();
+        try {
+            deflater.setInput(bytes, VERSION_SIZE, size - VERSION_SIZE);
+            deflater.finish();
+            // Abandon compression if the compressed form would be no smaller than the serialized form
+            compressed = result.write(deflater, size);
+        } finally {
+            this.release(deflater);
+            if (!compressed) {
+                result.release();
+            }
+        }
+        if (!compressed) return buffer;
+        buffer.release();
+        return result;
+    }
+
+    /**
+     * Decompresses the specified compressed form.
+     * @param bytes a compressed form, as created by {@link #compress(SerializationBuffer)}
+     * @return the serialized form, i.e. a marshalling version followed by a marshalled object
+     * @throws IOException if the compressed form is corrupt, or was compressed using a different dictionary
+     */
+    byte[] decompress(byte[] bytes) throws IOException {
+        if (bytes.length < HEADER_SIZE) throw new EOFException();
+        int size = SerializationBuffer.readInt(bytes, VERSION_SIZE);
+        if (size < 0) throw new ZipException();
+        byte[] result = new byte[VERSION_SIZE + size];
+        int version = SerializationBuffer.readInt(bytes, 0) & ~COMPRESSED_FLAG;
+        for (int i = 0; i < VERSION_SIZE; ++i) {
+            result[i] = (byte) (version >>> (24 - (i * 8)));
+        }
+        int offset = VERSION_SIZE;
+        Inflater inflater = this.acquireInflater();
+        try {
+            inflater.setInput(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            while (!inflater.finished()) {
+                int count = inflater.inflate(result, offset, result.length - offset);
+                offset += count;
+                if (count == 0) {
+                    if (inflater.needsDictionary()) {
+                        this.setDictionary(inflater);
+                    } else if (inflater.needsInput()) {
+                        throw new EOFException();
+                    } else if (offset == result.length) {
+                        throw new ZipException();
+                    }
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        } finally {
+            this.release(inflater);
+        }
+        if (offset != result.length) throw new EOFException();
+        return result;
+    }
+
+    private void setDictionary(Inflater inflater) throws ZipException {
+        if (this.dictionary == null) {
+            throw new ZipException("Compressed form requires a dictionary");
+        }
+        try {
+            inflater.setDictionary(this.dictionary);
+        } catch (IllegalArgumentException e) {
+            // Dictionary checksum mismatch
+            throw new ZipException("Compressed form requires a different dictionary");
+        }
+    }
+
+    private Deflater acquireDeflater() {
+        Deflater deflater = this.deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(this.level);
+        }
+        if (this.dictionary != null) {
+            deflater.setDictionary(this.dictionary);
+        }
+        return deflater;
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+        // If the pool is full, free the native resources of the deflater
+        if (!this.deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private Inflater acquireInflater() {
+        Inflater inflater = this.inflaters.poll();
+        return (inflater != null) ? inflater : new Inflater();
+    }
+
+    private void release(Inflater inflater) {
+        inflater.reset();
+        // If the pool is full, free the native resources of the inflater
+        if (!this.inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Trains a dictionary from the serialized forms of representative values.
+     * The dictionary is assembled from the sample segments containing the most substrings common to multiple samples,
+     * such that the most significant segments appear last, where they are cheapest to reference.
+     * @param samples the serialized forms of representative values
+     * @param size the maximum size of the dictionary.  Deflate can only reference the last 32KB of a dictionary.
+     * @return a dictionary, which is empty if the samples share no content
+     */
+    public static byte[] train(Iterable<byte[]> samples, int size) {
+        // Count the number of samples containing each substring
+        Map<Long, Integer> frequencies = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<Long> grams = new HashSet<>();
+            for (int i = 0; i + GRAM_SIZE <= sample.length; ++i) {
+                grams.add(gram(sample, i));
+            }
+            for (Long gram : grams) {
+                Integer frequency = frequencies.get(gram);
+                frequencies.put(gram, (frequency != null) ? frequency + 1 : 1);
+            }
+        }
+
+        PriorityQueue<Segment> candidates = new PriorityQueue<>();
+        for (byte[] sample : samples) {
+            for (int i = 0; i < sample.length; i += SEGMENT_SIZE / 2) {
+                Segment segment = new Segment(sample, i, Math.min(SEGMENT_SIZE, sample.length - i));
+                if (segment.score(frequencies) > 0) {
+                    candidates.add(segment);
+                }
+            }
+        }
+
+        // Greedily select the segment with the highest score, rescoring lazily, since selecting a segment covers its substrings
+        List<Segment> selected = new ArrayList<>();
+        int remaining = size;
+        while ((remaining > 0) && !candidates.isEmpty()) {
+            Segment segment = candidates.poll();
+            int score = segment.score(frequencies);
+            if (score == 0) continue;
+            Segment next = candidates.peek();
+            if ((next != null) && (score < next.score)) {
+                candidates.add(segment);
+                continue;
+            }
+            for (int i = segment.offset; i + GRAM_SIZE <= segment.offset + segment.length; ++i) {
+                frequencies.remove(gram(segment.sample, i));
+            }
+            selected.add(segment);
+            remaining -= segment.length;
+        }
+
+        byte[] dictionary = new byte[size - Math.max(remaining, 0)];
+        int offset = dictionary.length;
+        for (Segment segment : selected) {
+            int length = Math.min(segment.length, offset);
+            offset -= length;
+            System.arraycopy(segment.sample, segment.offset, dictionary, offset, length);
+        }
+        return dictionary;
+    }
+
+    private static long gram(byte[] bytes, int offset) {
+        long gram = 0;
+        for (int i = 0; i < GRAM_SIZE; ++i) {
+            gram = (gram << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return gram;
+    }
+
+    private static class Segment implements Comparable<Segment> {
+        final byte[] sample;
+        final int offset;
+        final int length;
+        int score;
+
+        Segment(byte[] sample, int offset, int length) {
+            this.sample = sample;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Scores this segment as the total frequency of its distinct substrings that are common to multiple samples, and not yet covered.
+         */
+        int score(Map<Long, Integer> frequencies) {
+            Set<Long> grams = new HashSet<>();
+            int score = 0;
+            for (int i = this.offset; i + GRAM_SIZE <= this.offset + this.length; ++i) {
+                long gram = gram(this.sample, i);
+                Integer frequency = frequencies.get(gram);
+                if ((frequency != null) && (frequency > 1) && grams.add(gram)) {
+                    score += frequency;
+                }
+            }
+            this.score = score;
+            return score;
+        }
+
+        @Override
+        public int compareTo(Segment segment) {
+            // Highest score first
+            return Integer.compare(segment.score, this.score);
+        }
+    }
+}
@@ -35,7 +35,45 @@ public interface MarshallingContext {
 
     int getCurrentVersion();
 
+    /**
+     * Returns the compression applied to the serialized form of marshalled values.
+     * @return a compression, or null, if serialized forms are not compressed
+     */
+    Compression getCompression();
+
     Unmarshaller createUnmarshaller(int version) throws IOException;
 
     Marshaller createMarshaller(int version) throws IOException;
+
+    /**
+     * Returns an unmarshaller for the specified version, reusing a previously released unmarshaller, if available.
+     * An acquired unmarshaller should be released via {@link #release(int, Unmarshaller)} once finished, or closed if it failed.
+     * @param version a marshalling version
+     * @return an unmarshaller
+     * @throws IOException if an unmarshaller could not be created
+     */
+    Unmarshaller acquireUnmarshaller(int version) throws IOException;
+
+    /**
+     * Releases a finished unmarshaller for reuse.
+     * @param version the marshalling version of the unmarshaller
+     * @param unmarshaller an unmarshaller returned by {@link #acquireUnmarshaller(int)}
+     */
+    void release(int version, Unmarshaller unmarshaller);
+
+    /**
+     * Returns a marshaller for the specified version, reusing a previously released marshaller, if available.
+     * An acquired marshaller should be released via {@link #release(int, Marshaller)} once finished, or closed if it failed.
+     * @param version a marshalling version
+     * @return a marshaller
+     * @throws IOException if a marshaller could not be created
+     */
+    Marshaller acquireMarshaller(int version) throws IOException;
+
+    /**
+     * Releases a finished marshaller for reuse.
+     * @param version the marshalling version of the marshaller
+     * @param marshaller a marshaller returned by {@link #acquireMarshaller(int)}
+     */
+    void release(int version, Marshaller marshaller);
 }
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.marshalling;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Reusable buffer into which a {@link SimpleMarshalledValue} is serialized.
+ * Each thread retains a single released buffer, up to a given size, for reuse by its next serialization.
+ * Buffers are allocated in power of 2 size classes, so that a buffer sized for a given value is likely to fit the next value.
+ */
+class SerializationBuffer extends ByteArrayOutputStream {
+
+    static final int MIN_SIZE = 256;
+    static final int MAX_RETAINED_SIZE = 256 * 1024;
+
+    private static final ThreadLocal<SerializationBuffer> BUFFER = new ThreadLocal<>();
+
+    /**
+     * Acquires a buffer for the current thread.
+     * If the buffer retained by the current thread is already in use (i.e. during nested serialization), a new buffer is created.
+     * @param sizeHint the expected size of the serialized form
+     * @return an empty buffer
+     */
+    static SerializationBuffer acquire(int sizeHint) {
+        SerializationBuffer buffer = BUFFER.get();
+        if (buffer == null) {
+            return new SerializationBuffer(sizeClass(sizeHint));
+        }
+        BUFFER.remove();
+        buffer.reset();
+        buffer.ensureCapacity(sizeHint);
+        return buffer;
+    }
+
+    static int sizeClass(int size) {
+        if (size <= MIN_SIZE) return MIN_SIZE;
+        // Round up to the next power of 2, where possible
+        return (size <= (1 << 30)) ? Integer.highestOneBit(size - 1) << 1 : size;
+    }
+
+    SerializationBuffer(int size) {
+        super(size);
+    }
+
+    /**
+     * Releases this buffer, making it available for reuse by the current thread, unless it exceeds the maximum retained size.
+     */
+    void release() {
+        if (this.buf.length <= MAX_RETAINED_SIZE) {
+            BUFFER.set(this);
+        }
+    }
+
+    /**
+     * Returns the internal buffer, whose first {@link #size()} bytes contain the written data.
+     * @return the internal buffer
+     */
+    byte[] getBuffer() {
+        return this.buf;
+    }
+
+    /**
+     * Writes the specified integer in big-endian byte order, as {@link java.io.DataOutput#writeInt(int)}.
+     * @param value an integer
+     */
+    void writeInt(int value) {
+        this.write(value >>> 24);
+        this.write(value >>> 16);
+        this.write(value >>> 8);
+        this.write(value);
+    }
+
+    /**
+     * Reads an integer in big-endian byte order from the specified offset, as written by {@link #writeInt(int)}.
+     * @param bytes a byte array
+     * @param offset the offset of the integer
+     * @return an integer
+     */
+    static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Writes the output of the specified finished deflater, as long as the size of this buffer remains below the specified limit.
+     * @param deflater a deflater whose input is complete
+     * @param limit the size that this buffer must not reach
+     * @return true, if the deflater completed its output, false if its output would reach the limit
+     */
+    boolean write(Deflater deflater, int limit) {
+        this.ensureCapacity(limit);
+        while (!deflater.finished()) {
+            if (this.count >= limit) return false;
+            this.count += deflater.deflate(this.buf, this.count, limit - this.count);
+        }
+        return this.count < limit;
+    }
+
+    /**
+     * Computes a fingerprint of the written data.
+     * @return a fingerprint
+     */
+    long fingerprint() {
+        return fingerprint(this.buf, this.count);
+    }
+
+    static long fingerprint(byte[] bytes, int length) {
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, length);
+        return ((long) length << 32) | checksum.getValue();
+    }
+
+    private void ensureCapacity(int size) {
+        if (this.buf.length < size) {
+            this.buf = new byte[sizeClass(size)];
+        }
+    }
+}
@@ -23,7 +23,7 @@
 package org.wildfly.clustering.marshalling;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -32,8 +32,6 @@ import java.util.Arrays;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.Marshalling;
-import org.jboss.marshalling.SimpleDataInput;
-import org.jboss.marshalling.SimpleDataOutput;
 import org.jboss.marshalling.Unmarshaller;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
@@ -44,10 +42,15 @@ import org.wildfly.security.manager.WildFlySecurityManager;
  */
 public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingContext>, Externalizable {
     private static final long serialVersionUID = -8852566958387608376L;
+    private static final long UNKNOWN_FINGERPRINT = -1L;
 
     private transient volatile MarshallingContext context;
     private transient volatile T object;
     private transient volatile byte[] bytes;
+    // Fingerprint of the serialized form from which the object was last deserialized, or to which it was last serialized
+    private transient volatile long fingerprint = UNKNOWN_FINGERPRINT;
+    // Size of the serialized form from which the object was last deserialized, or to which it was last serialized
+    private transient volatile int size;
 
     public SimpleMarshalledValue(T object, MarshallingContext context) {
         this.context = context;
@@ -67,20 +70,59 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         byte[] bytes = this.bytes;
         if (bytes != null) return bytes;
         if (this.object == null) return null;
-        int version = this.context.getCurrentVersion();
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-        try (SimpleDataOutput data = new SimpleDataOutput(Marshalling.createByteOutput(output))) {
-            data.writeInt(version);
-            try (Marshaller marshaller = this.context.createMarshaller(version)) {
-                marshaller.start(data);
+        SerializationBuffer buffer = this.compress(this.serialize());
+        try {
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Serializes the object into a reusable buffer, which must be released by the caller.
+     * The buffer is presized according to the size of the previous serialized form of this value.
+     */
+    private SerializationBuffer serialize() throws IOException {
+        MarshallingContext context = this.context;
+        int version = context.getCurrentVersion();
+        SerializationBuffer buffer = SerializationBuffer.acquire(this.size);
+        buffer.writeInt(version);
+        boolean serialized = false;
+        ClassLoader loader = setThreadContextClassLoader(context.getClassLoader());
+        try {
+            Marshaller marshaller = context.acquireMarshaller(version);
+            boolean finished = false;
+            try {
+                marshaller.start(Marshalling.createByteOutput(buffer));
                 marshaller.writeObject(this.object);
                 marshaller.finish();
-                return output.toByteArray();
+                finished = true;
+            } finally {
+                if (finished) {
+                    context.release(version, marshaller);
+                } else {
+                    marshaller.close();
+                }
             }
+            serialized = true;
         } finally {
             setThreadContextClassLoader(loader);
+            if (!serialized) {
+                buffer.release();
+            }
         }
+        this.size = buffer.size();
+        return buffer;
+    }
+
+    /**
+     * Compresses the specified serialized form, if so configured by the marshalling context.
+     * @param buffer a buffer containing the serialized form
+     * @return a buffer containing the compressed form, or the specified buffer, if not compressed
+     */
+    private SerializationBuffer compress(SerializationBuffer buffer) {
+        Compression compression = this.context.getCompression();
+        return (compression != null) ? compression.compress(buffer) : buffer;
     }
 
     /**
@@ -91,17 +133,34 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
     public synchronized T get(MarshallingContext context) throws IOException, ClassNotFoundException {
         if (this.object == null) {
             this.context = context;
-            if (this.bytes != null) {
-                ByteArrayInputStream input = new ByteArrayInputStream(this.bytes);
+            byte[] bytes = this.bytes;
+            if (bytes != null) {
+                if (bytes.length < 4) throw new EOFException();
+                if (Compression.isCompressed(bytes)) {
+                    Compression compression = context.getCompression();
+                    bytes = ((compression != null) ? compression : Compression.NONE).decompress(bytes);
+                }
+                int version = SerializationBuffer.readInt(bytes, 0);
+                ByteArrayInputStream input = new ByteArrayInputStream(bytes, 4, bytes.length - 4);
                 ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-                try (SimpleDataInput data = new SimpleDataInput(Marshalling.createByteInput(input))) {
-                    int version = data.readInt();
-                    try (Unmarshaller unmarshaller = context.createUnmarshaller(version)) {
-                        unmarshaller.start(data);
+                try {
+                    Unmarshaller unmarshaller = context.acquireUnmarshaller(version);
+                    boolean finished = false;
+                    try {
+                        unmarshaller.start(Marshalling.createByteInput(input));
                         this.object = (T) unmarshaller.readObject();
                         unmarshaller.finish();
-                        this.bytes = null; // Free up memory
+                        finished = true;
+                    } finally {
+                        if (finished) {
+                            context.release(version, unmarshaller);
+                        } else {
+                            unmarshaller.close();
+                        }
                     }
+                    this.fingerprint = SerializationBuffer.fingerprint(bytes, bytes.length);
+                    this.size = bytes.length;
+                    this.bytes = null; // Free up memory
                 } finally {
                     setThreadContextClassLoader(loader);
                 }
@@ -110,6 +169,23 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         return this.object;
     }
 
+    /**
+     * Indicates whether the serialized form of the object differs from the serialized form from which it was last deserialized, or to which it was last serialized.
+     * This compares a fingerprint of each serialized form, and so requires the object to be serialized.
+     * @return true, if the serialized form of the object changed or is not known, false otherwise.
+     * @throws IOException if the object could not be serialized
+     */
+    public boolean isModified() throws IOException {
+        long fingerprint = this.fingerprint;
+        if ((fingerprint == UNKNOWN_FINGERPRINT) || (this.object == null)) return true;
+        SerializationBuffer buffer = this.serialize();
+        try {
+            return buffer.fingerprint() != fingerprint;
+        } finally {
+            buffer.release();
+        }
+    }
+
     /**
      * {@inheritDoc}
      * N.B. Calls to hashCode will return 0 if this marshalled value was deserialized but its object not yet rehydrated.
@@ -147,10 +223,21 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
 
     @Override
     public void writeExternal(ObjectOutput out) throws IOException {
-        byte[] bytes = this.getBytes();
+        byte[] bytes = this.bytes;
         if (bytes != null) {
             out.writeInt(bytes.length);
             out.write(bytes);
+        } else if (this.object != null) {
+            // Write directly from the serialization buffer, avoiding a copy
+            SerializationBuffer buffer = this.serialize();
+            this.fingerprint = buffer.fingerprint();
+            buffer = this.compress(buffer);
+            try {
+                out.writeInt(buffer.size());
+                out.write(buffer.getBuffer(), 0, buffer.size());
+            } finally {
+                buffer.release();
+            }
         } else {
             out.writeInt(0);
         }
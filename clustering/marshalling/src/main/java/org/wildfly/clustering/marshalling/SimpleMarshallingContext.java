@@ -24,6 +24,10 @@ package org.wildfly.clustering.marshalling;
 
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.MarshallerFactory;
@@ -38,11 +42,22 @@ public class SimpleMarshallingContext implements MarshallingContext {
     private final MarshallerFactory factory;
     private final VersionedMarshallingConfiguration configuration;
     private final WeakReference<ClassLoader> loader;
+    // Pools of finished marshallers/unmarshallers, per marshalling version
+    private final ConcurrentMap<Integer, Queue<Marshaller>> marshallers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Queue<Unmarshaller>> unmarshallers = new ConcurrentHashMap<>();
+    private final int poolSize;
+    private final Compression compression;
 
     public SimpleMarshallingContext(MarshallerFactory factory, VersionedMarshallingConfiguration configuration, ClassLoader loader) {
+        this(factory, configuration, loader, null);
+    }
+
+    public SimpleMarshallingContext(MarshallerFactory factory, VersionedMarshallingConfiguration configuration, ClassLoader loader, Compression compression) {
         this.factory = factory;
         this.configuration = configuration;
         this.loader = new WeakReference<>(loader);
+        this.poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        this.compression = compression;
     }
 
     @Override
@@ -55,6 +70,11 @@ public class SimpleMarshallingContext implements MarshallingContext {
         return this.configuration.getCurrentMarshallingVersion();
     }
 
+    @Override
+    public Compression getCompression() {
+        return this.compression;
+    }
+
     @Override
     public Unmarshaller createUnmarshaller(int version) throws IOException {
         return this.factory.createUnmarshaller(this.getMarshallingConfiguration(version));
@@ -65,6 +85,42 @@ public class SimpleMarshallingContext implements MarshallingContext {
         return this.factory.createMarshaller(this.getMarshallingConfiguration(version));
     }
 
+    @Override
+    public Unmarshaller acquireUnmarshaller(int version) throws IOException {
+        Unmarshaller unmarshaller = this.getPool(this.unmarshallers, version).poll();
+        return (unmarshaller != null) ? unmarshaller : this.createUnmarshaller(version);
+    }
+
+    @Override
+    public void release(int version, Unmarshaller unmarshaller) {
+        // If the pool is full, just discard
+        this.getPool(this.unmarshallers, version).offer(unmarshaller);
+    }
+
+    @Override
+    public Marshaller acquireMarshaller(int version) throws IOException {
+        Marshaller marshaller = this.getPool(this.marshallers, version).poll();
+        return (marshaller != null) ? marshaller : this.createMarshaller(version);
+    }
+
+    @Override
+    public void release(int version, Marshaller marshaller) {
+        // If the pool is full, just discard
+        this.getPool(this.marshallers, version).offer(marshaller);
+    }
+
+    private <T> Queue<T> getPool(ConcurrentMap<Integer, Queue<T>> pools, int version) {
+        Queue<T> pool = pools.get(version);
+        if (pool == null) {
+            Queue<T> newPool = new ArrayBlockingQueue<>(this.poolSize);
+            pool = pools.putIfAbsent(version, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
     private MarshallingConfiguration getMarshallingConfiguration(int version) {
         return this.configuration.getMarshallingConfiguration(version);
     }
@@ -22,4 +22,15 @@ public class SimpleMarshallingContextFactory implements MarshallingContextFactor
     public SimpleMarshallingContext createMarshallingContext(VersionedMarshallingConfiguration configuration, ClassLoader loader) {
         return new SimpleMarshallingContext(this.factory, configuration, loader);
     }
+
+    /**
+     * Creates a marshalling context whose marshalled values compress their serialized form.
+     * @param configuration a versioned marshalling configuration
+     * @param loader a class loader
+     * @param compression the compression of serialized forms
+     * @return a marshalling context
+     */
+    public SimpleMarshallingContext createMarshallingContext(VersionedMarshallingConfiguration configuration, ClassLoader loader, Compression compression) {
+        return new SimpleMarshallingContext(this.factory, configuration, loader, compression);
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for a {@link SimpleMarshalledValue} whose serialized form is compressed.
+ */
+public class CompressedMarshalledValueFactoryTestCase extends SimpleMarshalledValueFactoryTestCase {
+
+    public CompressedMarshalledValueFactoryTestCase() {
+        super(Compression.NONE);
+    }
+
+    @Test
+    public void compressed() throws Exception {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            list.add("attribute" + i);
+        }
+        SimpleMarshalledValue<List<String>> mv = this.factory.createMarshalledValue(list);
+        assertTrue(Compression.isCompressed(mv.getBytes()));
+
+        SimpleMarshalledValue<List<String>> copy = this.replicate(mv);
+        assertTrue(copy.equals(mv));
+        assertEquals(list, copy.get(this.context));
+        assertFalse(mv.isModified());
+        assertFalse(copy.isModified());
+
+        copy.get(this.context).add("foo");
+        assertTrue(copy.isModified());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.clustering.marshalling;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.ZipException;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link Compression}.
+ */
+public class CompressionTestCase {
+
+    @Test
+    public void uncompressible() throws IOException {
+        SerializationBuffer buffer = serialize(7, "foo");
+        assertTrue(buffer.size() < Compression.MIN_COMPRESSIBLE_SIZE);
+        assertSame(buffer, Compression.NONE.compress(buffer));
+        buffer.release();
+
+        // Random content does not compress
+        byte[] random = new byte[1024];
+        new Random(0).nextBytes(random);
+        buffer = SerializationBuffer.acquire(0);
+        buffer.writeInt(7);
+        buffer.write(random);
+        assertSame(buffer, Compression.NONE.compress(buffer));
+        assertFalse(Compression.isCompressed(buffer.toByteArray()));
+        buffer.release();
+    }
+
+    @Test
+    public void compress() throws IOException {
+        Compression compression = Compression.NONE;
+        SerializationBuffer buffer = serialize(7, createProfile(new Random(0)));
+        byte[] expected = buffer.toByteArray();
+        SerializationBuffer compressed = compression.compress(buffer);
+        try {
+            assertNotSame(buffer, compressed);
+            byte[] bytes = compressed.toByteArray();
+            assertTrue(bytes.length < expected.length);
+            assertTrue(Compression.isCompressed(bytes));
+            assertFalse(Compression.isCompressed(expected));
+            assertArrayEquals(expected, compression.decompress(bytes));
+
+            // Truncated
+            try {
+                compression.decompress(Arrays.copyOf(bytes, bytes.length - 1));
+                fail();
+            } catch (IOException e) {
+                // Expected
+            }
+        } finally {
+            compressed.release();
+        }
+    }
+
+    @Test
+    public void dictionary() throws IOException {
+        List<byte[]> samples = new ArrayList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 100; ++i) {
+            samples.add(toByteArray(serialize(7, createProfile(random))));
+        }
+        byte[] dictionary = Compression.train(samples, 4096);
+        assertTrue(dictionary.length > 0);
+        assertTrue(dictionary.length <= 4096);
+
+        Compression compression = new Compression(dictionary);
+        byte[] expected = toByteArray(serialize(7, createProfile(random)));
+        byte[] bytes = toByteArray(compression.compress(serialize(7, createProfile(new Random(1)))));
+        assertTrue(Compression.isCompressed(bytes));
+        assertArrayEquals(toByteArray(serialize(7, createProfile(new Random(1)))), compression.decompress(bytes));
+        assertFalse(Arrays.equals(expected, compression.decompress(bytes)));
+
+        // Decompression requires the same dictionary
+        try {
+            Compression.NONE.decompress(bytes);
+            fail();
+        } catch (ZipException e) {
+            // Expected
+        }
+        try {
+            new Compression(Arrays.copyOf(dictionary, dictionary.length - 1)).decompress(bytes);
+            fail();
+        } catch (ZipException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Compares the size of a sequence of small, similar values when uncompressed, compressed without a dictionary,
+     * and compressed using a dictionary trained from a distinct sequence of similar values.
+     */
+    @Test
+    public void trainedDictionarySize() throws IOException {
+        Random random = new Random(0);
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            samples.add(toByteArray(serialize(7, createProfile(random))));
+        }
+        Compression compression = new Compression(Compression.train(samples, 16 * 1024));
+
+        int uncompressedSize = 0;
+        int compressedSize = 0;
+        int dictionaryCompressedSize = 0;
+        for (int i = 0; i < 200; ++i) {
+            Object profile = createProfile(random);
+            uncompressedSize += toByteArray(serialize(7, profile)).length;
+            compressedSize += toByteArray(Compression.NONE.compress(serialize(7, profile))).length;
+            dictionaryCompressedSize += toByteArray(compression.compress(serialize(7, profile))).length;
+        }
+        assertTrue(compressedSize < uncompressedSize);
+        // A trained dictionary should at least halve the size of values compressed without one
+        assertTrue(String.format("%d, %d, %d", uncompressedSize, compressedSize, dictionaryCompressedSize), dictionaryCompressedSize * 2 < compressedSize);
+    }
+
+    private static SerializationBuffer serialize(int version, Object object) throws IOException {
+        SerializationBuffer buffer = SerializationBuffer.acquire(0);
+        buffer.writeInt(version);
+        try (ObjectOutputStream output = new ObjectOutputStream(buffer)) {
+            output.writeObject(object);
+        }
+        return buffer;
+    }
+
+    private static byte[] toByteArray(SerializationBuffer buffer) {
+        try {
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static final Locale[] LOCALES = new Locale[] { Locale.US, Locale.UK, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN };
+    private static final String[] ROLES = new String[] { "user", "admin", "auditor", "guest", "manager" };
+
+    static Object createProfile(Random random) {
+        UserProfile profile = new UserProfile();
+        profile.id = UUID.nameUUIDFromBytes(Long.toString(random.nextLong()).getBytes());
+        profile.name = "user" + random.nextInt(100000);
+        profile.email = profile.name + "@example.com";
+        profile.locale = LOCALES[random.nextInt(LOCALES.length)];
+        profile.lastLogin = new Date(1440000000000L + random.nextInt(Integer.MAX_VALUE));
+        for (int i = 0; i <= random.nextInt(3); ++i) {
+            profile.roles.add(ROLES[random.nextInt(ROLES.length)]);
+        }
+        return profile;
+    }
+
+    static class UserProfile implements Serializable {
+        private static final long serialVersionUID = -3456618862389958419L;
+
+        UUID id;
+        String name;
+        String email;
+        Locale locale;
+        Date lastLogin;
+        List<String> roles = new ArrayList<>();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.marshalling;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SerializationBuffer}.
+ */
+public class SerializationBufferTestCase {
+
+    @Test
+    public void reuse() throws IOException {
+        SerializationBuffer buffer = SerializationBuffer.acquire(0);
+        buffer.writeInt(0x01020304);
+        buffer.write(new byte[] { 5, 6 });
+
+        assertEquals(6, buffer.size());
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6 }, buffer.toByteArray());
+        assertEquals(0x01020304, new DataInputStream(new ByteArrayInputStream(buffer.getBuffer())).readInt());
+
+        // Nested acquisition must not reuse a buffer that is in use
+        SerializationBuffer nested = SerializationBuffer.acquire(0);
+        assertNotSame(buffer, nested);
+        nested.release();
+
+        buffer.release();
+
+        SerializationBuffer reused = SerializationBuffer.acquire(0);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.size());
+        reused.release();
+    }
+
+    @Test
+    public void sizeHint() {
+        SerializationBuffer buffer = SerializationBuffer.acquire(1000);
+        assertEquals(1024, buffer.getBuffer().length);
+        buffer.release();
+
+        // Released buffer is grown to accommodate the size hint
+        SerializationBuffer reused = SerializationBuffer.acquire(3000);
+        assertSame(buffer, reused);
+        assertEquals(4096, reused.getBuffer().length);
+        reused.release();
+    }
+
+    @Test
+    public void oversized() {
+        SerializationBuffer buffer = SerializationBuffer.acquire(SerializationBuffer.MAX_RETAINED_SIZE + 1);
+        buffer.release();
+
+        assertNotSame(buffer, SerializationBuffer.acquire(0));
+    }
+
+    @Test
+    public void sizeClass() {
+        assertEquals(SerializationBuffer.MIN_SIZE, SerializationBuffer.sizeClass(0));
+        assertEquals(SerializationBuffer.MIN_SIZE, SerializationBuffer.sizeClass(SerializationBuffer.MIN_SIZE));
+        assertEquals(512, SerializationBuffer.sizeClass(SerializationBuffer.MIN_SIZE + 1));
+        assertEquals(1 << 30, SerializationBuffer.sizeClass((1 << 30) - 1));
+        assertEquals((1 << 30) + 1, SerializationBuffer.sizeClass((1 << 30) + 1));
+    }
+
+    @Test
+    public void fingerprint() {
+        SerializationBuffer buffer = SerializationBuffer.acquire(0);
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        buffer.write(bytes, 0, bytes.length);
+
+        assertEquals(SerializationBuffer.fingerprint(bytes, bytes.length), buffer.fingerprint());
+        assertNotEquals(SerializationBuffer.fingerprint(bytes, 2), buffer.fingerprint());
+        assertNotEquals(SerializationBuffer.fingerprint(Arrays.copyOf(bytes, 4), 4), buffer.fingerprint());
+        buffer.release();
+    }
+}
@@ -28,6 +28,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.jboss.marshalling.Marshalling;
@@ -45,10 +47,14 @@ import org.wildfly.clustering.marshalling.VersionedMarshallingConfiguration;
  * @author Brian Stansberry
  */
 public class SimpleMarshalledValueFactoryTestCase {
-    private final MarshallingContext context;
-    private final SimpleMarshalledValueFactory factory;
+    final MarshallingContext context;
+    final SimpleMarshalledValueFactory factory;
     
     public SimpleMarshalledValueFactoryTestCase() {
+        this(null);
+    }
+
+    SimpleMarshalledValueFactoryTestCase(Compression compression) {
         VersionedMarshallingConfiguration configuration = new VersionedMarshallingConfiguration() {
             @Override
             public int getCurrentMarshallingVersion() {
@@ -61,7 +67,7 @@ public class SimpleMarshalledValueFactoryTestCase {
                 return new MarshallingConfiguration();
             }
         };
-        this.context = new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader());
+        this.context = new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration, Thread.currentThread().getContextClassLoader(), compression);
         this.factory = this.createFactory(this.context);
     }
 
@@ -144,6 +150,36 @@ public class SimpleMarshalledValueFactoryTestCase {
         assertEquals(0, mv.hashCode());
     }
 
+    /**
+     * Test method for {@link org.wildfly.clustering.marshalling.SimpleMarshalledValue#isModified()}.
+     */
+    @Test
+    public void isModified() throws Exception {
+        List<String> list = new ArrayList<>();
+        list.add("foo");
+        SimpleMarshalledValue<List<String>> mv = this.factory.createMarshalledValue(list);
+
+        // Serialized form is not yet known
+        assertTrue(mv.isModified());
+
+        SimpleMarshalledValue<List<String>> copy = replicate(mv);
+
+        assertFalse(mv.isModified());
+
+        List<String> copyList = copy.get(this.context);
+
+        assertFalse(copy.isModified());
+
+        copyList.add("bar");
+
+        assertTrue(copy.isModified());
+        assertFalse(mv.isModified());
+
+        list.set(0, "bar");
+
+        assertTrue(mv.isModified());
+    }
+
     <T> void validateHashCode(T original, SimpleMarshalledValue<T> copy) {
         assertEquals(0, copy.hashCode());
     }
@@ -0,0 +1,261 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import org.jgroups.Address;
+import org.jgroups.blocks.MessageDispatcher;
+import org.wildfly.clustering.dispatcher.AsyncCommandDispatcher;
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.group.Node;
+import org.wildfly.clustering.group.NodeFactory;
+
+/**
+ * MessageDispatcher-based asynchronous command dispatcher.
+ * Commands submitted to the cluster within the bundling window are sent together in a single message,
+ * per set of excluded nodes, up to a maximum number of commands per message.
+ *
+ * @param <C> command execution context
+ */
+public class ChannelAsyncCommandDispatcher<C> extends ChannelCommandDispatcher<C> implements AsyncCommandDispatcher<C> {
+
+    static final int MAX_BUNDLE_SIZE = 64;
+
+    private final AsyncCommandDispatcher<C> localDispatcher;
+    private final ScheduledExecutorService scheduler;
+    private final long window;
+    private final SimpleCommandDispatcherStatistics statistics;
+    // Pending bundles per set of excluded nodes
+    private final Map<Set<Node>, Bundle> bundles = new HashMap<>();
+
+    public ChannelAsyncCommandDispatcher(MessageDispatcher dispatcher, CommandMarshaller<C> marshaller, NodeFactory<Address> factory, long timeout, AsyncCommandDispatcher<C> localDispatcher, ScheduledExecutorService scheduler, long window, TimeUnit unit, SimpleCommandDispatcherStatistics statistics) {
+        super(dispatcher, marshaller, factory, timeout, localDispatcher);
+        this.localDispatcher = localDispatcher;
+        this.scheduler = scheduler;
+        this.window = unit.toNanos(window);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public <R> CompletionStage<R> submitOnNodeAsync(Command<R, C> command, Node node) {
+        // Bypass MessageDispatcher if target node is local
+        if (this.isLocal(node)) {
+            return this.localDispatcher.submitOnNodeAsync(command, node);
+        }
+        return this.sendAsync(command, node);
+    }
+
+    @Override
+    public <R> CompletionStage<Map<Node, CommandResponse<R>>> submitOnClusterAsync(Command<R, C> command, Node... excludedNodes) {
+        Set<Node> excluded = ((excludedNodes != null) && (excludedNodes.length > 0)) ? new HashSet<>(Arrays.asList(excludedNodes)) : Collections.<Node>emptySet();
+        PendingCommand<R> pending = new PendingCommand<>(command);
+        Bundle full = null;
+        synchronized (this.bundles) {
+            Bundle bundle = this.bundles.get(excluded);
+            if (bundle == null) {
+                bundle = new Bundle(excluded);
+                this.bundles.put(excluded, bundle);
+                final Bundle scheduled = bundle;
+                Runnable task = new Runnable() {
+                    @Override
+                    public void run() {
+                        ChannelAsyncCommandDispatcher.this.flush(scheduled);
+                    }
+                };
+                try {
+                    this.scheduler.schedule(task, this.window, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Factory was closed, so send without delay
+                    full = bundle;
+                }
+            }
+            bundle.add(pending);
+            if ((full != null) || (bundle.size() >= MAX_BUNDLE_SIZE)) {
+                this.bundles.remove(excluded);
+                full = bundle;
+            }
+        }
+        if (full != null) {
+            this.send(full);
+        }
+        return pending.getResult();
+    }
+
+    @Override
+    public <R, A> CompletionStage<A> submitOnClusterAsync(Command<R, C> command, A identity, BiFunction<A, ? super R, A> reducer, Node... excludedNodes) {
+        return this.submitOnClusterAsync(command, excludedNodes).thenApply(new CommandResponseReducer<R, A>(identity, reducer));
+    }
+
+    /**
+     * Sends all pending commands.
+     */
+    @Override
+    public void close() {
+        List<Bundle> pending;
+        synchronized (this.bundles) {
+            pending = new ArrayList<>(this.bundles.values());
+            this.bundles.clear();
+        }
+        for (Bundle bundle: pending) {
+            this.send(bundle);
+        }
+    }
+
+    void flush(Bundle bundle) {
+        synchronized (this.bundles) {
+            // Bundle may have already been sent, if it filled up before the window elapsed
+            if (this.bundles.get(bundle.getExcludedNodes()) != bundle) return;
+            this.bundles.remove(bundle.getExcludedNodes());
+        }
+        this.send(bundle);
+    }
+
+    private void send(Bundle bundle) {
+        final List<PendingCommand<?>> commands = bundle.getCommands();
+        Set<Node> excluded = bundle.getExcludedNodes();
+        Node[] excludedNodes = excluded.toArray(new Node[excluded.size()]);
+        this.statistics.messageSent(commands.size());
+        if (commands.size() == 1) {
+            this.send(commands.get(0), excludedNodes);
+            return;
+        }
+        List<Command<?, C>> bundledCommands = new ArrayList<>(commands.size());
+        for (PendingCommand<?> command: commands) {
+            bundledCommands.add(command.getCommand());
+        }
+        BiConsumer<Map<Node, CommandResponse<Object[]>>, Throwable> action = new BiConsumer<Map<Node, CommandResponse<Object[]>>, Throwable>() {
+            @Override
+            public void accept(Map<Node, CommandResponse<Object[]>> responses, Throwable exception) {
+                for (int i = 0; i < commands.size(); ++i) {
+                    PendingCommand<?> command = commands.get(i);
+                    if (exception != null) {
+                        command.fail(exception);
+                    } else {
+                        command.complete(getCommandResponses(responses, i));
+                    }
+                }
+            }
+        };
+        this.castAsync(new CommandBundle<>(bundledCommands), excludedNodes).whenComplete(action);
+    }
+
+    private <R> void send(final PendingCommand<R> command, Node[] excludedNodes) {
+        BiConsumer<Map<Node, CommandResponse<R>>, Throwable> action = new BiConsumer<Map<Node, CommandResponse<R>>, Throwable>() {
+            @Override
+            public void accept(Map<Node, CommandResponse<R>> responses, Throwable exception) {
+                if (exception != null) {
+                    command.fail(exception);
+                } else {
+                    command.complete(responses);
+                }
+            }
+        };
+        this.castAsync(command.getCommand(), excludedNodes).whenComplete(action);
+    }
+
+    static Map<Node, CommandResponse<Object>> getCommandResponses(Map<Node, CommandResponse<Object[]>> responses, int index) {
+        Map<Node, CommandResponse<Object>> results = new HashMap<>();
+        for (Map.Entry<Node, CommandResponse<Object[]>> entry: responses.entrySet()) {
+            CommandResponse<Object> response;
+            try {
+                Object result = entry.getValue().get()[index];
+                response = (result instanceof CommandBundle.Failure) ? new SimpleCommandResponse<>(((CommandBundle.Failure) result).getCause()) : new SimpleCommandResponse<>(result);
+            } catch (ExecutionException e) {
+                // The bundle as a whole failed on this node
+                response = new SimpleCommandResponse<>(e);
+            }
+            results.put(entry.getKey(), response);
+        }
+        return results;
+    }
+
+    private class Bundle {
+        private final Set<Node> excludedNodes;
+        private final List<PendingCommand<?>> commands = new ArrayList<>();
+
+        Bundle(Set<Node> excludedNodes) {
+            this.excludedNodes = excludedNodes;
+        }
+
+        Set<Node> getExcludedNodes() {
+            return this.excludedNodes;
+        }
+
+        List<PendingCommand<?>> getCommands() {
+            return this.commands;
+        }
+
+        void add(PendingCommand<?> command) {
+            this.commands.add(command);
+        }
+
+        int size() {
+            return this.commands.size();
+        }
+    }
+
+    private class PendingCommand<R> {
+        private final Command<R, C> command;
+        private final CompletableFuture<Map<Node, CommandResponse<R>>> result = new CompletableFuture<>();
+        private final long start = System.nanoTime();
+
+        PendingCommand(Command<R, C> command) {
+            this.command = command;
+        }
+
+        Command<R, C> getCommand() {
+            return this.command;
+        }
+
+        CompletableFuture<Map<Node, CommandResponse<R>>> getResult() {
+            return this.result;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        void complete(Map responses) {
+            ChannelAsyncCommandDispatcher.this.statistics.commandCompleted(System.nanoTime() - this.start);
+            this.result.complete(responses);
+        }
+
+        void fail(Throwable exception) {
+            ChannelAsyncCommandDispatcher.this.statistics.commandCompleted(System.nanoTime() - this.start);
+            this.result.completeExceptionally(exception);
+        }
+    }
+}
@@ -28,6 +28,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -39,7 +41,9 @@ import org.jgroups.blocks.MessageDispatcher;
 import org.jgroups.blocks.RequestOptions;
 import org.jgroups.blocks.ResponseMode;
 import org.jgroups.blocks.RspFilter;
+import org.jgroups.util.FutureListener;
 import org.jgroups.util.Rsp;
+import org.jgroups.util.RspList;
 import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandResponse;
@@ -85,7 +89,66 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
     public <R> Map<Node, CommandResponse<R>> executeOnCluster(Command<R, C> command, Node... excludedNodes) throws Exception {
         RequestOptions options = this.createRequestOptions(excludedNodes);
         Map<Address, Rsp<R>> responses = this.dispatcher.castMessage(null, this.createMessage(command), options);
+        return this.createCommandResponses(responses);
+    }
+
+    /**
+     * Sends the specified command to all nodes in the group, excluding the specified nodes, without waiting for their responses.
+     * @param command the command to execute
+     * @param excludedNodes the set of nodes to exclude
+     * @return a completion stage of the command execution results per node
+     */
+    <R> CompletionStage<Map<Node, CommandResponse<R>>> castAsync(Command<R, C> command, Node... excludedNodes) {
+        final CompletableFuture<Map<Node, CommandResponse<R>>> result = new CompletableFuture<>();
+        FutureListener<RspList<R>> listener = new FutureListener<RspList<R>>() {
+            @Override
+            public void futureDone(Future<RspList<R>> future) {
+                try {
+                    result.complete(ChannelCommandDispatcher.this.createCommandResponses(future.get()));
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+        try {
+            this.dispatcher.castMessageWithFuture(null, this.createMessage(command), this.createRequestOptions(excludedNodes), listener);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
 
+    /**
+     * Sends the specified command to the specified remote node, without waiting for its response.
+     * @param command the command to execute
+     * @param node the node to execute the command on
+     * @return a completion stage of the command execution result
+     */
+    <R> CompletionStage<R> sendAsync(Command<R, C> command, Node node) {
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        FutureListener<R> listener = new FutureListener<R>() {
+            @Override
+            public void futureDone(Future<R> future) {
+                try {
+                    result.complete(future.get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+        try {
+            this.dispatcher.sendMessageWithFuture(this.createMessage(command, node), this.createRequestOptions(), listener);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private <R> Map<Node, CommandResponse<R>> createCommandResponses(Map<Address, Rsp<R>> responses) {
         Map<Node, CommandResponse<R>> results = new HashMap<>();
         for (Map.Entry<Address, Rsp<R>> entry: responses.entrySet()) {
             Address address = entry.getKey();
@@ -94,7 +157,6 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
                 results.put(this.factory.createNode(address), createCommandResponse(response));
             }
         }
-
         return results;
     }
 
@@ -177,7 +239,7 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
         }
     }
 
-    private boolean isLocal(Node node) {
+    boolean isLocal(Node node) {
         return this.getLocalAddress().equals(getAddress(node));
     }
 
@@ -21,21 +21,29 @@
  */
 package org.wildfly.clustering.server.dispatcher;
 
+import static java.security.AccessController.doPrivileged;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.Marshalling;
 import org.jboss.marshalling.Unmarshaller;
+import org.jboss.threads.JBossThreadFactory;
 import org.jgroups.Address;
 import org.jgroups.Channel;
 import org.jgroups.MembershipListener;
@@ -47,6 +55,7 @@ import org.jgroups.blocks.RequestCorrelator;
 import org.jgroups.blocks.RequestHandler;
 import org.jgroups.blocks.RpcDispatcher;
 import org.jgroups.stack.Protocol;
+import org.wildfly.clustering.dispatcher.AsyncCommandDispatcher;
 import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
@@ -54,6 +63,8 @@ import org.wildfly.clustering.group.Group;
 import org.wildfly.clustering.group.Node;
 import org.wildfly.clustering.marshalling.MarshallingContext;
 import org.wildfly.clustering.server.group.JGroupsNodeFactory;
+import org.wildfly.clustering.spi.CommandDispatcherStatistics;
+import org.wildfly.clustering.spi.CommandDispatcherStatisticsProvider;
 
 /**
  * {@link MessageDispatcher} based {@link CommandDispatcherFactory}.
@@ -61,7 +72,10 @@ import org.wildfly.clustering.server.group.JGroupsNodeFactory;
  * all of which will share the same {@link MessageDispatcher} instance.
  * @author Paul Ferraro
  */
-public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory, RequestHandler, AutoCloseable, Group, MembershipListener {
+public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory, CommandDispatcherStatisticsProvider, RequestHandler, AutoCloseable, Group, MembershipListener {
+
+    // Window within which commands submitted to the cluster via an asynchronous dispatcher are bundled, in microseconds
+    private static final long BUNDLE_WINDOW = 500;
 
     final Map<Object, AtomicReference<Object>> contexts = new ConcurrentHashMap<>();
     final MarshallingContext marshallingContext;
@@ -71,6 +85,10 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
     private final MessageDispatcher dispatcher;
     private final JGroupsNodeFactory nodeFactory;
     private final long timeout;
+    // Created along with the first asynchronous dispatcher, as most factories never create one
+    private ScheduledExecutorService scheduler = null;
+    private boolean closed = false;
+    private final SimpleCommandDispatcherStatistics statistics = new SimpleCommandDispatcherStatistics();
 
     public ChannelCommandDispatcherFactory(ChannelCommandDispatcherFactoryConfiguration config) {
         this.nodeFactory = config.getNodeFactory();
@@ -93,11 +111,42 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
         this.view.compareAndSet(null, channel.getView());
     }
 
+    private static ThreadFactory createThreadFactory() {
+        return doPrivileged(new PrivilegedAction<ThreadFactory>() {
+            @Override
+            public ThreadFactory run() {
+                return new JBossThreadFactory(new ThreadGroup(ChannelAsyncCommandDispatcher.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+            }
+        });
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (this.scheduler == null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(createThreadFactory());
+            if (this.closed) {
+                // Dispatchers created after close send their commands without delay
+                this.scheduler.shutdown();
+            }
+        }
+        return this.scheduler;
+    }
+
     @Override
     public void close() {
+        synchronized (this) {
+            this.closed = true;
+            if (this.scheduler != null) {
+                this.scheduler.shutdown();
+            }
+        }
         this.dispatcher.stop();
     }
 
+    @Override
+    public CommandDispatcherStatistics getStatistics() {
+        return this.statistics;
+    }
+
     @Override
     public Object handle(Message message) throws Exception {
         try (InputStream input = new ByteArrayInputStream(message.getRawBuffer(), message.getOffset(), message.getLength())) {
@@ -121,8 +170,37 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
 
     @Override
     public <C> CommandDispatcher<C> createCommandDispatcher(final Object id, C context) {
+        CommandMarshaller<C> marshaller = this.createCommandMarshaller(id);
+        this.contexts.put(id, new AtomicReference<Object>(context));
+        final CommandDispatcher<C> localDispatcher = new LocalCommandDispatcher<>(this.getLocalNode(), context);
+        return new ChannelCommandDispatcher<C>(this.dispatcher, marshaller, this.nodeFactory, this.timeout, localDispatcher) {
+            @Override
+            public void close() {
+                localDispatcher.close();
+                ChannelCommandDispatcherFactory.this.contexts.remove(id);
+            }
+        };
+    }
+
+    @Override
+    public <C> AsyncCommandDispatcher<C> createAsyncCommandDispatcher(final Object id, C context) {
+        CommandMarshaller<C> marshaller = this.createCommandMarshaller(id);
+        this.contexts.put(id, new AtomicReference<Object>(context));
+        final AsyncCommandDispatcher<C> localDispatcher = new LocalCommandDispatcher<>(this.getLocalNode(), context);
+        return new ChannelAsyncCommandDispatcher<C>(this.dispatcher, marshaller, this.nodeFactory, this.timeout, localDispatcher, this.getScheduler(), BUNDLE_WINDOW, TimeUnit.MICROSECONDS, this.statistics) {
+            @Override
+            public void close() {
+                // Send pending commands before removing the local context
+                super.close();
+                localDispatcher.close();
+                ChannelCommandDispatcherFactory.this.contexts.remove(id);
+            }
+        };
+    }
+
+    private <C> CommandMarshaller<C> createCommandMarshaller(final Object id) {
         final int version = this.marshallingContext.getCurrentVersion();
-        CommandMarshaller<C> marshaller = new CommandMarshaller<C>() {
+        return new CommandMarshaller<C>() {
             @Override
             public <R> byte[] marshal(Command<R, C> command) throws IOException {
                 try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
@@ -137,15 +215,6 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
                 }
             }
         };
-        this.contexts.put(id, new AtomicReference<Object>(context));
-        final CommandDispatcher<C> localDispatcher = new LocalCommandDispatcher<>(this.getLocalNode(), context);
-        return new ChannelCommandDispatcher<C>(this.dispatcher, marshaller, this.nodeFactory, this.timeout, localDispatcher) {
-            @Override
-            public void close() {
-                localDispatcher.close();
-                ChannelCommandDispatcherFactory.this.contexts.remove(id);
-            }
-        };
     }
 
     @Override
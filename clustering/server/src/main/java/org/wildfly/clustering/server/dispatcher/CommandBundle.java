@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.wildfly.clustering.dispatcher.Command;
+
+/**
+ * A command that executes a number of commands that were sent together in a single message.
+ * The result of each command, or its failure, is returned at the position of that command.
+ *
+ * @param <C> command execution context
+ */
+public class CommandBundle<C> implements Command<Object[], C> {
+    private static final long serialVersionUID = -5106375683436823417L;
+
+    private final List<Command<?, C>> commands;
+
+    public CommandBundle(List<Command<?, C>> commands) {
+        this.commands = commands;
+    }
+
+    @Override
+    public Object[] execute(C context) {
+        Object[] results = new Object[this.commands.size()];
+        for (int i = 0; i < results.length; ++i) {
+            try {
+                results[i] = this.commands.get(i).execute(context);
+            } catch (Throwable e) {
+                results[i] = new Failure(e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The failure of a bundled command.
+     */
+    public static class Failure implements Serializable {
+        private static final long serialVersionUID = 3946826427395416452L;
+
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+
+        public Throwable getCause() {
+            return this.cause;
+        }
+    }
+}
@@ -35,6 +35,6 @@ public class CommandDispatcherClassTableContributor implements ClassTableContrib
 
     @Override
     public Collection<Class<?>> getKnownClasses() {
-        return Arrays.<Class<?>>asList(Command.class, NoSuchService.class);
+        return Arrays.<Class<?>>asList(Command.class, NoSuchService.class, CommandBundle.class, CommandBundle.Failure.class);
     }
 }
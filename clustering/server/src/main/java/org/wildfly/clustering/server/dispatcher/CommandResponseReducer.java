@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.group.Node;
+
+/**
+ * Combines the responses of a command executed on a number of nodes into a single value.
+ *
+ * @param <R> the command response type
+ * @param <A> the aggregate type
+ */
+class CommandResponseReducer<R, A> implements Function<Map<Node, CommandResponse<R>>, A> {
+
+    private final A identity;
+    private final BiFunction<A, ? super R, A> reducer;
+
+    CommandResponseReducer(A identity, BiFunction<A, ? super R, A> reducer) {
+        this.identity = identity;
+        this.reducer = reducer;
+    }
+
+    @Override
+    public A apply(Map<Node, CommandResponse<R>> responses) {
+        A result = this.identity;
+        for (CommandResponse<R> response: responses.values()) {
+            try {
+                result = this.reducer.apply(result, response.get());
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            }
+        }
+        return result;
+    }
+}
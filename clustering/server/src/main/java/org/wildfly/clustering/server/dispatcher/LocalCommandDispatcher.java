@@ -28,14 +28,18 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
+import java.util.function.BiFunction;
 
 import org.jboss.threads.JBossThreadFactory;
 import org.jgroups.Address;
 import org.jgroups.UnreachableException;
+import org.wildfly.clustering.dispatcher.AsyncCommandDispatcher;
 import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandResponse;
@@ -46,7 +50,7 @@ import org.wildfly.clustering.group.Node;
  * @author Paul Ferraro
  * @param <C> command context
  */
-public class LocalCommandDispatcher<C> implements CommandDispatcher<C> {
+public class LocalCommandDispatcher<C> implements AsyncCommandDispatcher<C> {
 
     final C context;
     private final Node node;
@@ -107,6 +111,41 @@ public class LocalCommandDispatcher<C> implements CommandDispatcher<C> {
         return Collections.singletonMap(this.node, this.submitOnNode(command, this.node));
     }
 
+    @Override
+    public <R> CompletionStage<R> submitOnNodeAsync(final Command<R, C> command, Node node) {
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.complete(command.execute(LocalCommandDispatcher.this.context));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+        this.executor.execute(task);
+        return result;
+    }
+
+    @Override
+    public <R> CompletionStage<Map<Node, CommandResponse<R>>> submitOnClusterAsync(final Command<R, C> command, final Node... excludedNodes) {
+        final CompletableFuture<Map<Node, CommandResponse<R>>> result = new CompletableFuture<>();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                result.complete(LocalCommandDispatcher.this.executeOnCluster(command, excludedNodes));
+            }
+        };
+        this.executor.execute(task);
+        return result;
+    }
+
+    @Override
+    public <R, A> CompletionStage<A> submitOnClusterAsync(Command<R, C> command, A identity, BiFunction<A, ? super R, A> reducer, Node... excludedNodes) {
+        return this.submitOnClusterAsync(command, excludedNodes).thenApply(new CommandResponseReducer<R, A>(identity, reducer));
+    }
+
     @Override
     public void close() {
         this.executor.shutdown();
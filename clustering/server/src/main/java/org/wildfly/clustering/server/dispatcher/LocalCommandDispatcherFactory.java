@@ -21,6 +21,7 @@
  */
 package org.wildfly.clustering.server.dispatcher;
 
+import org.wildfly.clustering.dispatcher.AsyncCommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.group.Group;
@@ -46,4 +47,9 @@ public class LocalCommandDispatcherFactory implements CommandDispatcherFactory {
     public <C> CommandDispatcher<C> createCommandDispatcher(Object id, C context) {
         return new LocalCommandDispatcher<>(this.group.getLocalNode(), context);
     }
+
+    @Override
+    public <C> AsyncCommandDispatcher<C> createAsyncCommandDispatcher(Object id, C context) {
+        return new LocalCommandDispatcher<>(this.group.getLocalNode(), context);
+    }
 }
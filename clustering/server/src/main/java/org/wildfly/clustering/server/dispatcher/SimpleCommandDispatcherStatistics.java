@@ -0,0 +1,82 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.wildfly.clustering.spi.CommandDispatcherStatistics;
+
+/**
+ * Collects the statistics of the commands submitted via asynchronous command dispatchers.
+ */
+public class SimpleCommandDispatcherStatistics implements CommandDispatcherStatistics {
+
+    private final AtomicLong commandCount = new AtomicLong();
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * Records a message sent on behalf of the specified number of commands.
+     * @param commands a number of commands
+     */
+    void messageSent(int commands) {
+        this.messageCount.incrementAndGet();
+        this.commandCount.addAndGet(commands);
+    }
+
+    /**
+     * Records the completion of a command.
+     * @param latency the duration since the command was submitted, in nanoseconds
+     */
+    void commandCompleted(long latency) {
+        this.completedCount.incrementAndGet();
+        this.totalLatency.addAndGet(latency);
+        long currentMax = this.maxLatency.get();
+        while ((latency > currentMax) && !this.maxLatency.compareAndSet(currentMax, latency)) {
+            currentMax = this.maxLatency.get();
+        }
+    }
+
+    @Override
+    public long getCommandCount() {
+        return this.commandCount.get();
+    }
+
+    @Override
+    public long getMessageCount() {
+        return this.messageCount.get();
+    }
+
+    @Override
+    public long getMeanLatency(TimeUnit unit) {
+        long count = this.completedCount.get();
+        return (count > 0) ? unit.convert(this.totalLatency.get() / count, TimeUnit.NANOSECONDS) : 0;
+    }
+
+    @Override
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(this.maxLatency.get(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.jgroups.Address;
+import org.jgroups.Channel;
+import org.jgroups.Message;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.util.FutureListener;
+import org.jgroups.util.Rsp;
+import org.jgroups.util.RspList;
+import org.wildfly.clustering.dispatcher.AsyncCommandDispatcher;
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.group.Node;
+import org.wildfly.clustering.group.NodeFactory;
+import org.wildfly.clustering.server.Addressable;
+
+public class ChannelAsyncCommandDispatcherTestCase {
+
+    private final MessageDispatcher messageDispatcher = mock(MessageDispatcher.class);
+    @SuppressWarnings("unchecked")
+    private final CommandMarshaller<Object> marshaller = mock(CommandMarshaller.class);
+    @SuppressWarnings("unchecked")
+    private final NodeFactory<Address> nodeFactory = mock(NodeFactory.class);
+    @SuppressWarnings("unchecked")
+    private final AsyncCommandDispatcher<Object> localDispatcher = mock(AsyncCommandDispatcher.class);
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final SimpleCommandDispatcherStatistics statistics = new SimpleCommandDispatcherStatistics();
+    private final Address localAddress = mock(Address.class);
+    private final Address remoteAddress = mock(Address.class);
+    private final Node remoteNode = mock(Node.class);
+
+    private ChannelAsyncCommandDispatcher<Object> dispatcher;
+
+    @Before
+    public void init() throws Exception {
+        Channel channel = mock(Channel.class);
+        when(this.messageDispatcher.getChannel()).thenReturn(channel);
+        when(channel.getAddress()).thenReturn(this.localAddress);
+        when(this.nodeFactory.createNode(this.remoteAddress)).thenReturn(this.remoteNode);
+        when(this.marshaller.marshal(any(Command.class))).thenReturn(new byte[0]);
+        this.dispatcher = new ChannelAsyncCommandDispatcher<>(this.messageDispatcher, this.marshaller, this.nodeFactory, 1000L, this.localDispatcher, this.scheduler, 1, TimeUnit.MILLISECONDS, this.statistics);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void bundle() throws Exception {
+        Command<Object, Object> command1 = mock(Command.class);
+        Command<Object, Object> command2 = mock(Command.class);
+        Exception exception = new Exception();
+        this.respond(new Object[] { "1", new CommandBundle.Failure(exception) });
+
+        CompletionStage<Map<Node, CommandResponse<Object>>> result1 = this.dispatcher.submitOnClusterAsync(command1);
+        CompletionStage<Map<Node, CommandResponse<Object>>> result2 = this.dispatcher.submitOnClusterAsync(command2);
+
+        // Both commands are pending within the same window
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.scheduler).schedule(task.capture(), eq(TimeUnit.MILLISECONDS.toNanos(1)), same(TimeUnit.NANOSECONDS));
+        verifyZeroInteractions(this.marshaller);
+        assertFalse(result1.toCompletableFuture().isDone());
+
+        task.getValue().run();
+
+        ArgumentCaptor<Command> sent = ArgumentCaptor.forClass(Command.class);
+        verify(this.marshaller).marshal(sent.capture());
+        assertTrue(sent.getValue() instanceof CommandBundle);
+
+        Map<Node, CommandResponse<Object>> responses1 = result1.toCompletableFuture().get();
+        assertEquals(1, responses1.size());
+        assertEquals("1", responses1.get(this.remoteNode).get());
+
+        Map<Node, CommandResponse<Object>> responses2 = result2.toCompletableFuture().get();
+        try {
+            responses2.get(this.remoteNode).get();
+            fail("Failure of bundled command was not propagated");
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+
+        assertEquals(2, this.statistics.getCommandCount());
+        assertEquals(1, this.statistics.getMessageCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void single() throws Exception {
+        Command<Object, Object> command = mock(Command.class);
+        this.respond("1");
+
+        CompletionStage<Map<Node, CommandResponse<Object>>> result = this.dispatcher.submitOnClusterAsync(command);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.scheduler).schedule(task.capture(), anyLong(), any(TimeUnit.class));
+        task.getValue().run();
+
+        // A single pending command is sent as is
+        verify(this.marshaller).marshal(same(command));
+        assertEquals("1", result.toCompletableFuture().get().get(this.remoteNode).get());
+        assertEquals(1, this.statistics.getCommandCount());
+        assertEquals(1, this.statistics.getMessageCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void full() throws Exception {
+        this.respond(new Object[ChannelAsyncCommandDispatcher.MAX_BUNDLE_SIZE]);
+
+        for (int i = 0; i < ChannelAsyncCommandDispatcher.MAX_BUNDLE_SIZE; ++i) {
+            this.dispatcher.submitOnClusterAsync(mock(Command.class));
+        }
+
+        // Bundle is sent as soon as it is full, without waiting for the window to elapse
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.scheduler).schedule(task.capture(), anyLong(), any(TimeUnit.class));
+        verify(this.marshaller).marshal(any(CommandBundle.class));
+
+        // The scheduled flush must not send the bundle again
+        task.getValue().run();
+        verify(this.marshaller, times(1)).marshal(any(Command.class));
+        assertEquals(ChannelAsyncCommandDispatcher.MAX_BUNDLE_SIZE, this.statistics.getCommandCount());
+        assertEquals(1, this.statistics.getMessageCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void excludedNodes() throws Exception {
+        Node excludedNode = mock(Node.class, withSettings().extraInterfaces(Addressable.class));
+        when(((Addressable) excludedNode).getAddress()).thenReturn(mock(Address.class));
+
+        this.dispatcher.submitOnClusterAsync(mock(Command.class));
+        this.dispatcher.submitOnClusterAsync(mock(Command.class), excludedNode);
+
+        // Commands excluding different nodes are bundled separately
+        verify(this.scheduler, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void close() throws Exception {
+        Command<Object, Object> command = mock(Command.class);
+        this.respond("1");
+
+        CompletionStage<Map<Node, CommandResponse<Object>>> result = this.dispatcher.submitOnClusterAsync(command);
+
+        this.dispatcher.close();
+
+        verify(this.marshaller).marshal(same(command));
+        assertTrue(result.toCompletableFuture().isDone());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void rejected() throws Exception {
+        Command<Object, Object> command = mock(Command.class);
+        this.respond("1");
+        when(this.scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenThrow(new RejectedExecutionException());
+
+        CompletionStage<Map<Node, CommandResponse<Object>>> result = this.dispatcher.submitOnClusterAsync(command);
+
+        // Commands are sent without delay once the scheduler is shut down
+        verify(this.marshaller).marshal(same(command));
+        assertTrue(result.toCompletableFuture().isDone());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void failure() throws Exception {
+        Command<Object, Object> command = mock(Command.class);
+        final Exception exception = new Exception();
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                CompletableFuture<RspList<Object>> future = new CompletableFuture<>();
+                future.completeExceptionally(exception);
+                ((FutureListener<RspList<Object>>) invocation.getArguments()[3]).futureDone(future);
+                return null;
+            }
+        }).when(this.messageDispatcher).castMessageWithFuture(any(Collection.class), any(Message.class), any(RequestOptions.class), any(FutureListener.class));
+
+        CompletionStage<Map<Node, CommandResponse<Object>>> result = this.dispatcher.submitOnClusterAsync(command);
+        this.dispatcher.close();
+
+        try {
+            result.toCompletableFuture().get();
+            fail("Failure to send command was not propagated");
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void local() throws Exception {
+        Command<Object, Object> command = mock(Command.class);
+        Node localNode = mock(Node.class, withSettings().extraInterfaces(Addressable.class));
+        when(((Addressable) localNode).getAddress()).thenReturn(this.localAddress);
+        CompletionStage<Object> expected = CompletableFuture.<Object>completedFuture("1");
+        when(this.localDispatcher.submitOnNodeAsync(command, localNode)).thenReturn(expected);
+
+        // Commands for the local node bypass the channel
+        assertSame(expected, this.dispatcher.submitOnNodeAsync(command, localNode));
+        verifyZeroInteractions(this.marshaller);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respond(final Object value) throws Exception {
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                RspList<Object> responses = new RspList<>();
+                responses.put(ChannelAsyncCommandDispatcherTestCase.this.remoteAddress, new Rsp<>(ChannelAsyncCommandDispatcherTestCase.this.remoteAddress, value));
+                ((FutureListener<RspList<Object>>) invocation.getArguments()[3]).futureDone(CompletableFuture.completedFuture(responses));
+                return null;
+            }
+        }).when(this.messageDispatcher).castMessageWithFuture(any(Collection.class), any(Message.class), any(RequestOptions.class), any(FutureListener.class));
+    }
+}
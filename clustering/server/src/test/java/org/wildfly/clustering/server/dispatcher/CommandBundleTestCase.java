@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.wildfly.clustering.dispatcher.Command;
+
+public class CommandBundleTestCase {
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void execute() throws Exception {
+        Object context = new Object();
+        Command<Object, Object> command1 = mock(Command.class);
+        Command<Object, Object> command2 = mock(Command.class);
+        Command<Object, Object> command3 = mock(Command.class);
+        Exception exception = new Exception();
+
+        when(command1.execute(context)).thenReturn("1");
+        when(command2.execute(context)).thenThrow(exception);
+        when(command3.execute(context)).thenReturn(null);
+
+        List<Command<?, Object>> commands = Arrays.<Command<?, Object>>asList(command1, command2, command3);
+        Object[] results = new CommandBundle<>(commands).execute(context);
+
+        assertEquals(3, results.length);
+        assertEquals("1", results[0]);
+        assertTrue(results[1] instanceof CommandBundle.Failure);
+        assertSame(exception, ((CommandBundle.Failure) results[1]).getCause());
+        assertNull(results[2]);
+
+        // A failing command must not prevent the execution of subsequent commands
+        verify(command3).execute(context);
+    }
+}
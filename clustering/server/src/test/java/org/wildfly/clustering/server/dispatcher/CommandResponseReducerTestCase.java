@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+
+import org.junit.Test;
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.group.Node;
+
+public class CommandResponseReducerTestCase {
+
+    private static final BiFunction<Integer, Integer, Integer> SUM = new BiFunction<Integer, Integer, Integer>() {
+        @Override
+        public Integer apply(Integer result, Integer value) {
+            return result + value;
+        }
+    };
+
+    @Test
+    public void apply() {
+        Map<Node, CommandResponse<Integer>> responses = new HashMap<>();
+        responses.put(mock(Node.class), new SimpleCommandResponse<>(1));
+        responses.put(mock(Node.class), new SimpleCommandResponse<>(2));
+
+        assertEquals(3, new CommandResponseReducer<>(0, SUM).apply(responses).intValue());
+        assertEquals(10, new CommandResponseReducer<>(10, SUM).apply(new HashMap<Node, CommandResponse<Integer>>()).intValue());
+    }
+
+    @Test
+    public void failure() {
+        Exception exception = new Exception();
+        Map<Node, CommandResponse<Integer>> responses = new HashMap<>();
+        responses.put(mock(Node.class), new SimpleCommandResponse<>(1));
+        responses.put(mock(Node.class), new SimpleCommandResponse<Integer>(exception));
+
+        try {
+            new CommandResponseReducer<>(0, SUM).apply(responses);
+            fail("Failed response was not propagated");
+        } catch (CompletionException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+}
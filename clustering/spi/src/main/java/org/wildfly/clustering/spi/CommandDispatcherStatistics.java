@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.spi;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes statistics of the commands submitted to the cluster via asynchronous command dispatchers.
+ */
+public interface CommandDispatcherStatistics {
+
+    /**
+     * Returns the number of commands submitted for execution on the cluster.
+     * @return a number of commands
+     */
+    long getCommandCount();
+
+    /**
+     * Returns the number of messages used to send the submitted commands.
+     * @return a number of messages
+     */
+    long getMessageCount();
+
+    /**
+     * Returns the mean duration between the submission of a command and the completion of its responses.
+     * @param unit the unit of the returned duration
+     * @return a duration
+     */
+    long getMeanLatency(TimeUnit unit);
+
+    /**
+     * Returns the maximum duration between the submission of a command and the completion of its responses.
+     * @param unit the unit of the returned duration
+     * @return a duration
+     */
+    long getMaxLatency(TimeUnit unit);
+}
@@ -21,49 +21,77 @@
  */
 package org.wildfly.clustering.web.infinispan;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.infinispan.Cache;
-import org.infinispan.affinity.KeyAffinityService;
-import org.infinispan.affinity.KeyGenerator;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.manager.EmbeddedCacheManager;
-import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
+import org.infinispan.remoting.transport.Address;
+import org.wildfly.clustering.web.IdentifierAffinityStatistics;
 import org.wildfly.clustering.web.IdentifierFactory;
 
 /**
- * {@link IdentifierFactory} that uses a {@link KeyAffinityService} to generate identifiers.
+ * {@link IdentifierFactory} that generates identifiers whose primary owner, according to the current consistent hash, is the local member.
+ * Identifiers are generated on demand, by retrying the decorated factory until it yields a locally owned identifier.
+ * Unlike a {@link org.infinispan.affinity.KeyAffinityService}, this never waits for a queue of pregenerated identifiers to be replenished.
+ * If no locally owned identifier is generated within a bounded number of attempts (e.g. if the local member owns no segments), a non-local identifier is returned.
  * @author Paul Ferraro
  * @param <K> the key type
  */
-public class AffinityIdentifierFactory<K> implements IdentifierFactory<K>, KeyGenerator<K> {
+public class AffinityIdentifierFactory<K> implements IdentifierFactory<K>, IdentifierAffinityStatistics {
+
+    // Number of attempts per expected attempt to generate a locally owned identifier, i.e. a failure probability of ~e^-8
+    static final int ATTEMPTS_PER_EXPECTED_ATTEMPT = 8;
+    // Bounds the cost of generating an identifier if the local member owns few segments, i.e. less than 1/32 of them.
+    // The failure probability then rises to ~e^-(256 * owned fraction), e.g. ~8% if the local member owns 1% of the segments.
+    static final int MAX_ATTEMPTS = 256;
 
     private final IdentifierFactory<K> factory;
-    private final KeyAffinityService<K> affinity;
+    private final Cache<K, ?> cache;
     private final EmbeddedCacheManager manager;
+    private final AtomicLong nonLocalIdentifiers = new AtomicLong();
 
-    public AffinityIdentifierFactory(IdentifierFactory<K> factory, Cache<K, ?> cache, KeyAffinityServiceFactory affinityFactory) {
+    public AffinityIdentifierFactory(IdentifierFactory<K> factory, Cache<K, ?> cache) {
         this.factory = factory;
-        this.affinity = affinityFactory.createService(cache, this);
+        this.cache = cache;
         this.manager = cache.getCacheManager();
     }
 
     @Override
     public K createIdentifier() {
-        return this.affinity.getKeyForAddress(this.manager.getAddress());
+        K id = this.factory.createIdentifier();
+        Address address = this.manager.getAddress();
+        DistributionManager dist = this.cache.getAdvancedCache().getDistributionManager();
+        // Any identifier is local if the cache is not distributed
+        if ((address == null) || (dist == null)) return id;
+        ConsistentHash hash = dist.getConsistentHash();
+        if (address.equals(hash.locatePrimaryOwner(id))) return id;
+        int segments = hash.getPrimarySegmentsForOwner(address).size();
+        if (segments > 0) {
+            // A generated identifier is locally owned with a probability of the fraction of segments whose primary owner is the local member
+            int attempts = Math.min(ATTEMPTS_PER_EXPECTED_ATTEMPT * hash.getNumSegments() / segments, MAX_ATTEMPTS);
+            for (int i = 1; i < attempts; ++i) {
+                id = this.factory.createIdentifier();
+                if (address.equals(hash.locatePrimaryOwner(id))) return id;
+            }
+        }
+        this.nonLocalIdentifiers.incrementAndGet();
+        return id;
     }
 
     @Override
-    public K getKey() {
-        return this.factory.createIdentifier();
+    public long getNonLocalIdentifierCount() {
+        return this.nonLocalIdentifiers.get();
     }
 
     @Override
     public void start() {
         this.factory.start();
-        this.affinity.start();
     }
 
     @Override
     public void stop() {
-        this.affinity.stop();
         this.factory.stop();
     }
 }
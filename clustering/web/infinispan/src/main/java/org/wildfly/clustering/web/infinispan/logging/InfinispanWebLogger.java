@@ -80,4 +80,7 @@ public interface InfinispanWebLogger extends BasicLogger {
     @LogMessage(level = WARN)
     @Message(id = 10, value = "Failed to activate authentication for single sign on %s")
     void failedToActivateAuthentication(@Cause Throwable cause, String ssoId);
+
+    @Message(id = 11, value = "Compression dictionary %s was not found in deployment %s")
+    IllegalArgumentException compressionDictionaryNotFound(String dictionary, String deploymentName);
 }
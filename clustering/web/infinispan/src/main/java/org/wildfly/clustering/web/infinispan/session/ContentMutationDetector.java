@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.wildfly.clustering.ee.infinispan.Mutator;
+import org.wildfly.clustering.marshalling.SimpleMarshalledValue;
+
+/**
+ * Defers the replication of session attributes that were read, but whose immutability could not be established by {@link MutableDetector},
+ * until the session is closed, via {@link #mutate()}.
+ * At that point, only those attributes whose marshalled form differs from the marshalled form with which they were loaded are replicated.
+ * A detector is created per session per request.
+ */
+public class ContentMutationDetector implements Mutator {
+
+    private final Map<Object, Map.Entry<Object, Mutator>> mutations = new ConcurrentHashMap<>();
+    private final AtomicLong suppressedMutations;
+
+    /**
+     * Creates a new detector.
+     * @param suppressedMutations counts the mutations suppressed since the marshalled form of their attribute did not change
+     */
+    public ContentMutationDetector(AtomicLong suppressedMutations) {
+        this.suppressedMutations = suppressedMutations;
+    }
+
+    /**
+     * Defers the specified mutation of a session attribute until this session is closed.
+     * @param key the cache key of the session attribute
+     * @param value the marshalled value of the session attribute
+     * @param mutator the mutator of the session attribute
+     */
+    public void defer(Object key, Object value, Mutator mutator) {
+        if (value instanceof SimpleMarshalledValue) {
+            this.mutations.putIfAbsent(key, new AbstractMap.SimpleImmutableEntry<>(value, mutator));
+        } else {
+            mutator.mutate();
+        }
+    }
+
+    /**
+     * Cancels any deferred mutation of the session attribute with the specified key, since it was replaced or removed.
+     * @param key the cache key of a session attribute
+     */
+    public void cancel(Object key) {
+        this.mutations.remove(key);
+    }
+
+    /**
+     * Returns a mutator that defers the specified mutation of a session attribute until this session is closed.
+     * @param key the cache key of the session attribute
+     * @param value the marshalled value of the session attribute
+     * @param mutator the mutator of the session attribute
+     * @return a deferring mutator
+     */
+    public Mutator createDeferredMutator(final Object key, final Object value, final Mutator mutator) {
+        return new Mutator() {
+            @Override
+            public void mutate() {
+                ContentMutationDetector.this.defer(key, value, mutator);
+            }
+        };
+    }
+
+    /**
+     * Returns a mutator that cancels any deferred mutation of a session attribute, and mutates it immediately.
+     * @param key the cache key of the session attribute
+     * @param mutator the mutator of the session attribute
+     * @return an immediate mutator
+     */
+    public Mutator createImmediateMutator(final Object key, final Mutator mutator) {
+        return new Mutator() {
+            @Override
+            public void mutate() {
+                ContentMutationDetector.this.cancel(key);
+                mutator.mutate();
+            }
+        };
+    }
+
+    /**
+     * Returns a mutator that replicates any deferred session attributes whose marshalled form changed, before mutating the specified session.
+     * @param mutator the mutator of the session meta data
+     * @return a session mutator
+     */
+    public Mutator createSessionMutator(final Mutator mutator) {
+        return new Mutator() {
+            @Override
+            public void mutate() {
+                ContentMutationDetector.this.mutate();
+                mutator.mutate();
+            }
+        };
+    }
+
+    /**
+     * Replicates those deferred session attributes whose marshalled form changed.
+     */
+    @Override
+    public void mutate() {
+        for (Map.Entry<Object, Mutator> mutation : this.mutations.values()) {
+            if (isModified((SimpleMarshalledValue<?>) mutation.getKey())) {
+                mutation.getValue().mutate();
+            } else {
+                this.suppressedMutations.incrementAndGet();
+            }
+        }
+        this.mutations.clear();
+    }
+
+    private static boolean isModified(SimpleMarshalledValue<?> value) {
+        try {
+            return value.isModified();
+        } catch (IOException e) {
+            // Let replication report the failure
+            return true;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -55,7 +56,6 @@ import org.infinispan.stream.CacheCollectors;
 import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
-import org.wildfly.clustering.ee.Batch;
 import org.wildfly.clustering.ee.Batcher;
 import org.wildfly.clustering.ee.Invoker;
 import org.wildfly.clustering.ee.Recordable;
@@ -63,14 +63,16 @@ import org.wildfly.clustering.ee.infinispan.RetryingInvoker;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.group.Node;
 import org.wildfly.clustering.group.NodeFactory;
+import org.wildfly.clustering.infinispan.spi.distribution.ConsistentHashChangeLocality;
 import org.wildfly.clustering.infinispan.spi.distribution.ConsistentHashLocality;
 import org.wildfly.clustering.infinispan.spi.distribution.Locality;
-import org.wildfly.clustering.infinispan.spi.distribution.SimpleLocality;
+import org.wildfly.clustering.web.IdentifierAffinityStatistics;
 import org.wildfly.clustering.web.IdentifierFactory;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 import org.wildfly.clustering.web.session.ImmutableHttpSessionAdapter;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 import org.wildfly.clustering.web.session.Session;
 import org.wildfly.clustering.web.session.SessionAttributes;
 import org.wildfly.clustering.web.session.SessionContext;
@@ -83,6 +85,9 @@ import org.wildfly.clustering.web.session.SessionMetaData;
  */
 @Listener(primaryOnly = true)
 public class InfinispanSessionManager<V, L> implements SessionManager<L, TransactionBatch> {
+    // Interval, in number of sessions, at which to report progress of scheduling following a topology change
+    private static final long PROGRESS_INTERVAL = 100000;
+
     private final SessionContext context;
     private final Batcher<TransactionBatch> batcher;
     private final Cache<String, ?> cache;
@@ -99,6 +104,7 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
 
     volatile CommandDispatcher<Scheduler> dispatcher;
     private volatile Scheduler scheduler;
+    private volatile SessionExpirationScheduler expirationScheduler;
 
     public InfinispanSessionManager(SessionFactory<V, L> factory, InfinispanSessionManagerConfiguration configuration) {
         this.factory = factory;
@@ -124,7 +130,8 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
         }
         this.identifierFactory.start();
         final List<Scheduler> schedulers = new ArrayList<>(2);
-        schedulers.add(new SessionExpirationScheduler(this.batcher, new ExpiredSessionRemover<>(this.factory)));
+        this.expirationScheduler = new SessionExpirationScheduler(this.batcher, new ExpiredSessionRemover<>(this.factory));
+        schedulers.add(this.expirationScheduler);
         if (this.maxActiveSessions >= 0) {
             schedulers.add(new SessionEvictionScheduler(this.cache.getName() + ".eviction", this.factory, this.dispatcherFactory, this.maxActiveSessions));
         }
@@ -136,6 +143,13 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
                 }
             }
 
+            @Override
+            public void schedule(String sessionId, ImmutableSessionMetaData metaData) {
+                for (Scheduler scheduler: schedulers) {
+                    scheduler.schedule(sessionId, metaData);
+                }
+            }
+
             @Override
             public void cancel(String sessionId) {
                 for (Scheduler scheduler: schedulers) {
@@ -159,7 +173,7 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
         };
         this.dispatcher = this.dispatcherFactory.createCommandDispatcher(this.cache.getName() + ".schedulers", this.scheduler);
         this.cache.addListener(this, this.filter);
-        this.schedule(this.cache, new SimpleLocality(false), new ConsistentHashLocality(this.cache));
+        this.schedule(this.cache, new ConsistentHashChangeLocality(this.cache));
     }
 
     @Override
@@ -296,6 +310,28 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
         return this.getActiveSessions().size();
     }
 
+    @Override
+    public long getNonLocalIdentifierCount() {
+        return (this.identifierFactory instanceof IdentifierAffinityStatistics) ? ((IdentifierAffinityStatistics) this.identifierFactory).getNonLocalIdentifierCount() : 0;
+    }
+
+    @Override
+    public long getSuppressedAttributeReplicationCount() {
+        return this.factory.getSuppressedAttributeReplicationCount();
+    }
+
+    @Override
+    public long getMaxExpirationLag(TimeUnit unit) {
+        SessionExpirationScheduler scheduler = this.expirationScheduler;
+        return (scheduler != null) ? scheduler.getMaxExpirationLag(unit) : 0;
+    }
+
+    @Override
+    public long getMeanExpirationLag(TimeUnit unit) {
+        SessionExpirationScheduler scheduler = this.expirationScheduler;
+        return (scheduler != null) ? scheduler.getMeanExpirationLag(unit) : 0;
+    }
+
     @CacheEntryActivated
     public void activated(CacheEntryActivatedEvent<String, ?> event) {
         if (!event.isPre() && !this.persistent) {
@@ -357,33 +393,36 @@ public class InfinispanSessionManager<V, L> implements SessionManager<L, Transac
     public void dataRehashed(DataRehashedEvent<String, ?> event) {
         Cache<String, ?> cache = event.getCache();
         Address localAddress = cache.getCacheManager().getAddress();
-        Locality oldLocality = new ConsistentHashLocality(localAddress, event.getConsistentHashAtStart());
-        Locality newLocality = new ConsistentHashLocality(localAddress, event.getConsistentHashAtEnd());
         if (event.isPre()) {
-            this.scheduler.cancel(newLocality);
+            this.scheduler.cancel(new ConsistentHashLocality(localAddress, event.getConsistentHashAtEnd()));
         } else {
-            this.schedule(cache, oldLocality, newLocality);
+            this.schedule(cache, new ConsistentHashChangeLocality(localAddress, event.getConsistentHashAtStart(), event.getConsistentHashAtEnd()));
         }
     }
 
-    private void schedule(Cache<String, ?> cache, Locality oldLocality, Locality newLocality) {
+    private void schedule(Cache<String, ?> cache, ConsistentHashChangeLocality locality) {
+        // Nothing to do if we did not become the primary owner of any segment
+        if (locality.isEmpty()) return;
+        InfinispanWebLogger.ROOT_LOGGER.debugf("Scheduling sessions of %d new primary segments of cache %s", locality.getSegmentCount(), cache.getName());
+        long start = System.currentTimeMillis();
+        AtomicLong count = new AtomicLong();
         Consumer<String> scheduler = key -> {
-            Batch batch = this.batcher.createBatch();
-            try {
-                // We need to lookup the session to obtain its meta data
-                V value = this.factory.findValue(key);
-                if (value != null) {
-                    this.scheduler.schedule(this.factory.createImmutableSession(key, value));
+            // We only need the meta data of the session, so avoid reading its attributes
+            ImmutableSessionMetaData metaData = this.factory.findImmutableSessionMetaData(key);
+            if (metaData != null) {
+                this.scheduler.schedule(key, metaData);
+                long scheduled = count.incrementAndGet();
+                if ((scheduled % PROGRESS_INTERVAL) == 0) {
+                    InfinispanWebLogger.ROOT_LOGGER.debugf("Scheduled %d sessions of cache %s", scheduled, cache.getName());
                 }
-            } finally {
-                batch.discard();
             }
         };
         // Iterate over sessions in memory
         try (Stream<String> keys = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD).keySet().stream()) {
             // If we are the new primary owner of this session then schedule expiration of this session locally
-            keys.filter(this.filter).filter(key -> !oldLocality.isLocal(key) && newLocality.isLocal(key)).forEach(scheduler);
+            keys.parallel().filter(this.filter).filter(key -> locality.isLocal(key)).forEach(scheduler);
         }
+        InfinispanWebLogger.ROOT_LOGGER.debugf("Scheduled %d sessions of cache %s in %d ms", count.get(), cache.getName(), System.currentTimeMillis() - start);
     }
 
     static void triggerPrePassivationEvents(ImmutableSession session) {
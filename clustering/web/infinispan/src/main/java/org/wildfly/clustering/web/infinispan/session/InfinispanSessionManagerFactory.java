@@ -21,6 +21,9 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import org.infinispan.Cache;
@@ -29,6 +32,7 @@ import org.infinispan.context.Flag;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.transaction.LockingMode;
 import org.infinispan.util.concurrent.IsolationLevel;
+import org.wildfly.clustering.marshalling.Compression;
 import org.wildfly.clustering.marshalling.MarshalledValue;
 import org.wildfly.clustering.marshalling.MarshalledValueFactory;
 import org.wildfly.clustering.marshalling.MarshalledValueMarshaller;
@@ -46,9 +50,11 @@ import org.wildfly.clustering.group.NodeFactory;
 import org.wildfly.clustering.web.IdentifierFactory;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.AffinityIdentifierFactory;
+import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionCacheEntry;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionFactory;
 import org.wildfly.clustering.web.infinispan.session.coarse.SessionAttributesCacheKey;
+import org.wildfly.clustering.web.infinispan.session.coarse.SessionAttributesDeltaCacheKey;
 import org.wildfly.clustering.web.infinispan.session.fine.FineSessionCacheEntry;
 import org.wildfly.clustering.web.infinispan.session.fine.FineSessionFactory;
 import org.wildfly.clustering.web.infinispan.session.fine.SessionAttributeCacheKey;
@@ -74,7 +80,7 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
     public <L> SessionManager<L, TransactionBatch> createSessionManager(final SessionContext context, IdentifierFactory<String> identifierFactory, LocalContextFactory<L> localContextFactory, final Recordable<ImmutableSession> inactiveSessionRecorder) {
         final Batcher<TransactionBatch> batcher = new InfinispanBatcher(this.config.getCache());
         final Cache<String, ?> cache = this.config.getCache();
-        final IdentifierFactory<String> factory = new AffinityIdentifierFactory<>(identifierFactory, cache, this.config.getKeyAffinityServiceFactory());
+        final IdentifierFactory<String> factory = new AffinityIdentifierFactory<>(identifierFactory, cache);
         final CommandDispatcherFactory dispatcherFactory = this.config.getCommandDispatcherFactory();
         final NodeFactory<Address> nodeFactory = this.config.getNodeFactory();
         final int maxActiveSessions = this.config.getSessionManagerConfiguration().getMaxActiveSessions();
@@ -125,7 +131,7 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
     private <L> SessionFactory<?, L> getSessionFactory(SessionContext context, LocalContextFactory<L> localContextFactory) {
         SessionManagerConfiguration config = this.config.getSessionManagerConfiguration();
         Module module = config.getModule();
-        MarshallingContext marshallingContext = new SimpleMarshallingContextFactory().createMarshallingContext(new SessionAttributeMarshallingContext(module), module.getClassLoader());
+        MarshallingContext marshallingContext = new SimpleMarshallingContextFactory().createMarshallingContext(new SessionAttributeMarshallingContext(module), module.getClassLoader(), createCompression(config));
         MarshalledValueFactory<MarshallingContext> factory = new SimpleMarshalledValueFactory(marshallingContext);
 
         switch (config.getAttributePersistenceStrategy()) {
@@ -133,13 +139,14 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
                 Cache<String, FineSessionCacheEntry<L>> sessionCache = this.getSessionCache();
                 Cache<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> attributeCache = this.config.getCache();
                 Marshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
-                return new FineSessionFactory<>(sessionCache, attributeCache, context, marshaller, localContextFactory);
+                return new FineSessionFactory<>(sessionCache, attributeCache, context, marshaller, localContextFactory, config.isContentMutationDetectionEnabled());
             }
             case COARSE: {
                 Cache<String, CoarseSessionCacheEntry<L>> sessionCache = this.getSessionCache();
                 Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache = this.config.getCache();
                 Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
-                return new CoarseSessionFactory<>(sessionCache, attributesCache, context, marshaller, localContextFactory);
+                Cache<SessionAttributesDeltaCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> deltaCache = this.config.getCache();
+                return new CoarseSessionFactory<>(sessionCache, attributesCache, deltaCache, config.getDeltaSnapshotThreshold(), config.isContentMutationDetectionEnabled(), context, marshaller, localContextFactory);
             }
             default: {
                 // Impossible
@@ -148,6 +155,27 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
         }
     }
 
+    private static Compression createCompression(SessionManagerConfiguration config) {
+        if (!config.isCompressionEnabled()) return null;
+        String dictionary = config.getCompressionDictionary();
+        if (dictionary == null) return Compression.NONE;
+        try (InputStream input = config.getModule().getClassLoader().getResourceAsStream(dictionary)) {
+            if (input == null) {
+                throw InfinispanWebLogger.ROOT_LOGGER.compressionDictionaryNotFound(dictionary, config.getDeploymentName());
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int count = input.read(buffer);
+            while (count >= 0) {
+                output.write(buffer, 0, count);
+                count = input.read(buffer);
+            }
+            return new Compression(output.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private <V> Cache<String, V> getSessionCache() {
         Cache<String, V> cache = this.config.getCache();
         Configuration cacheConfig = cache.getCacheConfiguration();
@@ -22,6 +22,7 @@
 package org.wildfly.clustering.web.infinispan.session;
 
 import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.remoting.transport.Address;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
@@ -33,7 +34,6 @@ import org.jboss.msc.value.Value;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.group.NodeFactory;
-import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
 import org.wildfly.clustering.infinispan.spi.service.CacheContainerServiceName;
 import org.wildfly.clustering.infinispan.spi.service.CacheBuilder;
 import org.wildfly.clustering.infinispan.spi.service.CacheServiceName;
@@ -61,7 +61,6 @@ public class InfinispanSessionManagerFactoryBuilder implements Builder<SessionMa
 
     @SuppressWarnings("rawtypes")
     private final InjectedValue<Cache> cache = new InjectedValue<>();
-    private final InjectedValue<KeyAffinityServiceFactory> affinityFactory = new InjectedValue<>();
     private final InjectedValue<CommandDispatcherFactory> dispatcherFactory = new InjectedValue<>();
     @SuppressWarnings("rawtypes")
     private final InjectedValue<NodeFactory> nodeFactory = new InjectedValue<>();
@@ -82,7 +81,18 @@ public class InfinispanSessionManagerFactoryBuilder implements Builder<SessionMa
         String containerName = templateCacheServiceName.getParent().getSimpleName();
         String cacheName = this.configuration.getDeploymentName();
 
-        new TemplateConfigurationBuilder(containerName, cacheName, templateCacheName).build(target).install();
+        final long nearCacheLifespan = this.configuration.getNearCacheLifespan();
+        new TemplateConfigurationBuilder(containerName, cacheName, templateCacheName) {
+            @Override
+            public ConfigurationBuilder createConfigurationBuilder() {
+                ConfigurationBuilder builder = super.createConfigurationBuilder();
+                // Retain sessions read from their remote owners, who will invalidate them on change
+                if ((nearCacheLifespan > 0) && builder.clustering().cacheMode().isDistributed()) {
+                    builder.clustering().l1().enable().lifespan(nearCacheLifespan);
+                }
+                return builder;
+            }
+        }.build(target).install();
 
         new CacheBuilder<>(containerName, cacheName).build(target)
                 .addAliases(InfinispanRouteLocatorBuilder.getCacheServiceAlias(cacheName))
@@ -90,7 +100,6 @@ public class InfinispanSessionManagerFactoryBuilder implements Builder<SessionMa
 
         return target.addService(this.getServiceName(), new ValueService<>(this))
                 .addDependency(CacheServiceName.CACHE.getServiceName(containerName, cacheName), Cache.class, this.cache)
-                .addDependency(CacheContainerServiceName.AFFINITY.getServiceName(containerName), KeyAffinityServiceFactory.class, this.affinityFactory)
                 .addDependency(GroupServiceName.COMMAND_DISPATCHER.getServiceName(containerName), CommandDispatcherFactory.class, this.dispatcherFactory)
                 .addDependency(CacheGroupServiceName.NODE_FACTORY.getServiceName(containerName), NodeFactory.class, this.nodeFactory)
                 .setInitialMode(ServiceController.Mode.ON_DEMAND)
@@ -112,11 +121,6 @@ public class InfinispanSessionManagerFactoryBuilder implements Builder<SessionMa
         return this.cache.getValue();
     }
 
-    @Override
-    public KeyAffinityServiceFactory getKeyAffinityServiceFactory() {
-        return this.affinityFactory.getValue();
-    }
-
     @Override
     public CommandDispatcherFactory getCommandDispatcherFactory() {
         return this.dispatcherFactory.getValue();
@@ -25,7 +25,6 @@ import org.infinispan.Cache;
 import org.infinispan.remoting.transport.Address;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.group.NodeFactory;
-import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
 import org.wildfly.clustering.web.session.SessionManagerConfiguration;
 
 public interface InfinispanSessionManagerFactoryConfiguration {
@@ -34,8 +33,6 @@ public interface InfinispanSessionManagerFactoryConfiguration {
 
     <K, V> Cache<K, V> getCache();
 
-    KeyAffinityServiceFactory getKeyAffinityServiceFactory();
-
     CommandDispatcherFactory getCommandDispatcherFactory();
 
     NodeFactory<Address> getNodeFactory();
@@ -24,6 +24,7 @@ package org.wildfly.clustering.web.infinispan.session;
 
 import org.wildfly.clustering.infinispan.spi.distribution.Locality;
 import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 
 /**
  * A scheduler for some task.
@@ -36,6 +37,13 @@ public interface Scheduler extends AutoCloseable {
      */
     void schedule(ImmutableSession session);
 
+    /**
+     * Schedules a task for the session with the specified identifier and meta data.
+     * @param sessionId the web session identifier
+     * @param metaData the web session meta data
+     */
+    void schedule(String sessionId, ImmutableSessionMetaData metaData);
+
     /**
      * Cancels a previously scheduled task for the specified session
      * @param sessionId the web session identifier
@@ -23,14 +23,19 @@ package org.wildfly.clustering.web.infinispan.session;
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jboss.threads.JBossThreadFactory;
 import org.wildfly.clustering.ee.Batch;
@@ -40,18 +45,34 @@ import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.infinispan.spi.distribution.Locality;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
+import org.wildfly.clustering.web.session.SessionExpirationStatistics;
 
 /**
  * Session expiration scheduler that eagerly expires sessions as soon as they are eligible.
  * If/When Infinispan implements expiration notifications (ISPN-694), this will be obsolete.
+ * Rather than scheduling a task per session, sessions are indexed into buckets by expiration time, rounded up to the resolution of this scheduler.
+ * A single periodic task expires the sessions of each elapsed bucket in bulk, using one batch per bucket.
  * @author Paul Ferraro
  */
-public class SessionExpirationScheduler implements Scheduler {
+public class SessionExpirationScheduler implements Scheduler, SessionExpirationStatistics {
 
-    final Map<String, Future<?>> expirationFutures = new ConcurrentHashMap<>();
+    public static final long DEFAULT_RESOLUTION = 100;
+    // Limits the size of the transaction used to expire a bucket containing a burst of sessions
+    static final int MAX_BATCH_SIZE = 1000;
+
+    // Maps session identifier to expiration time
+    final Map<String, Long> expirations = new ConcurrentHashMap<>();
+    // Maps bucket time to the identifiers of the sessions expiring within that bucket
+    final ConcurrentNavigableMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
     final Batcher<TransactionBatch> batcher;
     final Remover<String> remover;
     private final ScheduledExecutorService executor;
+    private final long resolution;
+    private final Future<?> future;
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong totalLag = new AtomicLong();
+    private final AtomicLong maxLag = new AtomicLong();
 
     public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover) {
         this(batcher, remover, createScheduledExecutor(createThreadFactory()));
@@ -74,92 +95,222 @@ public class SessionExpirationScheduler implements Scheduler {
     }
 
     public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, ScheduledExecutorService executor) {
+        this(batcher, remover, executor, DEFAULT_RESOLUTION);
+    }
+
+    public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, ScheduledExecutorService executor, long resolution) {
         this.batcher = batcher;
         this.remover = remover;
         this.executor = executor;
+        this.resolution = resolution;
+        this.future = executor.scheduleWithFixedDelay(new ExpirationTask(), resolution, resolution, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void cancel(String sessionId) {
-        Future<?> future = this.expirationFutures.remove(sessionId);
-        if (future != null) {
-            future.cancel(false);
+        Long expiration = this.expirations.remove(sessionId);
+        if (expiration != null) {
+            Set<String> ids = this.buckets.get(this.bucket(expiration));
+            if (ids != null) {
+                ids.remove(sessionId);
+            }
         }
     }
 
     @Override
     public void schedule(ImmutableSession session) {
-        long timeout = session.getMetaData().getMaxInactiveInterval(TimeUnit.MILLISECONDS);
+        this.schedule(session.getId(), session.getMetaData());
+    }
+
+    @Override
+    public void schedule(String id, ImmutableSessionMetaData metaData) {
+        long timeout = metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS);
         if (timeout > 0) {
-            long lastAccessed = session.getMetaData().getLastAccessedTime().getTime();
-            long delay = Math.max(lastAccessed + timeout - System.currentTimeMillis(), 0);
-            String id = session.getId();
-            Runnable task = new ExpirationTask(id);
+            long lastAccessed = metaData.getLastAccessedTime().getTime();
+            Long expiration = lastAccessed + timeout;
             InfinispanWebLogger.ROOT_LOGGER.tracef("Session %s will expire in %d ms", id, timeout);
-            synchronized (task) {
-                this.expirationFutures.put(id, this.executor.schedule(task, delay, TimeUnit.MILLISECONDS));
+            Long previousExpiration = this.expirations.put(id, expiration);
+            Long bucket = this.bucket(expiration);
+            if (previousExpiration != null) {
+                Long previousBucket = this.bucket(previousExpiration);
+                if (previousBucket.equals(bucket)) {
+                    return;
+                }
+                Set<String> ids = this.buckets.get(previousBucket);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+            this.index(id, bucket);
+        }
+    }
+
+    private void index(String id, Long bucket) {
+        Set<String> ids = this.buckets.get(bucket);
+        while (true) {
+            if (ids == null) {
+                Set<String> newIds = ConcurrentHashMap.newKeySet();
+                ids = this.buckets.putIfAbsent(bucket, newIds);
+                if (ids == null) {
+                    ids = newIds;
+                }
+            }
+            ids.add(id);
+            // If the bucket was concurrently expired, our session may have been missed, so index it again
+            Set<String> currentIds = this.buckets.get(bucket);
+            if (currentIds == ids) {
+                return;
             }
+            ids = currentIds;
         }
     }
 
+    private Long bucket(long expiration) {
+        // Round up, so that all sessions within a bucket are eligible for expiration once the bucket has elapsed
+        return ((expiration + this.resolution - 1) / this.resolution) * this.resolution;
+    }
+
     @Override
     public void cancel(Locality locality) {
-        for (String sessionId: this.expirationFutures.keySet()) {
+        for (String sessionId: this.expirations.keySet()) {
             if (!locality.isLocal(sessionId)) {
                 this.cancel(sessionId);
             }
         }
     }
 
+    @Override
+    public long getMaxExpirationLag(TimeUnit unit) {
+        return unit.convert(this.maxLag.get(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getMeanExpirationLag(TimeUnit unit) {
+        long count = this.expiredCount.get();
+        return (count > 0) ? unit.convert(this.totalLag.get() / count, TimeUnit.MILLISECONDS) : 0;
+    }
+
     @Override
     public void close() {
+        this.future.cancel(false);
         this.executor.shutdown();
-        for (Future<?> future: this.expirationFutures.values()) {
-            future.cancel(false);
+        try {
+            // Wait for any in-progress expiration to complete
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        for (Future<?> future: this.expirationFutures.values()) {
-            if (!future.isDone()) {
-                try {
-                    future.get();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    // Ignore
+        this.buckets.clear();
+        this.expirations.clear();
+    }
+
+    void expire(Long bucket, Set<String> ids) {
+        List<String> batchIds = new ArrayList<>(Math.min(ids.size(), MAX_BATCH_SIZE));
+        List<Long> batchExpirations = new ArrayList<>(Math.min(ids.size(), MAX_BATCH_SIZE));
+        for (String id: ids) {
+            Long expiration = this.expirations.get(id);
+            // Skip sessions that were canceled or rescheduled into a different bucket
+            if ((expiration != null) && this.bucket(expiration).equals(bucket) && this.expirations.remove(id, expiration)) {
+                batchIds.add(id);
+                batchExpirations.add(expiration);
+                if (batchIds.size() == MAX_BATCH_SIZE) {
+                    this.expire(batchIds, batchExpirations);
+                    batchIds.clear();
+                    batchExpirations.clear();
                 }
             }
         }
-        this.expirationFutures.clear();
+        if (!batchIds.isEmpty()) {
+            this.expire(batchIds, batchExpirations);
+        }
     }
 
-    private class ExpirationTask implements Runnable {
-        private final String id;
+    private void expire(List<String> ids, List<Long> expirations) {
+        InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring sessions %s", ids);
+        Batch batch = this.batcher.createBatch();
+        boolean success = false;
+        try {
+            for (String id: ids) {
+                this.remover.remove(id);
+            }
+            success = true;
+        } catch (Throwable e) {
+            // Fall back to expiring each session in a separate batch, so that one failure does not prevent expiration of the rest
+        } finally {
+            if (!success) {
+                batch.discard();
+            }
+        }
+        if (success) {
+            try {
+                batch.close();
+            } catch (Throwable e) {
+                // These sessions are no longer scheduled, so a failed commit falls back to separate batches as well
+                success = false;
+            }
+        }
+        if (!success) {
+            for (String id: ids) {
+                this.expire(id);
+            }
+        }
+        this.record(expirations);
+    }
 
-        public ExpirationTask(String id) {
-            this.id = id;
+    private void expire(String id) {
+        try {
+            Batch batch = this.batcher.createBatch();
+            boolean success = false;
+            try {
+                this.remover.remove(id);
+                success = true;
+            } finally {
+                if (success) {
+                    batch.close();
+                } else {
+                    batch.discard();
+                }
+            }
+        } catch (Throwable e) {
+            InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, id);
+        }
+    }
+
+    private void record(List<Long> expirations) {
+        long now = System.currentTimeMillis();
+        long total = 0;
+        long max = 0;
+        for (Long expiration: expirations) {
+            long lag = Math.max(now - expiration, 0);
+            total += lag;
+            max = Math.max(max, lag);
+        }
+        this.expiredCount.addAndGet(expirations.size());
+        this.totalLag.addAndGet(total);
+        long currentMax = this.maxLag.get();
+        while ((max > currentMax) && !this.maxLag.compareAndSet(currentMax, max)) {
+            currentMax = this.maxLag.get();
+        }
+    }
+
+    private class ExpirationTask implements Runnable {
+        ExpirationTask() {
         }
 
         @Override
         public void run() {
-            InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring session %s", this.id);
-            try {
-                Batch batch = SessionExpirationScheduler.this.batcher.createBatch();
-                boolean success = false;
-                try {
-                    SessionExpirationScheduler.this.remover.remove(this.id);
-                    success = true;
-                } catch (Throwable e) {
-                    InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, this.id);
-                } finally {
-                    if (success) {
-                        batch.close();
-                    } else {
-                        batch.discard();
+            long now = System.currentTimeMillis();
+            Map.Entry<Long, Set<String>> entry = SessionExpirationScheduler.this.buckets.firstEntry();
+            while ((entry != null) && (entry.getKey() <= now)) {
+                if (SessionExpirationScheduler.this.buckets.remove(entry.getKey(), entry.getValue())) {
+                    try {
+                        SessionExpirationScheduler.this.expire(entry.getKey(), entry.getValue());
+                    } catch (Throwable e) {
+                        // An exception would suppress subsequent executions of this task
+                        InfinispanWebLogger.ROOT_LOGGER.warn(e.getLocalizedMessage(), e);
                     }
                 }
-            } finally {
-                synchronized (this) {
-                    SessionExpirationScheduler.this.expirationFutures.remove(this.id);
-                }
+                entry = SessionExpirationScheduler.this.buckets.firstEntry();
             }
         }
     }
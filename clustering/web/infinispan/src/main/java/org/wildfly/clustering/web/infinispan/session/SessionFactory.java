@@ -26,13 +26,22 @@ import org.wildfly.clustering.ee.infinispan.Evictor;
 import org.wildfly.clustering.ee.infinispan.Locator;
 import org.wildfly.clustering.ee.infinispan.Remover;
 import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 import org.wildfly.clustering.web.session.Session;
+import org.wildfly.clustering.web.session.SessionAttributeReplicationStatistics;
 
 /**
  * Factory for creating sessions.  This represents the cache mapping strategy for sessions.
  * @author Paul Ferraro
  */
-public interface SessionFactory<V, L> extends Creator<String, V, Void>, Locator<String, V>, Remover<String>, Evictor<String> {
+public interface SessionFactory<V, L> extends Creator<String, V, Void>, Locator<String, V>, Remover<String>, Evictor<String>, SessionAttributeReplicationStatistics {
     Session<L> createSession(String id, V value);
     ImmutableSession createImmutableSession(String id, V value);
+
+    /**
+     * Locates the meta data of the specified session, without reading its attributes.
+     * @param id a session identifier
+     * @return the meta data of the session, or null if the session does not exist
+     */
+    ImmutableSessionMetaData findImmutableSessionMetaData(String id);
 }
@@ -34,11 +34,23 @@ import org.wildfly.clustering.web.session.SessionAttributes;
 public class CoarseSessionAttributes extends CoarseImmutableSessionAttributes implements SessionAttributes {
     private final Map<String, Object> attributes;
     private final Mutator mutator;
+    private final Mutator accessMutator;
 
     public CoarseSessionAttributes(Map<String, Object> attributes, Mutator mutator) {
+        this(attributes, mutator, mutator);
+    }
+
+    /**
+     * Creates session attributes that use a distinct mutator when a mutable attribute is read.
+     * @param attributes the session attributes
+     * @param mutator the mutator used when an attribute is set or removed
+     * @param accessMutator the mutator used when an attribute that may be mutable is read
+     */
+    public CoarseSessionAttributes(Map<String, Object> attributes, Mutator mutator, Mutator accessMutator) {
         super(attributes);
         this.attributes = attributes;
         this.mutator = mutator;
+        this.accessMutator = accessMutator;
     }
 
     @Override
@@ -59,7 +71,7 @@ public class CoarseSessionAttributes extends CoarseImmutableSessionAttributes im
     public Object getAttribute(String name) {
         Object value = this.attributes.get(name);
         if (MutableDetector.isMutable(value)) {
-            this.mutator.mutate();
+            this.accessMutator.mutate();
         }
         return value;
     }
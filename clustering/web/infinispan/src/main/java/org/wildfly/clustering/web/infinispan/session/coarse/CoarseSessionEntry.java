@@ -24,6 +24,8 @@ package org.wildfly.clustering.web.infinispan.session.coarse;
 import java.util.Map;
 
 import org.wildfly.clustering.ee.infinispan.MutableCacheEntry;
+import org.wildfly.clustering.marshalling.MarshalledValue;
+import org.wildfly.clustering.marshalling.MarshallingContext;
 
 /**
  * Wrapper for session cache entry and session attributes cache entry.
@@ -32,10 +34,18 @@ import org.wildfly.clustering.ee.infinispan.MutableCacheEntry;
 public class CoarseSessionEntry<L> {
     private final MutableCacheEntry<CoarseSessionCacheEntry<L>> sessionEntry;
     private final MutableCacheEntry<Map<String, Object>> attributesEntry;
+    private final MarshalledValue<Map<String, Object>, MarshallingContext> marshalledAttributes;
+    private final Map<String, Object> delta;
 
     public CoarseSessionEntry(MutableCacheEntry<CoarseSessionCacheEntry<L>> sessionEntry, MutableCacheEntry<Map<String, Object>> attributesEntry) {
+        this(sessionEntry, attributesEntry, null, null);
+    }
+
+    public CoarseSessionEntry(MutableCacheEntry<CoarseSessionCacheEntry<L>> sessionEntry, MutableCacheEntry<Map<String, Object>> attributesEntry, MarshalledValue<Map<String, Object>, MarshallingContext> marshalledAttributes, Map<String, Object> delta) {
         this.sessionEntry = sessionEntry;
         this.attributesEntry = attributesEntry;
+        this.marshalledAttributes = marshalledAttributes;
+        this.delta = delta;
     }
 
     public MutableCacheEntry<CoarseSessionCacheEntry<L>> getMutableSessionEntry() {
@@ -45,4 +55,20 @@ public class CoarseSessionEntry<L> {
     public MutableCacheEntry<Map<String, Object>> getMutableAttributesEntry() {
         return this.attributesEntry;
     }
+
+    /**
+     * Returns the marshalled form of the session attributes, as read from the cache.
+     * @return the marshalled session attributes, or null, if this is a new session.
+     */
+    public MarshalledValue<Map<String, Object>, MarshallingContext> getMarshalledAttributes() {
+        return this.marshalledAttributes;
+    }
+
+    /**
+     * Returns the session attributes modified since the session attributes were last replicated in full.
+     * @return a map of modified session attributes, or null, if this session replicates its attributes in full.
+     */
+    public Map<String, Object> getAttributesDelta() {
+        return this.delta;
+    }
 }
@@ -23,6 +23,7 @@ package org.wildfly.clustering.web.infinispan.session.coarse;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.Cache;
 import org.infinispan.context.Flag;
@@ -35,6 +36,7 @@ import org.wildfly.clustering.marshalling.Marshaller;
 import org.wildfly.clustering.marshalling.MarshallingContext;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.clustering.web.infinispan.session.ContentMutationDetector;
 import org.wildfly.clustering.web.infinispan.session.InfinispanImmutableSession;
 import org.wildfly.clustering.web.infinispan.session.InfinispanSession;
 import org.wildfly.clustering.web.infinispan.session.SessionFactory;
@@ -51,6 +53,7 @@ import org.wildfly.clustering.web.session.SessionMetaData;
  * {@link SessionFactory} for coarse granularity sessions.
  * A given session is mapped to 2 co-located cache entries, one containing the session meta data and local context (updated every request)
  * and the other containing the map of session attributes.
+ * If a delta snapshot threshold is configured, a third co-located cache entry contains the attributes modified since the map of session attributes was last replicated.
  * @author Paul Ferraro
  */
 public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntry<L>, L> {
@@ -60,10 +63,21 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
     private final Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache;
     private final Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller;
     private final LocalContextFactory<L> localContextFactory;
+    private final Cache<SessionAttributesDeltaCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> deltaCache;
+    private final int deltaSnapshotThreshold;
+    private final boolean contentMutationDetection;
+    private final AtomicLong suppressedMutations = new AtomicLong();
 
     public CoarseSessionFactory(Cache<String, CoarseSessionCacheEntry<L>> sessionCache, Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache, SessionContext context, Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory) {
+        this(sessionCache, attributesCache, null, 0, false, context, marshaller, localContextFactory);
+    }
+
+    public CoarseSessionFactory(Cache<String, CoarseSessionCacheEntry<L>> sessionCache, Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache, Cache<SessionAttributesDeltaCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> deltaCache, int deltaSnapshotThreshold, boolean contentMutationDetection, SessionContext context, Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory) {
         this.sessionCache = sessionCache;
         this.attributesCache = attributesCache;
+        this.deltaCache = deltaCache;
+        this.deltaSnapshotThreshold = deltaSnapshotThreshold;
+        this.contentMutationDetection = contentMutationDetection;
         this.context = context;
         this.marshaller = marshaller;
         this.localContextFactory = localContextFactory;
@@ -74,6 +88,19 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
         MutableCacheEntry<CoarseSessionCacheEntry<L>> sessionEntry = entry.getMutableSessionEntry();
         MutableCacheEntry<Map<String, Object>> attributesEntry = entry.getMutableAttributesEntry();
         SessionMetaData metaData = sessionEntry.getValue().getMetaData();
+        Map<String, Object> delta = entry.getAttributesDelta();
+        if (delta != null) {
+            SessionAttributes attributes = new CoarseDeltaSessionAttributes(attributesEntry.getValue(), delta, attributesEntry.getMutator());
+            return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getValue().getLocalContext(), this.localContextFactory, this.context, sessionEntry.getMutator(), this);
+        }
+        MarshalledValue<Map<String, Object>, MarshallingContext> value = entry.getMarshalledAttributes();
+        if (this.contentMutationDetection && (value != null)) {
+            ContentMutationDetector detector = new ContentMutationDetector(this.suppressedMutations);
+            SessionAttributesCacheKey key = new SessionAttributesCacheKey(id);
+            Mutator mutator = attributesEntry.getMutator();
+            SessionAttributes attributes = new CoarseSessionAttributes(attributesEntry.getValue(), detector.createImmediateMutator(key, mutator), detector.createDeferredMutator(key, value, mutator));
+            return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getValue().getLocalContext(), this.localContextFactory, this.context, detector.createSessionMutator(sessionEntry.getMutator()), this);
+        }
         SessionAttributes attributes = new CoarseSessionAttributes(attributesEntry.getValue(), attributesEntry.getMutator());
         return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getValue().getLocalContext(), this.localContextFactory, this.context, sessionEntry.getMutator(), this);
     }
@@ -97,6 +124,10 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
         MarshalledValue<Map<String, Object>, MarshallingContext> value = this.marshaller.write(attributes);
         if (existingEntry == null) {
             this.attributesCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).put(key, value);
+            if (this.deltaSnapshotThreshold > 0) {
+                // The attributes of a new session replicate in full, so start with an empty delta
+                this.deltaCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).put(new SessionAttributesDeltaCacheKey(id), this.marshaller.write(new HashMap<String, Object>()));
+            }
             MutableCacheEntry<CoarseSessionCacheEntry<L>> sessionEntry = new MutableCacheEntry<>(entry, Mutator.PASSIVE);
             return new CoarseSessionEntry<>(sessionEntry, attributesEntry);
         }
@@ -104,12 +135,13 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
         MarshalledValue<Map<String, Object>, MarshallingContext> existingValue = this.attributesCache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).putIfAbsent(key, value);
         if (existingValue != null) {
             try {
-                Map<String, Object> existingAttributes = this.marshaller.read(existingValue);
-                MutableCacheEntry<Map<String, Object>> existingAttributesEntry = new MutableCacheEntry<>(existingAttributes, new CacheEntryMutator<>(this.attributesCache, key, existingValue));
-                return new CoarseSessionEntry<>(sessionEntry, existingAttributesEntry);
+                return this.createSessionEntry(id, sessionEntry, key, existingValue);
             } catch (InvalidSerializedFormException e) {
                 InfinispanWebLogger.ROOT_LOGGER.failedToActivateSession(e, id);
                 new CacheEntryMutator<>(this.attributesCache, key, value).mutate();
+                if (this.deltaSnapshotThreshold > 0) {
+                    this.deltaCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(new SessionAttributesDeltaCacheKey(id));
+                }
             }
         }
         return new CoarseSessionEntry<>(sessionEntry, attributesEntry);
@@ -124,8 +156,7 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
             MarshalledValue<Map<String, Object>, MarshallingContext> value = this.attributesCache.get(key);
             if (value != null) {
                 try {
-                    Map<String, Object> attributes = this.marshaller.read(value);
-                    return new CoarseSessionEntry<>(sessionEntry, new MutableCacheEntry<>(attributes, new CacheEntryMutator<>(this.attributesCache, key, value)));
+                    return this.createSessionEntry(id, sessionEntry, key, value);
                 } catch (InvalidSerializedFormException e) {
                     InfinispanWebLogger.ROOT_LOGGER.failedToActivateSession(e, id);
                     this.remove(id);
@@ -135,10 +166,45 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
         return null;
     }
 
+    @Override
+    public ImmutableSessionMetaData findImmutableSessionMetaData(String id) {
+        CoarseSessionCacheEntry<L> entry = this.sessionCache.get(id);
+        return (entry != null) ? entry.getMetaData() : null;
+    }
+
+    @Override
+    public long getSuppressedAttributeReplicationCount() {
+        return this.suppressedMutations.get();
+    }
+
+    private CoarseSessionEntry<L> createSessionEntry(String id, MutableCacheEntry<CoarseSessionCacheEntry<L>> sessionEntry, SessionAttributesCacheKey key, MarshalledValue<Map<String, Object>, MarshallingContext> value) throws InvalidSerializedFormException {
+        Map<String, Object> attributes = this.marshaller.read(value);
+        if (this.deltaSnapshotThreshold == 0) {
+            return new CoarseSessionEntry<>(sessionEntry, new MutableCacheEntry<>(attributes, new CacheEntryMutator<>(this.attributesCache, key, value)), value, null);
+        }
+        SessionAttributesDeltaCacheKey deltaKey = new SessionAttributesDeltaCacheKey(id);
+        MarshalledValue<Map<String, Object>, MarshallingContext> deltaValue = this.deltaCache.get(deltaKey);
+        boolean deltaExists = (deltaValue != null);
+        Map<String, Object> delta;
+        if (deltaExists) {
+            delta = this.marshaller.read(deltaValue);
+            CoarseDeltaSessionAttributes.merge(attributes, delta);
+        } else {
+            // e.g. session was created by a deployment that replicated its attributes in full
+            delta = new HashMap<>();
+            deltaValue = this.marshaller.write(delta);
+        }
+        Mutator mutator = new SessionAttributesDeltaMutator(this.attributesCache, key, value, this.deltaCache, deltaKey, deltaValue, delta, deltaExists, this.deltaSnapshotThreshold);
+        return new CoarseSessionEntry<>(sessionEntry, new MutableCacheEntry<>(attributes, mutator), value, delta);
+    }
+
     @Override
     public void remove(String id) {
         this.sessionCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(id);
         this.attributesCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(new SessionAttributesCacheKey(id));
+        if (this.deltaSnapshotThreshold > 0) {
+            this.deltaCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(new SessionAttributesDeltaCacheKey(id));
+        }
     }
 
     @Override
@@ -146,6 +212,9 @@ public class CoarseSessionFactory<L> implements SessionFactory<CoarseSessionEntr
         try {
             this.sessionCache.evict(id);
             this.attributesCache.evict(new SessionAttributesCacheKey(id));
+            if (this.deltaSnapshotThreshold > 0) {
+                this.deltaCache.evict(new SessionAttributesDeltaCacheKey(id));
+            }
         } catch (Throwable e) {
             InfinispanWebLogger.ROOT_LOGGER.failedToPassivateSession(e, id);
         }
@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import org.infinispan.distribution.group.Group;
+
+/**
+ * Cache key for the session attributes modified since the last complete replication of the session attributes.
+ */
+public class SessionAttributesDeltaCacheKey {
+
+    private final String id;
+
+    public SessionAttributesDeltaCacheKey(String id) {
+        this.id = id;
+    }
+
+    @Group
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.id.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof SessionAttributesDeltaCacheKey)) return false;
+        SessionAttributesDeltaCacheKey key = (SessionAttributesDeltaCacheKey) object;
+        return this.id.equals(key.id);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s->delta", this.id);
+    }
+}
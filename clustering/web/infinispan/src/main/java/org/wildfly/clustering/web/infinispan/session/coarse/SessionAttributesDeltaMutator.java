@@ -0,0 +1,94 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.wildfly.clustering.ee.infinispan.Mutator;
+import org.wildfly.clustering.marshalling.MarshalledValue;
+import org.wildfly.clustering.marshalling.MarshallingContext;
+
+/**
+ * Mutates the session attributes of a coarse granularity session by replicating only the delta of modified attributes.
+ * Once the delta contains more than a given number of attributes, the complete session attributes are replicated instead and the delta is cleared.
+ * Both cache entries are marshalled lazily, so any modifications made later within the same batch are replicated as well.
+ */
+public class SessionAttributesDeltaMutator implements Mutator {
+
+    private final Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache;
+    private final SessionAttributesCacheKey attributesKey;
+    private final MarshalledValue<Map<String, Object>, MarshallingContext> attributesValue;
+    private final Cache<SessionAttributesDeltaCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> deltaCache;
+    private final SessionAttributesDeltaCacheKey deltaKey;
+    private final MarshalledValue<Map<String, Object>, MarshallingContext> deltaValue;
+    private final Map<String, Object> delta;
+    private final int snapshotThreshold;
+    private final AtomicBoolean mutated;
+    private volatile boolean deltaExists;
+
+    /**
+     * Creates a new delta mutator.
+     * @param attributesCache the cache containing the complete session attributes
+     * @param attributesKey the cache key of the complete session attributes
+     * @param attributesValue the complete session attributes, including the delta
+     * @param deltaCache the cache containing the delta
+     * @param deltaKey the cache key of the delta
+     * @param deltaValue the delta
+     * @param delta the unmarshalled delta
+     * @param deltaExists indicates whether the delta already exists in the cache
+     * @param snapshotThreshold the number of attributes the delta may contain before the complete session attributes are replicated
+     */
+    public SessionAttributesDeltaMutator(Cache<SessionAttributesCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> attributesCache, SessionAttributesCacheKey attributesKey, MarshalledValue<Map<String, Object>, MarshallingContext> attributesValue,
+            Cache<SessionAttributesDeltaCacheKey, MarshalledValue<Map<String, Object>, MarshallingContext>> deltaCache, SessionAttributesDeltaCacheKey deltaKey, MarshalledValue<Map<String, Object>, MarshallingContext> deltaValue, Map<String, Object> delta, boolean deltaExists, int snapshotThreshold) {
+        this.attributesCache = attributesCache;
+        this.attributesKey = attributesKey;
+        this.attributesValue = attributesValue;
+        this.deltaCache = deltaCache;
+        this.deltaKey = deltaKey;
+        this.deltaValue = deltaValue;
+        this.delta = delta;
+        this.deltaExists = deltaExists;
+        this.snapshotThreshold = snapshotThreshold;
+        this.mutated = attributesCache.getCacheConfiguration().transaction().transactionMode().isTransactional() ? new AtomicBoolean(false) : null;
+    }
+
+    @Override
+    public void mutate() {
+        // We only ever have to perform a replace once within a batch
+        if ((this.mutated == null) || this.mutated.compareAndSet(false, true)) {
+            boolean snapshot = !this.deltaExists || (this.delta.size() > this.snapshotThreshold);
+            if (snapshot) {
+                this.delta.clear();
+                this.attributesCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).replace(this.attributesKey, this.attributesValue);
+            }
+            if (this.deltaExists) {
+                this.deltaCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).replace(this.deltaKey, this.deltaValue);
+            } else {
+                this.deltaCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).put(this.deltaKey, this.deltaValue);
+                this.deltaExists = true;
+            }
+        }
+    }
+}
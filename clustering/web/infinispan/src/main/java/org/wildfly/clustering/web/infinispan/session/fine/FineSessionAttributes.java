@@ -24,7 +24,9 @@ package org.wildfly.clustering.web.infinispan.session.fine;
 import org.infinispan.Cache;
 import org.infinispan.context.Flag;
 import org.wildfly.clustering.ee.infinispan.CacheEntryMutator;
+import org.wildfly.clustering.ee.infinispan.Mutator;
 import org.wildfly.clustering.marshalling.Marshaller;
+import org.wildfly.clustering.web.infinispan.session.ContentMutationDetector;
 import org.wildfly.clustering.web.infinispan.session.MutableDetector;
 import org.wildfly.clustering.web.session.SessionAttributes;
 
@@ -35,16 +37,25 @@ import org.wildfly.clustering.web.session.SessionAttributes;
 public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V> implements SessionAttributes {
     private final Cache<SessionAttributeCacheKey, V> cache;
     private final Marshaller<Object, V> marshaller;
+    private final ContentMutationDetector detector;
 
     public FineSessionAttributes(String id, Cache<SessionAttributeCacheKey, V> attributeCache, Marshaller<Object, V> marshaller) {
+        this(id, attributeCache, marshaller, null);
+    }
+
+    public FineSessionAttributes(String id, Cache<SessionAttributeCacheKey, V> attributeCache, Marshaller<Object, V> marshaller, ContentMutationDetector detector) {
         super(id, attributeCache, marshaller);
         this.cache = attributeCache;
         this.marshaller = marshaller;
+        this.detector = detector;
     }
 
     @Override
     public Object removeAttribute(String name) {
         SessionAttributeCacheKey key = this.createKey(name);
+        if (this.detector != null) {
+            this.detector.cancel(key);
+        }
         return this.read(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).remove(key));
     }
 
@@ -54,6 +65,9 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
             return this.removeAttribute(name);
         }
         SessionAttributeCacheKey key = this.createKey(name);
+        if (this.detector != null) {
+            this.detector.cancel(key);
+        }
         V value = this.marshaller.write(attribute);
         return this.read(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).put(key, value));
     }
@@ -66,7 +80,12 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
         if (attribute != null) {
             // If the object is mutable, we need to indicate that the attribute should be replicated
             if (MutableDetector.isMutable(attribute)) {
-                new CacheEntryMutator<>(this.cache, key, value).mutate();
+                Mutator mutator = new CacheEntryMutator<>(this.cache, key, value);
+                if (this.detector != null) {
+                    this.detector.defer(key, value, mutator);
+                } else {
+                    mutator.mutate();
+                }
             }
         }
         return attribute;
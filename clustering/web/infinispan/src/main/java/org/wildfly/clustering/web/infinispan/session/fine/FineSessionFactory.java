@@ -22,6 +22,7 @@
 package org.wildfly.clustering.web.infinispan.session.fine;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.Cache;
 import org.infinispan.context.Flag;
@@ -34,12 +35,14 @@ import org.wildfly.clustering.marshalling.Marshaller;
 import org.wildfly.clustering.marshalling.MarshallingContext;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.clustering.web.infinispan.session.ContentMutationDetector;
 import org.wildfly.clustering.web.infinispan.session.InfinispanImmutableSession;
 import org.wildfly.clustering.web.infinispan.session.InfinispanSession;
 import org.wildfly.clustering.web.infinispan.session.SessionFactory;
 import org.wildfly.clustering.web.infinispan.session.SimpleSessionMetaData;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 import org.wildfly.clustering.web.session.Session;
 import org.wildfly.clustering.web.session.SessionAttributes;
 import org.wildfly.clustering.web.session.SessionContext;
@@ -59,19 +62,31 @@ public class FineSessionFactory<L> implements SessionFactory<MutableCacheEntry<F
     private final SessionContext context;
     private final Marshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller;
     private final LocalContextFactory<L> localContextFactory;
+    private final boolean contentMutationDetection;
+    private final AtomicLong suppressedMutations = new AtomicLong();
 
     public FineSessionFactory(Cache<String, FineSessionCacheEntry<L>> sessionCache, Cache<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> attributeCache, SessionContext context, Marshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory) {
+        this(sessionCache, attributeCache, context, marshaller, localContextFactory, false);
+    }
+
+    public FineSessionFactory(Cache<String, FineSessionCacheEntry<L>> sessionCache, Cache<SessionAttributeCacheKey, MarshalledValue<Object, MarshallingContext>> attributeCache, SessionContext context, Marshaller<Object, MarshalledValue<Object, MarshallingContext>> marshaller, LocalContextFactory<L> localContextFactory, boolean contentMutationDetection) {
         this.sessionCache = sessionCache;
         this.attributeCache = attributeCache;
         this.context = context;
         this.marshaller = marshaller;
         this.localContextFactory = localContextFactory;
+        this.contentMutationDetection = contentMutationDetection;
     }
 
     @Override
     public Session<L> createSession(String id, MutableCacheEntry<FineSessionCacheEntry<L>> entry) {
         FineSessionCacheEntry<L> sessionEntry = entry.getValue();
         SessionMetaData metaData = sessionEntry.getMetaData();
+        if (this.contentMutationDetection) {
+            ContentMutationDetector detector = new ContentMutationDetector(this.suppressedMutations);
+            SessionAttributes attributes = new FineSessionAttributes<>(id, this.attributeCache, this.marshaller, detector);
+            return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getLocalContext(), this.localContextFactory, this.context, detector.createSessionMutator(entry.getMutator()), this);
+        }
         SessionAttributes attributes = new FineSessionAttributes<>(id, this.attributeCache, this.marshaller);
         return new InfinispanSession<>(id, metaData, attributes, sessionEntry.getLocalContext(), this.localContextFactory, this.context, entry.getMutator(), this);
     }
@@ -119,6 +134,17 @@ public class FineSessionFactory<L> implements SessionFactory<MutableCacheEntry<F
         return new MutableCacheEntry<>(existing, new CacheEntryMutator<>(this.sessionCache, id, existing));
     }
 
+    @Override
+    public ImmutableSessionMetaData findImmutableSessionMetaData(String id) {
+        FineSessionCacheEntry<L> entry = this.sessionCache.get(id);
+        return (entry != null) ? entry.getMetaData() : null;
+    }
+
+    @Override
+    public long getSuppressedAttributeReplicationCount() {
+        return this.suppressedMutations.get();
+    }
+
     @Override
     public void remove(final String id) {
         this.sessionCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(id);
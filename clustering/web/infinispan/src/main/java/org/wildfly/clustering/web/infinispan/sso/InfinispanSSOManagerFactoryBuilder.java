@@ -22,8 +22,6 @@
 package org.wildfly.clustering.web.infinispan.sso;
 
 import org.infinispan.Cache;
-import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
-import org.wildfly.clustering.infinispan.spi.service.CacheContainerServiceName;
 import org.wildfly.clustering.infinispan.spi.service.CacheBuilder;
 import org.wildfly.clustering.infinispan.spi.service.CacheServiceName;
 import org.wildfly.clustering.infinispan.spi.service.TemplateConfigurationBuilder;
@@ -46,7 +44,6 @@ public class InfinispanSSOManagerFactoryBuilder<A, D> implements Builder<SSOMana
     private final String host;
     @SuppressWarnings("rawtypes")
     private final InjectedValue<Cache> cache = new InjectedValue<>();
-    private final InjectedValue<KeyAffinityServiceFactory> affinityFactory = new InjectedValue<>();
     private final InjectedValue<ModuleLoader> loader = new InjectedValue<>();
 
     public InfinispanSSOManagerFactoryBuilder(String host) {
@@ -70,7 +67,6 @@ public class InfinispanSSOManagerFactoryBuilder<A, D> implements Builder<SSOMana
 
         return target.addService(this.getServiceName(), new ValueService<>(this))
                 .addDependency(CacheServiceName.CACHE.getServiceName(containerName, cacheName), Cache.class, this.cache)
-                .addDependency(CacheContainerServiceName.AFFINITY.getServiceName(containerName), KeyAffinityServiceFactory.class, this.affinityFactory)
                 .addDependency(ServiceName.JBOSS.append("as", "service-module-loader"), ModuleLoader.class, this.loader)
         ;
     }
@@ -85,11 +81,6 @@ public class InfinispanSSOManagerFactoryBuilder<A, D> implements Builder<SSOMana
         return this.cache.getValue();
     }
 
-    @Override
-    public KeyAffinityServiceFactory getKeyAffinityServiceFactory() {
-        return this.affinityFactory.getValue();
-    }
-
     @Override
     public ModuleLoader getModuleLoader() {
         return this.loader.getValue();
@@ -23,7 +23,6 @@ package org.wildfly.clustering.web.infinispan.sso;
 
 import org.infinispan.Cache;
 import org.jboss.modules.ModuleLoader;
-import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
 
 /**
  * Configuration for an SSO manager factory.
@@ -32,7 +31,5 @@ import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
 public interface InfinispanSSOManagerFactoryConfiguration {
     <K, V> Cache<K, V> getCache();
 
-    KeyAffinityServiceFactory getKeyAffinityServiceFactory();
-
     ModuleLoader getModuleLoader();
 }
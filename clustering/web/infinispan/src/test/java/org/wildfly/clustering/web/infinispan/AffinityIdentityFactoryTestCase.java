@@ -25,15 +25,16 @@ package org.wildfly.clustering.web.infinispan;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.Collections;
+
+import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
-import org.infinispan.affinity.KeyAffinityService;
-import org.infinispan.affinity.KeyGenerator;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.remoting.transport.Address;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.ArgumentCaptor;
-import org.wildfly.clustering.infinispan.spi.affinity.KeyAffinityServiceFactory;
 import org.wildfly.clustering.web.IdentifierFactory;
 
 /**
@@ -42,45 +43,85 @@ import org.wildfly.clustering.web.IdentifierFactory;
 public class AffinityIdentityFactoryTestCase {
 
     private final IdentifierFactory<String> factory = mock(IdentifierFactory.class);
-    private final KeyAffinityServiceFactory affinityFactory = mock(KeyAffinityServiceFactory.class);
-    private final KeyAffinityService<String> affinity = mock(KeyAffinityService.class);
     private final Cache<String, ?> cache = mock(Cache.class);
+    private final AdvancedCache<String, ?> advancedCache = mock(AdvancedCache.class);
     private final EmbeddedCacheManager manager = mock(EmbeddedCacheManager.class);
+    private final DistributionManager dist = mock(DistributionManager.class);
+    private final ConsistentHash hash = mock(ConsistentHash.class);
+    private final Address localAddress = mock(Address.class);
+    private final Address remoteAddress = mock(Address.class);
 
-    private IdentifierFactory<String> subject;
+    private AffinityIdentifierFactory<String> subject;
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     @Before
     public void init() {
-        ArgumentCaptor<KeyGenerator> capturedGenerator = ArgumentCaptor.forClass(KeyGenerator.class);
-        when(this.affinityFactory.createService(same(this.cache), capturedGenerator.capture())).thenReturn(this.affinity);
         when(this.cache.getCacheManager()).thenReturn(this.manager);
+        when((AdvancedCache) this.cache.getAdvancedCache()).thenReturn(this.advancedCache);
+        when(this.manager.getAddress()).thenReturn(this.localAddress);
+        when(this.dist.getConsistentHash()).thenReturn(this.hash);
+        when(this.hash.getNumSegments()).thenReturn(4);
 
-        this.subject = new AffinityIdentifierFactory<>(this.factory, this.cache, this.affinityFactory);
+        this.subject = new AffinityIdentifierFactory<>(this.factory, this.cache);
+    }
 
-        KeyGenerator<String> generator = capturedGenerator.getValue();
+    @Test
+    public void start() {
+        this.subject.start();
+        verify(this.factory).start();
 
-        assertSame(generator, this.subject);
+        this.subject.stop();
+        verify(this.factory).stop();
+    }
 
+    @Test
+    public void createIdentifierNotDistributed() {
         String expected = "id";
-
         when(this.factory.createIdentifier()).thenReturn(expected);
+        when(this.advancedCache.getDistributionManager()).thenReturn(null);
 
-        String result = generator.getKey();
-
-        assertSame(expected, result);
+        assertSame(expected, this.subject.createIdentifier());
+        assertEquals(0L, this.subject.getNonLocalIdentifierCount());
     }
 
     @Test
     public void createIdentifier() {
-        String expected = "id";
-        Address address = mock(Address.class);
+        when(this.advancedCache.getDistributionManager()).thenReturn(this.dist);
+        when(this.hash.getPrimarySegmentsForOwner(this.localAddress)).thenReturn(Collections.singleton(0));
+        when(this.factory.createIdentifier()).thenReturn("remote1", "remote2", "local");
+        when(this.hash.locatePrimaryOwner("remote1")).thenReturn(this.remoteAddress);
+        when(this.hash.locatePrimaryOwner("remote2")).thenReturn(this.remoteAddress);
+        when(this.hash.locatePrimaryOwner("local")).thenReturn(this.localAddress);
+
+        assertEquals("local", this.subject.createIdentifier());
+        assertEquals(0L, this.subject.getNonLocalIdentifierCount());
+    }
+
+    @Test
+    public void createNonLocalIdentifier() {
+        when(this.advancedCache.getDistributionManager()).thenReturn(this.dist);
+        when(this.hash.getPrimarySegmentsForOwner(this.localAddress)).thenReturn(Collections.singleton(0));
+        when(this.factory.createIdentifier()).thenReturn("remote");
+        when(this.hash.locatePrimaryOwner("remote")).thenReturn(this.remoteAddress);
+
+        assertEquals("remote", this.subject.createIdentifier());
+        assertEquals(1L, this.subject.getNonLocalIdentifierCount());
 
-        when(this.manager.getAddress()).thenReturn(address);
-        when(this.affinity.getKeyForAddress(address)).thenReturn(expected);
+        // Attempts are bounded by the fraction of segments owned locally
+        verify(this.factory, times(AffinityIdentifierFactory.ATTEMPTS_PER_EXPECTED_ATTEMPT * 4)).createIdentifier();
+    }
+
+    @Test
+    public void createIdentifierWithoutSegments() {
+        when(this.advancedCache.getDistributionManager()).thenReturn(this.dist);
+        when(this.hash.getPrimarySegmentsForOwner(this.localAddress)).thenReturn(Collections.<Integer>emptySet());
+        when(this.factory.createIdentifier()).thenReturn("remote");
+        when(this.hash.locatePrimaryOwner("remote")).thenReturn(this.remoteAddress);
 
-        String result = this.subject.createIdentifier();
+        assertEquals("remote", this.subject.createIdentifier());
+        assertEquals(1L, this.subject.getNonLocalIdentifierCount());
 
-        assertSame(expected, result);
+        // No point retrying if no segments are owned locally
+        verify(this.factory, times(1)).createIdentifier();
     }
 }
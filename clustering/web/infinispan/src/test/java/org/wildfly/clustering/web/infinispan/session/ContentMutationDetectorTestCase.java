@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.wildfly.clustering.ee.infinispan.Mutator;
+import org.wildfly.clustering.marshalling.SimpleMarshalledValue;
+
+/**
+ * Unit test for {@link ContentMutationDetector}.
+ */
+public class ContentMutationDetectorTestCase {
+    private final AtomicLong suppressed = new AtomicLong();
+    private final ContentMutationDetector detector = new ContentMutationDetector(this.suppressed);
+
+    @Test
+    public void modified() throws Exception {
+        SimpleMarshalledValue<?> value = mock(SimpleMarshalledValue.class);
+        Mutator mutator = mock(Mutator.class);
+
+        when(value.isModified()).thenReturn(true);
+
+        this.detector.defer("key", value, mutator);
+
+        verify(mutator, never()).mutate();
+
+        this.detector.mutate();
+
+        verify(mutator).mutate();
+        assertEquals(0L, this.suppressed.get());
+    }
+
+    @Test
+    public void unmodified() throws Exception {
+        SimpleMarshalledValue<?> value = mock(SimpleMarshalledValue.class);
+        Mutator mutator = mock(Mutator.class);
+
+        when(value.isModified()).thenReturn(false);
+
+        this.detector.defer("key", value, mutator);
+        this.detector.defer("key", value, mutator);
+        this.detector.mutate();
+
+        verify(mutator, never()).mutate();
+        assertEquals(1L, this.suppressed.get());
+
+        // Deferred mutations are only detected once
+        this.detector.mutate();
+
+        verify(value, times(1)).isModified();
+        assertEquals(1L, this.suppressed.get());
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        SimpleMarshalledValue<?> value = mock(SimpleMarshalledValue.class);
+        Mutator mutator = mock(Mutator.class);
+        Mutator sessionMutator = mock(Mutator.class);
+
+        this.detector.createDeferredMutator("key", value, mutator).mutate();
+        this.detector.createImmediateMutator("key", mutator).mutate();
+
+        verify(mutator).mutate();
+
+        this.detector.createSessionMutator(sessionMutator).mutate();
+
+        verify(value, never()).isModified();
+        verify(mutator, times(1)).mutate();
+        verify(sessionMutator).mutate();
+        assertEquals(0L, this.suppressed.get());
+    }
+
+    @Test
+    public void unknown() {
+        Mutator mutator = mock(Mutator.class);
+
+        this.detector.defer("key", new Object(), mutator);
+
+        verify(mutator).mutate();
+    }
+}
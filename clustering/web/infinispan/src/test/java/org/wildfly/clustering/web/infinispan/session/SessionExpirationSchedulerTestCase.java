@@ -21,12 +21,17 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Date;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
@@ -91,4 +96,111 @@ public class SessionExpirationSchedulerTestCase {
         verify(batch).close();
     }
 
+    @Test
+    public void bulk() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Remover<String> remover = mock(Remover.class);
+        SessionMetaData metaData = mock(SessionMetaData.class);
+        int count = 10;
+        ImmutableSession[] sessions = new ImmutableSession[count];
+
+        when(batcher.createBatch()).thenReturn(batch);
+        when(metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(1L);
+        // All sessions expire within the same bucket
+        when(metaData.getLastAccessedTime()).thenReturn(new Date(System.currentTimeMillis() - 10000L));
+
+        for (int i = 0; i < count; ++i) {
+            sessions[i] = mock(ImmutableSession.class);
+            when(sessions[i].getMetaData()).thenReturn(metaData);
+            when(sessions[i].getId()).thenReturn(String.valueOf(i));
+        }
+
+        try (SessionExpirationScheduler scheduler = new SessionExpirationScheduler(batcher, remover, Executors.newSingleThreadScheduledExecutor(), 1000L)) {
+            for (ImmutableSession session: sessions) {
+                scheduler.schedule(session);
+            }
+            scheduler.cancel("0");
+
+            Thread.sleep(1500);
+
+            assertTrue(scheduler.getMaxExpirationLag(TimeUnit.MILLISECONDS) >= 9000L);
+            assertTrue(scheduler.getMeanExpirationLag(TimeUnit.MILLISECONDS) >= 9000L);
+        }
+
+        verify(remover, never()).remove("0");
+        for (int i = 1; i < count; ++i) {
+            verify(remover).remove(String.valueOf(i));
+        }
+        // Sessions of a bucket are expired using a single batch
+        verify(batcher, times(1)).createBatch();
+        verify(batch).close();
+    }
+
+    @Test
+    public void failedCommit() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch bulkBatch = mock(TransactionBatch.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Remover<String> remover = mock(Remover.class);
+        SessionMetaData metaData = mock(SessionMetaData.class);
+        int count = 3;
+
+        when(batcher.createBatch()).thenReturn(bulkBatch, batch);
+        doThrow(new IllegalStateException()).when(bulkBatch).close();
+        when(metaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(1L);
+        when(metaData.getLastAccessedTime()).thenReturn(new Date(System.currentTimeMillis() - 10000L));
+
+        try (SessionExpirationScheduler scheduler = new SessionExpirationScheduler(batcher, remover, Executors.newSingleThreadScheduledExecutor(), 1000L)) {
+            for (int i = 0; i < count; ++i) {
+                ImmutableSession session = mock(ImmutableSession.class);
+                when(session.getMetaData()).thenReturn(metaData);
+                when(session.getId()).thenReturn(String.valueOf(i));
+                scheduler.schedule(session);
+            }
+
+            Thread.sleep(1500);
+        }
+
+        // A failed commit of the bucket must not lose its sessions, but expire each of them in its own batch
+        for (int i = 0; i < count; ++i) {
+            verify(remover, times(2)).remove(String.valueOf(i));
+        }
+        verify(batcher, times(count + 1)).createBatch();
+        verify(bulkBatch, never()).discard();
+        verify(batch, times(count)).close();
+    }
+
+    @Test
+    public void reschedule() throws InterruptedException {
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Remover<String> remover = mock(Remover.class);
+        ImmutableSession session = mock(ImmutableSession.class);
+        SessionMetaData expiredMetaData = mock(SessionMetaData.class);
+        SessionMetaData accessedMetaData = mock(SessionMetaData.class);
+        String id = "rescheduled";
+
+        when(batcher.createBatch()).thenReturn(batch);
+        when(session.getId()).thenReturn(id);
+        when(expiredMetaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(1L);
+        when(expiredMetaData.getLastAccessedTime()).thenReturn(new Date(0L));
+        when(accessedMetaData.getMaxInactiveInterval(TimeUnit.MILLISECONDS)).thenReturn(60000L);
+        when(accessedMetaData.getLastAccessedTime()).thenReturn(new Date());
+
+        try (SessionExpirationScheduler scheduler = new SessionExpirationScheduler(batcher, remover, Executors.newSingleThreadScheduledExecutor(), 100L)) {
+            when(session.getMetaData()).thenReturn(expiredMetaData);
+            scheduler.schedule(session);
+            // Session was accessed, moving it to a later bucket
+            when(session.getMetaData()).thenReturn(accessedMetaData);
+            scheduler.schedule(session);
+
+            Thread.sleep(500);
+
+            assertEquals(0L, scheduler.getMaxExpirationLag(TimeUnit.MILLISECONDS));
+        }
+
+        verify(remover, never()).remove(id);
+        verify(batcher, never()).createBatch();
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.wildfly.clustering.ee.infinispan.Mutator;
+
+/**
+ * Unit test for {@link CoarseDeltaSessionAttributes}.
+ */
+public class CoarseDeltaSessionAttributesTestCase {
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final Map<String, Object> delta = new HashMap<>();
+    private final Mutator mutator = mock(Mutator.class);
+
+    private final CoarseDeltaSessionAttributes sessionAttributes = new CoarseDeltaSessionAttributes(this.attributes, this.delta, this.mutator);
+
+    @Test
+    public void setAttribute() {
+        this.attributes.put("a", "old");
+        this.attributes.put("b", "b");
+
+        assertEquals("old", this.sessionAttributes.setAttribute("a", "new"));
+
+        assertEquals("new", this.attributes.get("a"));
+        assertEquals(1, this.delta.size());
+        assertEquals("new", this.delta.get("a"));
+        verify(this.mutator).mutate();
+
+        assertEquals("b", this.sessionAttributes.setAttribute("b", null));
+
+        assertFalse(this.attributes.containsKey("b"));
+        assertTrue(this.delta.containsKey("b"));
+        assertNull(this.delta.get("b"));
+    }
+
+    @Test
+    public void removeAttribute() {
+        this.attributes.put("a", "a");
+
+        assertEquals("a", this.sessionAttributes.removeAttribute("a"));
+
+        assertTrue(this.attributes.isEmpty());
+        assertTrue(this.delta.containsKey("a"));
+        assertNull(this.delta.get("a"));
+        verify(this.mutator).mutate();
+    }
+
+    @Test
+    public void getAttribute() {
+        Date mutable = new Date();
+        this.attributes.put("immutable", "value");
+        this.attributes.put("mutable", mutable);
+
+        assertEquals("value", this.sessionAttributes.getAttribute("immutable"));
+
+        assertTrue(this.delta.isEmpty());
+        verify(this.mutator, never()).mutate();
+
+        assertSame(mutable, this.sessionAttributes.getAttribute("mutable"));
+
+        assertSame(mutable, this.delta.get("mutable"));
+        verify(this.mutator).mutate();
+    }
+
+    @Test
+    public void merge() {
+        this.attributes.put("a", "a");
+        this.attributes.put("b", "b");
+        this.delta.put("a", "new");
+        this.delta.put("b", null);
+        this.delta.put("c", "c");
+
+        CoarseDeltaSessionAttributes.merge(this.attributes, this.delta);
+
+        assertEquals(2, this.attributes.size());
+        assertEquals("new", this.attributes.get("a"));
+        assertEquals("c", this.attributes.get("c"));
+    }
+}
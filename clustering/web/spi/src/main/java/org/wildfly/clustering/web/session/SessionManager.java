@@ -26,9 +26,10 @@ import java.util.concurrent.TimeUnit;
 
 import org.wildfly.clustering.ee.Batch;
 import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.web.IdentifierAffinityStatistics;
 import org.wildfly.clustering.web.IdentifierFactory;
 
-public interface SessionManager<L, B extends Batch> extends IdentifierFactory<String>, ActiveSessionStatistics {
+public interface SessionManager<L, B extends Batch> extends IdentifierFactory<String>, IdentifierAffinityStatistics, ActiveSessionStatistics, SessionAttributeReplicationStatistics, SessionExpirationStatistics {
 
     /**
      * Indicates whether or not the session with the specified identifier is known to this session manager.
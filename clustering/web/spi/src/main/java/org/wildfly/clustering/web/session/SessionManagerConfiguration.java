@@ -34,6 +34,39 @@ public interface SessionManagerConfiguration {
 
     SessionAttributePersistenceStrategy getAttributePersistenceStrategy();
 
+    /**
+     * Returns the number of distinct session attributes that a {@link SessionAttributePersistenceStrategy#COARSE} session
+     * may accumulate in its replicated delta before the complete set of attributes is replicated instead.
+     * @return a delta snapshot threshold, or 0 if each mutation replicates the complete set of session attributes.
+     */
+    int getDeltaSnapshotThreshold();
+
+    /**
+     * Indicates whether a session attribute that was read, but whose immutability could not be established, is replicated only if its marshalled form changed by the end of the request.
+     * @return true, if mutations of session attributes are detected by content, false if any such attribute is replicated.
+     */
+    boolean isContentMutationDetectionEnabled();
+
+    /**
+     * Returns the duration for which a session read from a remote owner (i.e. when using DIST mode) may be retained by the requesting node.
+     * Retained sessions are invalidated by their owners whenever they change.
+     * @return a lifespan in milliseconds, or 0 if remote sessions are never retained.
+     */
+    long getNearCacheLifespan();
+
+    /**
+     * Indicates whether the replicated and persisted form of session attributes is compressed.
+     * @return true, if session attributes are compressed, false otherwise.
+     */
+    boolean isCompressionEnabled();
+
+    /**
+     * Returns the name of a resource of the deployment's module containing a preset dictionary with which session attributes are compressed.
+     * The dictionary must be identical on all nodes, and is typically trained from the serialized form of representative session attributes.
+     * @return a resource name, or null if session attributes are compressed without a dictionary.
+     */
+    String getCompressionDictionary();
+
     String getDeploymentName();
 
     Module getModule();
@@ -72,7 +72,7 @@ public class DistributableSessionManagerFactory implements io.undertow.servlet.a
             }
         };
         info.addThreadSetupAction(action);
-        RecordableSessionManagerStatistics statistics = (inactiveSessionStatistics != null) ? new DistributableSessionManagerStatistics(manager, inactiveSessionStatistics) : null;
+        RecordableSessionManagerStatistics statistics = (inactiveSessionStatistics != null) ? new DistributableSessionManagerStatistics(manager, inactiveSessionStatistics, manager, manager, manager) : null;
         return new DistributableSessionManager(info.getDeploymentName(), manager, statistics);
     }
 }
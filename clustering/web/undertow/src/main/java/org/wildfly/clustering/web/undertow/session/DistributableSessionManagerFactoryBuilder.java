@@ -86,6 +86,31 @@ public class DistributableSessionManagerFactoryBuilder implements org.wildfly.ex
                 return strategies.get(config.getGranularity());
             }
 
+            @Override
+            public int getDeltaSnapshotThreshold() {
+                return config.getDeltaSnapshotThreshold();
+            }
+
+            @Override
+            public boolean isContentMutationDetectionEnabled() {
+                return config.isContentMutationDetectionEnabled();
+            }
+
+            @Override
+            public long getNearCacheLifespan() {
+                return config.getNearCacheLifespan();
+            }
+
+            @Override
+            public boolean isCompressionEnabled() {
+                return config.isCompressionEnabled();
+            }
+
+            @Override
+            public String getCompressionDictionary() {
+                return config.getCompressionDictionary();
+            }
+
             @Override
             public String getDeploymentName() {
                 return config.getDeploymentName();
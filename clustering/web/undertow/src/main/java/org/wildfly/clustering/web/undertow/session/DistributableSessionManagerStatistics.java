@@ -25,24 +25,33 @@ package org.wildfly.clustering.web.undertow.session;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.wildfly.clustering.web.IdentifierAffinityStatistics;
 import org.wildfly.clustering.web.session.ActiveSessionStatistics;
 import org.wildfly.clustering.web.session.InactiveSessionStatistics;
+import org.wildfly.clustering.web.session.SessionAttributeReplicationStatistics;
+import org.wildfly.clustering.web.session.SessionExpirationStatistics;
 
 import io.undertow.server.session.Session;
 
 /**
  * @author Paul Ferraro
  */
-public class DistributableSessionManagerStatistics implements RecordableSessionManagerStatistics {
+public class DistributableSessionManagerStatistics implements RecordableSessionManagerStatistics, org.wildfly.extension.undertow.session.DistributableSessionManagerStatistics {
 
     private final InactiveSessionStatistics inactiveSessionStatistics;
     private final ActiveSessionStatistics activeSessionStatistics;
+    private final SessionAttributeReplicationStatistics replicationStatistics;
+    private final SessionExpirationStatistics expirationStatistics;
+    private final IdentifierAffinityStatistics affinityStatistics;
     private volatile long startTime = System.currentTimeMillis();
     private final AtomicLong createdSessionCount = new AtomicLong();
 
-    public DistributableSessionManagerStatistics(ActiveSessionStatistics activeSessionStatistics, InactiveSessionStatistics inactiveSessionStatistics) {
+    public DistributableSessionManagerStatistics(ActiveSessionStatistics activeSessionStatistics, InactiveSessionStatistics inactiveSessionStatistics, SessionAttributeReplicationStatistics replicationStatistics, SessionExpirationStatistics expirationStatistics, IdentifierAffinityStatistics affinityStatistics) {
         this.activeSessionStatistics = activeSessionStatistics;
         this.inactiveSessionStatistics = inactiveSessionStatistics;
+        this.replicationStatistics = replicationStatistics;
+        this.expirationStatistics = expirationStatistics;
+        this.affinityStatistics = affinityStatistics;
         this.reset();
     }
 
@@ -93,6 +102,26 @@ public class DistributableSessionManagerStatistics implements RecordableSessionM
         return this.inactiveSessionStatistics.getMeanSessionLifetime(TimeUnit.MILLISECONDS);
     }
 
+    @Override
+    public long getSuppressedAttributeReplicationCount() {
+        return this.replicationStatistics.getSuppressedAttributeReplicationCount();
+    }
+
+    @Override
+    public long getMaxExpirationLag() {
+        return this.expirationStatistics.getMaxExpirationLag(TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getAverageExpirationLag() {
+        return this.expirationStatistics.getMeanExpirationLag(TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getNonLocalSessionIdentifierCount() {
+        return this.affinityStatistics.getNonLocalIdentifierCount();
+    }
+
     @Override
     public long getStartTime() {
         return this.startTime;
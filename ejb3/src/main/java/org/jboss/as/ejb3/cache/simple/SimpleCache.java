@@ -21,10 +21,11 @@
  */
 package org.jboss.as.ejb3.cache.simple;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +43,10 @@ import org.wildfly.clustering.ejb.IdentifierFactory;
 
 /**
  * Simple {@link Cache} implementation using in-memory storage and eager expiration.
+ * <p/>
+ * Idle beans are linked into one of a fixed number of expiration buckets, by the tick in which they expire, and a single
+ * periodic task sweeps the due buckets. Touching a bean only unlinks it from its bucket, so neither access nor release
+ * allocates or schedules anything. Beans expire at most one tick, a 32nd of the stateful timeout, late.
  *
  * @author Paul Ferraro
  *
@@ -50,47 +55,65 @@ import org.wildfly.clustering.ejb.IdentifierFactory;
  */
 public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
-    final Map<K, Future<?>> expirationFutures = new ConcurrentHashMap<>();
+    /**
+     * Number of expiration buckets, must be a power of two
+     */
+    private static final int BUCKETS = 64;
+
+    /**
+     * Number of ticks per stateful timeout. Keeping this at half the number of buckets ensures that a bucket only ever
+     * holds beans of a single round of the wheel.
+     */
+    private static final int TICKS_PER_TIMEOUT = BUCKETS / 2;
+
     private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
     private final StatefulObjectFactory<V> factory;
     private final IdentifierFactory<K> identifierFactory;
     private final StatefulTimeoutInfo timeout;
     private final ServerEnvironment environment;
     private final ScheduledExecutorService executor;
+    private final long timeoutMillis;
+    private final long tickMillis;
+    private final Bucket<V>[] buckets;
+    private volatile Future<?> expirationFuture;
 
+    @SuppressWarnings("unchecked")
     public SimpleCache(StatefulObjectFactory<V> factory, IdentifierFactory<K> identifierFactory, StatefulTimeoutInfo timeout, ServerEnvironment environment, ScheduledExecutorService executor) {
         this.factory = factory;
         this.identifierFactory = identifierFactory;
         this.timeout = timeout;
         this.environment = environment;
         this.executor = executor;
+        this.timeoutMillis = (timeout != null) ? timeout.getTimeUnit().toMillis(timeout.getValue()) : -1;
+        this.tickMillis = Math.max(this.timeoutMillis / TICKS_PER_TIMEOUT, 1);
+        this.buckets = new Bucket[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.buckets[i] = new Bucket<>();
+        }
     }
 
     @Override
     public void start() {
-        // Do nothing
+        if ((this.timeout != null) && (this.timeout.getValue() > 0)) {
+            this.expirationFuture = this.executor.scheduleWithFixedDelay(new ExpirationTask(this.currentTick()), this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void stop() {
-        for (Future<?> future: this.expirationFutures.values()) {
+        Future<?> future = this.expirationFuture;
+        if (future != null) {
             future.cancel(true);
-        }
-        for (Future<?> future: this.expirationFutures.values()) {
-            if (!future.isCancelled() && !future.isDone()) {
-                try {
-                    future.get();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    // Ignore
-                }
-            }
+            this.expirationFuture = null;
         }
         for(Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
             this.factory.destroyInstance(entry.getValue().getValue());
         }
-        this.expirationFutures.clear();
+        for (Bucket<V> bucket : this.buckets) {
+            synchronized (bucket) {
+                bucket.clear();
+            }
+        }
         this.entries.clear();
     }
 
@@ -122,26 +145,31 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
     @Override
     public void discard(V value) {
-        this.entries.remove(value.getId());
+        Entry<V> entry = this.entries.remove(value.getId());
+        if (entry != null) {
+            this.unschedule(entry);
+        }
     }
 
     @Override
     public void remove(K key) {
         Entry<V> entry = this.entries.remove(key);
         if (entry != null) {
+            this.unschedule(entry);
             this.factory.destroyInstance(entry.getValue());
         }
     }
 
     @Override
     public V get(K key) {
-        Future<?> future = this.expirationFutures.get(key);
-        if (future != null) {
-            future.cancel(true);
-        }
         Entry<V> entry = this.entries.get(key);
-        if (entry == null) return null;
-        entry.use();
+        // A bean that expired concurrently can no longer be used
+        if ((entry == null) || !entry.use()) return null;
+        synchronized (entry) {
+            // Invalidates a concurrent sweep of the schedule the entry was drained from
+            entry.generation += 1;
+            this.unschedule(entry);
+        }
         return entry.getValue();
     }
 
@@ -158,12 +186,8 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
             if (this.timeout != null) {
                 long value = this.timeout.getValue();
                 if (value > 0) {
-                    TimeUnit unit = this.timeout.getTimeUnit();
-                    RemoveTask task = new RemoveTask(id);
-                    // Make sure the expiration future map insertion happens before map removal (during task execution).
-                    synchronized (task) {
-                        this.expirationFutures.put(id, this.executor.schedule(task, value, unit));
-                    }
+                    // Round up, so that the bean is never swept before its timeout elapsed
+                    this.schedule(entry, (this.currentTimeMillis() + this.timeoutMillis + this.tickMillis - 1) / this.tickMillis);
                 } else if (value == 0) {
                     // The EJB specification allows a 0 timeout, which means the bean is immediately eligible for removal.
                     // However, removing it directly is faster than scheduling it for immediate removal.
@@ -188,38 +212,173 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
         return this.getCacheSize();
     }
 
-    class RemoveTask implements Runnable {
-        private final K key;
+    long currentTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    long currentTick() {
+        return this.currentTimeMillis() / this.tickMillis;
+    }
+
+    private void schedule(Entry<V> entry, long tick) {
+        int index = (int) (tick & (BUCKETS - 1));
+        Bucket<V> bucket = this.buckets[index];
+        // Scheduling and unscheduling of an entry is serialized on the entry, so only the expiration task can unlink it concurrently
+        synchronized (entry) {
+            this.unschedule(entry);
+            entry.scheduledGeneration = entry.generation;
+            synchronized (bucket) {
+                bucket.add(entry, index, tick);
+            }
+        }
+    }
+
+    private void unschedule(Entry<V> entry) {
+        synchronized (entry) {
+            int index = entry.bucket;
+            if (index >= 0) {
+                Bucket<V> bucket = this.buckets[index];
+                synchronized (bucket) {
+                    // Re-check, the entry may have been swept in the meantime
+                    if (entry.bucket == index) {
+                        bucket.unlink(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    class ExpirationTask implements Runnable {
+        private long sweptTick;
 
-        RemoveTask(K key) {
-            this.key = key;
+        ExpirationTask(long tick) {
+            this.sweptTick = tick;
         }
 
         @Override
-        public synchronized void run() {
-            if (!Thread.currentThread().isInterrupted()) {
-                SimpleCache.this.remove(this.key);
+        public void run() {
+            long tick = SimpleCache.this.currentTick();
+            if (tick <= this.sweptTick) return;
+            this.expire(this.drain(tick));
+        }
+
+        List<Entry<V>> drain(long tick) {
+            // Each bucket needs sweeping at most once, however late we are
+            long first = Math.max(this.sweptTick + 1, tick - BUCKETS + 1);
+            List<Entry<V>> expired = new ArrayList<>();
+            for (long t = first; t <= tick; ++t) {
+                Bucket<V> bucket = SimpleCache.this.buckets[(int) (t & (BUCKETS - 1))];
+                synchronized (bucket) {
+                    bucket.drain(tick, expired);
+                }
+            }
+            this.sweptTick = tick;
+            return expired;
+        }
+
+        void expire(List<Entry<V>> expired) {
+            for (Entry<V> entry : expired) {
+                if (Thread.currentThread().isInterrupted()) return;
+                boolean expire;
+                synchronized (entry) {
+                    // Beans that were accessed since they were drained are either in use, or rescheduled by their release
+                    expire = (entry.bucket < 0) && (entry.generation == entry.scheduledGeneration) && entry.expire();
+                }
+                if (expire && SimpleCache.this.entries.remove(entry.getValue().getId(), entry)) {
+                    SimpleCache.this.factory.destroyInstance(entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of the entries expiring in the same tick, modulo the number of buckets.
+     * All methods must be called while holding the monitor of the bucket.
+     */
+    static class Bucket<V> {
+        private Entry<V> head;
+
+        void add(Entry<V> entry, int index, long tick) {
+            entry.tick = tick;
+            entry.previous = null;
+            entry.next = this.head;
+            if (this.head != null) {
+                this.head.previous = entry;
+            }
+            this.head = entry;
+            entry.bucket = index;
+        }
+
+        void unlink(Entry<V> entry) {
+            if (entry.previous != null) {
+                entry.previous.next = entry.next;
+            } else {
+                this.head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.previous = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+            entry.bucket = -1;
+        }
+
+        void drain(long tick, List<Entry<V>> expired) {
+            Entry<V> entry = this.head;
+            while (entry != null) {
+                Entry<V> next = entry.next;
+                if (entry.tick <= tick) {
+                    this.unlink(entry);
+                    expired.add(entry);
+                }
+                entry = next;
+            }
+        }
+
+        void clear() {
+            while (this.head != null) {
+                this.unlink(this.head);
             }
-            SimpleCache.this.expirationFutures.remove(this.key);
         }
     }
 
     static class Entry<V> {
+        private static final int EXPIRED = Integer.MIN_VALUE;
+
         private final V value;
         private final AtomicInteger usage = new AtomicInteger();
+        // Guarded by the monitor of the entry: the number of accesses, and that number when the entry was last scheduled
+        int generation;
+        int scheduledGeneration;
+        // The remaining fields are guarded by the monitor of the bucket the entry is linked into
+        volatile int bucket = -1;
+        long tick;
+        Entry<V> previous;
+        Entry<V> next;
 
         Entry(V value) {
             this.value = value;
         }
 
-        void use() {
-            this.usage.incrementAndGet();
+        boolean use() {
+            int current = this.usage.get();
+            while (current != EXPIRED) {
+                if (this.usage.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                current = this.usage.get();
+            }
+            return false;
         }
 
         boolean done() {
             return this.usage.decrementAndGet() == 0;
         }
 
+        boolean expire() {
+            return this.usage.compareAndSet(0, EXPIRED);
+        }
+
         V getValue() {
             return this.value;
         }
@@ -54,6 +54,7 @@ import org.jboss.as.ejb3.component.invocationmetrics.InvocationMetrics;
 import org.jboss.as.ejb3.context.CurrentInvocationContext;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.remote.EJBRemoteTransactionsRepository;
+import org.jboss.as.ejb3.remote.ResponseCompressionMetrics;
 import org.jboss.as.ejb3.security.EJBSecurityMetaData;
 import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
 import org.jboss.as.ejb3.tx.ApplicationExceptionDetails;
@@ -103,6 +104,7 @@ public abstract class EJBComponent extends BasicComponent implements ServerActiv
     private final EJBRemoteTransactionsRepository ejbRemoteTransactionsRepository;
 
     private final InvocationMetrics invocationMetrics = new InvocationMetrics();
+    private final ResponseCompressionMetrics responseCompressionMetrics = new ResponseCompressionMetrics();
     private final ShutDownInterceptorFactory shutDownInterceptorFactory;
     private final TransactionManager transactionManager;
     private final TransactionSynchronizationRegistry transactionSynchronizationRegistry;
@@ -531,6 +533,10 @@ public abstract class EJBComponent extends BasicComponent implements ServerActiv
         return invocationMetrics;
     }
 
+    public ResponseCompressionMetrics getResponseCompressionMetrics() {
+        return responseCompressionMetrics;
+    }
+
     public ControlPoint getControlPoint() {
         return this.controlPoint;
     }
@@ -38,6 +38,7 @@ import org.jboss.as.ejb3.component.pool.PoolConfig;
 import org.jboss.as.ejb3.component.pool.PooledComponent;
 import org.jboss.as.ejb3.inflow.JBossMessageEndpointFactory;
 import org.jboss.as.ejb3.inflow.MessageEndpointService;
+import org.jboss.as.ejb3.inflow.PartitionedMessageDelivery;
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.pool.StatelessObjectFactory;
 import org.jboss.as.server.suspend.ServerActivity;
@@ -67,6 +68,7 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
     private final ActivationSpec activationSpec;
     private final MessageEndpointFactory endpointFactory;
     private final ClassLoader classLoader;
+    private final PartitionedMessageDelivery partitionedDelivery;
     private volatile boolean deliveryActive;
     private Endpoint endpoint;
     private String activationName;
@@ -134,6 +136,13 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
         this.classLoader = ejbComponentCreateService.getModuleClassLoader();
         this.suspendController = ejbComponentCreateService.getSuspendControllerInjectedValue().getValue();
         this.activationSpec = activationSpec;
+        final String deliveryPartitionKey = ejbComponentCreateService.getDeliveryPartitionKey();
+        if (deliveryPartitionKey == null) {
+            this.partitionedDelivery = null;
+        } else {
+            this.partitionedDelivery = new PartitionedMessageDelivery(deliveryPartitionKey, ejbComponentCreateService.getDeliveryPartitions(),
+                    ejbComponentCreateService.getComponentName());
+        }
         final ClassLoader componentClassLoader = doPrivileged(new GetClassLoaderAction(ejbComponentCreateService.getComponentClass()));
         final MessageEndpointService<?> service = new MessageEndpointService<Object>() {
             @Override
@@ -159,6 +168,11 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
                 return activationName;
             }
 
+            @Override
+            public PartitionedMessageDelivery getPartitionedDelivery() {
+                return partitionedDelivery;
+            }
+
             @Override
             public Object obtain(long timeout, TimeUnit unit) {
                 // like this it's a disconnected invocation
@@ -221,6 +235,10 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
     @Override
     public void done() {
 
+        if (this.partitionedDelivery != null) {
+            // reject queued deliveries, so that the resource adapter redelivers them
+            this.partitionedDelivery.stop();
+        }
         deactivate();
 
         if (this.pool != null) {
@@ -276,6 +294,13 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
         return deliveryActive;
     }
 
+    /**
+     * @return the partitioned delivery of this MDB, or {@code null} if messages are delivered in the thread of the resource adapter
+     */
+    public PartitionedMessageDelivery getPartitionedDelivery() {
+        return partitionedDelivery;
+    }
+
     @Override
     public AllowedMethodsInformation getAllowedMethodsInformation() {
         return isBeanManagedTransaction() ? MessageDrivenAllowedMethodsInformation.INSTANCE_BMT : MessageDrivenAllowedMethodsInformation.INSTANCE_CMT;
@@ -52,6 +52,8 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
     private final Properties activationProps;
     private final String resourceAdapterName;
     private final boolean deliveryActive;
+    private final String deliveryPartitionKey;
+    private final int deliveryPartitions;
     private final InjectedValue<ResourceAdapter> resourceAdapterInjectedValue = new InjectedValue<ResourceAdapter>();
     private final InjectedValue<PoolConfig> poolConfig = new InjectedValue<PoolConfig>();
     private final InjectedValue<DefaultResourceAdapterService> defaultResourceAdapterServiceInjectedValue = new InjectedValue<DefaultResourceAdapterService>();
@@ -72,6 +74,8 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
         this.deliveryActive = componentDescription.getDeliveryGroup()== null && !componentDescription.isClusteredSingleton() && componentDescription.isDeliveryActive();
         // see MessageDrivenComponentDescription.<init>
         this.messageListenerInterface = messageListenerInterface;
+        this.deliveryPartitionKey = componentDescription.getDeliveryPartitionKey();
+        this.deliveryPartitions = componentDescription.getDeliveryPartitions();
 
         this.activationProps = componentDescription.getActivationProps();
         this.moduleClassLoader = componentConfiguration.getModuleClassLoader();
@@ -163,6 +167,14 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
         return suspendControllerInjectedValue;
     }
 
+    String getDeliveryPartitionKey() {
+        return deliveryPartitionKey;
+    }
+
+    int getDeliveryPartitions() {
+        return deliveryPartitions;
+    }
+
     private String stripDotRarSuffix(final String raName) {
         if (raName == null) {
             return null;
@@ -52,6 +52,7 @@ import org.jboss.as.ejb3.component.interceptors.CurrentInvocationContextIntercep
 import org.jboss.as.ejb3.component.pool.PoolConfig;
 import org.jboss.as.ejb3.component.pool.PoolConfigService;
 import org.jboss.as.ejb3.deployment.EjbJarDescription;
+import org.jboss.as.ejb3.inflow.PartitionedMessageDelivery;
 import org.jboss.as.ejb3.tx.CMTTxInterceptor;
 import org.jboss.as.ejb3.tx.EjbBMTInterceptor;
 import org.jboss.as.ejb3.tx.LifecycleCMTTxInterceptor;
@@ -78,6 +79,8 @@ public class MessageDrivenComponentDescription extends EJBComponentDescription {
     private boolean deliveryActive;
     private String deliveryGroup;
     private boolean clusteredSingleton;
+    private final String deliveryPartitionKey;
+    private final int deliveryPartitions;
 
     private String mdbPoolConfigName;
     private final String messageListenerInterfaceName;
@@ -103,6 +106,21 @@ public class MessageDrivenComponentDescription extends EJBComponentDescription {
         this.resourceAdapterName = defaultResourceAdapterName;
         this.deliveryActive = true;
         this.activationProps = activationProps;
+        // partitioned delivery is configured through activation config properties of our own, keep them away from the resource adapter
+        this.deliveryPartitionKey = trimToNull((String) activationProps.remove(PartitionedMessageDelivery.PARTITION_KEY_PROPERTY));
+        final String partitions = trimToNull((String) activationProps.remove(PartitionedMessageDelivery.PARTITIONS_PROPERTY));
+        if (partitions == null) {
+            this.deliveryPartitions = PartitionedMessageDelivery.DEFAULT_PARTITIONS;
+        } else {
+            try {
+                this.deliveryPartitions = Integer.parseInt(partitions);
+            } catch (NumberFormatException e) {
+                throw EjbLogger.ROOT_LOGGER.invalidActivationConfigPropertyValue(partitions, PartitionedMessageDelivery.PARTITIONS_PROPERTY, componentName);
+            }
+            if (this.deliveryPartitions < 1) {
+                throw EjbLogger.ROOT_LOGGER.invalidActivationConfigPropertyValue(partitions, PartitionedMessageDelivery.PARTITIONS_PROPERTY, componentName);
+            }
+        }
 
         this.messageListenerInterfaceName = messageListenerInterfaceName;
         registerView(getEJBClassName(), MethodIntf.MESSAGE_ENDPOINT);
@@ -178,6 +196,17 @@ public class MessageDrivenComponentDescription extends EJBComponentDescription {
         return activationProps;
     }
 
+    /**
+     * @return the message property partitioning the deliveries to this MDB, or {@code null} if partitioned delivery is disabled
+     */
+    public String getDeliveryPartitionKey() {
+        return deliveryPartitionKey;
+    }
+
+    public int getDeliveryPartitions() {
+        return deliveryPartitions;
+    }
+
     public boolean isDeliveryActive() {
         return deliveryActive;
     }
@@ -350,4 +379,11 @@ public class MessageDrivenComponentDescription extends EJBComponentDescription {
         return (MessageDrivenBeanMetaData) super.getDescriptorData();
     }
 
+    private static String trimToNull(final String value) {
+        if (value == null) {
+            return null;
+        }
+        final String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
 }
@@ -38,6 +38,7 @@ import org.jboss.as.ejb3.component.allowedmethods.AllowedMethodsInformation;
 import org.jboss.as.ejb3.component.session.SessionBeanComponent;
 import org.jboss.as.ejb3.concurrency.AccessTimeoutDetails;
 import org.jboss.as.ejb3.concurrency.LockableComponent;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockMode;
 import org.jboss.as.server.CurrentServiceContainer;
 import org.jboss.invocation.Interceptor;
 import org.jboss.msc.service.ServiceContainer;
@@ -67,6 +68,8 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
 
     private final DefaultAccessTimeoutService defaultAccessTimeoutProvider;
 
+    private final ReadWriteLockMode readWriteLockMode;
+
     private Interceptor interceptor;
 
     /**
@@ -91,6 +94,7 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
         this.methodLockTypes = singletonComponentCreateService.getMethodApplicableLockTypes();
         this.methodAccessTimeouts = singletonComponentCreateService.getMethodApplicableAccessTimeouts();
         this.defaultAccessTimeoutProvider = singletonComponentCreateService.getDefaultAccessTimeoutService();
+        this.readWriteLockMode = singletonComponentCreateService.getReadWriteLockModeService().getMode();
     }
 
     @Override
@@ -181,6 +185,11 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
         return defaultAccessTimeoutProvider.getDefaultAccessTimeout();
     }
 
+    @Override
+    public ReadWriteLockMode getReadWriteLockMode() {
+        return readWriteLockMode;
+    }
+
     @Override
     public void setConcurrencyManagementInterceptor(Interceptor interceptor) {
         this.interceptor = interceptor;
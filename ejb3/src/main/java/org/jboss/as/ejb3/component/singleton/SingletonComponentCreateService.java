@@ -26,6 +26,7 @@ import org.jboss.as.ee.component.BasicComponent;
 import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentCreateService;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockModeService;
 import org.jboss.as.ejb3.deployment.ApplicationExceptions;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.ServiceName;
@@ -41,6 +42,7 @@ public class SingletonComponentCreateService extends SessionBeanComponentCreateS
     private final boolean initOnStartup;
     private final List<ServiceName> dependsOn;
     private final InjectedValue<DefaultAccessTimeoutService> defaultAccessTimeoutService = new InjectedValue<DefaultAccessTimeoutService>();
+    private final InjectedValue<ReadWriteLockModeService> readWriteLockModeService = new InjectedValue<ReadWriteLockModeService>();
 
     public SingletonComponentCreateService(final ComponentConfiguration componentConfiguration, final ApplicationExceptions ejbJarConfiguration, final boolean initOnStartup, final List<ServiceName> dependsOn) {
         super(componentConfiguration, ejbJarConfiguration);
@@ -64,4 +66,12 @@ public class SingletonComponentCreateService extends SessionBeanComponentCreateS
     Injector<DefaultAccessTimeoutService> getDefaultAccessTimeoutInjector() {
         return this.defaultAccessTimeoutService;
     }
+
+    public ReadWriteLockModeService getReadWriteLockModeService() {
+        return readWriteLockModeService.getValue();
+    }
+
+    Injector<ReadWriteLockModeService> getReadWriteLockModeInjector() {
+        return this.readWriteLockModeService;
+    }
 }
@@ -28,6 +28,7 @@ import org.jboss.as.ee.component.DependencyConfigurator;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.EJBComponentCreateServiceFactory;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockModeService;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceName;
@@ -52,12 +53,13 @@ public class SingletonComponentCreateServiceFactory extends EJBComponentCreateSe
         if (this.ejbJarConfiguration == null) {
             throw EjbLogger.ROOT_LOGGER.ejbJarConfigNotBeenSet(this, configuration.getComponentName());
         }
-        // setup an injection dependency to inject the DefaultAccessTimeoutService in the singleton bean
-        // component create service
+        // setup an injection dependency to inject the DefaultAccessTimeoutService and the ReadWriteLockModeService
+        // in the singleton bean component create service
         configuration.getCreateDependencies().add(new DependencyConfigurator<SingletonComponentCreateService>() {
             @Override
             public void configureDependency(ServiceBuilder<?> serviceBuilder, SingletonComponentCreateService componentCreateService) throws DeploymentUnitProcessingException {
                 serviceBuilder.addDependency(DefaultAccessTimeoutService.SINGLETON_SERVICE_NAME, DefaultAccessTimeoutService.class, componentCreateService.getDefaultAccessTimeoutInjector());
+                serviceBuilder.addDependency(ReadWriteLockModeService.SINGLETON_SERVICE_NAME, ReadWriteLockModeService.class, componentCreateService.getReadWriteLockModeInjector());
             }
         });
         return new SingletonComponentCreateService(configuration, this.ejbJarConfiguration, this.initOnStartup, dependsOn);
@@ -223,4 +223,10 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
     public Time getTimeout() {
         return (this.statefulTimeout != null) ? new Time(this.statefulTimeout.getValue(), this.statefulTimeout.getTimeUnit()) : null;
     }
+
+    @Override
+    public Set<Object> getSharedReferences() {
+        // Interceptor context keys are shared by all instances of this component
+        return this.serializableInterceptorContextKeys;
+    }
 }
@@ -31,6 +31,7 @@ import javax.interceptor.InvocationContext;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 
@@ -41,20 +42,37 @@ import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
 public class ContainerManagedConcurrencyInterceptor implements Interceptor {
 
     /**
-     * A spec compliant {@link org.jboss.as.ejb3.concurrency.EJBReadWriteLock}
+     * A spec compliant lock, either a {@link org.jboss.as.ejb3.concurrency.EJBReadWriteLock} or a
+     * {@link org.jboss.as.ejb3.concurrency.StripedEJBReadWriteLock} depending on the component's {@link ReadWriteLockMode}
      */
-    private final ReadWriteLock readWriteLock = new EJBReadWriteLock();
+    private final ReadWriteLock readWriteLock;
 
     private final LockableComponent lockableComponent;
 
     private final Map<Method, Method> viewMethodToComponentMethodMap;
 
+    /**
+     * Number of invocations which could not obtain their lock immediately
+     */
+    private final LongAdder contentionCount = new LongAdder();
+
+    /**
+     * Total time, in nanoseconds, spent by contended invocations waiting for their lock
+     */
+    private final LongAdder contentionWaitTime = new LongAdder();
+
+    /**
+     * Number of invocations which failed to obtain their lock within the access timeout
+     */
+    private final LongAdder timeoutCount = new LongAdder();
+
     public ContainerManagedConcurrencyInterceptor(LockableComponent component, Map<Method, Method> viewMethodToComponentMethodMap) {
         this.viewMethodToComponentMethodMap = viewMethodToComponentMethodMap;
         if (component == null) {
             throw EjbLogger.ROOT_LOGGER.componentIsNull(LockableComponent.class.getName());
         }
         this.lockableComponent = component;
+        this.readWriteLock = component.getReadWriteLockMode().createLock();
     }
 
     protected LockableComponent getLockableComponent() {
@@ -100,10 +118,21 @@ public class ContainerManagedConcurrencyInterceptor implements Interceptor {
                 unit = accessTimeoutOnMethod.getTimeUnit();
             }
         }
-        // try getting the lock
-        boolean success = lock.tryLock(time, unit);
-        if (!success) {
-            throw EjbLogger.ROOT_LOGGER.concurrentAccessTimeoutException(lockableComponent.getComponentName(), time + unit.name());
+        // try getting the lock, first without waiting so that contention can be accounted for. The locks are nonfair, so
+        // this attempt may be granted ahead of queued threads, just like the timed attempt which follows it
+        if (!lock.tryLock(0, TimeUnit.NANOSECONDS)) {
+            contentionCount.increment();
+            final long start = System.nanoTime();
+            final boolean success;
+            try {
+                success = lock.tryLock(time, unit);
+            } finally {
+                contentionWaitTime.add(System.nanoTime() - start);
+            }
+            if (!success) {
+                timeoutCount.increment();
+                throw EjbLogger.ROOT_LOGGER.concurrentAccessTimeoutException(lockableComponent.getComponentName(), time + unit.name());
+            }
         }
         try {
             // lock obtained. now proceed!
@@ -113,6 +142,27 @@ public class ContainerManagedConcurrencyInterceptor implements Interceptor {
         }
     }
 
+    /**
+     * @return the number of invocations which had to wait for their lock
+     */
+    public long getContentionCount() {
+        return contentionCount.sum();
+    }
+
+    /**
+     * @return the total time, in milliseconds, invocations spent waiting for their lock
+     */
+    public long getContentionWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(contentionWaitTime.sum());
+    }
+
+    /**
+     * @return the number of invocations which failed to obtain their lock within the access timeout
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
     private Lock getLock(LockableComponent lockableComponent, Method method) {
         LockType lockType = lockableComponent.getLockType(method);
         switch (lockType) {
@@ -70,6 +70,13 @@ public interface LockableComponent {
      */
     String getComponentName();
 
+    /**
+     * Returns the {@link ReadWriteLockMode} used to create the lock guarding this component.
+     *
+     * @return
+     */
+    ReadWriteLockMode getReadWriteLockMode();
+
     void setConcurrencyManagementInterceptor(Interceptor interceptor);
 
     Interceptor getConcurrencyManagementInterceptor();
@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+/**
+ * Service that manages the {@link ReadWriteLockMode} used by container managed concurrency of singleton beans
+ */
+public class ReadWriteLockModeService implements Service<ReadWriteLockModeService> {
+
+    public static final ServiceName SINGLETON_SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "singletonLockMode");
+
+    private volatile ReadWriteLockMode mode;
+
+    public ReadWriteLockModeService(final ReadWriteLockMode mode) {
+        this.mode = mode;
+    }
+
+    public ReadWriteLockMode getMode() {
+        return mode;
+    }
+
+    public void setMode(final ReadWriteLockMode mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public void start(final StartContext context) throws StartException {
+    }
+
+    @Override
+    public void stop(final StopContext context) {
+    }
+
+    @Override
+    public ReadWriteLockModeService getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+}
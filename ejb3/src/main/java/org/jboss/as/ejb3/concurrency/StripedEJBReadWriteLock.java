@@ -0,0 +1,387 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+
+/**
+ * A {@link java.util.concurrent.locks.ReadWriteLock} with the same semantics as {@link EJBReadWriteLock}, which scales
+ * read acquisition across cores.
+ * <p/>
+ * Readers announce themselves by incrementing a counter in one of several cache line padded stripes, picked per thread,
+ * instead of contending on the single state word of a {@link java.util.concurrent.locks.ReentrantReadWriteLock}. A writer
+ * first acquires the write lock of the internal {@link java.util.concurrent.locks.ReentrantReadWriteLock}, then raises
+ * the {@link #writerActive} flag, which diverts new readers to the internal lock, and finally waits for the stripes to
+ * drain. Reentrant acquisitions, loopback detection and timeouts behave as they do for {@link EJBReadWriteLock}.
+ */
+public class StripedEJBReadWriteLock implements ReadWriteLock {
+
+    /**
+     * Number of longs between two stripes, so that each counter sits on its own cache line
+     */
+    private static final int STRIPE_PADDING = 16;
+
+    private static final int MAX_STRIPES = 64;
+
+    /**
+     * Number of times a writer yields while waiting for readers to drain, before it starts to park
+     */
+    private static final int WRITER_YIELDS = 64;
+
+    private static final long WRITER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final ReentrantReadWriteLock delegate = new ReentrantReadWriteLock();
+
+    /**
+     * Counts of the read locks acquired through the striped path
+     */
+    private final AtomicLongArray readers;
+
+    private final int stripeMask;
+
+    /**
+     * Set while a writer holds, or is draining readers for, the write lock of the {@link #delegate}
+     */
+    private volatile boolean writerActive;
+
+    /**
+     * Keep track of the read locks held by the current thread
+     */
+    private final ThreadLocal<ReadHolds> readHolds = new ThreadLocal<ReadHolds>() {
+        @Override
+        protected ReadHolds initialValue() {
+            return new ReadHolds(stripeMask);
+        }
+    };
+
+    private final Lock readLock = new ReadLock();
+
+    private final Lock writeLock = new WriteLock();
+
+    public StripedEJBReadWriteLock() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    StripedEJBReadWriteLock(int concurrency) {
+        int stripes = 1;
+        while (stripes < concurrency && stripes < MAX_STRIPES) {
+            stripes <<= 1;
+        }
+        this.stripeMask = stripes - 1;
+        this.readers = new AtomicLongArray(stripes * STRIPE_PADDING);
+    }
+
+    /**
+     * Read locks held by a thread. Locks taken while no writer was active are counted in a stripe, the others are held
+     * on the {@link #delegate}. A thread only ever holds one kind at a time, because reentrant acquisitions use the
+     * same path as the outermost one.
+     */
+    private static final class ReadHolds {
+        final int index;
+        int striped;
+        int delegated;
+
+        ReadHolds(int stripeMask) {
+            this.index = (mix(Thread.currentThread().getId()) & stripeMask) * STRIPE_PADDING;
+        }
+
+        private static int mix(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * A read lock which prefers the striped reader counters, and falls back to the read lock of the {@link #delegate}
+     * while a writer is active
+     */
+    public class ReadLock implements Lock {
+
+        @Override
+        public void lock() {
+            final ReadHolds holds = readHolds.get();
+            if (!tryReentrantOrStriped(holds)) {
+                delegate.readLock().lock();
+                holds.delegated++;
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            final ReadHolds holds = readHolds.get();
+            if (!tryReentrantOrStriped(holds)) {
+                delegate.readLock().lockInterruptibly();
+                holds.delegated++;
+            }
+        }
+
+        /**
+         * No implementation provided
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean tryLock() {
+            final ReadHolds holds = readHolds.get();
+            if (tryReentrantOrStriped(holds)) {
+                return true;
+            }
+            if (delegate.readLock().tryLock()) {
+                holds.delegated++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            final ReadHolds holds = readHolds.get();
+            if (tryReentrantOrStriped(holds)) {
+                return true;
+            }
+            if (delegate.readLock().tryLock(time, unit)) {
+                holds.delegated++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void unlock() {
+            final ReadHolds holds = readHolds.get();
+            if (holds.striped > 0) {
+                holds.striped--;
+                readers.decrementAndGet(holds.index);
+            } else if (holds.delegated > 0) {
+                delegate.readLock().unlock();
+                holds.delegated--;
+            } else {
+                throw new IllegalMonitorStateException();
+            }
+        }
+    }
+
+    /**
+     * A write lock which first checks the read locks held by this thread. If the thread already holds a
+     * {@link ReadLock}, then this implementation throws an {@link javax.ejb.IllegalLoopbackException} when a lock is
+     * requested.
+     */
+    public class WriteLock implements Lock {
+
+        @Override
+        public void lock() {
+            checkLoopback();
+            delegate.writeLock().lock();
+            if (delegate.getWriteHoldCount() == 1) {
+                writerActive = true;
+                boolean interrupted = false;
+                for (int spins = 0; !readersDrained(); spins++) {
+                    pause(spins, WRITER_PARK_NANOS);
+                    if (Thread.interrupted()) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            checkLoopback();
+            delegate.writeLock().lockInterruptibly();
+            if (delegate.getWriteHoldCount() == 1) {
+                writerActive = true;
+                try {
+                    for (int spins = 0; !readersDrained(); spins++) {
+                        pause(spins, WRITER_PARK_NANOS);
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    release();
+                    throw e;
+                }
+            }
+        }
+
+        /**
+         * Not implemented
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean tryLock() {
+            checkLoopback();
+            if (!delegate.writeLock().tryLock()) {
+                return false;
+            }
+            if (delegate.getWriteHoldCount() == 1) {
+                writerActive = true;
+                if (!readersDrained()) {
+                    release();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            checkLoopback();
+            final long deadline = System.nanoTime() + unit.toNanos(time);
+            if (!delegate.writeLock().tryLock(time, unit)) {
+                return false;
+            }
+            if (delegate.getWriteHoldCount() == 1) {
+                writerActive = true;
+                try {
+                    for (int spins = 0; !readersDrained(); spins++) {
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            release();
+                            return false;
+                        }
+                        pause(spins, Math.min(remaining, WRITER_PARK_NANOS));
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    release();
+                    throw e;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            release();
+        }
+
+        private void release() {
+            if (delegate.getWriteHoldCount() == 1) {
+                writerActive = false;
+            }
+            delegate.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Acquires a read lock without blocking if the current thread already holds one, or if no writer is active.
+     *
+     * @return true if the read lock was acquired
+     */
+    private boolean tryReentrantOrStriped(final ReadHolds holds) {
+        if (holds.delegated > 0) {
+            // a writer can't complete while we hold a read lock, so this can't fail
+            if (delegate.readLock().tryLock()) {
+                holds.delegated++;
+                return true;
+            }
+            return false;
+        }
+        if (holds.striped > 0) {
+            readers.incrementAndGet(holds.index);
+            holds.striped++;
+            return true;
+        }
+        if (!writerActive) {
+            readers.incrementAndGet(holds.index);
+            // re-check, a writer which raised the flag after our first read must either see our count or be seen here
+            if (!writerActive) {
+                holds.striped++;
+                return true;
+            }
+            readers.decrementAndGet(holds.index);
+        }
+        return false;
+    }
+
+    private boolean readersDrained() {
+        for (int i = 0; i < readers.length(); i += STRIPE_PADDING) {
+            if (readers.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void pause(int spins, long parkNanos) {
+        if (spins < WRITER_YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(parkNanos);
+        }
+    }
+
+    /**
+     * Ensures that the current thread doesn't hold any read locks. If
+     * the thread holds any read locks, this method throws a {@link javax.ejb.IllegalLoopbackException}.
+     */
+    private void checkLoopback() {
+        final ReadHolds holds = readHolds.get();
+        if (holds.striped > 0 || holds.delegated > 0) {
+            throw EjbLogger.ROOT_LOGGER.failToUpgradeToWriteLock();
+        }
+    }
+
+    /**
+     * @see java.util.concurrent.locks.ReadWriteLock#readLock()
+     */
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    /**
+     * @see java.util.concurrent.locks.ReadWriteLock#writeLock()
+     */
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+}
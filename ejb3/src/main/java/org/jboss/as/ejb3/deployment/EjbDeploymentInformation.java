@@ -27,11 +27,14 @@ import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.iiop.EjbIIOPService;
 import org.jboss.msc.value.InjectedValue;
 
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Runtime information about an EJB in a module
@@ -50,6 +53,7 @@ public class EjbDeploymentInformation {
 
     private final InjectedValue<EjbIIOPService> iorFactory;
     private final Set<String> remoteViewClassNames = new HashSet<String>();
+    private final ConcurrentMap<String, ViewMethodIndex> viewMethodIndexes = new ConcurrentHashMap<String, ViewMethodIndex>();
 
     /**
      * @param ejbName               The EJB name
@@ -131,4 +135,59 @@ public class EjbDeploymentInformation {
     public boolean isRemoteView(final String viewClassName) {
         return this.remoteViewClassNames.contains(viewClassName);
     }
+
+    /**
+     * Returns the method of a view, identified the way remote clients identify it: by its name and the comma separated
+     * names of its parameter types. The methods of each view are indexed on first use, so that the lookup does not need
+     * to walk and compare all the methods of the view on every invocation.
+     *
+     * @param viewClassName The fully qualified classname of the view
+     * @param methodName    The name of the method
+     * @param signature     The comma separated parameter type names of the method, empty for a method without parameters
+     * @return the matching view method, or null if the view has no such method
+     */
+    public Method getViewMethod(final String viewClassName, final String methodName, final String signature) {
+        final ComponentView view = getView(viewClassName);
+        ViewMethodIndex index = this.viewMethodIndexes.get(viewClassName);
+        // the view is replaced when its component restarts
+        if (index == null || index.view != view) {
+            index = new ViewMethodIndex(view);
+            this.viewMethodIndexes.put(viewClassName, index);
+        }
+        return index.getMethod(methodName, signature);
+    }
+
+    private static final class ViewMethodIndex {
+        private final ComponentView view;
+        // view methods by name, then by signature
+        private final Map<String, Map<String, Method>> methods = new HashMap<String, Map<String, Method>>();
+
+        ViewMethodIndex(final ComponentView view) {
+            this.view = view;
+            for (Method method : view.getViewMethods()) {
+                final StringBuilder signature = new StringBuilder();
+                for (Class<?> parameterType : method.getParameterTypes()) {
+                    if (signature.length() > 0) {
+                        signature.append(',');
+                    }
+                    signature.append(parameterType.getName());
+                }
+                Map<String, Method> overloads = this.methods.get(method.getName());
+                if (overloads == null) {
+                    // most methods are not overloaded
+                    overloads = new HashMap<String, Method>(2);
+                    this.methods.put(method.getName(), overloads);
+                }
+                // the first of several methods sharing a signature wins, as it did when the view methods were scanned
+                if (!overloads.containsKey(signature.toString())) {
+                    overloads.put(signature.toString(), method);
+                }
+            }
+        }
+
+        Method getMethod(final String methodName, final String signature) {
+            final Map<String, Method> overloads = this.methods.get(methodName);
+            return (overloads != null) ? overloads.get(signature) : null;
+        }
+    }
 }
@@ -134,6 +134,17 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
         if (method.getDeclaringClass().equals(MessageEndpoint.class))
             return handle(method, args);
 
+        final PartitionedMessageDelivery partitionedDelivery = service.getPartitionedDelivery();
+        if (partitionedDelivery != null) {
+            // the invocation stays on the thread of the resource adapter, and so within the transaction begun by beforeDelivery
+            final Object key = partitionedDelivery.getKey(args);
+            if (key != null) {
+                final PartitionedInvocation invocation = new PartitionedInvocation(method, args);
+                partitionedDelivery.deliver(key, invocation);
+                return invocation.getResult();
+            }
+        }
+
         // TODO: Option A
         try {
             return method.invoke(delegate, args);
@@ -143,6 +154,36 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
         }
     }
 
+    private class PartitionedInvocation implements Runnable {
+        private final Method method;
+        private final Object[] args;
+        private Object result;
+        private Throwable failure;
+
+        PartitionedInvocation(final Method method, final Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result = method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                failure = e.getCause();
+            } catch (IllegalAccessException e) {
+                failure = e;
+            }
+        }
+
+        Object getResult() throws Throwable {
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+
     @Override
     public int hashCode() {
         return delegate.hashCode();
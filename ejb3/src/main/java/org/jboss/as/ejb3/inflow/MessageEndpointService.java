@@ -49,4 +49,11 @@ public interface MessageEndpointService<T> {
     ClassLoader getClassLoader();
 
     String getActivationName();
+
+    /**
+     * Returns the partitioned delivery of the endpoint application.
+     *
+     * @return the partitioned delivery, or {@code null} if messages are delivered in the thread of the resource adapter
+     */
+    PartitionedMessageDelivery getPartitionedDelivery();
 }
@@ -0,0 +1,163 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.inflow;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+
+/**
+ * Serializes the message deliveries to a message driven bean over a fixed number of partitions. The partition of a message
+ * is selected from the value of a configurable message property, so messages sharing a key are delivered one after the
+ * other in arrival order, while messages for different keys are delivered concurrently.
+ * <p/>
+ * Each partition is guarded by a fair lock, which the thread of the resource adapter holds while it invokes the bean. As
+ * the invocation never leaves that thread, it runs with the transaction, class loader and security context set up by the
+ * resource adapter and {@link MessageEndpointInvocationHandler#beforeDelivery}, and any failure is thrown straight back to
+ * the resource adapter, which then redelivers the message. A partition therefore never holds up more threads than the
+ * resource adapter delivers concurrently. Once stopped, deliveries which did not acquire their partition yet fail with an
+ * {@link IllegalStateException}.
+ */
+public class PartitionedMessageDelivery {
+
+    /**
+     * Activation config property naming the message property whose value is used as partition key. Partitioned delivery
+     * is only enabled for message driven beans which define it.
+     */
+    public static final String PARTITION_KEY_PROPERTY = "deliveryPartitionKey";
+    /**
+     * Activation config property holding the number of partitions, rounded up to a power of two.
+     */
+    public static final String PARTITIONS_PROPERTY = "deliveryPartitions";
+
+    public static final int DEFAULT_PARTITIONS = 16;
+
+    static final int MAX_PARTITIONS = 1 << 10;
+
+    private final String keyProperty;
+    private final String componentName;
+    private final Partition[] partitions;
+    private final int mask;
+    private volatile boolean stopped = false;
+
+    public PartitionedMessageDelivery(final String keyProperty, final int partitions, final String componentName) {
+        this.keyProperty = keyProperty;
+        this.componentName = componentName;
+        int size = 1;
+        while (size < Math.min(Math.max(partitions, 1), MAX_PARTITIONS)) {
+            size <<= 1;
+        }
+        this.partitions = new Partition[size];
+        for (int i = 0; i < size; i++) {
+            this.partitions[i] = new Partition();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the partition key of the message passed to a message listener method.
+     *
+     * @param args the arguments of the message listener invocation
+     * @return the value of the key property, or {@code null} if the message does not carry one
+     */
+    public Object getKey(final Object[] args) {
+        if (args == null || args.length != 1 || !(args[0] instanceof Message)) {
+            return null;
+        }
+        try {
+            return ((Message) args[0]).getObjectProperty(keyProperty);
+        } catch (JMSException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the delivery in the calling thread once the partition owning the key is free. Deliveries of the same partition
+     * run in the order they called this method.
+     *
+     * @param key      the partition key, must not be null
+     * @param delivery the delivery
+     * @throws IllegalStateException if this partitioned delivery was stopped before the delivery acquired its partition
+     */
+    public void deliver(final Object key, final Runnable delivery) {
+        if (stopped) {
+            throw EjbLogger.ROOT_LOGGER.partitionedDeliveryStopped(componentName);
+        }
+        final Partition partition = partitions[partitionOf(key)];
+        partition.backlog.incrementAndGet();
+        try {
+            // the wait cannot be abandoned on interruption, as the resource adapter expects the message to be processed
+            partition.lock.lock();
+            try {
+                if (stopped) {
+                    throw EjbLogger.ROOT_LOGGER.partitionedDeliveryStopped(componentName);
+                }
+                delivery.run();
+            } finally {
+                partition.lock.unlock();
+            }
+        } finally {
+            partition.backlog.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops this partitioned delivery. Deliveries already in progress complete, while waiting ones are rejected.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    int partitionOf(final Object key) {
+        final int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * @return the number of deliveries waiting for or holding each partition
+     */
+    public int[] getBacklogs() {
+        final int[] backlogs = new int[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            backlogs[i] = partitions[i].backlog.get();
+        }
+        return backlogs;
+    }
+
+    public String getKeyProperty() {
+        return keyProperty;
+    }
+
+    private static final class Partition {
+        // fair, so that the partition is granted in arrival order
+        final ReentrantLock lock = new ReentrantLock(true);
+        final AtomicInteger backlog = new AtomicInteger();
+    }
+}
@@ -3094,4 +3094,29 @@ public interface EjbLogger extends BasicLogger {
     @LogMessage(level = ERROR)
     @Message(id = 480, value = "Loaded timer (%s) for EJB (%s) and this node that is marked as being in a timeout. The original timeout may not have been processed. Please use graceful shutdown to ensure timeout tasks are finished before shutting down.")
     void loadedPersistentTimerInTimeout(String timer, String timedObject);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 481, value = "Failed to execute timeout task %s")
+    void failedToExecuteTimeoutTask(Object task, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 482, value = "Timer journal %s ends with an incomplete record at offset %d, discarding it")
+    void timerJournalTruncated(File journal, long offset);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 483, value = "Failed to compact timer journal %s")
+    void failedToCompactTimerJournal(File journal, @Cause Throwable cause);
+
+    @Message(id = 484, value = "Partitioned message delivery of message driven bean %s is stopped")
+    IllegalStateException partitionedDeliveryStopped(String componentName);
+
+    @Message(id = 485, value = "Invalid value %s for activation config property %s of message driven bean %s")
+    IllegalArgumentException invalidActivationConfigPropertyValue(String value, String property, String componentName);
+
+    @LogMessage(level = WARN)
+    @Message(id = 486, value = "Skipping corrupt record at offset %2$d of timer journal %1$s")
+    void timerJournalRecordSkipped(File journal, long offset);
+
+    @Message(id = 487, value = "Timer journal %s has a corrupt record length at offset %d")
+    IOException timerJournalCorrupt(File journal, long offset);
 }
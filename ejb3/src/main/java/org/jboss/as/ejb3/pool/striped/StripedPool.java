@@ -0,0 +1,260 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.striped;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+/**
+ * A pool with a maximum size, whose permits and idle instances are striped across a number of independent
+ * stripes to avoid contending on a single semaphore and queue.
+ * <p/>
+ * Each thread is mapped to a home stripe. Instances are acquired from, and released to, the home stripe of the
+ * calling thread. If the home stripe has no free permit, the remaining stripes are scanned and a permit (and idle
+ * instance, if any) is stolen from them. The total number of permits across all stripes is always equal to the
+ * maximum pool size, so the global maximum is preserved regardless of how permits migrate between stripes.
+ * <p/>
+ * An idle instance always belongs to the stripe holding its permit: a released instance moves along with its permit
+ * to whichever stripe receives it, and an instance is only taken from the stripe a permit was acquired from. A stripe
+ * therefore never holds more idle instances than free permits, and the pool never creates more instances than its
+ * maximum size.
+ */
+public class StripedPool<T> extends AbstractPool<T> {
+
+    /**
+     * Interval at which a thread blocked on its home stripe rescans the other stripes for a free permit.
+     */
+    private static final long RESCAN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Stripe<T>[] stripes;
+    private final int mask;
+    private final int maxSize;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+
+    public StripedPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(factory, maxSize, timeout, timeUnit, Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    public StripedPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit, int concurrency) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        // Use a power of 2 stripe count, no larger than needed to give each stripe at least one permit
+        int count = Integer.highestOneBit(Math.max(1, Math.min(concurrency, maxSize)));
+        if (count < Math.min(concurrency, maxSize)) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; ++i) {
+            // Distribute any remainder across the first stripes
+            this.stripes[i] = new Stripe<>((maxSize / count) + ((i < (maxSize % count)) ? 1 : 0));
+        }
+    }
+
+    private int homeIndex() {
+        long id = Thread.currentThread().getId();
+        // Spread the bits of the thread id, since ids of pooled threads tend to be sequential
+        int hash = (int) (id ^ (id >>> 32));
+        hash ^= (hash >>> 16);
+        return hash & this.mask;
+    }
+
+    @Override
+    public T get() {
+        int home = this.homeIndex();
+        Stripe<T> stripe = this.acquire(home);
+        if (stripe == null) {
+            stripe = this.acquire(home, this.timeUnit.toNanos(this.timeout));
+        }
+
+        // Idle instances of a stripe are backed by its free permits, so use one of the stripe that granted ours
+        T bean = stripe.pool.pollFirst();
+        if (bean != null) {
+            return bean;
+        }
+
+        try {
+            // No idle instance, create one
+            bean = this.create();
+        } finally {
+            if (bean == null) {
+                stripe.semaphore.release();
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Attempts to acquire a permit without blocking, starting from the home stripe and stealing from the others.
+     * @return the stripe from which the permit was acquired, or null if no permit was available
+     */
+    private Stripe<T> acquire(int home) {
+        for (int i = 0; i < this.stripes.length; ++i) {
+            Stripe<T> stripe = this.stripes[(home + i) & this.mask];
+            if (stripe.semaphore.tryAcquire()) {
+                return stripe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Blocks on the home stripe, periodically rescanning the other stripes, until a permit is acquired.
+     * @return the stripe from which the permit was acquired
+     */
+    private Stripe<T> acquire(int home, long timeoutNanos) {
+        Stripe<T> stripe = this.stripes[home];
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            long remaining = timeoutNanos;
+            while (remaining > 0) {
+                if (stripe.semaphore.tryAcquire(Math.min(remaining, RESCAN_INTERVAL_NANOS), TimeUnit.NANOSECONDS)) {
+                    return stripe;
+                }
+                Stripe<T> result = this.acquire(home);
+                if (result != null) {
+                    return result;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+        }
+        throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(this.timeout, this.timeUnit);
+    }
+
+    /**
+     * Selects the stripe a permit is returned to: the home stripe, unless some other stripe has threads waiting and
+     * the home stripe does not.
+     */
+    private Stripe<T> releaseTarget(int home) {
+        Stripe<T> stripe = this.stripes[home];
+        if (!stripe.semaphore.hasQueuedThreads()) {
+            for (int i = 1; i < this.stripes.length; ++i) {
+                Stripe<T> candidate = this.stripes[(home + i) & this.mask];
+                if (candidate.semaphore.hasQueuedThreads()) {
+                    return candidate;
+                }
+            }
+        }
+        return stripe;
+    }
+
+    private void releasePermit(int home) {
+        this.releaseTarget(home).semaphore.release();
+    }
+
+    @Override
+    public void release(T obj) {
+        int home = this.homeIndex();
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", this.getAvailableCount(), this.maxSize, this);
+        }
+        // The instance follows its permit, so that it is not left idle in a stripe whose permit went elsewhere
+        Stripe<T> stripe = this.releaseTarget(home);
+        stripe.pool.addFirst(obj);
+        stripe.semaphore.release();
+    }
+
+    @Override
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+        this.releasePermit(this.homeIndex());
+        super.doRemove(ctx);
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+        this.releasePermit(this.homeIndex());
+        super.doRemove(ctx);
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return this.getCreateCount() - this.getRemoveCount();
+    }
+
+    @Override
+    public int getAvailableCount() {
+        int count = 0;
+        for (Stripe<T> stripe : this.stripes) {
+            count += stripe.semaphore.availablePermits();
+        }
+        return count;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    @Override
+    public void setMaxSize(int maxSize) {
+        throw EjbLogger.ROOT_LOGGER.methodNotImplemented();
+    }
+
+    @Override
+    public void start() {
+        // Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        for (Stripe<T> stripe : this.stripes) {
+            for (T obj = stripe.pool.pollFirst(); obj != null; obj = stripe.pool.pollFirst()) {
+                this.destroy(obj);
+            }
+        }
+    }
+
+    /**
+     * A single stripe of the pool. Idle instances are used in LIFO order, favoring instances that are still warm in
+     * the cache of the releasing core.
+     */
+    private static class Stripe<T> {
+        final Semaphore semaphore;
+        final Deque<T> pool = new ConcurrentLinkedDeque<>();
+
+        Stripe(int permits) {
+            this.semaphore = new Semaphore(permits, false);
+        }
+    }
+}
@@ -88,6 +88,7 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
     private final byte serverProtocolVersion;
     private final String[] supportedMarshallingStrategies;
     private final OptionMap channelCreationOptions;
+    private final boolean adaptiveCompression;
 
     public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies) {
         this(serverProtocolVersion, supportedMarshallingStrategies, OptionMap.EMPTY);
@@ -95,9 +96,15 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
 
     public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies,
                                      final OptionMap channelCreationOptions) {
+        this(serverProtocolVersion, supportedMarshallingStrategies, channelCreationOptions, false);
+    }
+
+    public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies,
+                                     final OptionMap channelCreationOptions, final boolean adaptiveCompression) {
         this.serverProtocolVersion = serverProtocolVersion;
         this.supportedMarshallingStrategies = supportedMarshallingStrategies;
         this.channelCreationOptions = channelCreationOptions;
+        this.adaptiveCompression = adaptiveCompression;
     }
 
     @Override
@@ -264,7 +271,7 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
                     case 0x02:
                         final VersionTwoProtocolChannelReceiver versionTwoProtocolHandler = new VersionTwoProtocolChannelReceiver(this.channelAssociation, deploymentRepository,
                                 EJBRemoteConnectorService.this.ejbRemoteTransactionsRepositoryInjectedValue.getValue(), clientMappingRegistryCollector,
-                                marshallerFactory, executorService.getValue(), asyncInvocationCancelStatus, suspendController);
+                                marshallerFactory, executorService.getValue(), asyncInvocationCancelStatus, suspendController, adaptiveCompression);
                         // trigger the receiving
                         versionTwoProtocolHandler.startReceiving();
                         break;
@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Statistics of the adaptive compression of the remote invocation responses of a component, kept per view. Also
+ * remembers how well the responses of each method compress, so that methods returning incompressible data are not
+ * compressed over and over again.
+ */
+public class ResponseCompressionMetrics {
+
+    /**
+     * Compression ratio, in per mille of the uncompressed size, above which compressing a response is not worth it.
+     */
+    static final int INCOMPRESSIBLE_RATIO = 900;
+    /**
+     * Every so many responses of an incompressible method are compressed anyway, in case their content changed.
+     */
+    static final int PROBE_INTERVAL = 32;
+
+    public static class Values {
+        final long compressedResponses;
+        final long uncompressedResponses;
+        final long bytesSaved;
+        final long compressionTime;
+
+        private Values(final long compressedResponses, final long uncompressedResponses, final long bytesSaved, final long compressionTime) {
+            this.compressedResponses = compressedResponses;
+            this.uncompressedResponses = uncompressedResponses;
+            this.bytesSaved = bytesSaved;
+            this.compressionTime = compressionTime;
+        }
+
+        public long getCompressedResponses() {
+            return compressedResponses;
+        }
+
+        public long getUncompressedResponses() {
+            return uncompressedResponses;
+        }
+
+        /**
+         * @return the difference between the uncompressed and the compressed size of the compressed responses
+         */
+        public long getBytesSaved() {
+            return bytesSaved;
+        }
+
+        /**
+         * @return the time spent deflating responses, in milliseconds, excluding the time spent writing them out
+         */
+        public long getCompressionTime() {
+            return compressionTime / 1000000L;
+        }
+    }
+
+    private static class MethodCompression {
+        // exponentially weighted moving average of the compression ratio, in per mille
+        volatile int ratio;
+        final AtomicInteger skipped = new AtomicInteger();
+    }
+
+    private final ConcurrentMap<String, AtomicReference<Values>> views = new ConcurrentHashMap<String, AtomicReference<Values>>();
+    private final ConcurrentMap<Method, MethodCompression> methods = new ConcurrentHashMap<Method, MethodCompression>();
+
+    /**
+     * Returns whether a response of the passed method, large enough to be compressed, should be compressed.
+     *
+     * @param method the invoked method
+     * @return false if previous responses of the method hardly compressed
+     */
+    public boolean shouldCompress(final Method method) {
+        final MethodCompression compression = methods.get(method);
+        if (compression == null || compression.ratio < INCOMPRESSIBLE_RATIO) {
+            return true;
+        }
+        return compression.skipped.incrementAndGet() % PROBE_INTERVAL == 0;
+    }
+
+    public void compressed(final String viewName, final Method method, final long uncompressedSize, final long compressedSize, final long compressionTime) {
+        final int ratio = uncompressedSize == 0 ? 1000 : (int) Math.min(compressedSize * 1000L / uncompressedSize, 1000L);
+        MethodCompression compression = methods.get(method);
+        if (compression == null) {
+            compression = new MethodCompression();
+            compression.ratio = ratio;
+            final MethodCompression previous = methods.putIfAbsent(method, compression);
+            if (previous != null) {
+                compression = previous;
+            }
+        }
+        // racy updates only lose a sample
+        compression.ratio = (compression.ratio * 3 + ratio) / 4;
+        final AtomicReference<Values> viewValues = ref(viewName);
+        for (;;) {
+            final Values oldv = viewValues.get();
+            final Values newv = new Values(oldv.compressedResponses + 1, oldv.uncompressedResponses, oldv.bytesSaved + uncompressedSize - compressedSize, oldv.compressionTime + compressionTime);
+            if (viewValues.compareAndSet(oldv, newv))
+                break;
+        }
+    }
+
+    public void uncompressed(final String viewName) {
+        final AtomicReference<Values> viewValues = ref(viewName);
+        for (;;) {
+            final Values oldv = viewValues.get();
+            final Values newv = new Values(oldv.compressedResponses, oldv.uncompressedResponses + 1, oldv.bytesSaved, oldv.compressionTime);
+            if (viewValues.compareAndSet(oldv, newv))
+                break;
+        }
+    }
+
+    private AtomicReference<Values> ref(final String viewName) {
+        AtomicReference<Values> ref = views.get(viewName);
+        if (ref == null) {
+            ref = new AtomicReference<Values>(new Values(0, 0, 0, 0));
+            final AtomicReference<Values> prevRef = views.putIfAbsent(viewName, ref);
+            if (prevRef != null)
+                ref = prevRef;
+        }
+        return ref;
+    }
+
+    /**
+     * @return a snapshot of the statistics, keyed by the class name of the view
+     */
+    public Map<String, Values> getViews() {
+        final Map<String, Values> result = new HashMap<String, Values>();
+        for (Map.Entry<String, AtomicReference<Values>> entry : views.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return result;
+    }
+}
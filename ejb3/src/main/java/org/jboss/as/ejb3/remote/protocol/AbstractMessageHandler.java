@@ -61,6 +61,9 @@ public abstract class AbstractMessageHandler implements MessageHandler {
     protected static final byte HEADER_SESSION_NOT_ACTIVE_FAILURE = 0x0C;
     private static final byte HEADER_INVOCATION_EXCEPTION = 0x06;
 
+    // the configuration is only read when a marshaller is created, so all responses share the same one
+    private static final MarshallingConfiguration MARSHALLING_CONFIGURATION = createMarshallingConfiguration();
+
 
     protected Map<String, Object> readAttachments(final ObjectInput input) throws IOException, ClassNotFoundException {
         final int numAttachments = input.readByte();
@@ -222,12 +225,16 @@ public abstract class AbstractMessageHandler implements MessageHandler {
      * @throws IOException
      */
     private org.jboss.marshalling.Marshaller getMarshaller(final org.jboss.marshalling.MarshallerFactory marshallerFactory) throws IOException {
+        return marshallerFactory.createMarshaller(MARSHALLING_CONFIGURATION);
+    }
+
+    private static MarshallingConfiguration createMarshallingConfiguration() {
         final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
         marshallingConfiguration.setClassTable(ProtocolV1ClassTable.INSTANCE);
         marshallingConfiguration.setObjectTable(ProtocolV1ObjectTable.INSTANCE);
         marshallingConfiguration.setVersion(2);
         marshallingConfiguration.setSerializedCreator(new SunReflectiveCreator());
-        return marshallerFactory.createMarshaller(marshallingConfiguration);
+        return marshallingConfiguration;
     }
 
     /**
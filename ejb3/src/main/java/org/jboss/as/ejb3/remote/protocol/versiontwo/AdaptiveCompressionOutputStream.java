@@ -0,0 +1,182 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote.protocol.versiontwo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import org.jboss.as.ejb3.remote.ResponseCompressionMetrics;
+
+/**
+ * Output stream for a method invocation response which decides whether to compress the response once its size is
+ * known to be worth it. Responses smaller than {@link #MIN_COMPRESSION_SIZE} are sent as they are, as are responses of
+ * methods whose previous responses didn't compress well. The compression level drops to {@link Deflater#BEST_SPEED}
+ * while the system load is as high as the number of processors.
+ */
+class AdaptiveCompressionOutputStream extends OutputStream {
+
+    static final int MIN_COMPRESSION_SIZE = 1024;
+
+    private static final byte HEADER_COMPRESSED_MESSAGE = 0x1B;
+    private static final long LOAD_CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private static volatile int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private static volatile long nextLoadCheck = System.nanoTime();
+
+    private final OutputStream messageOutputStream;
+    private final ResponseCompressionMetrics metrics;
+    private final String viewName;
+    private final Method method;
+
+    private byte[] buffer = new byte[MIN_COMPRESSION_SIZE];
+    private int count;
+    // where the response goes once it outgrew the buffer, unless it is compressed
+    private OutputStream target;
+    private Deflater deflater;
+    // receives the output of the deflater, so that only the deflation itself is timed, and not the blocking write
+    private byte[] deflated;
+    private long compressionTime;
+
+    AdaptiveCompressionOutputStream(final OutputStream messageOutputStream, final ResponseCompressionMetrics metrics, final String viewName, final Method method) {
+        this.messageOutputStream = messageOutputStream;
+        this.metrics = metrics;
+        this.viewName = viewName;
+        this.method = method;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (target == null) {
+            if (count == buffer.length) {
+                if (deflater == null) {
+                    switchTarget();
+                    write(b);
+                    return;
+                }
+                deflate(buffer, 0, count);
+                count = 0;
+            }
+            // a compressed response keeps going through the buffer, so single bytes are deflated in bulk
+            buffer[count++] = (byte) b;
+        } else {
+            target.write(b);
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (target == null) {
+            if (len <= buffer.length - count) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            if (deflater == null) {
+                switchTarget();
+                write(b, off, len);
+                return;
+            }
+            deflate(buffer, 0, count);
+            count = 0;
+            deflate(b, off, len);
+        } else {
+            target.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // a buffered response stays buffered until it is complete or outgrows the buffer
+        if (target != null || deflater != null) {
+            messageOutputStream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (deflater != null) {
+                deflater.setInput(buffer, 0, count);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    writeDeflated();
+                }
+                metrics.compressed(viewName, method, deflater.getBytesRead(), deflater.getBytesWritten(), compressionTime);
+            } else if (target == null) {
+                messageOutputStream.write(buffer, 0, count);
+                metrics.uncompressed(viewName);
+            } else {
+                metrics.uncompressed(viewName);
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            buffer = null;
+            messageOutputStream.close();
+        }
+    }
+
+    private void switchTarget() throws IOException {
+        if (metrics.shouldCompress(method)) {
+            messageOutputStream.write(HEADER_COMPRESSED_MESSAGE);
+            deflater = new Deflater(getCompressionLevel());
+            deflated = new byte[MIN_COMPRESSION_SIZE];
+            deflate(buffer, 0, count);
+        } else {
+            target = messageOutputStream;
+            target.write(buffer, 0, count);
+        }
+        count = 0;
+    }
+
+    private void deflate(final byte[] b, final int off, final int len) throws IOException {
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            writeDeflated();
+        }
+    }
+
+    private void writeDeflated() throws IOException {
+        final long start = System.nanoTime();
+        final int length = deflater.deflate(deflated, 0, deflated.length);
+        compressionTime += System.nanoTime() - start;
+        if (length > 0) {
+            messageOutputStream.write(deflated, 0, length);
+        }
+    }
+
+    static int getCompressionLevel() {
+        final long now = System.nanoTime();
+        if (now - nextLoadCheck >= 0) {
+            nextLoadCheck = now + LOAD_CHECK_INTERVAL;
+            final double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+            // the load average is negative where it is not available
+            compressionLevel = load >= Runtime.getRuntime().availableProcessors() ? Deflater.BEST_SPEED : Deflater.DEFAULT_COMPRESSION;
+        }
+        return compressionLevel;
+    }
+}
@@ -1,10 +1,12 @@
 package org.jboss.as.ejb3.remote.protocol.versiontwo;
 
 import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.remote.CompressedMethodsInformation;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
+import org.jboss.as.ejb3.remote.ResponseCompressionMetrics;
 import org.jboss.as.ejb3.remote.protocol.versionone.MethodInvocationMessageHandler;
 import org.jboss.ejb.client.annotation.CompressionHint;
 import org.jboss.marshalling.MarshallerFactory;
@@ -26,8 +28,16 @@ public class CompressedMethodInvocationMessageHandler extends MethodInvocationMe
 
     private static final byte HEADER_COMPRESSED_MESSAGE = 0x1B;
 
+    private final boolean adaptiveCompression;
+
     CompressedMethodInvocationMessageHandler(DeploymentRepository deploymentRepository, MarshallerFactory marshallerFactory, ExecutorService executorService, RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus) {
+        this(deploymentRepository, marshallerFactory, executorService, asyncInvocationCancelStatus, false);
+    }
+
+    CompressedMethodInvocationMessageHandler(DeploymentRepository deploymentRepository, MarshallerFactory marshallerFactory, ExecutorService executorService, RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus,
+                                             boolean adaptiveCompression) {
         super(deploymentRepository, marshallerFactory, executorService, asyncInvocationCancelStatus);
+        this.adaptiveCompression = adaptiveCompression;
     }
 
 
@@ -61,6 +71,12 @@ public class CompressedMethodInvocationMessageHandler extends MethodInvocationMe
             return new DataOutputStream(deflaterOutputStream);
         }
 
+        // without a CompressionHint the response is compressed if it turns out to be worth it
+        if (compressionHint == null && adaptiveCompression && componentView.getComponent() instanceof EJBComponent) {
+            final ResponseCompressionMetrics metrics = ((EJBComponent) componentView.getComponent()).getResponseCompressionMetrics();
+            return new DataOutputStream(new AdaptiveCompressionOutputStream(messageOutputStream, metrics, componentView.getViewClass().getName(), invokedMethod));
+        }
+
         // no CompressionHint applicable for this invocation
         return new DataOutputStream(messageOutputStream);
     }
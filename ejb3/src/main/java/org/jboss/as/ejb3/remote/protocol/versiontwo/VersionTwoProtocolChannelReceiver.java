@@ -48,11 +48,22 @@ public class VersionTwoProtocolChannelReceiver extends VersionOneProtocolChannel
     private static final byte HEADER_TX_RECOVER_MESSAGE = 0x19;
     private static final byte HEADER_COMPRESSED_MESSAGE = 0x1B;
 
+    private final boolean adaptiveCompression;
+
     public VersionTwoProtocolChannelReceiver(final ChannelAssociation channelAssociation, final DeploymentRepository deploymentRepository,
                                              final EJBRemoteTransactionsRepository transactionsRepository, final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector,
                                              final MarshallerFactory marshallerFactory, final ExecutorService executorService,
                                              final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatusService, final SuspendController suspendController) {
+        this(channelAssociation, deploymentRepository, transactionsRepository, clientMappingRegistryCollector, marshallerFactory, executorService, asyncInvocationCancelStatusService, suspendController, false);
+    }
+
+    public VersionTwoProtocolChannelReceiver(final ChannelAssociation channelAssociation, final DeploymentRepository deploymentRepository,
+                                             final EJBRemoteTransactionsRepository transactionsRepository, final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector,
+                                             final MarshallerFactory marshallerFactory, final ExecutorService executorService,
+                                             final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatusService, final SuspendController suspendController,
+                                             final boolean adaptiveCompression) {
         super(channelAssociation, deploymentRepository, transactionsRepository, clientMappingRegistryCollector, marshallerFactory, executorService, asyncInvocationCancelStatusService, suspendController);
+        this.adaptiveCompression = adaptiveCompression;
     }
 
 
@@ -60,7 +71,7 @@ public class VersionTwoProtocolChannelReceiver extends VersionOneProtocolChannel
     protected MessageHandler getMessageHandler(byte header) {
         switch (header) {
             case HEADER_INVOCATION_REQUEST:
-                return new CompressedMethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.executorService, this.remoteAsyncInvocationCancelStatus);
+                return new CompressedMethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.executorService, this.remoteAsyncInvocationCancelStatus, this.adaptiveCompression);
             case HEADER_TX_RECOVER_MESSAGE:
                 return new TransactionRecoverMessageHandler(this.transactionsRepository, this.marshallerFactory, this.executorService);
             case HEADER_COMPRESSED_MESSAGE:
@@ -22,23 +22,32 @@
 
 package org.jboss.as.ejb3.subsystem;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
 import org.jboss.as.controller.ServiceRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.database.DatabaseTimerPersistence;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * {@link org.jboss.as.controller.ResourceDefinition} for the databse data store resource.
@@ -85,6 +94,31 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
                     .setDefaultValue(new ModelNode(true))
                     .build();
 
+    static final SimpleAttributeDefinition REFRESH_COUNT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.REFRESH_COUNT, ModelType.LONG)
+                    .setAllowNull(false)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    static final SimpleAttributeDefinition REFRESH_TIME =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.REFRESH_TIME, ModelType.LONG)
+                    .setAllowNull(false)
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    static final SimpleAttributeDefinition REFRESH_ROW_COUNT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.REFRESH_ROW_COUNT, ModelType.LONG)
+                    .setAllowNull(false)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    static final SimpleAttributeDefinition REFRESH_LOADED_TIMER_COUNT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.REFRESH_LOADED_TIMER_COUNT, ModelType.LONG)
+                    .setAllowNull(false)
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
     static {
@@ -110,5 +144,49 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
         for (AttributeDefinition attr : ATTRIBUTES.values()) {
             resourceRegistration.registerReadWriteAttribute(attr, null, new ReloadRequiredWriteAttributeHandler(attr));
         }
+        resourceRegistration.registerMetric(REFRESH_COUNT, new AbstractMetricsHandler() {
+            @Override
+            protected long getMetric(final DatabaseTimerPersistence persistence) {
+                return persistence.getRefreshCount();
+            }
+        });
+        resourceRegistration.registerMetric(REFRESH_TIME, new AbstractMetricsHandler() {
+            @Override
+            protected long getMetric(final DatabaseTimerPersistence persistence) {
+                return persistence.getRefreshTime();
+            }
+        });
+        resourceRegistration.registerMetric(REFRESH_ROW_COUNT, new AbstractMetricsHandler() {
+            @Override
+            protected long getMetric(final DatabaseTimerPersistence persistence) {
+                return persistence.getRefreshRowCount();
+            }
+        });
+        resourceRegistration.registerMetric(REFRESH_LOADED_TIMER_COUNT, new AbstractMetricsHandler() {
+            @Override
+            protected long getMetric(final DatabaseTimerPersistence persistence) {
+                return persistence.getRefreshLoadedTimerCount();
+            }
+        });
+    }
+
+    /**
+     * Reads a metric of the running {@link DatabaseTimerPersistence} service, metrics are 0 while it is not running.
+     */
+    private abstract static class AbstractMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+        protected abstract long getMetric(DatabaseTimerPersistence persistence);
+
+        @Override
+        protected void executeRuntimeStep(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+            final String name = PathAddress.pathAddress(operation.require(OP_ADDR)).getLastElement().getValue();
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(TimerPersistence.SERVICE_NAME.append(name));
+            long value = 0;
+            if (controller != null && controller.getState() == ServiceController.State.UP) {
+                value = getMetric((DatabaseTimerPersistence) controller.getValue());
+            }
+            context.getResult().set(value);
+            context.stepCompleted();
+        }
     }
 }
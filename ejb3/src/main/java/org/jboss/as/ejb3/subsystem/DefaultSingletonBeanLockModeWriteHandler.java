@@ -0,0 +1,75 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockMode;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockModeService;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceRegistry;
+
+/**
+ * Updates the {@link ReadWriteLockModeService} used by singleton beans. The new mode only applies to singleton beans
+ * started after the change.
+ */
+class DefaultSingletonBeanLockModeWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+    static final DefaultSingletonBeanLockModeWriteHandler INSTANCE = new DefaultSingletonBeanLockModeWriteHandler();
+
+    private DefaultSingletonBeanLockModeWriteHandler() {
+        super(EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE);
+    }
+
+    @Override
+    protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> voidHandbackHolder) throws OperationFailedException {
+        final ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel();
+        updateOrCreateDefaultSingletonBeanLockModeService(context, model);
+
+        return false;
+    }
+
+    @Override
+    protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+        final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+        restored.get(attributeName).set(valueToRestore);
+        updateOrCreateDefaultSingletonBeanLockModeService(context, restored);
+    }
+
+    void updateOrCreateDefaultSingletonBeanLockModeService(final OperationContext context, final ModelNode model) throws OperationFailedException {
+        final ReadWriteLockMode mode = ReadWriteLockMode.valueOf(EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE.resolveModelAttribute(context, model).asString());
+        final ServiceName serviceName = ReadWriteLockModeService.SINGLETON_SERVICE_NAME;
+        final ServiceRegistry registry = context.getServiceRegistry(true);
+        final ServiceController<?> sc = registry.getService(serviceName);
+        if (sc != null) {
+            final ReadWriteLockModeService readWriteLockModeService = ReadWriteLockModeService.class.cast(sc.getValue());
+            readWriteLockModeService.setMode(mode);
+        } else {
+            // create and install the service
+            context.getServiceTarget().addService(serviceName, new ReadWriteLockModeService(mode)).install();
+        }
+    }
+}
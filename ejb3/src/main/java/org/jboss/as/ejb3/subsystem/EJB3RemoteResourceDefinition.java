@@ -34,7 +34,10 @@ import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
+import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -58,6 +61,13 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
                     .build();
 
+    static final SimpleAttributeDefinition ADAPTIVE_COMPRESSION =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.ADAPTIVE_COMPRESSION, ModelType.BOOLEAN, true)
+                    .setDefaultValue(new ModelNode(false))
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
 
     private static final Map<String, AttributeDefinition> ATTRIBUTES;
 
@@ -65,6 +75,7 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(CONNECTOR_REF.getName(), CONNECTOR_REF);
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
+        map.put(ADAPTIVE_COMPRESSION.getName(), ADAPTIVE_COMPRESSION);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -96,4 +107,20 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
     static void registerTransformers_1_1_0(ResourceTransformationDescriptionBuilder builder) {
         RemoteConnectorChannelCreationOptionResource.registerTransformers_1_1_0(builder.addChildResource(EJB3SubsystemModel.REMOTE_SERVICE_PATH));
     }
+
+    static void registerTransformers_1_2_0(ResourceTransformationDescriptionBuilder parent) {
+        registerAdaptiveCompressionTransformers(parent.addChildResource(EJB3SubsystemModel.REMOTE_SERVICE_PATH));
+    }
+
+    static void registerTransformers_3_0_0(ResourceTransformationDescriptionBuilder parent) {
+        registerAdaptiveCompressionTransformers(parent.addChildResource(EJB3SubsystemModel.REMOTE_SERVICE_PATH));
+    }
+
+    private static void registerAdaptiveCompressionTransformers(ResourceTransformationDescriptionBuilder remote) {
+        // Legacy versions only compress responses of methods annotated with @CompressionHint
+        remote.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(false, true, new ModelNode(false)), ADAPTIVE_COMPRESSION)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, ADAPTIVE_COMPRESSION)
+                .end();
+    }
 }
@@ -108,6 +108,7 @@ public class EJB3RemoteServiceAdd extends AbstractAddStepHandler {
     void installRuntimeServices(final OperationContext context, final ModelNode model) throws OperationFailedException {
         final String connectorName = EJB3RemoteResourceDefinition.CONNECTOR_REF.resolveModelAttribute(context, model).asString();
         final String threadPoolName = EJB3RemoteResourceDefinition.THREAD_POOL_NAME.resolveModelAttribute(context, model).asString();
+        final boolean adaptiveCompression = EJB3RemoteResourceDefinition.ADAPTIVE_COMPRESSION.resolveModelAttribute(context, model).asBoolean();
         final ServiceName remotingServerInfoServiceName = RemotingConnectorBindingInfoService.serviceName(connectorName);
 
         final ServiceTarget target = context.getServiceTarget();
@@ -140,7 +141,7 @@ public class EJB3RemoteServiceAdd extends AbstractAddStepHandler {
         final OptionMap channelCreationOptions = this.getChannelCreationOptions(context);
         // Install the EJB remoting connector service which will listen for client connections on the remoting channel
         // TODO: Externalize (expose via management API if needed) the version and the marshalling strategy
-        final EJBRemoteConnectorService ejbRemoteConnectorService = new EJBRemoteConnectorService((byte) 0x02, new String[]{"river"}, channelCreationOptions);
+        final EJBRemoteConnectorService ejbRemoteConnectorService = new EJBRemoteConnectorService((byte) 0x02, new String[]{"river"}, channelCreationOptions, adaptiveCompression);
         target.addService(EJBRemoteConnectorService.SERVICE_NAME, ejbRemoteConnectorService)
                 // add dependency on the Remoting subsystem endpoint
                 .addDependency(RemotingServices.SUBSYSTEM_ENDPOINT, Endpoint.class, ejbRemoteConnectorService.getEndpointInjector())
@@ -163,6 +164,7 @@ public class EJB3RemoteServiceAdd extends AbstractAddStepHandler {
     protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
         EJB3RemoteResourceDefinition.CONNECTOR_REF.validateAndSet(operation, model);
         EJB3RemoteResourceDefinition.THREAD_POOL_NAME.validateAndSet(operation, model);
+        EJB3RemoteResourceDefinition.ADAPTIVE_COMPRESSION.validateAndSet(operation, model);
     }
 
     private OptionMap getChannelCreationOptions(final OperationContext context) throws OperationFailedException {
@@ -385,7 +385,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>
                     missingRequiredAttributes.remove(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT);
                     break;
                 default:
-                    throw unexpectedAttribute(reader, i);
+                    parseSingletonBeanAttribute(reader, i, attribute, value, ejb3SubsystemAddOperation);
             }
         }
         requireNoContent(reader);
@@ -394,6 +394,13 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>
         }
     }
 
+    /**
+     * Parses an attribute of the singleton element not known to this version of the schema.
+     */
+    protected void parseSingletonBeanAttribute(final XMLExtendedStreamReader reader, final int index, final EJB3SubsystemXMLAttribute attribute, final String value, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
+        throw unexpectedAttribute(reader, index);
+    }
+
     private void parsePools(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
         // no attributes expected
         requireNoAttributes(reader);
@@ -410,7 +417,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>
         }
     }
 
-    private void parseBeanInstancePools(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
+    protected void parseBeanInstancePools(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
         // no attributes expected
         requireNoAttributes(reader);
 
@@ -428,6 +435,10 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>
     }
 
     private void parseStrictMaxPool(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
+        this.parseBeanInstancePool(reader, operations, STRICT_MAX_BEAN_INSTANCE_POOL);
+    }
+
+    protected void parseBeanInstancePool(final XMLExtendedStreamReader reader, List<ModelNode> operations, final String poolType) throws XMLStreamException {
         final int count = reader.getAttributeCount();
         String poolName = null;
         final ModelNode operation = Util.createAddOperation();
@@ -458,8 +469,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>
             throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
         }
         // create and add the operation
-        // create /subsystem=ejb3/strict-max-bean-instance-pool=name:add(...)
-        final PathAddress address = this.getEJB3SubsystemAddress().append(STRICT_MAX_BEAN_INSTANCE_POOL, poolName);
+        // create /subsystem=ejb3/<pool-type>=name:add(...)
+        final PathAddress address = this.getEJB3SubsystemAddress().append(poolType, poolName);
         operation.get(OP_ADDR).set(address.toModelNode());
         operations.add(operation);
     }
@@ -155,6 +155,13 @@ public class EJB3Subsystem30Parser extends EJB3Subsystem20Parser {
         requireNoContent(reader);
     }
 
+    /**
+     * Parses an attribute of the remote element not known to this version of the schema.
+     */
+    protected void parseRemoteAttribute(final XMLExtendedStreamReader reader, final int index, final EJB3SubsystemXMLAttribute attribute, final String value, final ModelNode remoteAdd) throws XMLStreamException {
+        throw unexpectedAttribute(reader, index);
+    }
+
     protected void parseRemote(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
         final int count = reader.getAttributeCount();
         final PathAddress ejb3RemoteServiceAddress = SUBSYSTEM_PATH.append(SERVICE, REMOTE);
@@ -174,7 +181,7 @@ public class EJB3Subsystem30Parser extends EJB3Subsystem20Parser {
                     EJB3RemoteResourceDefinition.THREAD_POOL_NAME.parseAndSetParameter(value, operation, reader);
                     break;
                 default:
-                    throw unexpectedAttribute(reader, i);
+                    parseRemoteAttribute(reader, i, attribute, value, operation);
             }
         }
         if (!required.isEmpty()) {
@@ -87,6 +87,88 @@ public class EJB3Subsystem31Parser extends EJB3Subsystem30Parser {
 
     }
 
+    @Override
+    protected void parseBeanInstancePools(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
+        // no attributes expected
+        requireNoAttributes(reader);
+
+        while (reader.hasNext() && reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
+            switch (EJB3SubsystemXMLElement.forName(reader.getLocalName())) {
+                case STRICT_MAX_POOL: {
+                    this.parseBeanInstancePool(reader, operations, EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL);
+                    break;
+                }
+                case STRIPED_POOL: {
+                    this.parseBeanInstancePool(reader, operations, EJB3SubsystemModel.STRIPED_BEAN_INSTANCE_POOL);
+                    break;
+                }
+                default: {
+                    throw unexpectedElement(reader);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void parseSingletonBeanAttribute(final XMLExtendedStreamReader reader, final int index, final EJB3SubsystemXMLAttribute attribute, final String value, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
+        switch (attribute) {
+            case LOCK_MODE: {
+                EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader);
+                break;
+            }
+            default:
+                super.parseSingletonBeanAttribute(reader, index, attribute, value, ejb3SubsystemAddOperation);
+        }
+    }
+
+    @Override
+    protected void parsePassivationStoreAttribute(final XMLExtendedStreamReader reader, final int index, final EJB3SubsystemXMLAttribute attribute, final String value, final ModelNode operation) throws XMLStreamException {
+        switch (attribute) {
+            case GRANULARITY: {
+                PassivationStoreResourceDefinition.GRANULARITY.parseAndSetParameter(value, operation, reader);
+                break;
+            }
+            default:
+                super.parsePassivationStoreAttribute(reader, index, attribute, value, operation);
+        }
+    }
+
+    @Override
+    protected void parseRemoteAttribute(final XMLExtendedStreamReader reader, final int index, final EJB3SubsystemXMLAttribute attribute, final String value, final ModelNode remoteAdd) throws XMLStreamException {
+        switch (attribute) {
+            case ADAPTIVE_COMPRESSION: {
+                EJB3RemoteResourceDefinition.ADAPTIVE_COMPRESSION.parseAndSetParameter(value, remoteAdd, reader);
+                break;
+            }
+            default:
+                super.parseRemoteAttribute(reader, index, attribute, value, remoteAdd);
+        }
+    }
+
+    @Override
+    protected void parseTimerServiceAttribute(final XMLExtendedStreamReader reader, final int index, final EJB3SubsystemXMLAttribute attribute, final String value, final ModelNode timerServiceAdd) throws XMLStreamException {
+        switch (attribute) {
+            case SCHEDULER: {
+                TimerServiceResourceDefinition.SCHEDULER.parseAndSetParameter(value, timerServiceAdd, reader);
+                break;
+            }
+            default:
+                super.parseTimerServiceAttribute(reader, index, attribute, value, timerServiceAdd);
+        }
+    }
+
+    @Override
+    protected void parseFileDataStoreAttribute(final XMLExtendedStreamReader reader, final int index, final EJB3SubsystemXMLAttribute attribute, final String value, final ModelNode fileDataStoreAdd) throws XMLStreamException {
+        switch (attribute) {
+            case FORMAT: {
+                FileDataStoreResourceDefinition.FORMAT.parseAndSetParameter(value, fileDataStoreAdd, reader);
+                break;
+            }
+            default:
+                super.parseFileDataStoreAttribute(reader, index, attribute, value, fileDataStoreAdd);
+        }
+    }
+
     private void parseDeliveryGroups(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
         // no attributes expected
         requireNoAttributes(reader);
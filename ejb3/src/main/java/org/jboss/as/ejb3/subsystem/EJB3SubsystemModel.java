@@ -32,6 +32,7 @@ import org.jboss.msc.service.ServiceName;
  */
 public interface EJB3SubsystemModel {
     String LITE = "lite";
+    String ADAPTIVE_COMPRESSION = "adaptive-compression";
     String ALIASES = "aliases";
 
     String ASYNC = "async";
@@ -60,9 +61,11 @@ public interface EJB3SubsystemModel {
     String ENABLE_STATISTICS = "enable-statistics";
 
     String FILE_DATA_STORE = "file-data-store";
+    String FORMAT = "format";
 
     String MAX_POOL_SIZE = "max-pool-size";
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
+    String STRIPED_BEAN_INSTANCE_POOL = "striped-bean-instance-pool";
 
     String MAX_THREADS = "max-threads";
     String KEEPALIVE_TIME = "keepalive-time";
@@ -71,6 +74,7 @@ public interface EJB3SubsystemModel {
     String PATH = "path";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
+    String DEFAULT_SINGLETON_BEAN_LOCK_MODE = "default-singleton-bean-lock-mode";
     String DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT = "default-stateful-bean-access-timeout";
     String DEFAULT_DATA_STORE = "default-data-store";
 
@@ -88,6 +92,7 @@ public interface EJB3SubsystemModel {
     String TIMER_SERVICE = "timer-service";
     String THREAD_POOL = "thread-pool";
     String THREAD_POOL_NAME = "thread-pool-name";
+    String SCHEDULER = "scheduler";
     String DEFAULT = "default";
 
     String USE_QUALIFIED_NAME = "use-qualified-name";
@@ -103,6 +108,7 @@ public interface EJB3SubsystemModel {
     @Deprecated String IDLE_TIMEOUT = "idle-timeout";
     @Deprecated String IDLE_TIMEOUT_UNIT = "idle-timeout-unit";
     String MAX_SIZE = "max-size";
+    String GRANULARITY = "granularity";
     @Deprecated String GROUPS_PATH = "groups-path";
     @Deprecated String SESSIONS_PATH = "sessions-path";
     @Deprecated String SUBDIRECTORY_COUNT = "subdirectory-count";
@@ -120,6 +126,10 @@ public interface EJB3SubsystemModel {
     String DATABASE = "database";
     String DATABASE_DATA_STORE = "database-data-store";
     String PARTITION  = "partition";
+    String REFRESH_COUNT = "refresh-count";
+    String REFRESH_LOADED_TIMER_COUNT = "refresh-loaded-timer-count";
+    String REFRESH_ROW_COUNT = "refresh-row-count";
+    String REFRESH_TIME = "refresh-time";
     String REFRESH_INTERVAL = "refresh-interval";
     String ALLOW_EXECUTION = "allow-execution";
 
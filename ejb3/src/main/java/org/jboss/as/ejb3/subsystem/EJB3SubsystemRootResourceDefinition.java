@@ -35,6 +35,7 @@ import org.jboss.as.controller.access.management.SensitiveTargetAccessConstraint
 import org.jboss.as.controller.capability.RuntimeCapability;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.operations.common.GenericSubsystemDescribeHandler;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
@@ -48,6 +49,7 @@ import org.jboss.as.controller.transform.description.ResourceTransformationDescr
 import org.jboss.as.controller.transform.description.TransformationDescription;
 import org.jboss.as.controller.transform.description.TransformationDescriptionBuilder;
 import org.jboss.as.ejb3.clustering.ClusteredSingletonService;
+import org.jboss.as.ejb3.concurrency.ReadWriteLockMode;
 import org.jboss.as.ejb3.deployment.processors.EJBDefaultSecurityDomainProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.MissingMethodPermissionsDenyAccessMergingProcessor;
 import org.jboss.as.ejb3.logging.EjbLogger;
@@ -98,6 +100,14 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
                     .setValidator(new LongRangeValidator(1, Integer.MAX_VALUE, true, true))
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
+    static final SimpleAttributeDefinition DEFAULT_SINGLETON_BEAN_LOCK_MODE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_MODE, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.LOCK_MODE.getLocalName())
+                    .setDefaultValue(new ModelNode(ReadWriteLockMode.REENTRANT.name()))
+                    .setAllowExpression(true)
+                    .setValidator(new EnumValidator<ReadWriteLockMode>(ReadWriteLockMode.class, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
     static final SimpleAttributeDefinition DEFAULT_SFSB_CACHE =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DEFAULT_SFSB_CACHE, ModelType.STRING, true)
                     .setAllowExpression(true)
@@ -185,6 +195,7 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
             DEFAULT_RESOURCE_ADAPTER_NAME,
             DEFAULT_SFSB_CACHE,
             DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT,
+            DEFAULT_SINGLETON_BEAN_LOCK_MODE,
             DEFAULT_SLSB_INSTANCE_POOL,
             DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT,
             ENABLE_STATISTICS,
@@ -208,6 +219,7 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         resourceRegistration.registerReadWriteAttribute(DEFAULT_ENTITY_BEAN_OPTIMISTIC_LOCKING, null, EJB3SubsystemDefaultEntityBeanOptimisticLockingWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_RESOURCE_ADAPTER_NAME, null, DefaultResourceAdapterWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT, null, DefaultSingletonBeanAccessTimeoutWriteHandler.INSTANCE);
+        resourceRegistration.registerReadWriteAttribute(DEFAULT_SINGLETON_BEAN_LOCK_MODE, null, DefaultSingletonBeanLockModeWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT, null, DefaultStatefulBeanAccessTimeoutWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(ENABLE_STATISTICS, null, EnableStatisticsWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(PASS_BY_VALUE, null, EJBRemoteInvocationPassByValueWriteHandler.INSTANCE);
@@ -251,6 +263,9 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         // subsystem=ejb3/strict-max-bean-instance-pool=*
         subsystemRegistration.registerSubModel(StrictMaxPoolResourceDefinition.INSTANCE);
 
+        // subsystem=ejb3/striped-bean-instance-pool=*
+        subsystemRegistration.registerSubModel(StripedPoolResourceDefinition.INSTANCE);
+
         subsystemRegistration.registerSubModel(CacheFactoryResourceDefinition.INSTANCE);
         subsystemRegistration.registerSubModel(PassivationStoreResourceDefinition.INSTANCE);
         subsystemRegistration.registerSubModel(FilePassivationStoreResourceDefinition.INSTANCE);
@@ -294,9 +309,14 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         // a legacy slave can't have that subsystem in its profile.
         builder.getAttributeBuilder().setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(false)), EJB3SubsystemRootResourceDefinition.DISABLE_DEFAULT_EJB_PERMISSIONS);
         //builder.getAttributeBuilder().setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode("hornetq-ra"), true), EJB3SubsystemRootResourceDefinition.DEFAULT_RESOURCE_ADAPTER_NAME);
+        builder.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(false, true, new ModelNode(ReadWriteLockMode.REENTRANT.name())), EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE);
         PassivationStoreResourceDefinition.registerTransformers_1_2_0(builder);
         TimerServiceResourceDefinition.registerTransformers_1_2_0(builder);
+        EJB3RemoteResourceDefinition.registerTransformers_1_2_0(builder);
         builder.rejectChildResource(PathElement.pathElement(EJB3SubsystemModel.REMOTING_PROFILE));
+        builder.rejectChildResource(StripedPoolResourceDefinition.INSTANCE.getPathElement());
         TransformationDescription.Tools.register(builder.build(), subsystemRegistration, subsystem12);
     }
 
@@ -306,7 +326,13 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         final ResourceTransformationDescriptionBuilder builder = TransformationDescriptionBuilder.Factory.createSubsystemInstance();
         builder.getAttributeBuilder()
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode("hornetq-ra"), true), EJB3SubsystemRootResourceDefinition.DEFAULT_RESOURCE_ADAPTER_NAME)
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(false, true, new ModelNode(ReadWriteLockMode.REENTRANT.name())), EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_LOCK_MODE)
         .end();
+        builder.rejectChildResource(StripedPoolResourceDefinition.INSTANCE.getPathElement());
+        PassivationStoreResourceDefinition.registerTransformers_3_0_0(builder);
+        TimerServiceResourceDefinition.registerTransformers_3_0_0(builder);
+        EJB3RemoteResourceDefinition.registerTransformers_3_0_0(builder);
         TransformationDescription.Tools.register(builder.build(), subsystemRegistration, subsystem200);
     }
 
@@ -31,6 +31,7 @@ import java.util.Map;
 public enum EJB3SubsystemXMLAttribute {
     UNKNOWN(null),
 
+    ADAPTIVE_COMPRESSION("adaptive-compression"),
     ALIASES("aliases"),
     ALLOW_EXECUTION("allow-execution"),
 
@@ -53,6 +54,9 @@ public enum EJB3SubsystemXMLAttribute {
     ENABLE_BY_DEFAULT("enable-by-default"),
     EXCLUDE_LOCAL_RECEIVER("exclude-local-receiver"),
 
+    FORMAT(EJB3SubsystemModel.FORMAT),
+
+    GRANULARITY(EJB3SubsystemModel.GRANULARITY),
     @Deprecated GROUPS_PATH("groups-path"),
 
     @Deprecated IDLE_TIMEOUT("idle-timeout"),
@@ -63,6 +67,7 @@ public enum EJB3SubsystemXMLAttribute {
     KEEPALIVE_TIME("keepalive-time"),
 
     LOCAL_RECEIVER_PASS_BY_VALUE("local-receiver-pass-by-value"),
+    LOCK_MODE("lock-mode"),
 
     MAX_POOL_SIZE("max-pool-size"),
     MAX_SIZE("max-size"),
@@ -84,6 +89,7 @@ public enum EJB3SubsystemXMLAttribute {
     RELATIVE_TO("relative-to"),
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
+    SCHEDULER(EJB3SubsystemModel.SCHEDULER),
     @Deprecated SESSIONS_PATH("sessions-path"),
     @Deprecated SUBDIRECTORY_COUNT("subdirectory-count"),
 
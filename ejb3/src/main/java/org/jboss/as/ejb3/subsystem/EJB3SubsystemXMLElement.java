@@ -86,6 +86,7 @@ public enum EJB3SubsystemXMLElement {
     STATELESS("stateless"),
     STATISTICS("statistics"),
     STRICT_MAX_POOL("strict-max-pool"),
+    STRIPED_POOL("striped-pool"),
 
     THREAD_POOL("thread-pool"),
     THREAD_POOLS("thread-pools"),
@@ -66,7 +66,8 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
 
         // write the session-bean element
         if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SLSB_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT)
-                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_MODE)) {
             // <session-bean>
             writer.writeStartElement(EJB3SubsystemXMLElement.SESSION_BEAN.getLocalName());
         }
@@ -92,7 +93,8 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
             writer.writeEndElement();
         }
         // <singleton> element
-        if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+        if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_MODE)) {
             // <singleton>
             writer.writeStartElement(EJB3SubsystemXMLElement.SINGLETON.getLocalName());
             // write out the <singleton> element contents
@@ -102,7 +104,8 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
         }
         // write out the </session-bean> end element
         if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SLSB_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT)
-                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_MODE)) {
             // </session-bean>
             writer.writeEndElement();
         }
@@ -128,7 +131,7 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
             writer.writeEndElement();
         }
         // write the pools element
-        if (model.hasDefined(EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL)) {
+        if (model.hasDefined(EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.STRIPED_BEAN_INSTANCE_POOL)) {
             // <pools>
             writer.writeStartElement(EJB3SubsystemXMLElement.POOLS.getLocalName());
             // <bean-instance-pools>
@@ -278,6 +281,7 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
     protected void writeRemote(final XMLExtendedStreamWriter writer, final ModelNode model) throws XMLStreamException {
         writer.writeAttribute(EJB3SubsystemXMLAttribute.CONNECTOR_REF.getLocalName(), model.require(EJB3SubsystemModel.CONNECTOR_REF).asString());
         writer.writeAttribute(EJB3SubsystemXMLAttribute.THREAD_POOL_NAME.getLocalName(), model.require(EJB3SubsystemModel.THREAD_POOL_NAME).asString());
+        EJB3RemoteResourceDefinition.ADAPTIVE_COMPRESSION.marshallAsAttribute(model, writer);
 
         // write out any channel creation options
         if (model.hasDefined(CHANNEL_CREATION_OPTIONS)) {
@@ -366,8 +370,14 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
     }
 
     private void writeSingletonBean(final XMLExtendedStreamWriter writer, final ModelNode singletonBeanModel) throws XMLStreamException {
-        final String defaultAccessTimeout = singletonBeanModel.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT).asString();
+        // default-access-timeout is required by the schema, so fall back to its default if only the lock mode is set
+        final String defaultAccessTimeout = singletonBeanModel.hasDefined(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)
+                ? singletonBeanModel.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT).asString()
+                : EJB3SubsystemRootResourceDefinition.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT.getDefaultValue().asString();
         writer.writeAttribute(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT.getLocalName(), defaultAccessTimeout);
+        if (singletonBeanModel.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_MODE)) {
+            writer.writeAttribute(EJB3SubsystemXMLAttribute.LOCK_MODE.getLocalName(), singletonBeanModel.get(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_LOCK_MODE).asString());
+        }
     }
 
     private void writeStatefulBean(final XMLExtendedStreamWriter writer, final ModelNode statefulBeanModel) throws XMLStreamException {
@@ -412,6 +422,17 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
                 writer.writeEndElement();
             }
         }
+        if (beanInstancePoolModelNode.hasDefined(EJB3SubsystemModel.STRIPED_BEAN_INSTANCE_POOL)) {
+            final List<Property> stripedPools = beanInstancePoolModelNode.get(EJB3SubsystemModel.STRIPED_BEAN_INSTANCE_POOL).asPropertyList();
+            for (Property property : stripedPools) {
+                // <striped-pool>
+                writer.writeStartElement(EJB3SubsystemXMLElement.STRIPED_POOL.getLocalName());
+                // contents of striped-pool, which shares its attributes with strict-max-pool
+                this.writeStrictMaxPoolConfig(writer, property);
+                // </striped-pool>
+                writer.writeEndElement();
+            }
+        }
     }
 
     private void writeStrictMaxPoolConfig(final XMLExtendedStreamWriter writer, final Property strictMaxPoolModel) throws XMLStreamException {
@@ -447,6 +468,7 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
                 PassivationStoreResourceDefinition.CACHE_CONTAINER.marshallAsAttribute(store, writer);
                 PassivationStoreResourceDefinition.BEAN_CACHE.marshallAsAttribute(store, writer);
                 PassivationStoreResourceDefinition.MAX_SIZE.marshallAsAttribute(store, writer);
+                PassivationStoreResourceDefinition.GRANULARITY.marshallAsAttribute(store, writer);
                 writer.writeEndElement();
             }
         }
@@ -502,6 +524,7 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
 
         TimerServiceResourceDefinition.THREAD_POOL_NAME.marshallAsAttribute(timerServiceModel, writer);
         TimerServiceResourceDefinition.DEFAULT_DATA_STORE.marshallAsAttribute(timerServiceModel, writer);
+        TimerServiceResourceDefinition.SCHEDULER.marshallAsAttribute(timerServiceModel, writer);
 
         writer.writeStartElement(EJB3SubsystemXMLElement.DATA_STORES.getLocalName());
         writeFileDataStores(writer, timerServiceModel);
@@ -536,6 +559,7 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
                 writer.writeAttribute(EJB3SubsystemXMLAttribute.NAME.getLocalName(), property.getName());
                 FileDataStoreResourceDefinition.PATH.marshallAsAttribute(store, writer);
                 FileDataStoreResourceDefinition.RELATIVE_TO.marshallAsAttribute(store, writer);
+                FileDataStoreResourceDefinition.FORMAT.marshallAsAttribute(store, writer);
                 writer.writeEndElement();
             }
         }
@@ -36,7 +36,9 @@ import org.jboss.as.controller.ServiceVerificationHandler;
 import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.as.controller.services.path.PathManagerService;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.filestore.FileStoreFormat;
 import org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.filestore.JournalTimerPersistence;
 import org.jboss.as.server.Services;
 import org.jboss.as.txn.service.TransactionManagerService;
 import org.jboss.as.txn.service.TransactionSynchronizationRegistryService;
@@ -73,9 +75,22 @@ public class FileDataStoreAdd extends AbstractAddStepHandler {
         final String relativeTo = relativeToNode.isDefined() ? relativeToNode.asString() : null;
 
 
-        final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true, path, relativeTo);
+        final FileStoreFormat format = FileStoreFormat.valueOf(FileDataStoreResourceDefinition.FORMAT.resolveModelAttribute(context, model).asString());
+
         final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
         final ServiceName serviceName = TimerPersistence.SERVICE_NAME.append(address.getLastElement().getValue());
+        if (format == FileStoreFormat.JOURNAL) {
+            final JournalTimerPersistence journalTimerPersistence = new JournalTimerPersistence(true, path, relativeTo);
+            newControllers.add(context.getServiceTarget().addService(serviceName, journalTimerPersistence)
+                    .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, journalTimerPersistence.getModuleLoader())
+                    .addDependency(PathManagerService.SERVICE_NAME, PathManager.class, journalTimerPersistence.getPathManager())
+                    .addDependency(TransactionManagerService.SERVICE_NAME, TransactionManager.class, journalTimerPersistence.getTransactionManager())
+                    .addDependency(TransactionSynchronizationRegistryService.SERVICE_NAME, TransactionSynchronizationRegistry.class, journalTimerPersistence.getTransactionSynchronizationRegistry())
+                    .install());
+            return;
+        }
+
+        final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true, path, relativeTo);
         newControllers.add(context.getServiceTarget().addService(serviceName, fileTimerPersistence)
                 .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, fileTimerPersistence.getModuleLoader())
                 .addDependency(PathManagerService.SERVICE_NAME, PathManager.class, fileTimerPersistence.getPathManager())
@@ -32,6 +32,7 @@ import org.jboss.as.controller.ServiceRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
@@ -40,6 +41,8 @@ import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.as.controller.services.path.ResolvePathHandler;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.filestore.FileStoreFormat;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -60,6 +63,14 @@ public class FileDataStoreResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
                     .build();
 
+    public static final SimpleAttributeDefinition FORMAT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.FORMAT, ModelType.STRING, true)
+                    .setDefaultValue(new ModelNode(FileStoreFormat.XML.name()))
+                    .setValidator(new EnumValidator<FileStoreFormat>(FileStoreFormat.class, true, true))
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
     private final PathManager pathManager;
 
     public static final Map<String, AttributeDefinition> ATTRIBUTES;
@@ -68,6 +79,7 @@ public class FileDataStoreResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(PATH.getName(), PATH);
         map.put(RELATIVE_TO.getName(), RELATIVE_TO);
+        map.put(FORMAT.getName(), FORMAT);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -35,6 +35,7 @@ import org.jboss.as.ejb3.cache.distributable.DistributableCacheFactoryBuilderSer
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
+import org.wildfly.clustering.ejb.BeanGroupGranularity;
 import org.wildfly.clustering.ejb.BeanManagerFactoryBuilderConfiguration;
 
 /**
@@ -61,10 +62,15 @@ public class PassivationStoreAdd extends AbstractAddStepHandler {
         String containerName = PassivationStoreResourceDefinition.CACHE_CONTAINER.resolveModelAttribute(context, model).asString();
         ModelNode beanCacheNode = PassivationStoreResourceDefinition.BEAN_CACHE.resolveModelAttribute(context, model);
         String cacheName = beanCacheNode.isDefined() ? beanCacheNode.asString() : null;
-        this.install(context, operation, initialMaxSize, containerName, cacheName, verificationHandler, serviceControllers);
+        BeanGroupGranularity granularity = BeanGroupGranularity.valueOf(PassivationStoreResourceDefinition.GRANULARITY.resolveModelAttribute(context, model).asString());
+        this.install(context, operation, initialMaxSize, containerName, cacheName, granularity, verificationHandler, serviceControllers);
     }
 
     protected void install(OperationContext context, ModelNode operation, final int initialMaxSize, final String containerName, final String cacheName, ServiceVerificationHandler verificationHandler, List<ServiceController<?>> serviceControllers) {
+        this.install(context, operation, initialMaxSize, containerName, cacheName, BeanGroupGranularity.GROUP, verificationHandler, serviceControllers);
+    }
+
+    protected void install(OperationContext context, ModelNode operation, final int initialMaxSize, final String containerName, final String cacheName, final BeanGroupGranularity granularity, ServiceVerificationHandler verificationHandler, List<ServiceController<?>> serviceControllers) {
         final String name = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.ADDRESS)).getLastElement().getValue();
         BeanManagerFactoryBuilderConfiguration config = new BeanManagerFactoryBuilderConfiguration() {
             private volatile int maxSize = initialMaxSize;
@@ -79,6 +85,11 @@ public class PassivationStoreAdd extends AbstractAddStepHandler {
                 return cacheName;
             }
 
+            @Override
+            public BeanGroupGranularity getGranularity() {
+                return granularity;
+            }
+
             @Override
             public int getMaxSize() {
                 return this.maxSize;
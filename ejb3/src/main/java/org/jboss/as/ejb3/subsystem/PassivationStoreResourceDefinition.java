@@ -11,14 +11,18 @@ import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.transform.description.AttributeConverter;
+import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
+import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.wildfly.clustering.ejb.BeanGroupGranularity;
 import org.wildfly.clustering.ejb.BeanManagerFactoryBuilderConfiguration;
 
 /**
@@ -48,8 +52,17 @@ public class PassivationStoreResourceDefinition extends SimpleResourceDefinition
             .build()
     ;
 
-    static final AttributeDefinition[] ATTRIBUTES = { MAX_SIZE, CACHE_CONTAINER, BEAN_CACHE };
-    static final AttributeDefinition[] READ_ONLY_ATTRIBUTES = { CACHE_CONTAINER, BEAN_CACHE };
+    static final SimpleAttributeDefinition GRANULARITY = new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.GRANULARITY, ModelType.STRING, true)
+            .setXmlName(EJB3SubsystemXMLAttribute.GRANULARITY.getLocalName())
+            .setDefaultValue(new ModelNode(BeanGroupGranularity.GROUP.name()))
+            .setValidator(new EnumValidator<>(BeanGroupGranularity.class, true, true))
+            .setAllowExpression(true)
+            .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+            .build()
+    ;
+
+    static final AttributeDefinition[] ATTRIBUTES = { MAX_SIZE, CACHE_CONTAINER, BEAN_CACHE, GRANULARITY };
+    static final AttributeDefinition[] READ_ONLY_ATTRIBUTES = { CACHE_CONTAINER, BEAN_CACHE, GRANULARITY };
     static final AttributeDefinition[] READ_WRITE_ATTRIBUTES = { MAX_SIZE };
 
     static final PassivationStoreAdd ADD_HANDLER = new PassivationStoreAdd(ATTRIBUTES);
@@ -76,6 +89,7 @@ public class PassivationStoreResourceDefinition extends SimpleResourceDefinition
      * This transformer does the following:
      * - maps <passivation-store/> to <cluster-passivation-store/>
      * - sets appropriate defaults for IDLE_TIMEOUT, IDLE_TIMEOUT_UNIT, PASSIVATE_EVENTS_ON_REPLICATE, and CLIENT_MAPPINGS_CACHE
+     * - rejects GRANULARITY, unless it is the default
      */
     @SuppressWarnings("deprecation")
     static void registerTransformers_1_1_0(ResourceTransformationDescriptionBuilder parent) {
@@ -87,12 +101,14 @@ public class PassivationStoreResourceDefinition extends SimpleResourceDefinition
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode().set(Integer.MAX_VALUE), true), EJB3SubsystemModel.IDLE_TIMEOUT)
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode().set(TimeUnit.SECONDS.name()), true), EJB3SubsystemModel.IDLE_TIMEOUT_UNIT)
         ;
+        registerGranularityTransformers(child);
     }
 
     /*
      * This transformer does the following:
      * - maps <passivation-store/> to <cluster-passivation-store/>
      * - sets appropriate defaults for IDLE_TIMEOUT, IDLE_TIMEOUT_UNIT, PASSIVATE_EVENTS_ON_REPLICATE, and CLIENT_MAPPINGS_CACHE
+     * - rejects GRANULARITY, unless it is the default
      */
     @SuppressWarnings("deprecation")
     static void registerTransformers_1_2_0(ResourceTransformationDescriptionBuilder parent) {
@@ -104,5 +120,18 @@ public class PassivationStoreResourceDefinition extends SimpleResourceDefinition
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode().set(Integer.MAX_VALUE), true), EJB3SubsystemModel.IDLE_TIMEOUT)
                 .setValueConverter(AttributeConverter.Factory.createHardCoded(new ModelNode().set(TimeUnit.SECONDS.name()), true), EJB3SubsystemModel.IDLE_TIMEOUT_UNIT)
         ;
+        registerGranularityTransformers(child);
+    }
+
+    static void registerTransformers_3_0_0(ResourceTransformationDescriptionBuilder parent) {
+        registerGranularityTransformers(parent.addChildResource(INSTANCE.getPathElement()));
+    }
+
+    private static void registerGranularityTransformers(ResourceTransformationDescriptionBuilder child) {
+        // Legacy versions always store the beans of a group together
+        child.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(false, true, new ModelNode(BeanGroupGranularity.GROUP.name())), GRANULARITY)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, GRANULARITY)
+                .end();
     }
 }
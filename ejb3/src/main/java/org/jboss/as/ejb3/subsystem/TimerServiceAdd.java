@@ -22,8 +22,12 @@
 
 package org.jboss.as.ejb3.subsystem;
 
+import static java.security.AccessController.doPrivileged;
+
+import java.security.PrivilegedAction;
 import java.util.List;
 import java.util.Timer;
+import java.util.concurrent.ThreadFactory;
 
 import org.jboss.as.controller.AbstractBoottimeAddStepHandler;
 import org.jboss.as.controller.AttributeDefinition;
@@ -34,6 +38,10 @@ import org.jboss.as.ejb3.deployment.processors.AroundTimeoutAnnotationParsingPro
 import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
 import org.jboss.as.ejb3.deployment.processors.annotation.TimerServiceAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TimerMethodMergingProcessor;
+import org.jboss.as.ejb3.timerservice.scheduler.HashedWheelTimeoutScheduler;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutScheduler;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutSchedulerType;
+import org.jboss.as.ejb3.timerservice.scheduler.TimerTimeoutScheduler;
 import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
 import org.jboss.as.server.deployment.Phase;
@@ -44,6 +52,8 @@ import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+import org.jboss.threads.JBossThreadFactory;
 
 import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
 
@@ -56,6 +66,12 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
 
     public static final TimerServiceAdd INSTANCE = new TimerServiceAdd();
 
+    private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+        public JBossThreadFactory run() {
+            return new JBossThreadFactory(new ThreadGroup(HashedWheelTimeoutScheduler.class.getSimpleName()), Boolean.TRUE, null, "%G - %t", null, null);
+        }
+    });
+
     private TimerServiceAdd() {
 
     }
@@ -81,6 +97,7 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
         final String defaultDataStore = TimerServiceResourceDefinition.DEFAULT_DATA_STORE.resolveModelAttribute(context, model).asString();
         final String threadPoolName = TimerServiceResourceDefinition.THREAD_POOL_NAME.resolveModelAttribute(context, model).asString();
         final ServiceName threadPoolServiceName = EJB3SubsystemModel.BASE_THREAD_POOL_SERVICE_NAME.append(threadPoolName);
+        final TimeoutSchedulerType schedulerType = TimeoutSchedulerType.valueOf(TimerServiceResourceDefinition.SCHEDULER.resolveModelAttribute(context, model).asString());
 
         context.addStep(new AbstractDeploymentChainStep() {
             protected void execute(DeploymentProcessorTarget processorTarget) {
@@ -96,6 +113,15 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
         newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimerValueService())
                 .install());
 
+        if (schedulerType == TimeoutSchedulerType.TIMING_WHEEL) {
+            newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMEOUT_SCHEDULER_SERVICE_NAME, new TimingWheelSchedulerService())
+                    .install());
+        } else {
+            final TimerSchedulerService schedulerService = new TimerSchedulerService();
+            newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMEOUT_SCHEDULER_SERVICE_NAME, schedulerService)
+                    .addDependency(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, Timer.class, schedulerService.timer)
+                    .install());
+        }
     }
 
     private static final class TimerValueService implements Service<Timer> {
@@ -118,4 +144,53 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
             return timer;
         }
     }
+
+    /**
+     * Schedules timeouts on the shared {@link Timer}.
+     */
+    private static final class TimerSchedulerService implements Service<TimeoutScheduler> {
+
+        final InjectedValue<Timer> timer = new InjectedValue<Timer>();
+        private volatile TimeoutScheduler scheduler;
+
+        @Override
+        public void start(final StartContext context) throws StartException {
+            scheduler = new TimerTimeoutScheduler(timer.getValue());
+        }
+
+        @Override
+        public void stop(final StopContext context) {
+            scheduler = null;
+        }
+
+        @Override
+        public TimeoutScheduler getValue() throws IllegalStateException, IllegalArgumentException {
+            return scheduler;
+        }
+    }
+
+    /**
+     * Schedules timeouts on a {@link HashedWheelTimeoutScheduler}.
+     */
+    private static final class TimingWheelSchedulerService implements Service<TimeoutScheduler> {
+
+        private HashedWheelTimeoutScheduler scheduler;
+
+        @Override
+        public synchronized void start(final StartContext context) throws StartException {
+            scheduler = new HashedWheelTimeoutScheduler(THREAD_FACTORY);
+            scheduler.start();
+        }
+
+        @Override
+        public synchronized void stop(final StopContext context) {
+            scheduler.stop();
+            scheduler = null;
+        }
+
+        @Override
+        public synchronized TimeoutScheduler getValue() throws IllegalStateException, IllegalArgumentException {
+            return scheduler;
+        }
+    }
 }
@@ -38,6 +38,7 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -55,6 +56,8 @@ import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
 import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.timerservice.persistence.filestore.FileStoreFormat;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutSchedulerType;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
@@ -77,6 +80,14 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                     //.setDefaultValue(new ModelNode("default-file-store")) //for backward compatibility!
                     .build();
 
+    static final SimpleAttributeDefinition SCHEDULER =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SCHEDULER, ModelType.STRING, true)
+                    .setDefaultValue(new ModelNode(TimeoutSchedulerType.TIMER.name()))
+                    .setValidator(new EnumValidator<TimeoutSchedulerType>(TimeoutSchedulerType.class, true, true))
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
     private final PathManager pathManager;
@@ -85,6 +96,7 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
         map.put(DEFAULT_DATA_STORE.getName(), DEFAULT_DATA_STORE);
+        map.put(SCHEDULER.getName(), SCHEDULER);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -122,12 +134,35 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         registerDataStoreTransformers(timerService, false);
     }
 
+    static void registerTransformers_3_0_0(ResourceTransformationDescriptionBuilder parent) {
+        ResourceTransformationDescriptionBuilder timerService = parent.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH);
+        registerSchedulerTransformers(timerService);
+        registerFileDataStoreFormatTransformers(timerService.addChildResource(EJB3SubsystemModel.FILE_DATA_STORE_PATH));
+    }
+
+    private static void registerFileDataStoreFormatTransformers(ResourceTransformationDescriptionBuilder fileDataStore) {
+        // Legacy versions only support the XML file store format
+        fileDataStore.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(false, true, new ModelNode(FileStoreFormat.XML.name())), FileDataStoreResourceDefinition.FORMAT)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, FileDataStoreResourceDefinition.FORMAT)
+                .end();
+    }
+
+    private static void registerSchedulerTransformers(ResourceTransformationDescriptionBuilder timerService) {
+        // Only the default java.util.Timer based scheduler is supported by legacy versions
+        timerService.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(false, true, new ModelNode(TimeoutSchedulerType.TIMER.name())), SCHEDULER)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, SCHEDULER)
+                .end();
+    }
+
     private static void registerDataStoreTransformers(ResourceTransformationDescriptionBuilder timerService, boolean rejectPathExpressions) {
 
         DataStoreTransformer dataStoreTransformer = new DataStoreTransformer(rejectPathExpressions);
         timerService.getAttributeBuilder()
                 .setDiscard(DiscardAttributeChecker.ALWAYS, EJB3SubsystemModel.DEFAULT_DATA_STORE)//this is ok, as default-data-store only has any sense with new model, but it is always set!
                 .end();
+        registerSchedulerTransformers(timerService);
         timerService.discardOperations(ModelDescriptionConstants.ADD);
         timerService.setCustomResourceTransformer(dataStoreTransformer);
         timerService.rejectChildResource(EJB3SubsystemModel.DATABASE_DATA_STORE_PATH);
@@ -138,6 +173,7 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
             }
         });
 
+        registerFileDataStoreFormatTransformers(fileDataStore);
         if (rejectPathExpressions) {
             fileDataStore = fileDataStore.getAttributeBuilder()
                 .addRejectCheck(RejectAttributeChecker.SIMPLE_EXPRESSIONS, FileDataStoreResourceDefinition.PATH)
@@ -201,6 +237,11 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                 rejectIncompatibleDataStores(context, address);
             }
 
+            if (fileStore.hasDefined(EJB3SubsystemModel.FORMAT)
+                    && !FileStoreFormat.XML.name().equals(fileStore.get(EJB3SubsystemModel.FORMAT).asString())) {
+                rejectIncompatibleDataStores(context, address);
+            }
+
             ModelNode path = fileStore.get(EJB3SubsystemModel.PATH);
             if (rejectPathExpression) {
                 rejectPathExpression(context, address, defaultDataStore, path);
@@ -39,10 +39,14 @@ import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.component.invocationmetrics.InvocationMetrics;
+import org.jboss.as.ejb3.component.singleton.SingletonComponent;
 import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
+import org.jboss.as.ejb3.concurrency.ContainerManagedConcurrencyInterceptor;
+import org.jboss.as.ejb3.remote.ResponseCompressionMetrics;
 import org.jboss.as.ejb3.subsystem.EJB3Extension;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.invocation.Interceptor;
 
 /**
  * Base class for {@link org.jboss.as.controller.ResourceDefinition}s describing runtime {@link EJBComponent}s.
@@ -85,6 +89,31 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
+    private static final AttributeDefinition COMPRESSED_RESPONSES = new SimpleAttributeDefinitionBuilder("compressed-responses", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition UNCOMPRESSED_RESPONSES = new SimpleAttributeDefinitionBuilder("uncompressed-responses", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition BYTES_SAVED = new SimpleAttributeDefinitionBuilder("bytes-saved", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition COMPRESSION_TIME = new SimpleAttributeDefinitionBuilder("compression-time", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition RESPONSE_COMPRESSION = ObjectTypeAttributeDefinition.Builder.of("response-compression", COMPRESSED_RESPONSES, UNCOMPRESSED_RESPONSES, BYTES_SAVED, COMPRESSION_TIME)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
     public static final SimpleAttributeDefinition RUN_AS_ROLE = new SimpleAttributeDefinitionBuilder("run-as-role", ModelType.STRING, true)
             .setValidator(new StringLengthValidator(1, true))
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
@@ -111,6 +140,21 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
+    private static final AttributeDefinition LOCK_CONTENTION_COUNT = new SimpleAttributeDefinitionBuilder("lock-contention-count", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition LOCK_WAIT_TIME = new SimpleAttributeDefinitionBuilder("lock-wait-time", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition LOCK_TIMEOUT_COUNT = new SimpleAttributeDefinitionBuilder("lock-timeout-count", ModelType.LONG)
+            .setAllowNull(false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
     // Pool attributes
 
     public static final SimpleAttributeDefinition POOL_AVAILABLE_COUNT = new SimpleAttributeDefinitionBuilder("pool-available-count", ModelType.INT, false)
@@ -176,6 +220,48 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             });
         }
 
+        if (componentType.equals(EJBComponentType.SINGLETON)) {
+            resourceRegistration.registerMetric(LOCK_CONTENTION_COUNT, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    final ContainerManagedConcurrencyInterceptor interceptor = getConcurrencyInterceptor(component);
+                    context.getResult().set(interceptor == null ? 0L : interceptor.getContentionCount());
+                }
+            });
+            resourceRegistration.registerMetric(LOCK_WAIT_TIME, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    final ContainerManagedConcurrencyInterceptor interceptor = getConcurrencyInterceptor(component);
+                    context.getResult().set(interceptor == null ? 0L : interceptor.getContentionWaitTime());
+                }
+            });
+            resourceRegistration.registerMetric(LOCK_TIMEOUT_COUNT, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    final ContainerManagedConcurrencyInterceptor interceptor = getConcurrencyInterceptor(component);
+                    context.getResult().set(interceptor == null ? 0L : interceptor.getTimeoutCount());
+                }
+            });
+        }
+
+        if (!componentType.equals(EJBComponentType.MESSAGE_DRIVEN)) {
+            resourceRegistration.registerMetric(RESPONSE_COMPRESSION, new AbstractRuntimeMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                    context.getResult().setEmptyObject();
+                    for (final Map.Entry<String, ResponseCompressionMetrics.Values> entry : component.getResponseCompressionMetrics().getViews().entrySet()) {
+                        final ResponseCompressionMetrics.Values values = entry.getValue();
+                        final ModelNode result = new ModelNode();
+                        result.get(COMPRESSED_RESPONSES.getName()).set(values.getCompressedResponses());
+                        result.get(UNCOMPRESSED_RESPONSES.getName()).set(values.getUncompressedResponses());
+                        result.get(BYTES_SAVED.getName()).set(values.getBytesSaved());
+                        result.get(COMPRESSION_TIME.getName()).set(values.getCompressionTime());
+                        context.getResult().get(entry.getKey()).set(result);
+                    }
+                }
+            });
+        }
+
         resourceRegistration.registerMetric(EXECUTION_TIME, new AbstractRuntimeMetricsHandler() {
             @Override
             protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
@@ -216,6 +302,15 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
         });
     }
 
+    /**
+     * Returns the container managed concurrency interceptor of a singleton component, or null if the bean uses bean
+     * managed concurrency or hasn't been invoked yet.
+     */
+    private static ContainerManagedConcurrencyInterceptor getConcurrencyInterceptor(final EJBComponent component) {
+        final Interceptor interceptor = ((SingletonComponent) component).getConcurrencyManagementInterceptor();
+        return interceptor instanceof ContainerManagedConcurrencyInterceptor ? (ContainerManagedConcurrencyInterceptor) interceptor : null;
+    }
+
     /* (non-Javadoc)
      * @see org.jboss.as.controller.SimpleResourceDefinition#registerChildren(org.jboss.as.controller.registry.ManagementResourceRegistration)
      */
@@ -23,6 +23,8 @@
 package org.jboss.as.ejb3.subsystem.deployment;
 
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ListAttributeDefinition;
+import org.jboss.as.controller.PrimitiveListAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleOperationDefinition;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -43,6 +45,11 @@ public class MessageDrivenBeanResourceDefinition extends AbstractEJBComponentRes
             .setStorageRuntime()
             .build();
 
+    public static final ListAttributeDefinition DELIVERY_PARTITION_BACKLOG = new PrimitiveListAttributeDefinition.Builder("delivery-partition-backlog", ModelType.INT)
+            .setAllowNull(true)
+            .setStorageRuntime()
+            .build();
+
     static final String START_DELIVERY = "start-delivery";
     static final String STOP_DELIVERY = "stop-delivery";
 
@@ -55,6 +62,7 @@ public class MessageDrivenBeanResourceDefinition extends AbstractEJBComponentRes
         super.registerAttributes(registry);
 
         registry.registerReadOnlyAttribute(DELIVERY_ACTIVE, MessageDrivenBeanRuntimeHandler.INSTANCE);
+        registry.registerReadOnlyAttribute(DELIVERY_PARTITION_BACKLOG, MessageDrivenBeanRuntimeHandler.INSTANCE);
     }
 
     @Override
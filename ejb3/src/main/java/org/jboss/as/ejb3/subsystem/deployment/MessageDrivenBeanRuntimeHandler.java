@@ -23,6 +23,7 @@
 package org.jboss.as.ejb3.subsystem.deployment;
 
 import static org.jboss.as.ejb3.subsystem.deployment.MessageDrivenBeanResourceDefinition.DELIVERY_ACTIVE;
+import static org.jboss.as.ejb3.subsystem.deployment.MessageDrivenBeanResourceDefinition.DELIVERY_PARTITION_BACKLOG;
 import static org.jboss.as.ejb3.subsystem.deployment.MessageDrivenBeanResourceDefinition.START_DELIVERY;
 import static org.jboss.as.ejb3.subsystem.deployment.MessageDrivenBeanResourceDefinition.STOP_DELIVERY;
 
@@ -30,6 +31,7 @@ import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.ejb3.component.messagedriven.MessageDrivenComponent;
+import org.jboss.as.ejb3.inflow.PartitionedMessageDelivery;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -50,6 +52,15 @@ public class MessageDrivenBeanRuntimeHandler extends AbstractEJBComponentRuntime
     protected void executeReadAttribute(String attributeName, OperationContext context, MessageDrivenComponent component, PathAddress address) {
         if (DELIVERY_ACTIVE.getName().equals(attributeName)) {
             context.getResult().set(component.isDeliveryActive());
+        } else if (DELIVERY_PARTITION_BACKLOG.getName().equals(attributeName)) {
+            final PartitionedMessageDelivery partitionedDelivery = component.getPartitionedDelivery();
+            if (partitionedDelivery != null) {
+                final ModelNode result = context.getResult();
+                result.setEmptyList();
+                for (int backlog : partitionedDelivery.getBacklogs()) {
+                    result.add(backlog);
+                }
+            }
         } else {
             super.executeReadAttribute(attributeName, context, component, address);
         }
@@ -36,6 +36,8 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 
 import javax.ejb.EJBException;
@@ -63,6 +65,7 @@ import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
 import org.jboss.as.ejb3.context.CurrentInvocationContext;
 import org.jboss.as.ejb3.subsystem.deployment.TimerServiceResource;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.as.ejb3.timerservice.scheduler.TimeoutScheduler;
 import org.jboss.as.ejb3.timerservice.spi.ScheduleTimer;
 import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
 import org.jboss.invocation.InterceptorContext;
@@ -101,7 +104,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private final InjectedValue<ExecutorService> executorServiceInjectedValue = new InjectedValue<ExecutorService>();
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimeoutScheduler> timeoutSchedulerInjectedValue = new InjectedValue<TimeoutScheduler>();
 
     private final InjectedValue<TimedObjectInvoker> timedObjectInvoker = new InjectedValue<TimedObjectInvoker>();
 
@@ -121,9 +124,9 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     private final Map<String, TimerImpl> timers = Collections.synchronizedMap(new HashMap<String, TimerImpl>());
 
     /**
-     * Holds the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
+     * Holds the {@link Task} of each of the timers that have been scheduled
      */
-    private final Map<String, java.util.TimerTask> scheduledTimerFutures = new HashMap<String, java.util.TimerTask>();
+    private final ConcurrentMap<String, Task> scheduledTimerFutures = new ConcurrentHashMap<String, Task>();
 
     /**
      * Key that is used to store timers that are waiting on transaction completion in the transaction local
@@ -211,7 +214,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         this.transactionManager = null;
         IoUtils.safeClose(listenerHandle);
         listenerHandle = null;
-        timerInjectedValue.getValue().purge(); //WFLY-3823
+        timeoutSchedulerInjectedValue.getValue().purge(); //WFLY-3823
     }
 
 
@@ -862,42 +865,44 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      * Creates and schedules a {@link TimerTask} for the next timeout of the passed <code>timer</code>
      */
     protected void scheduleTimeout(TimerImpl timer, boolean newTimer) {
-        synchronized (scheduledTimerFutures) {
-            if (!newTimer && !scheduledTimerFutures.containsKey(timer.getId())) {
-                //this timer has been cancelled by another thread. We just return
-                return;
-            }
-
-            Date nextExpiration = timer.getNextExpiration();
-            if (nextExpiration == null) {
-                ROOT_LOGGER.nextExpirationIsNull(timer);
-                return;
-            }
-            // create the timer task
-            final TimerTask<?> timerTask = timer.getTimerTask();
-            // find out how long is it away from now
-            long delay = nextExpiration.getTime() - System.currentTimeMillis();
-            // if in past, then trigger immediately
-            if (delay < 0) {
-                delay = 0;
-            }
-            long intervalDuration = timer.getInterval();
-            final Task task = new Task(timerTask, ejbComponentInjectedValue.getValue().getControlPoint());
-            if (intervalDuration > 0) {
-                ROOT_LOGGER.debugv("Scheduling timer {0} at fixed rate, starting at {1} milliseconds from now with repeated interval={2}",
-                        timer, delay, intervalDuration);
-                // schedule the task
-                this.timerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
-                // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
-            } else {
-                ROOT_LOGGER.debugv("Scheduling a single action timer {0} starting at {1} milliseconds from now", timer, delay);
-                // schedule the task
-                this.timerInjectedValue.getValue().schedule(task, delay);
-                // maintain it in timerservice for future use (like cancellation)
-                this.scheduledTimerFutures.put(timer.getId(), task);
+        final String timerId = timer.getId();
+        if (!newTimer && !scheduledTimerFutures.containsKey(timerId)) {
+            //this timer has been cancelled by another thread. We just return
+            return;
+        }
 
-            }
+        Date nextExpiration = timer.getNextExpiration();
+        if (nextExpiration == null) {
+            ROOT_LOGGER.nextExpirationIsNull(timer);
+            return;
+        }
+        // create the timer task
+        final TimerTask<?> timerTask = timer.getTimerTask();
+        // find out how long is it away from now
+        long delay = nextExpiration.getTime() - System.currentTimeMillis();
+        // if in past, then trigger immediately
+        if (delay < 0) {
+            delay = 0;
+        }
+        long intervalDuration = timer.getInterval();
+        final Task task = new Task(timerTask, ejbComponentInjectedValue.getValue().getControlPoint());
+        final TimeoutScheduler scheduler = this.timeoutSchedulerInjectedValue.getValue();
+        if (intervalDuration > 0) {
+            ROOT_LOGGER.debugv("Scheduling timer {0} at fixed rate, starting at {1} milliseconds from now with repeated interval={2}",
+                    timer, delay, intervalDuration);
+            // schedule the task
+            task.setTimeout(scheduler.scheduleAtFixedRate(task, delay, intervalDuration));
+        } else {
+            ROOT_LOGGER.debugv("Scheduling a single action timer {0} starting at {1} milliseconds from now", timer, delay);
+            // schedule the task
+            task.setTimeout(scheduler.schedule(task, delay));
+        }
+        // maintain it in timerservice for future use (like cancellation)
+        if (newTimer) {
+            this.scheduledTimerFutures.put(timerId, task);
+        } else if (this.scheduledTimerFutures.replace(timerId, task) == null) {
+            // this timer was cancelled by another thread while we were scheduling it
+            task.cancel();
         }
     }
 
@@ -907,18 +912,14 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      * @param timer
      */
     protected void cancelTimeout(final TimerImpl timer) {
-        synchronized (this.scheduledTimerFutures) {
-            java.util.TimerTask timerTask = this.scheduledTimerFutures.remove(timer.getId());
-            if (timerTask != null) {
-                timerTask.cancel();
-            }
+        Task task = this.scheduledTimerFutures.remove(timer.getId());
+        if (task != null) {
+            task.cancel();
         }
     }
 
     public boolean isScheduled(final String tid){
-        synchronized (this.scheduledTimerFutures) {
-            return this.scheduledTimerFutures.containsKey(tid);
-        }
+        return this.scheduledTimerFutures.containsKey(tid);
     }
 
     /**
@@ -1073,8 +1074,8 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         return executorServiceInjectedValue;
     }
 
-    public InjectedValue<java.util.Timer> getTimerInjectedValue() {
-        return timerInjectedValue;
+    public InjectedValue<TimeoutScheduler> getTimeoutSchedulerInjectedValue() {
+        return timeoutSchedulerInjectedValue;
     }
 
     public InjectedValue<TimerPersistence> getTimerPersistence() {
@@ -1191,10 +1192,11 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
     }
 
-    private class Task extends java.util.TimerTask {
+    private class Task implements Runnable {
 
         private final TimerTask<?> delegate;
         private final ControlPoint controlPoint;
+        private volatile TimeoutScheduler.Timeout timeout;
         /**
          * This is true if a task is queued up to be run by the request controller,
          * used to stop timer tasks banking up when the container is suspended.
@@ -1206,6 +1208,10 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
             this.controlPoint = controlPoint;
         }
 
+        void setTimeout(TimeoutScheduler.Timeout timeout) {
+            this.timeout = timeout;
+        }
+
         @Override
         public void run() {
             final ExecutorService executor = executorServiceInjectedValue.getOptionalValue();
@@ -1227,10 +1233,10 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
             }
         }
 
-        @Override
         public boolean cancel() {
             delegate.cancel();
-            return super.cancel();
+            final TimeoutScheduler.Timeout timeout = this.timeout;
+            return (timeout != null) && timeout.cancel();
         }
     }
 
@@ -43,12 +43,14 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.sql.DataSource;
@@ -56,9 +58,13 @@ import javax.transaction.HeuristicMixedException;
 import javax.transaction.HeuristicRollbackException;
 import javax.transaction.NotSupportedException;
 import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
 
+import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.timerservice.CalendarTimer;
 import org.jboss.as.ejb3.timerservice.TimerImpl;
@@ -98,9 +104,13 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private final Map<String, TimerChangeListener> changeListeners = Collections.synchronizedMap(new HashMap<String, TimerChangeListener>());
 
     private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
 
     private final Map<String, Set<String>> knownTimerIds = new HashMap<>();
 
+    /** Key of the {@link TimerUpdateBatch} in the transaction synchronization registry */
+    private final Object batchTransactionKey = new Object();
+
     /** Identifier for the database dialect to be used for the timer-sql.properties */
     private String database;
     /** List of extracted known dialects*/
@@ -120,11 +130,18 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private MarshallingConfiguration configuration;
     private RefreshTask refreshTask;
 
+    /** Refresh statistics, only written by the refresh task */
+    private volatile long refreshCount;
+    private volatile long refreshTime;
+    private volatile long refreshRowCount;
+    private volatile long refreshLoadedTimerCount;
+
     /** Names for the different SQL commands stored in the properties*/
     private static final String CREATE_TABLE = "create-table";
     private static final String CREATE_TIMER = "create-timer";
     private static final String UPDATE_TIMER = "update-timer";
     private static final String LOAD_ALL_TIMERS = "load-all-timers";
+    private static final String LOAD_ALL_TIMER_IDS = "load-all-timer-ids";
     private static final String LOAD_TIMER = "load-timer";
     private static final String DELETE_TIMER = "delete-timer";
     private static final String UPDATE_RUNNING = "update-running";
@@ -337,48 +354,79 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
 
     @Override
     public void persistTimer(final TimerImpl timerEntity) {
+        final boolean delete = timerEntity.getState() == TimerState.CANCELED ||
+                timerEntity.getState() == TimerState.EXPIRED;
+        synchronized (this) {
+            if (delete) {
+                knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
+            } else {
+                knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
+            }
+        }
+        final TimerUpdateBatch batch = getTransactionBatch();
+        if (batch != null) {
+            //the update is written together with all other timer updates of this transaction
+            batch.add(timerEntity);
+            return;
+        }
         Connection connection = null;
         PreparedStatement statement = null;
-        ResultSet resultSet = null;
         try {
             connection = dataSource.getConnection();
-            if (timerEntity.getState() == TimerState.CANCELED ||
-                    timerEntity.getState() == TimerState.EXPIRED) {
-                String deleteTimer = sql(DELETE_TIMER);
-                statement = connection.prepareStatement(deleteTimer);
-                statement.setString(1, timerEntity.getTimedObjectId());
-                statement.setString(2, timerEntity.getId());
-                statement.setString(3, partition);
-                statement.execute();
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
-                }
+            if (delete) {
+                statement = connection.prepareStatement(sql(DELETE_TIMER));
+                deleteStatementParameters(timerEntity, statement);
             } else {
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
-                }
-                String updateTimer = sql(UPDATE_TIMER);
-                statement = connection.prepareStatement(updateTimer);
-                statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
-                statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
-                statement.setString(3, timerEntity.getState().name());
-                setNodeName(timerEntity.getState(), statement, 4);
-                // WHERE CLAUSE
-                statement.setString(5, timerEntity.getTimedObjectId());
-                statement.setString(6, timerEntity.getId());
-                statement.setString(7, partition);
-                statement.setString(8, nodeName);   // only persist if this node or empty
-                statement.execute();
+                statement = connection.prepareStatement(sql(UPDATE_TIMER));
+                updateStatementParameters(timerEntity, statement);
             }
+            statement.execute();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         } finally {
-            safeClose(resultSet);
             safeClose(statement);
             safeClose(connection);
         }
     }
 
+    /**
+     * Returns the update batch of the current transaction, creating it if necessary.
+     *
+     * @return the batch, or {@code null} if there is no active transaction or the batch can no longer be flushed
+     */
+    private TimerUpdateBatch getTransactionBatch() {
+        final TransactionSynchronizationRegistry registry = transactionSynchronizationRegistry.getValue();
+        if (registry.getTransactionStatus() != Status.STATUS_ACTIVE
+                || CurrentSynchronizationCallback.get() == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION) {
+            return null;
+        }
+        TimerUpdateBatch batch = (TimerUpdateBatch) registry.getResource(batchTransactionKey);
+        if (batch == null) {
+            batch = new TimerUpdateBatch();
+            registry.registerInterposedSynchronization(batch);
+            registry.putResource(batchTransactionKey, batch);
+        }
+        return batch.isFlushed() ? null : batch;
+    }
+
+    private void updateStatementParameters(final TimerImpl timerEntity, final PreparedStatement statement) throws SQLException {
+        statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
+        statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
+        statement.setString(3, timerEntity.getState().name());
+        setNodeName(timerEntity.getState(), statement, 4);
+        // WHERE CLAUSE
+        statement.setString(5, timerEntity.getTimedObjectId());
+        statement.setString(6, timerEntity.getId());
+        statement.setString(7, partition);
+        statement.setString(8, nodeName);   // only persist if this node or empty
+    }
+
+    private void deleteStatementParameters(final TimerImpl timerEntity, final PreparedStatement statement) throws SQLException {
+        statement.setString(1, timerEntity.getTimedObjectId());
+        statement.setString(2, timerEntity.getId());
+        statement.setString(3, partition);
+    }
+
     @Override
     public boolean shouldRun(TimerImpl timer, TransactionManager tm) {
         if (!allowExecution) {
@@ -704,6 +752,38 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         return timerInjectedValue;
     }
 
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+
+    /**
+     * @return the number of times the timers have been refreshed from the database
+     */
+    public long getRefreshCount() {
+        return refreshCount;
+    }
+
+    /**
+     * @return the total time spent refreshing the timers, in milliseconds
+     */
+    public long getRefreshTime() {
+        return refreshTime;
+    }
+
+    /**
+     * @return the total number of timer rows inspected while refreshing
+     */
+    public long getRefreshRowCount() {
+        return refreshRowCount;
+    }
+
+    /**
+     * @return the total number of timers loaded while refreshing, i.e. timers that were created by other nodes
+     */
+    public long getRefreshLoadedTimerCount() {
+        return refreshLoadedTimerCount;
+    }
+
     private static void safeClose(final Closeable resource) {
         try {
             if (resource != null) {
@@ -752,69 +832,213 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         public void run() {
             if (running.compareAndSet(false, true)) {
                 try {
-                    Set<String> timedObjects;
-                    synchronized (DatabaseTimerPersistence.this) {
-                        timedObjects = new HashSet<>(knownTimerIds.keySet());
+                    refresh();
+                } finally {
+                    running.set(false);
+                }
+            }
+
+        }
+
+        /**
+         * Loads the ids of all timers of the partition in a single query, and only loads the full state of
+         * timers that are not yet known to this node.
+         * This is not an incremental refresh: the timer table has no column recording when a timer changed,
+         * so every refresh reads one row per timer of the partition, and only detects added and removed timers.
+         */
+        private void refresh() {
+            final long start = System.nanoTime();
+            final Map<String, Set<String>> known = new HashMap<>();
+            synchronized (DatabaseTimerPersistence.this) {
+                for (Map.Entry<String, Set<String>> entry : knownTimerIds.entrySet()) {
+                    if (changeListeners.containsKey(entry.getKey())) {
+                        known.put(entry.getKey(), new HashSet<>(entry.getValue()));
                     }
-                    for (String timedObjectId : timedObjects) {
-                        TimerChangeListener listener = changeListeners.get(timedObjectId);
-                        if (listener == null) {
-                            continue;
+                }
+            }
+            if (known.isEmpty()) {
+                return;
+            }
+            final Map<String, Set<String>> added = new HashMap<>();
+            long rows = 0;
+            Connection connection = null;
+            PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            try {
+                connection = dataSource.getConnection();
+                statement = connection.prepareStatement(sql(LOAD_ALL_TIMER_IDS));
+                statement.setString(1, partition);
+                resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    rows++;
+                    final String timedObjectId = resultSet.getString(1);
+                    final Set<String> existing = known.get(timedObjectId);
+                    if (existing == null) {
+                        continue;
+                    }
+                    final String id = resultSet.getString(2);
+                    if (!existing.remove(id)) {
+                        Set<String> ids = added.get(timedObjectId);
+                        if (ids == null) {
+                            ids = new HashSet<>();
+                            added.put(timedObjectId, ids);
                         }
-                        final Set<String> existing;
-                        synchronized (DatabaseTimerPersistence.this) {
-                            existing = new HashSet<>(knownTimerIds.get(timedObjectId));
+                        ids.add(id);
+                    }
+                }
+            } catch (SQLException e) {
+                EjbLogger.ROOT_LOGGER.failedToRefreshTimers(partition);
+                return;
+            } finally {
+                safeClose(resultSet);
+                safeClose(statement);
+                safeClose(connection);
+            }
+            long loaded = 0;
+            for (Map.Entry<String, Set<String>> entry : known.entrySet()) {
+                final String timedObjectId = entry.getKey();
+                final TimerChangeListener listener = changeListeners.get(timedObjectId);
+                if (listener == null) {
+                    continue;
+                }
+                final Set<String> ids = added.get(timedObjectId);
+                if (ids != null) {
+                    loaded += loadAddedTimers(timedObjectId, ids, listener);
+                }
+                synchronized (DatabaseTimerPersistence.this) {
+                    final Set<String> timers = knownTimerIds.get(timedObjectId);
+                    for (String timer : entry.getValue()) {
+                        if (timers != null) {
+                            timers.remove(timer);
                         }
-                        String loadTimer = sql(LOAD_ALL_TIMERS);
-                        Connection connection = null;
-                        PreparedStatement statement = null;
-                        ResultSet resultSet = null;
-                        try {
-                            connection = dataSource.getConnection();
-                            statement = connection.prepareStatement(loadTimer);
-                            statement.setString(1, timedObjectId);
-                            statement.setString(2, partition);
-                            resultSet = statement.executeQuery();
-                            while (resultSet.next()) {
-                                try {
-                                    String id = resultSet.getString(1);
-                                    if (!existing.remove(id)) {
-                                        synchronized (DatabaseTimerPersistence.this) {
-                                            knownTimerIds.get(timedObjectId).add(id);
-                                        }
-                                        final Holder holder = timerFromResult(resultSet, listener.getTimerService());
-                                        if(holder != null) {
-                                            listener.timerAdded(holder.timer);
-                                        }
-                                    }
-                                } catch (Exception e) {
-                                    EjbLogger.ROOT_LOGGER.timerReinstatementFailed(resultSet.getString(2), resultSet.getString(1), e);
-                                }
-                            }
+                        listener.timerRemoved(timer);
+                    }
+                }
+            }
+            refreshRowCount += rows;
+            refreshLoadedTimerCount += loaded;
+            refreshTime += TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            refreshCount++;
+        }
 
+        /**
+         * Loads the timers with the given ids and notifies the listener.
+         *
+         * @return the number of timers loaded
+         */
+        private int loadAddedTimers(final String timedObjectId, final Set<String> ids, final TimerChangeListener listener) {
+            int loaded = 0;
+            Connection connection = null;
+            PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            try {
+                connection = dataSource.getConnection();
+                statement = connection.prepareStatement(sql(LOAD_ALL_TIMERS));
+                statement.setString(1, timedObjectId);
+                statement.setString(2, partition);
+                resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    try {
+                        String id = resultSet.getString(1);
+                        if (ids.contains(id)) {
                             synchronized (DatabaseTimerPersistence.this) {
-                                Set<String> timers = knownTimerIds.get(timedObjectId);
-                                for (String timer : existing) {
-                                    timers.remove(timer);
-                                    listener.timerRemoved(timer);
+                                final Set<String> timers = knownTimerIds.get(timedObjectId);
+                                if (timers == null || !timers.add(id)) {
+                                    //undeployed, or added by this node in the meantime
+                                    continue;
                                 }
                             }
-                        } catch (SQLException e) {
-                            EjbLogger.ROOT_LOGGER.failedToRefreshTimers(timedObjectId);
-                        } finally {
-                            safeClose(resultSet);
-                            safeClose(statement);
-                            safeClose(connection);
+                            final Holder holder = timerFromResult(resultSet, listener.getTimerService());
+                            if (holder != null) {
+                                listener.timerAdded(holder.timer);
+                                loaded++;
+                            }
                         }
+                    } catch (Exception e) {
+                        EjbLogger.ROOT_LOGGER.timerReinstatementFailed(resultSet.getString(2), resultSet.getString(1), e);
                     }
-                } finally {
-                    running.set(false);
                 }
+            } catch (SQLException e) {
+                EjbLogger.ROOT_LOGGER.failedToRefreshTimers(timedObjectId);
+            } finally {
+                safeClose(resultSet);
+                safeClose(statement);
+                safeClose(connection);
             }
-
+            return loaded;
         }
     }
 
+    /**
+     * Collects the timer updates of a transaction, and writes them using JDBC batches before the transaction completes.
+     * Only the most recent state of each timer is written.
+     */
+    private final class TimerUpdateBatch implements Synchronization {
+
+        private final Map<String, TimerImpl> timers = new LinkedHashMap<>();
+        private volatile boolean flushed;
+
+        synchronized void add(final TimerImpl timer) {
+            //remove first so that the timer is written in the order of its most recent update
+            timers.remove(timer.getId());
+            timers.put(timer.getId(), timer);
+        }
+
+        boolean isFlushed() {
+            return flushed;
+        }
+
+        @Override
+        public void beforeCompletion() {
+            final List<TimerImpl> updates;
+            synchronized (this) {
+                flushed = true;
+                updates = new ArrayList<>(timers.values());
+                timers.clear();
+            }
+            if (updates.isEmpty()) {
+                return;
+            }
+            Connection connection = null;
+            PreparedStatement update = null;
+            PreparedStatement delete = null;
+            try {
+                connection = dataSource.getConnection();
+                for (TimerImpl timer : updates) {
+                    if (timer.getState() == TimerState.CANCELED ||
+                            timer.getState() == TimerState.EXPIRED) {
+                        if (delete == null) {
+                            delete = connection.prepareStatement(sql(DELETE_TIMER));
+                        }
+                        deleteStatementParameters(timer, delete);
+                        delete.addBatch();
+                    } else {
+                        if (update == null) {
+                            update = connection.prepareStatement(sql(UPDATE_TIMER));
+                        }
+                        updateStatementParameters(timer, update);
+                        update.addBatch();
+                    }
+                }
+                if (update != null) {
+                    update.executeBatch();
+                }
+                if (delete != null) {
+                    delete.executeBatch();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } finally {
+                safeClose(update);
+                safeClose(delete);
+                safeClose(connection);
+            }
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+        }
+    }
 
     static final class Holder {
         final TimerImpl timer;
@@ -0,0 +1,260 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.msc.value.InjectedValue;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.security.PrivilegedAction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.security.AccessController.doPrivileged;
+
+/**
+ * Base class of the file based timer stores, which share how timer changes are tied to the current transaction.
+ * <p/>
+ * Changes made outside of a transaction, or during its before completion phase, are written immediately. Otherwise the
+ * most recent version of the timer is kept as a resource of the transaction, and written once the transaction committed.
+ * All writes of the timers of a timed object happen under the lock of that timed object.
+ */
+public abstract class AbstractFileTimerPersistence implements TimerPersistence {
+
+    private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
+
+    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
+
+    /**
+     * Writes the timer to the store, or removes it if it is canceled or expired. Called under the lock of its timed object.
+     *
+     * @param timer    the timer
+     * @param newTimer whether the timer was just created; an existing timer which is no longer in the store has been
+     *                 removed by another thread, and must not be written again
+     */
+    protected abstract void writeTimer(TimerImpl timer, boolean newTimer);
+
+    /**
+     * Releases any state held for a timed object. Called under the lock of the timed object.
+     */
+    protected void releaseTimers(final String timedObjectId) {
+    }
+
+    @Override
+    public void addTimer(final TimerImpl timer) {
+        if (WildFlySecurityManager.isChecking()) {
+            WildFlySecurityManager.doUnchecked(new PrivilegedAction<Object>() {
+                @Override
+                public Object run() {
+                    persistTimer(timer, true);
+                    return null;
+                }
+            });
+        } else {
+            persistTimer(timer, true);
+        }
+    }
+
+    @Override
+    public void persistTimer(final TimerImpl timer) {
+        if (WildFlySecurityManager.isChecking()) {
+            WildFlySecurityManager.doUnchecked(new PrivilegedAction<Object>() {
+                @Override
+                public Object run() {
+                    persistTimer(timer, false);
+                    return null;
+                }
+            });
+        } else {
+            persistTimer(timer, false);
+        }
+    }
+
+    @Override
+    public boolean shouldRun(TimerImpl timer, TransactionManager tm) {
+        return true;
+    }
+
+    private void persistTimer(final TimerImpl timer, boolean newTimer) {
+        final int status;
+        try {
+            status = transactionManager.getValue().getStatus();
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+        if (status == Status.STATUS_MARKED_ROLLBACK || status == Status.STATUS_ROLLEDBACK ||
+                status == Status.STATUS_ROLLING_BACK) {
+            //no need to persist anyway
+            return;
+        }
+
+        final Lock lock = getLock(timer.getTimedObjectId());
+        lock.lock();
+        try {
+            if (status == Status.STATUS_NO_TRANSACTION ||
+                    status == Status.STATUS_UNKNOWN || isBeforeCompletion()
+                    || status == Status.STATUS_COMMITTED) {
+                writeTimer(timer, newTimer);
+            } else {
+
+                final String key = timerTransactionKey(timer);
+                Object existing = transactionSynchronizationRegistry.getValue().getResource(key);
+                //check is there is already a persist sync for this timer
+                if (existing == null) {
+                    transactionSynchronizationRegistry.getValue().registerInterposedSynchronization(new PersistTransactionSynchronization(lock, key, newTimer));
+                }
+                //update the most recent version of the timer to be persisted
+                transactionSynchronizationRegistry.getValue().putResource(key, timer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String timerTransactionKey(final TimerImpl timer) {
+        return "org.jboss.as.ejb3.timerTransactionKey." + timer.getId();
+    }
+
+    @Override
+    public void timerUndeployed(final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        lock.lock();
+        try {
+            locks.remove(timedObjectId);
+            releaseTimers(timedObjectId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isBeforeCompletion() {
+        final CurrentSynchronizationCallback.CallbackType type = CurrentSynchronizationCallback.get();
+        if (type != null) {
+            return type == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION;
+        }
+        return false;
+    }
+
+    @Override
+    public Closeable registerChangeListener(String timedObjectId, TimerChangeListener listener) {
+        return new Closeable() {
+            @Override
+            public void close() throws IOException {
+            }
+        };
+    }
+
+    /**
+     * Returns either the loaded entity or the most recent version of the entity that has
+     * been persisted in this transaction.
+     */
+    protected TimerImpl mostRecentEntityVersion(final TimerImpl timerImpl) {
+        try {
+            final int status = transactionManager.getValue().getStatus();
+            if (status == Status.STATUS_UNKNOWN ||
+                    status == Status.STATUS_NO_TRANSACTION) {
+                return timerImpl;
+            }
+            final String key = timerTransactionKey(timerImpl);
+            TimerImpl existing = (TimerImpl) transactionSynchronizationRegistry.getValue().getResource(key);
+            return existing != null ? existing : timerImpl;
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    protected Lock getLock(final String timedObjectId) {
+        Lock lock = locks.get(timedObjectId);
+        if (lock == null) {
+            final Lock addedLock = new ReentrantLock();
+            lock = locks.putIfAbsent(timedObjectId, addedLock);
+            if (lock == null) {
+                lock = addedLock;
+            }
+        }
+        return lock;
+    }
+
+    protected void clearLocks() {
+        locks.clear();
+    }
+
+    private final class PersistTransactionSynchronization implements Synchronization {
+
+        private final String transactionKey;
+        private final Lock lock;
+        private final boolean newTimer;
+        private volatile TimerImpl timer;
+
+        public PersistTransactionSynchronization(final Lock lock, final String transactionKey, final boolean newTimer) {
+            this.lock = lock;
+            this.transactionKey = transactionKey;
+            this.newTimer = newTimer;
+        }
+
+        @Override
+        public void beforeCompletion() {
+            //get the latest version of the entity
+            timer = (TimerImpl) transactionSynchronizationRegistry.getValue().getResource(transactionKey);
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            doPrivileged(new PrivilegedAction<Void>() {
+                public Void run() {
+                    if (timer == null) {
+                        return null;
+                    }
+                    lock.lock();
+                    try {
+                        if (status == Status.STATUS_COMMITTED) {
+                            writeTimer(timer, newTimer);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    public InjectedValue<TransactionManager> getTransactionManager() {
+        return transactionManager;
+    }
+
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+}
@@ -23,11 +23,9 @@ package org.jboss.as.ejb3.timerservice.persistence.filestore;
 
 import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.as.ejb3.logging.EjbLogger;
-import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
 import org.jboss.as.ejb3.timerservice.TimerImpl;
 import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
 import org.jboss.as.ejb3.timerservice.TimerState;
-import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
 import org.jboss.marshalling.MarshallerFactory;
 import org.jboss.marshalling.MarshallingConfiguration;
 import org.jboss.marshalling.ModularClassResolver;
@@ -41,11 +39,6 @@ import org.jboss.staxmapper.XMLExtendedStreamWriter;
 import org.jboss.staxmapper.XMLMapper;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
-import javax.transaction.Status;
-import javax.transaction.Synchronization;
-import javax.transaction.SystemException;
-import javax.transaction.TransactionManager;
-import javax.transaction.TransactionSynchronizationRegistry;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
@@ -67,9 +60,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
-import static java.security.AccessController.doPrivileged;
 import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
 
 /**
@@ -79,7 +70,7 @@ import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
  *
  * @author Stuart Douglas
  */
-public class FileTimerPersistence implements TimerPersistence, Service<FileTimerPersistence> {
+public class FileTimerPersistence extends AbstractFileTimerPersistence implements Service<FileTimerPersistence> {
 
     private static final FilePermission FILE_PERMISSION = new FilePermission("<<ALL FILES>>", "read,write,delete");
     private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
@@ -87,8 +78,6 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     private final boolean createIfNotExists;
     private MarshallerFactory factory;
     private MarshallingConfiguration configuration;
-    private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
-    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
     private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
     private final InjectedValue<PathManager> pathManager = new InjectedValue<PathManager>();
     private final String path;
@@ -96,7 +85,6 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     private File baseDir;
     private PathManager.Callback.Handle callbackHandle;
 
-    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
     private final ConcurrentMap<String, String> directories = new ConcurrentHashMap<String, String>();
 
     public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo) {
@@ -150,7 +138,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     @Override
     public void stop(final StopContext context) {
-        locks.clear();
+        clearLocks();
         directories.clear();
         if (callbackHandle != null) {
             callbackHandle.remove();
@@ -165,106 +153,23 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     }
 
     @Override
-    public void addTimer(final TimerImpl TimerImpl) {
-        if(WildFlySecurityManager.isChecking()) {
-            WildFlySecurityManager.doUnchecked(new PrivilegedAction<Object>() {
-                @Override
-                public Object run() {
-                    persistTimer(TimerImpl, true);
-                    return null;
-                }
-            });
-        } else {
-            persistTimer(TimerImpl, true);
-        }
-    }
-
-    @Override
-    public void persistTimer(final TimerImpl TimerImpl) {
-        if(WildFlySecurityManager.isChecking()) {
-            WildFlySecurityManager.doUnchecked(new PrivilegedAction<Object>() {
-                @Override
-                public Object run() {
-                    persistTimer(TimerImpl, false);
-                    return null;
-                }
-            });
-        } else {
-            persistTimer(TimerImpl, false);
+    protected void writeTimer(final TimerImpl timer, final boolean newTimer) {
+        Map<String, TimerImpl> map = getTimers(timer.getTimedObjectId(), timer.getTimerService());
+        if (timer.getState() == TimerState.CANCELED ||
+                timer.getState() == TimerState.EXPIRED) {
+            map.remove(timer.getId());
+            writeFile(timer);
+        } else if (newTimer || map.containsKey(timer.getId())) {
+            //if it is not a new timer and is not in the map then it has
+            //been removed by another thread.
+            map.put(timer.getId(), timer);
+            writeFile(timer);
         }
     }
 
     @Override
-    public boolean shouldRun(TimerImpl timer, TransactionManager tm) {
-        return true;
-    }
-
-    private void persistTimer(final TimerImpl timer, boolean newTimer) {
-        final Lock lock = getLock(timer.getTimedObjectId());
-        try {
-            final int status = transactionManager.getValue().getStatus();
-            if (status == Status.STATUS_MARKED_ROLLBACK || status == Status.STATUS_ROLLEDBACK ||
-                    status == Status.STATUS_ROLLING_BACK) {
-                //no need to persist anyway
-                return;
-            }
-
-            lock.lock();
-            if (status == Status.STATUS_NO_TRANSACTION ||
-                    status == Status.STATUS_UNKNOWN || isBeforeCompletion()
-                    || status == Status.STATUS_COMMITTED) {
-                Map<String, TimerImpl> map = getTimers(timer.getTimedObjectId(), timer.getTimerService());
-                if (timer.getState() == TimerState.CANCELED ||
-                        timer.getState() == TimerState.EXPIRED) {
-                    map.remove(timer.getId());
-                    writeFile(timer);
-                } else if (newTimer || map.containsKey(timer.getId())) {
-                    //if it is not a new timer and is not in the map then it has
-                    //been removed by another thread.
-                    map.put(timer.getId(), timer);
-                    writeFile(timer);
-                }
-            } else {
-
-                final String key = timerTransactionKey(timer);
-                Object existing = transactionSynchronizationRegistry.getValue().getResource(key);
-                //check is there is already a persist sync for this timer
-                if (existing == null) {
-                    transactionSynchronizationRegistry.getValue().registerInterposedSynchronization(new PersistTransactionSynchronization(lock, key, newTimer));
-                }
-                //update the most recent version of the timer to be persisted
-                transactionSynchronizationRegistry.getValue().putResource(key, timer);
-            }
-        } catch (SystemException e) {
-            throw new RuntimeException(e);
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    private String timerTransactionKey(final TimerImpl TimerImpl) {
-        return "org.jboss.as.ejb3.timerTransactionKey." + TimerImpl.getId();
-    }
-
-    @Override
-    public void timerUndeployed(final String timedObjectId) {
-        final Lock lock = getLock(timedObjectId);
-        try {
-            lock.lock();
-            locks.remove(timedObjectId);
-            directories.remove(timedObjectId);
-        } finally {
-            lock.unlock();
-        }
-
-    }
-
-    private boolean isBeforeCompletion() {
-        final CurrentSynchronizationCallback.CallbackType type = CurrentSynchronizationCallback.get();
-        if (type != null) {
-            return type == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION;
-        }
-        return false;
+    protected void releaseTimers(final String timedObjectId) {
+        directories.remove(timedObjectId);
     }
 
     @Override
@@ -284,46 +189,6 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         }
     }
 
-    @Override
-    public Closeable registerChangeListener(String timedObjectId, TimerChangeListener listener) {
-        return new Closeable() {
-            @Override
-            public void close() throws IOException {
-            }
-        };
-    }
-
-    /**
-     * Returns either the loaded entity or the most recent version of the entity that has
-     * been persisted in this transaction.
-     */
-    private TimerImpl mostRecentEntityVersion(final TimerImpl timerImpl) {
-        try {
-            final int status = transactionManager.getValue().getStatus();
-            if (status == Status.STATUS_UNKNOWN ||
-                    status == Status.STATUS_NO_TRANSACTION) {
-                return timerImpl;
-            }
-            final String key = timerTransactionKey(timerImpl);
-            TimerImpl existing = (TimerImpl) transactionSynchronizationRegistry.getValue().getResource(key);
-            return existing != null ? existing : timerImpl;
-        } catch (SystemException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private Lock getLock(final String timedObjectId) {
-        Lock lock = locks.get(timedObjectId);
-        if (lock == null) {
-            final Lock addedLock = new ReentrantLock();
-            lock = locks.putIfAbsent(timedObjectId, addedLock);
-            if (lock == null) {
-                lock = addedLock;
-            }
-        }
-        return lock;
-    }
-
     /**
      * Gets the timer map, loading from the persistent store if necessary. Should be called under lock
      *
@@ -424,61 +289,6 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     }
 
 
-    private final class PersistTransactionSynchronization implements Synchronization {
-
-        private final String transactionKey;
-        private final Lock lock;
-        private final boolean newTimer;
-        private volatile TimerImpl timer;
-
-        public PersistTransactionSynchronization(final Lock lock, final String transactionKey, final boolean newTimer) {
-            this.lock = lock;
-            this.transactionKey = transactionKey;
-            this.newTimer = newTimer;
-        }
-
-        @Override
-        public void beforeCompletion() {
-            //get the latest version of the entity
-            timer = (TimerImpl) transactionSynchronizationRegistry.getValue().getResource(transactionKey);
-            if (timer == null) {
-                return;
-            }
-        }
-
-        @Override
-        public void afterCompletion(final int status) {
-            doPrivileged(new PrivilegedAction<Void>() {
-                public Void run() {
-                    if (timer == null) {
-                        return null;
-                    }
-                    try {
-                        lock.lock();
-                        if (status == Status.STATUS_COMMITTED) {
-                            final Map<String, TimerImpl> map = getTimers(timer.getTimedObjectId(), timer.getTimerService());
-                            if (timer.getState() == TimerState.CANCELED ||
-                                    timer.getState() == TimerState.EXPIRED) {
-                                map.remove(timer.getId());
-                            } else {
-                                if (newTimer || map.containsKey(timer.getId())) {
-                                    //if an existing timer is not in the map it has been cancelled by another thread
-                                    map.put(timer.getId(), timer);
-                                }
-                            }
-                            writeFile(timer);
-                        }
-                    } finally {
-                        lock.unlock();
-                    }
-                    return null;
-                }
-            });
-        }
-
-
-    }
-
     private void writeFile(TimerImpl timer) {
         final File file = fileName(timer.getTimedObjectId(), timer.getId());
 
@@ -507,14 +317,6 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         }
     }
 
-    public InjectedValue<TransactionManager> getTransactionManager() {
-        return transactionManager;
-    }
-
-    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
-        return transactionSynchronizationRegistry;
-    }
-
     public InjectedValue<ModuleLoader> getModuleLoader() {
         return moduleLoader;
     }
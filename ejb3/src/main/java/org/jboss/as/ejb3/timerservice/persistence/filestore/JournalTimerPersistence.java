@@ -0,0 +1,206 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.ModularClassResolver;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+import java.io.File;
+import java.io.FilePermission;
+import java.io.IOException;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+/**
+ * File based persistent timer store that keeps all timers in a single append-only {@link TimerJournal}.
+ * <p/>
+ * Unlike {@link FileTimerPersistence}, which rewrites one XML file per timer and rescans the timer directory
+ * whenever timers are loaded, every change is a sequential append to the journal, and timers are looked up
+ * through the journal's in-memory index. The transactional semantics are the same as those of the XML store.
+ */
+public class JournalTimerPersistence extends AbstractFileTimerPersistence implements Service<JournalTimerPersistence> {
+
+    private static final FilePermission FILE_PERMISSION = new FilePermission("<<ALL FILES>>", "read,write,delete");
+
+    private final boolean createIfNotExists;
+    private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
+    private final InjectedValue<PathManager> pathManager = new InjectedValue<PathManager>();
+    private final String path;
+    private final String pathRelativeTo;
+    private PathManager.Callback.Handle callbackHandle;
+    private TimerJournalCodec codec;
+    private TimerJournal journal;
+
+    public JournalTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo) {
+        final SecurityManager sm = System.getSecurityManager();
+        if (sm != null) {
+            sm.checkPermission(FILE_PERMISSION);
+        }
+        this.createIfNotExists = createIfNotExists;
+        this.path = path;
+        this.pathRelativeTo = pathRelativeTo;
+    }
+
+    @Override
+    public void start(final StartContext context) throws StartException {
+        final IOException failure;
+        if (WildFlySecurityManager.isChecking()) {
+            failure = WildFlySecurityManager.doUnchecked(new PrivilegedAction<IOException>() {
+                public IOException run() {
+                    return doStart();
+                }
+            });
+        } else {
+            failure = doStart();
+        }
+        if (failure != null) {
+            throw new StartException(failure);
+        }
+    }
+
+    private IOException doStart() {
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setClassResolver(ModularClassResolver.getInstance(moduleLoader.getValue()));
+        this.codec = new TimerJournalCodec(new RiverMarshallerFactory(), configuration);
+
+        if (pathRelativeTo != null) {
+            callbackHandle = pathManager.getValue().registerCallback(pathRelativeTo, PathManager.ReloadServerCallback.create(), PathManager.Event.UPDATED, PathManager.Event.REMOVED);
+        }
+        final File baseDir = new File(pathManager.getValue().resolveRelativePathEntry(path, pathRelativeTo));
+        if (!baseDir.exists()) {
+            if (createIfNotExists) {
+                if (!baseDir.mkdirs()) {
+                    throw EjbLogger.ROOT_LOGGER.failToCreateTimerFileStoreDir(baseDir);
+                }
+            } else {
+                throw EjbLogger.ROOT_LOGGER.timerFileStoreDirNotExist(baseDir);
+            }
+        }
+        if (!baseDir.isDirectory()) {
+            throw EjbLogger.ROOT_LOGGER.invalidTimerFileStoreDir(baseDir);
+        }
+        final TimerJournal journal = new TimerJournal(baseDir);
+        try {
+            journal.open();
+        } catch (IOException e) {
+            return e;
+        }
+        this.journal = journal;
+        return null;
+    }
+
+    @Override
+    public void stop(final StopContext context) {
+        clearLocks();
+        if (callbackHandle != null) {
+            callbackHandle.remove();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            ROOT_LOGGER.failToCloseFile(e);
+        }
+        journal = null;
+        codec = null;
+    }
+
+    @Override
+    public JournalTimerPersistence getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    /**
+     * Appends the timer to the journal. Should be called under lock.
+     */
+    @Override
+    protected void writeTimer(final TimerImpl timer, final boolean newTimer) {
+        try {
+            if (timer.getState() == TimerState.CANCELED ||
+                    timer.getState() == TimerState.EXPIRED) {
+                journal.remove(timer.getTimedObjectId(), timer.getId());
+            } else if (newTimer || journal.contains(timer.getTimedObjectId(), timer.getId())) {
+                //if it is not a new timer and is not in the journal then it has
+                //been removed by another thread.
+                journal.write(timer.getTimedObjectId(), timer.getId(), codec.encode(timer));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<TimerImpl> loadActiveTimers(final String timedObjectId, final TimerServiceImpl timerService) {
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            final Map<String, byte[]> records;
+            try {
+                records = journal.read(timedObjectId);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            final ClassLoader classLoader = timerService.getTimedObjectInvoker().getValue().getClassLoader();
+            final List<TimerImpl> entities = new ArrayList<TimerImpl>(records.size());
+            for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+                try {
+                    final TimerImpl timer = codec.decode(timedObjectId, entry.getKey(), entry.getValue(), timerService, classLoader);
+                    if (timer != null) {
+                        entities.add(mostRecentEntityVersion(timer));
+                    } else {
+                        ROOT_LOGGER.timerReinstatementFailed(timedObjectId, entry.getKey(), null);
+                    }
+                } catch (Exception e) {
+                    ROOT_LOGGER.timerReinstatementFailed(timedObjectId, entry.getKey(), e);
+                }
+            }
+            return entities;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public InjectedValue<ModuleLoader> getModuleLoader() {
+        return moduleLoader;
+    }
+
+    public InjectedValue<PathManager> getPathManager() {
+        return pathManager;
+    }
+}
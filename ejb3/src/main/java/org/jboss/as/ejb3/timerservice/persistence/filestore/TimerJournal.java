@@ -0,0 +1,484 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of timer states.
+ * <p/>
+ * Every change to a timer is appended to a single file as a length prefixed, CRC32 checksummed record, and
+ * an in-memory index keyed by timed object id tracks the offset of the most recent record of every live timer.
+ * On startup the journal is replayed sequentially to rebuild the index. Only a torn tail, i.e. an incomplete last
+ * record left by a crash in the middle of a write, is truncated. A record failing its checksum elsewhere is skipped,
+ * and the journal fails to open if a record length is corrupt, as the records following it cannot be located.
+ * <p/>
+ * Writers that append concurrently share a single {@link FileChannel#force(boolean)} (group commit). Once the
+ * number of superseded records exceeds both the compaction threshold and the number of live records, the live
+ * records are copied to a new file which atomically replaces the journal.
+ * <p/>
+ * The journal knows nothing about the content of a record, which is an opaque byte array.
+ */
+final class TimerJournal implements Closeable {
+
+    static final String FILE_NAME = "timers.journal";
+
+    static final int DEFAULT_COMPACTION_THRESHOLD = 1024;
+
+    private static final int MAGIC = 0x454A424A; // "EJBJ"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private final File file;
+    private final int compactionThreshold;
+
+    // timed object id -> timer id -> offset of the most recent record
+    private final Map<String, Map<String, Long>> index = new HashMap<>();
+    private final Object syncLock = new Object();
+
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private long position;
+    private long records;
+    private long liveRecords;
+    // sequence numbers of the last appended and the last forced record
+    private long written;
+    private long synced;
+
+    TimerJournal(final File directory) {
+        this(directory, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    TimerJournal(final File directory, final int compactionThreshold) {
+        this.file = new File(directory, FILE_NAME);
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Opens the journal, replaying any existing content into the index.
+     */
+    synchronized void open() throws IOException {
+        final File compacted = compactionFile();
+        if (compacted.exists()) {
+            // left over from an interrupted compaction, the journal itself is still intact
+            Files.delete(compacted.toPath());
+        }
+        index.clear();
+        records = 0;
+        liveRecords = 0;
+        final long end = file.exists() ? replay() : 0;
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        if (end == 0) {
+            channel.truncate(0);
+            writeFileHeader(channel);
+            position = FILE_HEADER_SIZE;
+        } else {
+            if (end < channel.size()) {
+                ROOT_LOGGER.timerJournalTruncated(file, end);
+                channel.truncate(end);
+            }
+            position = end;
+        }
+        channel.force(true);
+    }
+
+    /**
+     * Replays the journal.
+     *
+     * @return the offset just past the last complete record, or 0 if the journal has no valid header
+     */
+    private long replay() throws IOException {
+        final long size = file.length();
+        if (size < FILE_HEADER_SIZE) {
+            return 0;
+        }
+        long offset = FILE_HEADER_SIZE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported timer journal format " + file.getAbsolutePath());
+            }
+            final CRC32 crc = new CRC32();
+            byte[] buffer = new byte[256];
+            while (size - offset >= RECORD_HEADER_SIZE) {
+                final int length = in.readInt();
+                final int checksum = in.readInt();
+                final long remaining = size - offset - RECORD_HEADER_SIZE;
+                if (length > remaining) {
+                    // the last record was not completely written
+                    break;
+                }
+                if (length <= 0) {
+                    if (length == 0 && checksum == 0 && isZeroFilled(in, remaining)) {
+                        // the file was extended, but the last record was never written
+                        break;
+                    }
+                    throw ROOT_LOGGER.timerJournalCorrupt(file, offset);
+                }
+                if (buffer.length < length) {
+                    buffer = new byte[Math.max(length, buffer.length * 2)];
+                }
+                in.readFully(buffer, 0, length);
+                crc.reset();
+                crc.update(buffer, 0, length);
+                final byte kind = buffer[0];
+                if ((int) crc.getValue() != checksum || (kind != PUT && kind != REMOVE)) {
+                    if (length == remaining) {
+                        // the last record was not completely written
+                        break;
+                    }
+                    ROOT_LOGGER.timerJournalRecordSkipped(file, offset);
+                    records++;
+                    offset += RECORD_HEADER_SIZE + length;
+                    continue;
+                }
+                final DataInputStream payload = new DataInputStream(new ByteArrayInputStream(buffer, 1, length - 1));
+                final String timedObjectId = payload.readUTF();
+                final String timerId = payload.readUTF();
+                if (kind == PUT) {
+                    addToIndex(timedObjectId, timerId, offset);
+                } else {
+                    removeFromIndex(timedObjectId, timerId);
+                }
+                records++;
+                offset += RECORD_HEADER_SIZE + length;
+            }
+        } catch (EOFException e) {
+            // the file was shorter than expected, keep what has been read so far
+        }
+        return offset;
+    }
+
+    private static boolean isZeroFilled(final DataInputStream in, final long length) throws IOException {
+        for (long i = 0; i < length; i++) {
+            if (in.readByte() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends the latest state of a timer.
+     */
+    void write(final String timedObjectId, final String timerId, final byte[] data) throws IOException {
+        final byte[] record = record(PUT, timedObjectId, timerId, data);
+        final long sequence;
+        synchronized (this) {
+            ensureOpen();
+            final long offset = position;
+            append(record);
+            addToIndex(timedObjectId, timerId, offset);
+            sequence = ++written;
+        }
+        sync(sequence);
+        compactIfNecessary();
+    }
+
+    /**
+     * Records the removal of a timer.
+     */
+    void remove(final String timedObjectId, final String timerId) throws IOException {
+        final long sequence;
+        synchronized (this) {
+            ensureOpen();
+            if (!contains(timedObjectId, timerId)) {
+                return;
+            }
+            append(record(REMOVE, timedObjectId, timerId, null));
+            removeFromIndex(timedObjectId, timerId);
+            sequence = ++written;
+        }
+        sync(sequence);
+        compactIfNecessary();
+    }
+
+    synchronized boolean contains(final String timedObjectId, final String timerId) {
+        final Map<String, Long> timers = index.get(timedObjectId);
+        return timers != null && timers.containsKey(timerId);
+    }
+
+    /**
+     * Reads the latest state of all live timers of a timed object.
+     *
+     * @return the record data keyed by timer id
+     */
+    synchronized Map<String, byte[]> read(final String timedObjectId) throws IOException {
+        ensureOpen();
+        final Map<String, Long> timers = index.get(timedObjectId);
+        if (timers == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, byte[]> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : timers.entrySet()) {
+            final ByteBuffer record = readRecord(channel, entry.getValue());
+            final DataInputStream payload = new DataInputStream(new ByteArrayInputStream(record.array(), RECORD_HEADER_SIZE, record.limit() - RECORD_HEADER_SIZE));
+            payload.readByte();
+            payload.readUTF();
+            payload.readUTF();
+            final byte[] data = new byte[payload.available()];
+            payload.readFully(data);
+            result.put(entry.getKey(), data);
+        }
+        return result;
+    }
+
+    /**
+     * Rewrites the journal so that it only contains the live records.
+     */
+    void compact() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                ensureOpen();
+                final File compacted = compactionFile();
+                final Map<String, Map<String, Long>> compactedIndex = new HashMap<>();
+                long offset = FILE_HEADER_SIZE;
+                try (RandomAccessFile out = new RandomAccessFile(compacted, "rw")) {
+                    final FileChannel target = out.getChannel();
+                    target.truncate(0);
+                    writeFileHeader(target);
+                    for (Map.Entry<String, Map<String, Long>> timers : index.entrySet()) {
+                        final Map<String, Long> offsets = new HashMap<>();
+                        for (Map.Entry<String, Long> entry : timers.getValue().entrySet()) {
+                            final ByteBuffer record = readRecord(channel, entry.getValue());
+                            final int length = record.limit();
+                            while (record.hasRemaining()) {
+                                target.write(record, offset + record.position());
+                            }
+                            offsets.put(entry.getKey(), offset);
+                            offset += length;
+                        }
+                        compactedIndex.put(timers.getKey(), offsets);
+                    }
+                    target.force(true);
+                }
+                // the journal cannot be replaced while it is open on every platform; until it is reopened, ensureOpen() fails
+                channel = null;
+                raf.close();
+                try {
+                    try {
+                        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (IOException e) {
+                    // the journal was left untouched, so keep appending to it
+                    Files.deleteIfExists(compacted.toPath());
+                    raf = new RandomAccessFile(file, "rw");
+                    channel = raf.getChannel();
+                    throw e;
+                }
+                raf = new RandomAccessFile(file, "rw");
+                channel = raf.getChannel();
+                index.clear();
+                index.putAll(compactedIndex);
+                position = offset;
+                records = liveRecords;
+                synced = written;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (channel != null) {
+                    try {
+                        channel.force(true);
+                    } finally {
+                        channel = null;
+                        raf.close();
+                        raf = null;
+                        index.clear();
+                    }
+                }
+            }
+        }
+    }
+
+    synchronized long getRecordCount() {
+        return records;
+    }
+
+    synchronized long getLiveRecordCount() {
+        return liveRecords;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    private void compactIfNecessary() {
+        final boolean compact;
+        synchronized (this) {
+            final long garbage = records - liveRecords;
+            compact = channel != null && garbage > compactionThreshold && garbage > liveRecords;
+        }
+        if (compact) {
+            try {
+                compact();
+            } catch (IOException e) {
+                ROOT_LOGGER.failedToCompactTimerJournal(file, e);
+            }
+        }
+    }
+
+    /**
+     * Forces the journal to disk, unless a concurrent writer already did so after the given record was appended.
+     */
+    private void sync(final long sequence) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= sequence) {
+                return;
+            }
+            final long target;
+            final FileChannel channel;
+            synchronized (this) {
+                ensureOpen();
+                target = written;
+                channel = this.channel;
+            }
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    private void append(final byte[] record) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+        position += record.length;
+        records++;
+    }
+
+    private void addToIndex(final String timedObjectId, final String timerId, final long offset) {
+        Map<String, Long> timers = index.get(timedObjectId);
+        if (timers == null) {
+            timers = new HashMap<>();
+            index.put(timedObjectId, timers);
+        }
+        if (timers.put(timerId, offset) == null) {
+            liveRecords++;
+        }
+    }
+
+    private void removeFromIndex(final String timedObjectId, final String timerId) {
+        final Map<String, Long> timers = index.get(timedObjectId);
+        if (timers != null && timers.remove(timerId) != null) {
+            liveRecords--;
+            if (timers.isEmpty()) {
+                index.remove(timedObjectId);
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException("Timer journal " + file.getAbsolutePath() + " is not open");
+        }
+    }
+
+    private File compactionFile() {
+        return new File(file.getParentFile(), FILE_NAME + ".compact");
+    }
+
+    private static void writeFileHeader(final FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private static ByteBuffer readRecord(final FileChannel channel, final long offset) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        readFully(channel, header, offset);
+        final int length = header.getInt(0);
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        record.put(header.array());
+        readFully(channel, record, offset + RECORD_HEADER_SIZE);
+        record.flip();
+        final CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, length);
+        if ((int) crc.getValue() != record.getInt(4)) {
+            throw new IOException("Checksum mismatch for timer journal record at offset " + offset);
+        }
+        return record;
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long offset) throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position() - start) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static byte[] record(final byte kind, final String timedObjectId, final String timerId, final byte[] data) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(RECORD_HEADER_SIZE + 64 + (data == null ? 0 : data.length));
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(kind);
+        out.writeUTF(timedObjectId);
+        out.writeUTF(timerId);
+        if (data != null) {
+            out.write(data);
+        }
+        out.flush();
+        final byte[] record = bytes.toByteArray();
+        final int length = record.length - RECORD_HEADER_SIZE;
+        final CRC32 crc = new CRC32();
+        crc.update(record, RECORD_HEADER_SIZE, length);
+        ByteBuffer.wrap(record).putInt(length).putInt((int) crc.getValue());
+        return record;
+    }
+}
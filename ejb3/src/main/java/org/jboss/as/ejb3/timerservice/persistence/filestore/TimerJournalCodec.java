@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import javax.ejb.ScheduleExpression;
+
+import org.jboss.as.ejb3.timerservice.CalendarTimer;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimeoutMethod;
+import org.jboss.marshalling.ByteBufferInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Binary representation of a timer in the {@link TimerJournal}. Holds the same state as the XML format written
+ * by {@link EjbTimerXmlPersister}, the timer info and primary key are written with JBoss Marshalling.
+ */
+final class TimerJournalCodec {
+
+    private static final byte TIMER = 1;
+    private static final byte CALENDAR_TIMER = 2;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final MarshallerFactory factory;
+    private final MarshallingConfiguration configuration;
+
+    TimerJournalCodec(final MarshallerFactory factory, final MarshallingConfiguration configuration) {
+        this.factory = factory;
+        this.configuration = configuration;
+    }
+
+    byte[] encode(final TimerImpl timer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final boolean calendarTimer = timer instanceof CalendarTimer;
+        out.writeByte(calendarTimer ? CALENDAR_TIMER : TIMER);
+        writeDate(out, timer.getInitialExpiration());
+        out.writeLong(timer.getInterval());
+        writeDate(out, timer.getNextExpiration());
+        writeDate(out, timer.getPreviousRun());
+        out.writeUTF(timer.getState().name());
+        writeObject(out, timer.getTimerInfo());
+        writeObject(out, timer.getPrimaryKey());
+        if (calendarTimer) {
+            final CalendarTimer calendar = (CalendarTimer) timer;
+            final ScheduleExpression schedule = calendar.getScheduleExpression();
+            out.writeUTF(schedule.getSecond());
+            out.writeUTF(schedule.getMinute());
+            out.writeUTF(schedule.getHour());
+            out.writeUTF(schedule.getDayOfWeek());
+            out.writeUTF(schedule.getDayOfMonth());
+            out.writeUTF(schedule.getMonth());
+            out.writeUTF(schedule.getYear());
+            writeDate(out, schedule.getStart());
+            writeDate(out, schedule.getEnd());
+            writeString(out, schedule.getTimezone());
+            out.writeBoolean(calendar.isAutoTimer());
+            if (calendar.isAutoTimer()) {
+                final Method timeoutMethod = calendar.getTimeoutMethod();
+                out.writeUTF(timeoutMethod.getDeclaringClass().getName());
+                out.writeUTF(timeoutMethod.getName());
+                final Class<?>[] parameterTypes = timeoutMethod.getParameterTypes();
+                out.writeByte(parameterTypes.length);
+                for (Class<?> parameterType : parameterTypes) {
+                    out.writeUTF(parameterType.getName());
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a timer.
+     *
+     * @return the timer, or {@code null} if the timeout method of an auto timer can no longer be resolved
+     */
+    TimerImpl decode(final String timedObjectId, final String timerId, final byte[] data, final TimerServiceImpl timerService, final ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        final boolean calendarTimer = in.readByte() == CALENDAR_TIMER;
+        final CalendarTimer.Builder calendarBuilder = calendarTimer ? CalendarTimer.builder() : null;
+        final TimerImpl.Builder builder = calendarTimer ? calendarBuilder : TimerImpl.builder();
+        builder.setPersistent(true);
+        builder.setTimedObjectId(timedObjectId);
+        builder.setId(timerId);
+        builder.setInitialDate(readDate(in));
+        builder.setRepeatInterval(in.readLong());
+        builder.setNextDate(readDate(in));
+        builder.setPreviousRun(readDate(in));
+        builder.setTimerState(TimerState.valueOf(in.readUTF()));
+        builder.setInfo((Serializable) readObject(in));
+        builder.setPrimaryKey(readObject(in));
+        if (!calendarTimer) {
+            return builder.build(timerService);
+        }
+        calendarBuilder.setScheduleExprSecond(in.readUTF());
+        calendarBuilder.setScheduleExprMinute(in.readUTF());
+        calendarBuilder.setScheduleExprHour(in.readUTF());
+        calendarBuilder.setScheduleExprDayOfWeek(in.readUTF());
+        calendarBuilder.setScheduleExprDayOfMonth(in.readUTF());
+        calendarBuilder.setScheduleExprMonth(in.readUTF());
+        calendarBuilder.setScheduleExprYear(in.readUTF());
+        calendarBuilder.setScheduleExprStartDate(readDate(in));
+        calendarBuilder.setScheduleExprEndDate(readDate(in));
+        calendarBuilder.setScheduleExprTimezone(readString(in));
+        final boolean autoTimer = in.readBoolean();
+        calendarBuilder.setAutoTimer(autoTimer);
+        if (autoTimer) {
+            final String declaringClass = in.readUTF();
+            final String methodName = in.readUTF();
+            final String[] parameterTypes = new String[in.readByte()];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                parameterTypes[i] = in.readUTF();
+            }
+            final Method timeoutMethod = CalendarTimer.getTimeoutMethod(new TimeoutMethod(declaringClass, methodName, parameterTypes), classLoader);
+            if (timeoutMethod == null) {
+                return null;
+            }
+            calendarBuilder.setTimeoutMethod(timeoutMethod);
+        }
+        return calendarBuilder.build(timerService);
+    }
+
+    private void writeObject(final DataOutputStream out, final Object object) throws IOException {
+        if (object == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Marshaller marshaller = factory.createMarshaller(configuration);
+        marshaller.start(new OutputStreamByteOutput(bytes));
+        marshaller.writeObject(object);
+        marshaller.finish();
+        marshaller.flush();
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private Object readObject(final DataInputStream in) throws IOException, ClassNotFoundException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] data = new byte[length];
+        in.readFully(data);
+        final Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
+        unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(data)));
+        try {
+            return unmarshaller.readObject();
+        } finally {
+            unmarshaller.close();
+        }
+    }
+
+    private static void writeDate(final DataOutputStream out, final Date date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.getTime());
+    }
+
+    private static Date readDate(final DataInputStream in) throws IOException {
+        final long time = in.readLong();
+        return time == NO_DATE ? null : new Date(time);
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.timerservice.schedule;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.jboss.as.ejb3.timerservice.schedule.attribute.DayOfMonth;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.DayOfWeek;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Hour;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Minute;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Month;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Second;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Year;
+
+/**
+ * A {@link javax.ejb.ScheduleExpression} compiled into one bit mask per attribute.
+ * <p>
+ * The search for the next timeout walks primitive local date and time fields of the schedule's time zone, skipping
+ * whole years, months, days, hours and minutes that can't match, instead of mutating a {@link Calendar}
+ * one attribute at a time. {@link java.time} is only used to convert between instants and local date/time at both
+ * ends of the search. Wall clock times that fall into a daylight saving gap are moved forward by the length of the gap,
+ * and ambiguous wall clock times are interpreted using the offset after the transition, the same as a lenient
+ * {@link java.util.GregorianCalendar} does.
+ * </p>
+ * <p>
+ * Instances are immutable and may be shared between threads.
+ * </p>
+ */
+final class CompiledSchedule {
+
+    /**
+     * Returned by the timeout computations if the schedule has no more timeouts
+     */
+    static final long NO_MORE_TIMEOUTS = Long.MIN_VALUE;
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static final long ALL_DAYS_OF_MONTH = -1L << 1;
+
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long months;
+    private final BitSet years;
+    private final DayOfMonth dayOfMonth;
+    private final boolean dayOfMonthWildcard;
+    private final boolean dayOfWeekWildcard;
+
+    /**
+     * The days of a month matching the day-of-week attribute, indexed by the {@link Calendar#DAY_OF_WEEK} of the first
+     * day of the month, minus one.
+     */
+    private final long[] daysOfWeekByFirstDayOfWeek = new long[7];
+
+    /**
+     * The first matching time of a day, in seconds, or -1 if no time of day matches
+     */
+    private final int firstTimeOfDay;
+
+    private final ZoneRules rules;
+    private final long start;
+    private final long end;
+
+    CompiledSchedule(Second second, Minute minute, Hour hour, DayOfMonth dayOfMonth, boolean dayOfMonthWildcard,
+                     DayOfWeek dayOfWeek, boolean dayOfWeekWildcard, Month month, Year year, TimeZone timezone,
+                     Date start, Date end) {
+        this.seconds = toMask(second.getAbsoluteValuesBitSet());
+        this.minutes = toMask(minute.getAbsoluteValuesBitSet());
+        this.hours = toMask(hour.getAbsoluteValuesBitSet());
+        this.months = toMask(month.getAbsoluteValuesBitSet());
+        this.years = year.getAbsoluteValuesBitSet();
+        this.dayOfMonth = dayOfMonth;
+        this.dayOfMonthWildcard = dayOfMonthWildcard;
+        this.dayOfWeekWildcard = dayOfWeekWildcard;
+
+        // 0 and 7 both stand for sunday
+        long daysOfWeek = toMask(dayOfWeek.getAbsoluteValuesBitSet());
+        daysOfWeek = (daysOfWeek | daysOfWeek >>> 7) & 0x7F;
+        for (int firstDayOfWeek = 0; firstDayOfWeek < 7; firstDayOfWeek++) {
+            long mask = 0;
+            for (int date = 1; date <= 31; date++) {
+                if ((daysOfWeek & 1L << (firstDayOfWeek + date - 1) % 7) != 0) {
+                    mask |= 1L << date;
+                }
+            }
+            this.daysOfWeekByFirstDayOfWeek[firstDayOfWeek] = mask;
+        }
+        this.firstTimeOfDay = this.nextTimeOfDay(0);
+
+        this.rules = timezone.toZoneId().getRules();
+        this.start = start == null ? Long.MIN_VALUE : start.getTime();
+        this.end = end == null ? Long.MAX_VALUE : end.getTime();
+    }
+
+    /**
+     * Computes the first timeout at or after <code>currentTime</code>, or after <code>currentTime</code> if
+     * <code>increment</code> is true. If the schedule has a start date after <code>currentTime</code>, the search
+     * begins at the start date instead.
+     *
+     * @param currentTime The time, in milliseconds since the epoch, to start the search from
+     * @param increment   Whether <code>currentTime</code> itself is excluded
+     * @return the next timeout in milliseconds since the epoch, or {@link #NO_MORE_TIMEOUTS}
+     */
+    long getNextTimeout(long currentTime, boolean increment) {
+        if (currentTime > this.end) {
+            return NO_MORE_TIMEOUTS;
+        }
+        long time;
+        if (currentTime < this.start) {
+            time = this.start;
+        } else {
+            time = increment ? currentTime + 1000 : currentTime;
+        }
+        final long epochSecond = Math.floorDiv(time, 1000);
+        final LocalDateTime local = LocalDateTime.ofEpochSecond(epochSecond, 0, this.offsetAt(epochSecond));
+        if (local.getYear() > Year.MAX_YEAR) {
+            return NO_MORE_TIMEOUTS;
+        }
+        final long localSecond = local.toEpochSecond(ZoneOffset.UTC);
+        final long nextLocalSecond = this.nextLocalTime(local.getYear(), local.getMonthValue(), local.getDayOfMonth(),
+                local.toLocalTime().toSecondOfDay());
+        if (nextLocalSecond == NO_MORE_TIMEOUTS) {
+            return NO_MORE_TIMEOUTS;
+        }
+        // if the starting point already matches keep its instant, which matters for the second
+        // pass through an ambiguous wall clock hour
+        final long next = nextLocalSecond == localSecond ? epochSecond * 1000 : this.toEpochMilli(nextLocalSecond);
+        return next > this.end ? NO_MORE_TIMEOUTS : next;
+    }
+
+    /**
+     * Returns the instant of the first matching time of day on the date of <code>currentTime</code>, regardless of
+     * whether that date matches the schedule.
+     */
+    long resetTimeToFirstValues(long currentTime) {
+        final long epochSecond = Math.floorDiv(currentTime, 1000);
+        final long localSecond = epochSecond + this.offsetAt(epochSecond).getTotalSeconds();
+        final int timeOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+        if (this.firstTimeOfDay < 0 || timeOfDay == this.firstTimeOfDay) {
+            return currentTime;
+        }
+        return this.toEpochMilli(localSecond - timeOfDay + this.firstTimeOfDay);
+    }
+
+    /**
+     * Finds the first matching local date and time at or after the passed one.
+     *
+     * @return the match in seconds since the local epoch, or {@link #NO_MORE_TIMEOUTS}
+     */
+    private long nextLocalTime(int year, int month, int date, int timeOfDay) {
+        if (this.firstTimeOfDay < 0) {
+            return NO_MORE_TIMEOUTS;
+        }
+        while (year <= Year.MAX_YEAR) {
+            if (this.years.get(year) == false) {
+                year = this.years.nextSetBit(year);
+                if (year < 0) {
+                    return NO_MORE_TIMEOUTS;
+                }
+                month = 1;
+                date = 1;
+                timeOfDay = 0;
+                continue;
+            }
+            final int nextMonth = nextSetBit(this.months, month);
+            if (nextMonth < 0) {
+                year++;
+                month = 1;
+                date = 1;
+                timeOfDay = 0;
+                continue;
+            }
+            if (nextMonth != month) {
+                month = nextMonth;
+                date = 1;
+                timeOfDay = 0;
+            }
+            final int lastDate = java.time.Month.of(month).length(java.time.Year.isLeap(year));
+            final long eligibleDates = this.getEligibleDates(year, month, lastDate) & (-1L >>> (63 - lastDate));
+            final int nextDate = nextSetBit(eligibleDates, date);
+            if (nextDate < 0) {
+                month++;
+                date = 1;
+                timeOfDay = 0;
+                continue;
+            }
+            if (nextDate != date) {
+                date = nextDate;
+                timeOfDay = 0;
+            }
+            final int nextTimeOfDay = this.nextTimeOfDay(timeOfDay);
+            if (nextTimeOfDay < 0) {
+                date++;
+                timeOfDay = 0;
+                continue;
+            }
+            return toEpochDay(year, month, date) * SECONDS_PER_DAY + nextTimeOfDay;
+        }
+        return NO_MORE_TIMEOUTS;
+    }
+
+    /**
+     * Returns the dates of the month matching the day-of-month and day-of-week attributes. If both are restricted,
+     * a date matching either of them is eligible.
+     */
+    private long getEligibleDates(int year, int month, int lastDate) {
+        if (this.dayOfMonthWildcard && this.dayOfWeekWildcard) {
+            return ALL_DAYS_OF_MONTH;
+        }
+        // 1970-01-01 was a thursday
+        final int firstDayOfWeek = (int) Math.floorMod(toEpochDay(year, month, 1) + Calendar.THURSDAY - 1, 7) + 1;
+        final long daysOfWeek = this.daysOfWeekByFirstDayOfWeek[firstDayOfWeek - 1];
+        if (this.dayOfMonthWildcard) {
+            return daysOfWeek;
+        }
+        final long daysOfMonth = this.dayOfMonth.getDaysOfMonthMask(lastDate, firstDayOfWeek);
+        if (this.dayOfWeekWildcard) {
+            return daysOfMonth;
+        }
+        return daysOfMonth | daysOfWeek;
+    }
+
+    /**
+     * Returns the first matching time of day, in seconds, at or after <code>timeOfDay</code>, or -1 if there's none
+     * left on that day.
+     */
+    private int nextTimeOfDay(int timeOfDay) {
+        final int hour = timeOfDay / 3600;
+        final int minute = timeOfDay / 60 % 60;
+        final int second = timeOfDay % 60;
+        if ((this.hours & 1L << hour) != 0) {
+            if ((this.minutes & 1L << minute) != 0) {
+                final int nextSecond = nextSetBit(this.seconds, second);
+                if (nextSecond >= 0) {
+                    return hour * 3600 + minute * 60 + nextSecond;
+                }
+            }
+            final int nextMinute = nextSetBit(this.minutes, minute + 1);
+            if (nextMinute >= 0) {
+                return firstOf(hour, nextMinute, this.seconds);
+            }
+        }
+        final int nextHour = nextSetBit(this.hours, hour + 1);
+        if (nextHour < 0) {
+            return -1;
+        }
+        final int nextMinute = nextSetBit(this.minutes, 0);
+        return nextMinute < 0 ? -1 : firstOf(nextHour, nextMinute, this.seconds);
+    }
+
+    private static int firstOf(int hour, int minute, long seconds) {
+        final int second = nextSetBit(seconds, 0);
+        return second < 0 ? -1 : hour * 3600 + minute * 60 + second;
+    }
+
+    private ZoneOffset offsetAt(long epochSecond) {
+        return this.rules.getOffset(Instant.ofEpochSecond(epochSecond));
+    }
+
+    private long toEpochMilli(long localSecond) {
+        final LocalDateTime local = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+        final ZoneOffsetTransition transition = this.rules.getTransition(local);
+        final ZoneOffset offset;
+        if (transition == null) {
+            offset = this.rules.getOffset(local);
+        } else if (transition.isGap()) {
+            // moves the wall clock time forward by the length of the gap
+            offset = transition.getOffsetBefore();
+        } else {
+            offset = transition.getOffsetAfter();
+        }
+        return (localSecond - offset.getTotalSeconds()) * 1000;
+    }
+
+    private static long toMask(BitSet bits) {
+        final long[] words = bits.toLongArray();
+        return words.length == 0 ? 0L : words[0];
+    }
+
+    private static int nextSetBit(long mask, int fromIndex) {
+        if (fromIndex > 63) {
+            return -1;
+        }
+        final long bits = mask & -1L << fromIndex;
+        return bits == 0 ? -1 : Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the number of days since 1970-01-01 of a date in the proleptic gregorian calendar
+     */
+    private static long toEpochDay(int year, int month, int date) {
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(y, 400);
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + date - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
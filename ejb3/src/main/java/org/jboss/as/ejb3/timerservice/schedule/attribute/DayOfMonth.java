@@ -30,8 +30,10 @@ import org.jboss.as.ejb3.timerservice.schedule.value.SingleValue;
 
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -125,6 +127,17 @@ public class DayOfMonth extends IntegerBasedExpression {
     }
 
 
+    /**
+     * Bit mask of the absolute days of month, with bit <code>n</code> set if day <code>n</code> is a match
+     */
+    private long absoluteDaysOfMonthMask;
+
+    /**
+     * The relative values and ranges of this expression, pre-parsed so that they can be resolved against any month
+     * without parsing the original values again. Single values are held as a range with the same start and end.
+     */
+    private final List<ResolvableDayOfMonth[]> relativeRanges = new ArrayList<ResolvableDayOfMonth[]>();
+
     /**
      * Creates a {@link DayOfMonth} by parsing the passed {@link String} <code>value</code>
      * <p>
@@ -139,6 +152,20 @@ public class DayOfMonth extends IntegerBasedExpression {
      */
     public DayOfMonth(String value) {
         super(value);
+        for (Integer dayOfMonth : this.absoluteValues) {
+            if (dayOfMonth > 0) {
+                this.absoluteDaysOfMonthMask |= 1L << dayOfMonth;
+            }
+        }
+        for (ScheduleValue relativeValue : this.relativeValues) {
+            if (relativeValue instanceof SingleValue) {
+                ResolvableDayOfMonth day = this.compile(((SingleValue) relativeValue).getValue());
+                this.relativeRanges.add(new ResolvableDayOfMonth[] { day, day });
+            } else if (relativeValue instanceof RangeValue) {
+                RangeValue range = (RangeValue) relativeValue;
+                this.relativeRanges.add(new ResolvableDayOfMonth[] { this.compile(range.getStart()), this.compile(range.getEnd()) });
+            }
+        }
     }
 
     /**
@@ -181,6 +208,100 @@ public class DayOfMonth extends IntegerBasedExpression {
         return eligibleDaysOfMonth.first();
     }
 
+    /**
+     * Returns the days of month matching this expression in a month with the given characteristics, as a bit mask
+     * with bit <code>n</code> set if day <code>n</code> is a match. Relative values are resolved the same way as
+     * {@link #getNextMatch(java.util.Calendar)} does, but without any {@link Calendar} computation.
+     *
+     * @param lastDateOfMonth     The last date (i.e. the number of days) of the month
+     * @param dayOfWeekOfFirstDay The {@link Calendar#DAY_OF_WEEK} of the first day of the month
+     * @return the matching days of month; bits beyond <code>lastDateOfMonth</code> may be set
+     */
+    public long getDaysOfMonthMask(int lastDateOfMonth, int dayOfWeekOfFirstDay) {
+        if (this.scheduleExpressionType == ScheduleExpressionType.WILDCARD) {
+            return -1L << 1;
+        }
+        long mask = this.absoluteDaysOfMonthMask;
+        for (ResolvableDayOfMonth[] range : this.relativeRanges) {
+            int start = range[0].resolve(lastDateOfMonth, dayOfWeekOfFirstDay);
+            int end = range[1].resolve(lastDateOfMonth, dayOfWeekOfFirstDay);
+            if (start > end) {
+                // "x-y" with x larger than y is equivalent to "x-max, min-y"
+                mask |= daysBetween(start, MAX_DAY_OF_MONTH) | daysBetween(MIN_DAY_OF_MONTH, end);
+            } else {
+                mask |= daysBetween(start, end);
+            }
+        }
+        return mask;
+    }
+
+    private static long daysBetween(int start, int end) {
+        int first = Math.max(start, 1);
+        if (end < first) {
+            return 0L;
+        }
+        return (-1L << first) & (-1L >>> (63 - end));
+    }
+
+    private ResolvableDayOfMonth compile(String value) {
+        String trimmedValue = value.trim();
+        if (this.isRelativeValue(trimmedValue) == false) {
+            Integer dayOfMonth = this.parseInt(trimmedValue);
+            this.assertValid(dayOfMonth);
+            return new ResolvableDayOfMonth(ResolvableDayOfMonth.ABSOLUTE, dayOfMonth, 0);
+        }
+        if (trimmedValue.equalsIgnoreCase("last")) {
+            return new ResolvableDayOfMonth(ResolvableDayOfMonth.FROM_LAST, 0, 0);
+        }
+        if (this.isValidNegativeDayOfMonth(trimmedValue)) {
+            return new ResolvableDayOfMonth(ResolvableDayOfMonth.FROM_LAST, Integer.parseInt(trimmedValue), 0);
+        }
+        String[] parts = trimmedValue.split("\\s+");
+        String ordinal = parts[0].toLowerCase(Locale.ENGLISH);
+        int dayOfWeek = DAY_OF_MONTH_ALIAS.get(parts[1].toLowerCase(Locale.ENGLISH));
+        if (ordinal.equals("last")) {
+            return new ResolvableDayOfMonth(ResolvableDayOfMonth.LAST_DAY_OF_WEEK, 0, dayOfWeek);
+        }
+        return new ResolvableDayOfMonth(ResolvableDayOfMonth.NTH_DAY_OF_WEEK, ORDINAL_TO_WEEK_NUMBER_MAPPING.get(ordinal), dayOfWeek);
+    }
+
+    /**
+     * A pre-parsed day of month value, which may be relative to the length of the month or to its first day of week
+     */
+    private static final class ResolvableDayOfMonth {
+
+        static final int ABSOLUTE = 0;
+        static final int FROM_LAST = 1;
+        static final int NTH_DAY_OF_WEEK = 2;
+        static final int LAST_DAY_OF_WEEK = 3;
+
+        private final int kind;
+        private final int value;
+        private final int dayOfWeek;
+
+        ResolvableDayOfMonth(int kind, int value, int dayOfWeek) {
+            this.kind = kind;
+            this.value = value;
+            this.dayOfWeek = dayOfWeek;
+        }
+
+        int resolve(int lastDateOfMonth, int dayOfWeekOfFirstDay) {
+            switch (this.kind) {
+                case FROM_LAST:
+                    return lastDateOfMonth + this.value;
+                case NTH_DAY_OF_WEEK:
+                    int date = 1 + Math.floorMod(this.dayOfWeek - dayOfWeekOfFirstDay, 7) + (this.value - 1) * 7;
+                    // same as getAbsoluteDayOfMonth: an ordinal beyond the end of the month falls back on the last date
+                    return date > lastDateOfMonth ? lastDateOfMonth : date;
+                case LAST_DAY_OF_WEEK:
+                    int dayOfWeekOfLastDay = 1 + Math.floorMod(dayOfWeekOfFirstDay - 1 + lastDateOfMonth - 1, 7);
+                    return lastDateOfMonth - Math.floorMod(dayOfWeekOfLastDay - this.dayOfWeek, 7);
+                default:
+                    return this.value;
+            }
+        }
+    }
+
     @Override
     protected void assertValid(Integer value) throws IllegalArgumentException {
         if (value != null && value == 0) {
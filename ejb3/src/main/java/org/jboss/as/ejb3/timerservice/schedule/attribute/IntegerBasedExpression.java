@@ -30,6 +30,7 @@ import org.jboss.as.ejb3.timerservice.schedule.value.ScheduleExpressionType;
 import org.jboss.as.ejb3.timerservice.schedule.value.ScheduleValue;
 import org.jboss.as.ejb3.timerservice.schedule.value.SingleValue;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.SortedSet;
@@ -213,4 +214,30 @@ public abstract class IntegerBasedExpression {
 
     public abstract boolean isRelativeValue(String value);
 
+    /**
+     * Returns true if this expression is a {@link ScheduleExpressionType#WILDCARD}
+     */
+    public boolean isWildcard() {
+        return this.scheduleExpressionType == ScheduleExpressionType.WILDCARD;
+    }
+
+    /**
+     * Returns the absolute values of this expression as a {@link BitSet}, with bit <code>n</code> set if value <code>n</code>
+     * is a match. A wildcard matches every value between the minimum and maximum allowed value.
+     * Relative values and negative values are not part of the returned set.
+     */
+    public BitSet getAbsoluteValuesBitSet() {
+        BitSet bits = new BitSet(this.getMaxValue() + 1);
+        if (this.scheduleExpressionType == ScheduleExpressionType.WILDCARD) {
+            bits.set(Math.max(this.getMinValue(), 0), this.getMaxValue() + 1);
+            return bits;
+        }
+        for (Integer value : this.absoluteValues) {
+            if (value >= 0) {
+                bits.set(value);
+            }
+        }
+        return bits;
+    }
+
 }
@@ -0,0 +1,369 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+
+/**
+ * {@link TimeoutScheduler} based on a hashed timing wheel.
+ * <p/>
+ * Time is divided into ticks of fixed duration, and each timeout is hashed into the wheel bucket for its expiration
+ * tick, along with the number of full wheel rotations remaining before it is due. Scheduling and cancelling a
+ * timeout are O(1): both only enqueue the timeout for a single worker thread, which owns the wheel and applies
+ * pending changes once per tick. All timeouts that expire within a tick are collected and dispatched as a batch.
+ * <p/>
+ * Timeouts fire at most one tick late, which is negligible compared to the granularity of EJB timers.
+ */
+public class HashedWheelTimeoutScheduler implements TimeoutScheduler {
+
+    public static final long DEFAULT_TICK_DURATION = 10;
+    public static final TimeUnit DEFAULT_TICK_DURATION_UNIT = TimeUnit.MILLISECONDS;
+    public static final int DEFAULT_WHEEL_SIZE = 1024;
+
+    // Upper bound on the number of newly scheduled timeouts transferred into the wheel per tick
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final ThreadFactory threadFactory;
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<WheelTimeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final long startTime = System.nanoTime();
+
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    public HashedWheelTimeoutScheduler(ThreadFactory threadFactory) {
+        this(threadFactory, DEFAULT_TICK_DURATION, DEFAULT_TICK_DURATION_UNIT, DEFAULT_WHEEL_SIZE);
+    }
+
+    public HashedWheelTimeoutScheduler(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException(String.valueOf(tickDuration));
+        }
+        if (wheelSize <= 0) {
+            throw new IllegalArgumentException(String.valueOf(wheelSize));
+        }
+        this.threadFactory = threadFactory;
+        this.tickDuration = unit.toNanos(tickDuration);
+        // Round wheel size up to a power of 2, so that a bucket can be located via a mask
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; ++i) {
+            this.wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Starts the worker thread of this scheduler.
+     */
+    public synchronized void start() {
+        if (!this.running) {
+            this.running = true;
+            Thread thread = this.threadFactory.newThread(new Worker());
+            thread.setDaemon(true);
+            this.worker = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the worker thread of this scheduler. Any outstanding timeouts are discarded.
+     */
+    public synchronized void stop() {
+        if (this.running) {
+            this.running = false;
+            Thread thread = this.worker;
+            this.worker = null;
+            thread.interrupt();
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            this.pending.clear();
+            this.cancelled.clear();
+            for (Bucket bucket : this.wheel) {
+                bucket.clear();
+            }
+        }
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay) {
+        return this.schedule(task, delay, 0);
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long delay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException(String.valueOf(period));
+        }
+        return this.schedule(task, delay, TimeUnit.MILLISECONDS.toNanos(period));
+    }
+
+    private Timeout schedule(Runnable task, long delay, long period) {
+        long deadline = System.nanoTime() - this.startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0));
+        WheelTimeout timeout = new WheelTimeout(this, task, deadline, period);
+        this.pending.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void purge() {
+        // Cancelled timeouts are removed from the wheel eagerly
+    }
+
+    /**
+     * Returns the approximate number of timeouts waiting to be transferred into the wheel.
+     */
+    int getPendingCount() {
+        return this.pending.size();
+    }
+
+    private class Worker implements Runnable {
+        private final List<WheelTimeout> expired = new ArrayList<>();
+        // Resume from the current time, if the scheduler was restarted
+        private long tick = (System.nanoTime() - HashedWheelTimeoutScheduler.this.startTime) / HashedWheelTimeoutScheduler.this.tickDuration;
+
+        @Override
+        public void run() {
+            while (HashedWheelTimeoutScheduler.this.running) {
+                long deadline = this.waitForNextTick();
+                if (deadline < 0) {
+                    continue;
+                }
+                this.removeCancelled();
+                this.transferPending();
+                Bucket bucket = HashedWheelTimeoutScheduler.this.wheel[(int) (this.tick & HashedWheelTimeoutScheduler.this.mask)];
+                bucket.expire(this.expired);
+                this.tick += 1;
+                this.dispatch();
+            }
+        }
+
+        /**
+         * Sleeps until the end of the current tick.
+         * @return the deadline of the current tick, relative to the start time, or -1 if interrupted
+         */
+        private long waitForNextTick() {
+            long deadline = HashedWheelTimeoutScheduler.this.tickDuration * (this.tick + 1);
+            while (true) {
+                long current = System.nanoTime() - HashedWheelTimeoutScheduler.this.startTime;
+                long remaining = deadline - current;
+                if (remaining <= 0) {
+                    return deadline;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    return -1;
+                }
+            }
+        }
+
+        private void transferPending() {
+            Queue<WheelTimeout> pending = HashedWheelTimeoutScheduler.this.pending;
+            for (int i = 0; i < MAX_TRANSFERS_PER_TICK; ++i) {
+                WheelTimeout timeout = pending.poll();
+                if (timeout == null) {
+                    return;
+                }
+                if (timeout.state == WheelTimeout.SCHEDULED) {
+                    this.add(timeout);
+                }
+            }
+        }
+
+        private void add(WheelTimeout timeout) {
+            long tickDuration = HashedWheelTimeoutScheduler.this.tickDuration;
+            long expirationTick = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (expirationTick - this.tick) / HashedWheelTimeoutScheduler.this.wheel.length;
+            // Timeouts that are already due will expire with the current tick
+            long ticks = Math.max(expirationTick, this.tick);
+            HashedWheelTimeoutScheduler.this.wheel[(int) (ticks & HashedWheelTimeoutScheduler.this.mask)].add(timeout);
+        }
+
+        private void removeCancelled() {
+            Queue<WheelTimeout> cancelled = HashedWheelTimeoutScheduler.this.cancelled;
+            for (WheelTimeout timeout = cancelled.poll(); timeout != null; timeout = cancelled.poll()) {
+                Bucket bucket = timeout.bucket;
+                if (bucket != null) {
+                    bucket.remove(timeout);
+                }
+            }
+        }
+
+        private void dispatch() {
+            List<WheelTimeout> expired = this.expired;
+            if (expired.isEmpty()) {
+                return;
+            }
+            for (WheelTimeout timeout : expired) {
+                if (timeout.period > 0) {
+                    if (timeout.state != WheelTimeout.SCHEDULED) {
+                        continue;
+                    }
+                    timeout.run();
+                    // Fixed rate, i.e. relative to the previous scheduled execution
+                    timeout.deadline += timeout.period;
+                    if (timeout.state == WheelTimeout.SCHEDULED) {
+                        this.add(timeout);
+                    }
+                } else if (timeout.expire()) {
+                    timeout.run();
+                }
+            }
+            expired.clear();
+        }
+    }
+
+    /**
+     * A bucket of the wheel, i.e. a doubly-linked list of timeouts. Only ever accessed by the worker thread.
+     */
+    private static class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (this.head == null) {
+                this.head = this.tail = timeout;
+            } else {
+                this.tail.next = timeout;
+                timeout.prev = this.tail;
+                this.tail = timeout;
+            }
+        }
+
+        void remove(WheelTimeout timeout) {
+            WheelTimeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == this.head) {
+                this.head = next;
+            }
+            if (timeout == this.tail) {
+                this.tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void clear() {
+            while (this.head != null) {
+                this.remove(this.head);
+            }
+        }
+
+        /**
+         * Removes all timeouts due in the current rotation from this bucket, and adds them to the specified list.
+         */
+        void expire(List<WheelTimeout> expired) {
+            WheelTimeout timeout = this.head;
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    this.remove(timeout);
+                    expired.add(timeout);
+                } else if (timeout.state != WheelTimeout.SCHEDULED) {
+                    this.remove(timeout);
+                } else {
+                    timeout.remainingRounds -= 1;
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private static class WheelTimeout implements Timeout {
+        static final int SCHEDULED = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+
+        private final HashedWheelTimeoutScheduler scheduler;
+        private final Runnable task;
+        final long period;
+        volatile int state = SCHEDULED;
+
+        // The following are only accessed by the worker thread
+        long deadline;
+        long remainingRounds;
+        Bucket bucket;
+        WheelTimeout prev;
+        WheelTimeout next;
+
+        WheelTimeout(HashedWheelTimeoutScheduler scheduler, Runnable task, long deadline, long period) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, SCHEDULED, CANCELLED)) {
+                return false;
+            }
+            this.scheduler.cancelled.add(this);
+            return true;
+        }
+
+        boolean expire() {
+            return STATE_UPDATER.compareAndSet(this, SCHEDULED, EXPIRED);
+        }
+
+        void run() {
+            try {
+                this.task.run();
+            } catch (Throwable e) {
+                EjbLogger.ROOT_LOGGER.failedToExecuteTimeoutTask(this.task, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+/**
+ * Schedules the timeout tasks of the EJB timer service.
+ * <p/>
+ * Tasks passed to a scheduler are expected to be short-lived, typically just handing the actual timeout invocation
+ * off to the timer service executor.
+ */
+public interface TimeoutScheduler {
+
+    /**
+     * Schedules the specified task for a single execution after the specified delay.
+     *
+     * @param task  the task to execute
+     * @param delay the delay, in milliseconds, before the task is executed
+     * @return a handle with which the scheduled task can be cancelled
+     */
+    Timeout schedule(Runnable task, long delay);
+
+    /**
+     * Schedules the specified task for repeated fixed-rate execution, beginning after the specified delay.
+     *
+     * @param task   the task to execute
+     * @param delay  the delay, in milliseconds, before the task is first executed
+     * @param period the time, in milliseconds, between successive executions
+     * @return a handle with which the scheduled task can be cancelled
+     */
+    Timeout scheduleAtFixedRate(Runnable task, long delay, long period);
+
+    /**
+     * Removes any cancelled tasks still retained by this scheduler.
+     */
+    void purge();
+
+    /**
+     * A handle for a scheduled task.
+     */
+    interface Timeout {
+        /**
+         * Cancels the scheduled task. Has no effect if the task was already cancelled.
+         *
+         * @return true, if this invocation prevented one or more scheduled executions of the task, false otherwise
+         */
+        boolean cancel();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * {@link TimeoutScheduler} that schedules tasks using a {@link java.util.Timer}.
+ */
+public class TimerTimeoutScheduler implements TimeoutScheduler {
+
+    private final Timer timer;
+
+    public TimerTimeoutScheduler(Timer timer) {
+        this.timer = timer;
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay) {
+        TimerTaskTimeout timeout = new TimerTaskTimeout(task);
+        this.timer.schedule(timeout, delay);
+        return timeout;
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long delay, long period) {
+        TimerTaskTimeout timeout = new TimerTaskTimeout(task);
+        this.timer.scheduleAtFixedRate(timeout, delay, period);
+        return timeout;
+    }
+
+    @Override
+    public void purge() {
+        this.timer.purge();
+    }
+
+    private static class TimerTaskTimeout extends TimerTask implements Timeout {
+        private final Runnable task;
+
+        TimerTaskTimeout(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            this.task.run();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.simple;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.ejb3.cache.Identifiable;
+import org.jboss.as.ejb3.cache.StatefulObjectFactory;
+import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
+import org.jboss.as.server.ServerEnvironment;
+import org.junit.After;
+import org.junit.Test;
+import org.wildfly.clustering.ejb.IdentifierFactory;
+
+/**
+ * Tests the expiration of idle beans by {@link SimpleCache}.
+ */
+public class SimpleCacheTestCase {
+
+    private final StatefulObjectFactory<Bean> factory = mock(StatefulObjectFactory.class);
+    private final IdentifierFactory<UUID> identifierFactory = mock(IdentifierFactory.class);
+    private final ServerEnvironment environment = mock(ServerEnvironment.class);
+    private final ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1);
+    private SimpleCache<UUID, Bean> cache;
+
+    @After
+    public void destroy() {
+        if (this.cache != null) {
+            this.cache.stop();
+        }
+        this.executor.shutdownNow();
+    }
+
+    private SimpleCache<UUID, Bean> start(long timeout) {
+        this.cache = new SimpleCache<>(this.factory, this.identifierFactory, new StatefulTimeoutInfo(timeout, TimeUnit.MILLISECONDS), this.environment, this.executor);
+        this.cache.start();
+        return this.cache;
+    }
+
+    private Bean create(SimpleCache<UUID, Bean> cache) {
+        Bean bean = new Bean();
+        when(this.factory.createInstance()).thenReturn(bean);
+        assertSame(bean, cache.create());
+        return bean;
+    }
+
+    @Test
+    public void expire() throws InterruptedException {
+        SimpleCache<UUID, Bean> cache = this.start(200);
+        Bean bean = this.create(cache);
+        assertSame(bean, cache.get(bean.getId()));
+        long released = System.nanoTime();
+        cache.release(bean);
+
+        verify(this.factory, timeout(2000)).destroyInstance(bean);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - released) >= 200);
+        assertFalse(cache.contains(bean.getId()));
+        assertNull(cache.get(bean.getId()));
+        assertEquals(0, cache.getCacheSize());
+    }
+
+    @Test
+    public void access() throws InterruptedException {
+        SimpleCache<UUID, Bean> cache = this.start(300);
+        Bean bean = this.create(cache);
+        assertSame(bean, cache.get(bean.getId()));
+        cache.release(bean);
+
+        // Touching the bean restarts its timeout
+        for (int i = 0; i < 5; ++i) {
+            Thread.sleep(150);
+            assertSame(bean, cache.get(bean.getId()));
+            cache.release(bean);
+        }
+        verify(this.factory, never()).destroyInstance(bean);
+
+        verify(this.factory, timeout(2000)).destroyInstance(bean);
+        assertFalse(cache.contains(bean.getId()));
+    }
+
+    @Test
+    public void inUse() throws InterruptedException {
+        SimpleCache<UUID, Bean> cache = this.start(100);
+        Bean bean = this.create(cache);
+        assertSame(bean, cache.get(bean.getId()));
+        cache.release(bean);
+        assertSame(bean, cache.get(bean.getId()));
+
+        // A bean is never expired while in use
+        Thread.sleep(400);
+        verify(this.factory, never()).destroyInstance(bean);
+        assertTrue(cache.contains(bean.getId()));
+
+        cache.release(bean);
+        verify(this.factory, timeout(2000)).destroyInstance(bean);
+    }
+
+    @Test
+    public void accessWhileSweeping() {
+        final AtomicLong time = new AtomicLong();
+        SimpleCache<UUID, Bean> cache = new SimpleCache<UUID, Bean>(this.factory, this.identifierFactory, new StatefulTimeoutInfo(1000, TimeUnit.MILLISECONDS), this.environment, this.executor) {
+            @Override
+            long currentTimeMillis() {
+                return time.get();
+            }
+        };
+        this.cache = cache;
+        Bean bean = this.create(cache);
+        assertSame(bean, cache.get(bean.getId()));
+        cache.release(bean);
+
+        time.set(2000);
+        SimpleCache<UUID, Bean>.ExpirationTask task = cache.new ExpirationTask(0);
+        List<SimpleCache.Entry<Bean>> expired = task.drain(cache.currentTick());
+        assertEquals(1, expired.size());
+
+        // A bean touched after its entry was drained, but before it was expired, must survive the sweep
+        assertSame(bean, cache.get(bean.getId()));
+        cache.release(bean);
+        task.expire(expired);
+        verify(this.factory, never()).destroyInstance(bean);
+        assertTrue(cache.contains(bean.getId()));
+
+        // ... and still expire once its new timeout elapsed
+        time.set(4000);
+        task.run();
+        verify(this.factory).destroyInstance(bean);
+        assertFalse(cache.contains(bean.getId()));
+    }
+
+    @Test
+    public void remove() throws InterruptedException {
+        SimpleCache<UUID, Bean> cache = this.start(100);
+        Bean bean = this.create(cache);
+        assertSame(bean, cache.get(bean.getId()));
+        cache.release(bean);
+        cache.remove(bean.getId());
+        verify(this.factory).destroyInstance(bean);
+
+        // Make sure the bean is not destroyed a second time by expiration
+        Thread.sleep(400);
+        verify(this.factory).destroyInstance(bean);
+    }
+
+    @Test
+    public void zeroTimeout() {
+        SimpleCache<UUID, Bean> cache = this.start(0);
+        Bean bean = this.create(cache);
+        assertSame(bean, cache.get(bean.getId()));
+        cache.release(bean);
+        verify(this.factory).destroyInstance(bean);
+        assertFalse(cache.contains(bean.getId()));
+    }
+
+    @Test
+    public void stop() {
+        SimpleCache<UUID, Bean> cache = this.start(60000);
+        Bean bean = this.create(cache);
+        assertSame(bean, cache.get(bean.getId()));
+        cache.release(bean);
+        cache.stop();
+        this.cache = null;
+        verify(this.factory).destroyInstance(bean);
+        assertEquals(0, cache.getCacheSize());
+    }
+
+    static class Bean implements Identifiable<UUID> {
+        private final UUID id = UUID.randomUUID();
+
+        @Override
+        public UUID getId() {
+            return this.id;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import javax.ejb.IllegalLoopbackException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link StripedEJBReadWriteLock}
+ */
+public class StripedEJBReadWriteLockTestCase {
+
+    private StripedEJBReadWriteLock lock;
+
+    private ExecutorService executor;
+
+    @Before
+    public void beforeTest() {
+        this.lock = new StripedEJBReadWriteLock(4);
+        this.executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void afterTest() {
+        this.executor.shutdownNow();
+        this.lock = null;
+    }
+
+    /**
+     * Test that a {@link javax.ejb.IllegalLoopbackException} is thrown when the thread owning a read lock
+     * tries to obtain a write lock, even through a reentrant read lock
+     */
+    @Test
+    public void testIllegalLoopBack() throws Exception {
+        Lock readLock = this.lock.readLock();
+        Lock writeLock = this.lock.writeLock();
+        readLock.lock();
+        try {
+            Assert.assertTrue(readLock.tryLock(1, TimeUnit.SECONDS));
+            readLock.unlock();
+            try {
+                writeLock.tryLock(1, TimeUnit.SECONDS);
+                writeLock.unlock();
+                Assert.fail("Unexpected acquired write lock");
+            } catch (IllegalLoopbackException expected) {
+            }
+        } finally {
+            readLock.unlock();
+        }
+        // once all read locks are released the write lock is available again
+        Assert.assertTrue(writeLock.tryLock(1, TimeUnit.SECONDS));
+        writeLock.unlock();
+    }
+
+    /**
+     * Test that readers don't exclude each other
+     */
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        final Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            Future<Boolean> result = this.executor.submit(new TryLock(readLock, 1));
+            Assert.assertTrue(result.get());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Test that a writer times out while a reader holds the lock, and that it doesn't block new readers once it has
+     * given up
+     */
+    @Test
+    public void testWriterTimeout() throws Exception {
+        final Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            long start = System.nanoTime();
+            Assert.assertFalse(this.executor.submit(new TryLock(this.lock.writeLock(), 500)).get());
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 450);
+            Assert.assertTrue(this.executor.submit(new TryLock(readLock, 0)).get());
+        } finally {
+            readLock.unlock();
+        }
+        Assert.assertTrue(this.executor.submit(new TryLock(this.lock.writeLock(), 0)).get());
+    }
+
+    /**
+     * Test that a reader times out while a writer holds the lock
+     */
+    @Test
+    public void testReaderTimeout() throws Exception {
+        final Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            Assert.assertFalse(this.executor.submit(new TryLock(this.lock.readLock(), 500)).get());
+        } finally {
+            writeLock.unlock();
+        }
+        Assert.assertTrue(this.executor.submit(new TryLock(this.lock.readLock(), 0)).get());
+    }
+
+    /**
+     * Tests that a thread can first get a write lock, reenter it, and get a read lock
+     */
+    @Test
+    public void testSameThreadCanGetWriteThenReadLock() throws Exception {
+        Lock writeLock = this.lock.writeLock();
+        Lock readLock = this.lock.readLock();
+        writeLock.lock();
+        try {
+            Assert.assertTrue(writeLock.tryLock(1, TimeUnit.SECONDS));
+            writeLock.unlock();
+            Assert.assertTrue(readLock.tryLock(1, TimeUnit.SECONDS));
+            readLock.unlock();
+        } finally {
+            writeLock.unlock();
+        }
+        Assert.assertTrue(this.executor.submit(new TryLock(readLock, 0)).get());
+    }
+
+    /**
+     * Test that a waiting writer is granted the lock as soon as the readers release it, and excludes other readers
+     * and writers while it holds it
+     */
+    @Test
+    public void testMutualExclusion() throws Exception {
+        final AtomicInteger readers = new AtomicInteger();
+        final AtomicInteger writers = new AtomicInteger();
+        final AtomicInteger violations = new AtomicInteger();
+        final int threads = 8;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            final boolean writer = (i % 4 == 0);
+            this.executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Lock l = writer ? lock.writeLock() : lock.readLock();
+                        for (int j = 0; j < 2000; j++) {
+                            if (!l.tryLock(10, TimeUnit.SECONDS)) {
+                                violations.incrementAndGet();
+                                continue;
+                            }
+                            try {
+                                if (writer) {
+                                    if (writers.incrementAndGet() != 1 || readers.get() != 0) {
+                                        violations.incrementAndGet();
+                                    }
+                                    writers.decrementAndGet();
+                                } else {
+                                    readers.incrementAndGet();
+                                    if (writers.get() != 0) {
+                                        violations.incrementAndGet();
+                                    }
+                                    readers.decrementAndGet();
+                                }
+                            } finally {
+                                l.unlock();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        violations.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+        Assert.assertEquals(0, violations.get());
+    }
+
+    /**
+     * Tries to obtain a lock from another thread, and releases it straight away
+     */
+    private static class TryLock implements Callable<Boolean> {
+        private final Lock lock;
+        private final long timeout;
+
+        TryLock(Lock lock, long timeout) {
+            this.lock = lock;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            if (!this.lock.tryLock(this.timeout, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            this.lock.unlock();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.deployment;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.msc.value.ImmediateValue;
+import org.jboss.msc.value.InjectedValue;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests the lookup of view methods through {@link EjbDeploymentInformation#getViewMethod(String, String, String)}
+ */
+public class EjbDeploymentInformationTestCase {
+
+    @Test
+    public void testGetViewMethod() throws Exception {
+        final InjectedValue<ComponentView> value = new InjectedValue<ComponentView>();
+        value.setValue(new ImmediateValue<ComponentView>(createComponentView()));
+        final EjbDeploymentInformation information = createDeploymentInformation(value);
+        final String view = RemoteView.class.getName();
+        Assert.assertEquals(RemoteView.class.getMethod("echo"), information.getViewMethod(view, "echo", ""));
+        Assert.assertEquals(RemoteView.class.getMethod("echo", String.class), information.getViewMethod(view, "echo", "java.lang.String"));
+        Assert.assertEquals(RemoteView.class.getMethod("echo", String.class, int.class), information.getViewMethod(view, "echo", "java.lang.String,int"));
+        Assert.assertEquals(RemoteView.class.getMethod("echo", String[].class), information.getViewMethod(view, "echo", "[Ljava.lang.String;"));
+        Assert.assertNull(information.getViewMethod(view, "echo", "int"));
+        Assert.assertNull(information.getViewMethod(view, "echo", "java.lang.String,"));
+        Assert.assertNull(information.getViewMethod(view, "unknown", ""));
+    }
+
+    @Test
+    public void testReplacedView() throws Exception {
+        final InjectedValue<ComponentView> value = new InjectedValue<ComponentView>();
+        value.setValue(new ImmediateValue<ComponentView>(createComponentView()));
+        final EjbDeploymentInformation information = createDeploymentInformation(value);
+        Assert.assertNotNull(information.getViewMethod(RemoteView.class.getName(), "echo", ""));
+
+        // a restarted component comes with a new view, which may expose other methods
+        final ComponentView restartedView = Mockito.mock(ComponentView.class);
+        Mockito.when(restartedView.getViewMethods()).thenReturn(Collections.<Method>emptySet());
+        value.setValue(new ImmediateValue<ComponentView>(restartedView));
+        Assert.assertNull(information.getViewMethod(RemoteView.class.getName(), "echo", ""));
+    }
+
+    private static ComponentView createComponentView() {
+        final ComponentView componentView = Mockito.mock(ComponentView.class);
+        final Set<Method> viewMethods = new HashSet<Method>();
+        Collections.addAll(viewMethods, RemoteView.class.getDeclaredMethods());
+        Mockito.when(componentView.getViewMethods()).thenReturn(viewMethods);
+        return componentView;
+    }
+
+    private static EjbDeploymentInformation createDeploymentInformation(final InjectedValue<ComponentView> value) {
+        final Map<String, InjectedValue<ComponentView>> remoteViews = new HashMap<String, InjectedValue<ComponentView>>();
+        remoteViews.put(RemoteView.class.getName(), value);
+        return new EjbDeploymentInformation(null, null, remoteViews, null, null, null);
+    }
+
+    private interface RemoteView {
+        String echo();
+
+        String echo(String message);
+
+        String echo(String message, int times);
+
+        String echo(String[] messages);
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.inflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link PartitionedMessageDelivery}
+ */
+public class PartitionedMessageDeliveryTestCase {
+
+    // stands in for the threads of the resource adapter
+    private ExecutorService senders;
+
+    @Before
+    public void beforeTest() {
+        this.senders = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void afterTest() {
+        this.senders.shutdownNow();
+    }
+
+    @Test
+    public void testPartitionCount() {
+        Assert.assertEquals(1, new PartitionedMessageDelivery("key", 0, "mdb").getPartitionCount());
+        Assert.assertEquals(16, new PartitionedMessageDelivery("key", 16, "mdb").getPartitionCount());
+        Assert.assertEquals(32, new PartitionedMessageDelivery("key", 17, "mdb").getPartitionCount());
+        Assert.assertEquals(PartitionedMessageDelivery.MAX_PARTITIONS, new PartitionedMessageDelivery("key", Integer.MAX_VALUE, "mdb").getPartitionCount());
+    }
+
+    /**
+     * Test that messages sharing a key are delivered in submission order, one at a time
+     */
+    @Test
+    public void testOrderPerKey() throws Exception {
+        final PartitionedMessageDelivery delivery = new PartitionedMessageDelivery("key", 4, "mdb");
+        final int keys = 16;
+        final int messages = 1000;
+        final List<List<Integer>> delivered = new ArrayList<List<Integer>>();
+        final AtomicInteger[] active = new AtomicInteger[keys];
+        for (int i = 0; i < keys; i++) {
+            delivered.add(Collections.synchronizedList(new ArrayList<Integer>()));
+            active[i] = new AtomicInteger();
+        }
+        final AtomicInteger overlaps = new AtomicInteger();
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int k = 0; k < keys; k++) {
+            final int key = k;
+            futures.add(this.senders.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < messages; i++) {
+                        final int sequence = i;
+                        delivery.deliver("key" + key, new Runnable() {
+                            @Override
+                            public void run() {
+                                if (active[key].incrementAndGet() != 1) {
+                                    overlaps.incrementAndGet();
+                                }
+                                delivered.get(key).add(sequence);
+                                active[key].decrementAndGet();
+                            }
+                        });
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(0, overlaps.get());
+        for (int k = 0; k < keys; k++) {
+            final List<Integer> sequences = delivered.get(k);
+            Assert.assertEquals(messages, sequences.size());
+            for (int i = 0; i < messages; i++) {
+                Assert.assertEquals(i, sequences.get(i).intValue());
+            }
+        }
+    }
+
+    /**
+     * Test that a blocked partition does not hold up the deliveries of other partitions, and that its backlog is reported
+     */
+    @Test
+    public void testBacklog() throws Exception {
+        final PartitionedMessageDelivery delivery = new PartitionedMessageDelivery("key", 2, "mdb");
+        final String blockedKey = "a";
+        String otherKey = "b";
+        while (delivery.partitionOf(otherKey) == delivery.partitionOf(blockedKey)) {
+            otherKey = otherKey + "b";
+        }
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<Future<?>> blocked = new ArrayList<Future<?>>();
+        blocked.add(this.deliver(delivery, blockedKey, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }));
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        final AtomicInteger queued = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            blocked.add(this.deliver(delivery, blockedKey, new Runnable() {
+                @Override
+                public void run() {
+                    queued.incrementAndGet();
+                }
+            }));
+        }
+        this.awaitBacklog(delivery, blockedKey, 3);
+        final AtomicInteger other = new AtomicInteger();
+        delivery.deliver(otherKey, new Runnable() {
+            @Override
+            public void run() {
+                other.incrementAndGet();
+            }
+        });
+        Assert.assertEquals(1, other.get());
+        Assert.assertEquals(3, delivery.getBacklogs()[delivery.partitionOf(blockedKey)]);
+        Assert.assertFalse(blocked.get(0).isDone());
+        release.countDown();
+        for (Future<?> future : blocked) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(2, queued.get());
+    }
+
+    /**
+     * Test that the failure of a delivery is rethrown to its caller, and does not stop the delivery of subsequent messages
+     * of its partition
+     */
+    @Test
+    public void testFailure() throws Exception {
+        final PartitionedMessageDelivery delivery = new PartitionedMessageDelivery("key", 1, "mdb");
+        final IllegalStateException failure = new IllegalStateException("expected");
+        try {
+            delivery.deliver("key", new Runnable() {
+                @Override
+                public void run() {
+                    throw failure;
+                }
+            });
+            Assert.fail("the failure was not rethrown");
+        } catch (IllegalStateException e) {
+            Assert.assertSame(failure, e);
+        }
+        final AtomicInteger count = new AtomicInteger();
+        delivery.deliver("key", new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        });
+        Assert.assertEquals(1, count.get());
+    }
+
+    /**
+     * Test that stopping completes the delivery in progress, but rejects queued and subsequent deliveries
+     */
+    @Test
+    public void testStop() throws Exception {
+        final PartitionedMessageDelivery delivery = new PartitionedMessageDelivery("key", 1, "mdb");
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        final Future<?> inProgress = this.deliver(delivery, "key", new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count.incrementAndGet();
+            }
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Runnable counter = new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        };
+        final Future<?> queued = this.deliver(delivery, "key", counter);
+        this.awaitBacklog(delivery, "key", 2);
+        delivery.stop();
+        release.countDown();
+        inProgress.get(5, TimeUnit.SECONDS);
+        try {
+            queued.get(5, TimeUnit.SECONDS);
+            Assert.fail("the queued delivery was not rejected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            delivery.deliver("key", counter);
+            Assert.fail("the delivery was not rejected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertEquals(1, count.get());
+        Assert.assertEquals(0, delivery.getBacklogs()[0]);
+    }
+
+    /**
+     * Test that deliveries waiting for the same partition are run in arrival order, on the thread of their caller
+     */
+    @Test
+    public void testArrivalOrder() throws Exception {
+        final PartitionedMessageDelivery delivery = new PartitionedMessageDelivery("key", 1, "mdb");
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final Future<?> first = this.deliver(delivery, "a", new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Future<?>> waiting = new ArrayList<Future<?>>();
+        for (int i = 0; i < 4; i++) {
+            final int sequence = i;
+            waiting.add(this.senders.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    final Thread caller = Thread.currentThread();
+                    delivery.deliver("key" + sequence, new Runnable() {
+                        @Override
+                        public void run() {
+                            Assert.assertSame(caller, Thread.currentThread());
+                            order.add(sequence);
+                        }
+                    });
+                    return null;
+                }
+            }));
+            this.awaitBacklog(delivery, "a", i + 2);
+        }
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        for (Future<?> future : waiting) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), order);
+        Assert.assertEquals(0, delivery.getBacklogs()[0]);
+    }
+
+    private Future<?> deliver(final PartitionedMessageDelivery delivery, final String key, final Runnable task) {
+        return this.senders.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                delivery.deliver(key, task);
+                return null;
+            }
+        });
+    }
+
+    private void awaitBacklog(PartitionedMessageDelivery delivery, String key, int backlog) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (delivery.getBacklogs()[delivery.partitionOf(key)] != backlog) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
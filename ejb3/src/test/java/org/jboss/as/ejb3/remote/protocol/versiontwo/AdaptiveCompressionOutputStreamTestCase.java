@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote.protocol.versiontwo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.InflaterInputStream;
+
+import org.jboss.as.ejb3.remote.ResponseCompressionMetrics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link AdaptiveCompressionOutputStream}
+ */
+public class AdaptiveCompressionOutputStreamTestCase {
+
+    private static final String VIEW = "view";
+
+    private ResponseCompressionMetrics metrics;
+    private Method method;
+
+    @Before
+    public void beforeTest() throws NoSuchMethodException {
+        this.metrics = new ResponseCompressionMetrics();
+        this.method = Object.class.getMethod("toString");
+    }
+
+    @Test
+    public void testSmallResponse() throws IOException {
+        final byte[] response = new byte[AdaptiveCompressionOutputStream.MIN_COMPRESSION_SIZE];
+        Assert.assertArrayEquals(response, write(response));
+        final ResponseCompressionMetrics.Values values = this.metrics.getViews().get(VIEW);
+        Assert.assertEquals(0, values.getCompressedResponses());
+        Assert.assertEquals(1, values.getUncompressedResponses());
+    }
+
+    @Test
+    public void testCompressibleResponse() throws IOException {
+        final byte[] response = new byte[AdaptiveCompressionOutputStream.MIN_COMPRESSION_SIZE * 8];
+        Arrays.fill(response, (byte) 'x');
+        final byte[] written = write(response);
+        Assert.assertEquals(0x1B, written[0]);
+        Assert.assertTrue(written.length < response.length / 4);
+        Assert.assertArrayEquals(response, inflate(written));
+        final ResponseCompressionMetrics.Values values = this.metrics.getViews().get(VIEW);
+        Assert.assertEquals(1, values.getCompressedResponses());
+        Assert.assertEquals(response.length - (written.length - 1), values.getBytesSaved());
+    }
+
+    @Test
+    public void testIncompressibleResponses() throws IOException {
+        final byte[] response = new byte[AdaptiveCompressionOutputStream.MIN_COMPRESSION_SIZE * 8];
+        new Random(42).nextBytes(response);
+        // the first response is compressed to find out how well the method compresses
+        Assert.assertEquals(0x1B, write(response)[0]);
+        for (int i = 1; i < 4; i++) {
+            Assert.assertArrayEquals(response, write(response));
+        }
+        final ResponseCompressionMetrics.Values values = this.metrics.getViews().get(VIEW);
+        Assert.assertEquals(1, values.getCompressedResponses());
+        Assert.assertEquals(3, values.getUncompressedResponses());
+    }
+
+    @Test
+    public void testCompressionTimeExcludesWrites() throws IOException {
+        final byte[] response = new byte[AdaptiveCompressionOutputStream.MIN_COMPRESSION_SIZE * 64];
+        Arrays.fill(response, (byte) 'x');
+        // a connection with backpressure, which stalls every write
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(b, off, len);
+            }
+        };
+        final AdaptiveCompressionOutputStream output = new AdaptiveCompressionOutputStream(bytes, this.metrics, VIEW, this.method);
+        for (byte b : response) {
+            output.write(b);
+        }
+        output.close();
+        Assert.assertArrayEquals(response, inflate(bytes.toByteArray()));
+        Assert.assertTrue(this.metrics.getViews().get(VIEW).getCompressionTime() < 100);
+    }
+
+    private byte[] write(final byte[] response) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final AdaptiveCompressionOutputStream output = new AdaptiveCompressionOutputStream(bytes, this.metrics, VIEW, this.method);
+        // write a header byte by byte, as the response header is written, and the rest in bulk
+        output.write(response[0]);
+        output.write(response, 1, response.length - 1);
+        output.close();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] inflate(final byte[] compressed) throws IOException {
+        final InflaterInputStream input = new InflaterInputStream(new ByteArrayInputStream(compressed, 1, compressed.length - 1));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[512];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -589,6 +589,69 @@ public class CalendarBasedTimeoutTestCase {
         Assert.assertEquals(second, firstTimeout.get(Calendar.SECOND));
     }
 
+    /**
+     * Moving to a later hour must start again from the first matching minute and second of that hour.
+     */
+    @Test
+    public void testNextHourStartsFromFirstMinuteAndSecond() {
+        Calendar start = new GregorianCalendar(2014, Calendar.MARCH, 7, 2, 6, 10);
+        ScheduleExpression expression = new ScheduleExpression().hour("*/6").minute("0-5").second("10,20,30").start(start.getTime());
+
+        CalendarBasedTimeout calendarTimeout = new CalendarBasedTimeout(expression);
+        Calendar firstTimeout = calendarTimeout.getFirstTimeout();
+        Assert.assertNotNull(firstTimeout);
+        Assert.assertEquals(7, firstTimeout.get(Calendar.DAY_OF_MONTH));
+        Assert.assertEquals(6, firstTimeout.get(Calendar.HOUR_OF_DAY));
+        Assert.assertEquals(0, firstTimeout.get(Calendar.MINUTE));
+        Assert.assertEquals(10, firstTimeout.get(Calendar.SECOND));
+
+        Date nextTimeout = calendarTimeout.getNextTimeout(firstTimeout.getTime());
+        Assert.assertEquals(new GregorianCalendar(2014, Calendar.MARCH, 7, 6, 0, 20).getTime(), nextTimeout);
+    }
+
+    /**
+     * A relative day-of-month is resolved against each month in turn.
+     */
+    @Test
+    public void testLastDayOfWeekOfMonth() {
+        Calendar start = new GregorianCalendar(2014, Calendar.JANUARY, 1, 0, 0, 0);
+        ScheduleExpression expression = new ScheduleExpression().dayOfMonth("Last Fri").hour("12").start(start.getTime());
+
+        CalendarBasedTimeout calendarTimeout = new CalendarBasedTimeout(expression);
+        Calendar timeout = calendarTimeout.getFirstTimeout();
+        for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+            Assert.assertNotNull(timeout);
+            Assert.assertEquals(2014, timeout.get(Calendar.YEAR));
+            Assert.assertEquals(month, timeout.get(Calendar.MONTH));
+            Assert.assertEquals(Calendar.FRIDAY, timeout.get(Calendar.DAY_OF_WEEK));
+            Assert.assertTrue(timeout.get(Calendar.DAY_OF_MONTH) + 7 > timeout.getActualMaximum(Calendar.DAY_OF_MONTH));
+            Assert.assertEquals(12, timeout.get(Calendar.HOUR_OF_DAY));
+            timeout = calendarTimeout.getNextTimeout(timeout);
+        }
+    }
+
+    /**
+     * If both day-of-month and day-of-week are restricted, a day matching either of them is a match.
+     */
+    @Test
+    public void testDayOfMonthOrDayOfWeek() {
+        // SAT 2014-03-01
+        Calendar start = new GregorianCalendar(2014, Calendar.MARCH, 1, 0, 0, 0);
+        ScheduleExpression expression = new ScheduleExpression().dayOfMonth("1").dayOfWeek("Mon").start(start.getTime());
+
+        CalendarBasedTimeout calendarTimeout = new CalendarBasedTimeout(expression);
+        Calendar timeout = calendarTimeout.getFirstTimeout();
+        int[] expectedDays = {1, 3, 10, 17, 24, 31};
+        for (int expectedDay : expectedDays) {
+            Assert.assertNotNull(timeout);
+            Assert.assertEquals(Calendar.MARCH, timeout.get(Calendar.MONTH));
+            Assert.assertEquals(expectedDay, timeout.get(Calendar.DAY_OF_MONTH));
+            timeout = calendarTimeout.getNextTimeout(timeout);
+        }
+        Assert.assertEquals(Calendar.APRIL, timeout.get(Calendar.MONTH));
+        Assert.assertEquals(1, timeout.get(Calendar.DAY_OF_MONTH));
+    }
+
     private ScheduleExpression getTimezoneSpecificScheduleExpression() {
         ScheduleExpression scheduleExpression = new ScheduleExpression().timezone(this.timezone.getID());
         GregorianCalendar start = new GregorianCalendar(this.timezone);
@@ -0,0 +1,225 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link TimerJournal}.
+ */
+public class TimerJournalTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private TimerJournal journal;
+
+    @Before
+    public void before() throws IOException {
+        directory = folder.newFolder();
+        journal = open(TimerJournal.DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    @After
+    public void after() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        journal.write("bean", "t1", bytes("a"));
+        journal.write("bean", "t2", bytes("b"));
+        journal.write("other", "t3", bytes("c"));
+        journal.write("bean", "t1", bytes("a2"));
+        journal.remove("bean", "t2");
+        journal.close();
+
+        journal = open(TimerJournal.DEFAULT_COMPACTION_THRESHOLD);
+        final Map<String, byte[]> timers = journal.read("bean");
+        assertEquals(1, timers.size());
+        assertArrayEquals(bytes("a2"), timers.get("t1"));
+        assertArrayEquals(bytes("c"), journal.read("other").get("t3"));
+        assertTrue(journal.read("unknown").isEmpty());
+        assertEquals(5, journal.getRecordCount());
+        assertEquals(2, journal.getLiveRecordCount());
+    }
+
+    @Test
+    public void testRemoveOfUnknownTimerIsNotJournaled() throws IOException {
+        journal.remove("bean", "t1");
+        assertEquals(0, journal.getRecordCount());
+        assertFalse(journal.contains("bean", "t1"));
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        journal.write("bean", "t1", bytes("a"));
+        journal.write("bean", "t2", bytes("b"));
+        journal.close();
+
+        final File file = new File(directory, TimerJournal.FILE_NAME);
+        final long length = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // simulate a crash in the middle of appending the second record
+            raf.setLength(length - 3);
+        }
+
+        journal = open(TimerJournal.DEFAULT_COMPACTION_THRESHOLD);
+        assertTrue(journal.contains("bean", "t1"));
+        assertFalse(journal.contains("bean", "t2"));
+
+        // the journal must still be appendable after the truncation
+        journal.write("bean", "t3", bytes("c"));
+        journal.close();
+        journal = open(TimerJournal.DEFAULT_COMPACTION_THRESHOLD);
+        assertEquals(2, journal.read("bean").size());
+    }
+
+    @Test
+    public void testCorruptRecordIsDiscarded() throws IOException {
+        journal.write("bean", "t1", bytes("a"));
+        final long length = new File(directory, TimerJournal.FILE_NAME).length();
+        journal.write("bean", "t2", bytes("b"));
+        journal.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(new File(directory, TimerJournal.FILE_NAME), "rw")) {
+            raf.seek(raf.length() - 1);
+            raf.write('x');
+        }
+
+        journal = open(TimerJournal.DEFAULT_COMPACTION_THRESHOLD);
+        assertTrue(journal.contains("bean", "t1"));
+        assertFalse(journal.contains("bean", "t2"));
+        assertEquals(length, new File(directory, TimerJournal.FILE_NAME).length());
+    }
+
+    @Test
+    public void testCorruptRecordInTheMiddleIsSkipped() throws IOException {
+        journal.write("bean", "t1", bytes("a"));
+        final long offset = new File(directory, TimerJournal.FILE_NAME).length();
+        journal.write("bean", "t2", bytes("b"));
+        journal.write("bean", "t3", bytes("c"));
+        journal.close();
+
+        final File file = new File(directory, TimerJournal.FILE_NAME);
+        final long length = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // flip the last byte of the data of t2
+            raf.seek(offset + 8 + 1 + 2 + "bean".length() + 2 + "t2".length());
+            raf.write('x');
+        }
+
+        journal = open(TimerJournal.DEFAULT_COMPACTION_THRESHOLD);
+        assertTrue(journal.contains("bean", "t1"));
+        assertFalse(journal.contains("bean", "t2"));
+        assertArrayEquals(bytes("c"), journal.read("bean").get("t3"));
+        assertEquals(3, journal.getRecordCount());
+        assertEquals(length, file.length());
+    }
+
+    @Test
+    public void testZeroFilledTailIsDiscarded() throws IOException {
+        journal.write("bean", "t1", bytes("a"));
+        journal.close();
+
+        final File file = new File(directory, TimerJournal.FILE_NAME);
+        final long length = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // simulate a crash after the file was extended, but before the record was written
+            raf.setLength(length + 32);
+        }
+
+        journal = open(TimerJournal.DEFAULT_COMPACTION_THRESHOLD);
+        assertTrue(journal.contains("bean", "t1"));
+        assertEquals(length, file.length());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptRecordLengthFailsReplay() throws IOException {
+        journal.write("bean", "t1", bytes("a"));
+        journal.write("bean", "t2", bytes("b"));
+        journal.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(new File(directory, TimerJournal.FILE_NAME), "rw")) {
+            // the length of the first record
+            raf.seek(8);
+            raf.writeInt(-1);
+        }
+
+        journal = new TimerJournal(directory, TimerJournal.DEFAULT_COMPACTION_THRESHOLD);
+        journal.open();
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        journal.close();
+        journal = open(10);
+        journal.write("bean", "keep", bytes("k"));
+        for (int i = 0; i < 100; ++i) {
+            journal.write("bean", "timer" + i, bytes("v" + i));
+            journal.write("bean", "timer" + i, bytes("w" + i));
+            if (i % 2 == 0) {
+                journal.remove("bean", "timer" + i);
+            }
+        }
+        assertEquals(51, journal.getLiveRecordCount());
+        final long garbage = journal.getRecordCount() - journal.getLiveRecordCount();
+        assertTrue(String.valueOf(garbage), garbage <= Math.max(10, journal.getLiveRecordCount()) + 2);
+
+        journal.compact();
+        assertEquals(journal.getLiveRecordCount(), journal.getRecordCount());
+        journal.close();
+
+        journal = open(10);
+        final Map<String, byte[]> timers = journal.read("bean");
+        assertEquals(51, timers.size());
+        assertArrayEquals(bytes("k"), timers.get("keep"));
+        assertArrayEquals(bytes("w99"), timers.get("timer99"));
+        assertFalse(timers.containsKey("timer98"));
+    }
+
+    private TimerJournal open(int compactionThreshold) throws IOException {
+        final TimerJournal journal = new TimerJournal(directory, compactionThreshold);
+        journal.open();
+        return journal;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link HashedWheelTimeoutScheduler}.
+ */
+public class HashedWheelTimeoutSchedulerTestCase {
+
+    private HashedWheelTimeoutScheduler scheduler;
+
+    @Before
+    public void init() {
+        // Use a small wheel, so that timeouts span multiple rotations
+        this.scheduler = new HashedWheelTimeoutScheduler(Executors.defaultThreadFactory(), 5, TimeUnit.MILLISECONDS, 8);
+        this.scheduler.start();
+    }
+
+    @After
+    public void destroy() {
+        this.scheduler.stop();
+    }
+
+    @Test
+    public void schedule() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        this.scheduler.schedule(new CountDownTask(latch), 100);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+    }
+
+    @Test
+    public void scheduleImmediately() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        this.scheduler.schedule(new CountDownTask(latch), 0);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancel() throws InterruptedException {
+        final AtomicInteger count = new AtomicInteger();
+        TimeoutScheduler.Timeout timeout = this.scheduler.schedule(new CountTask(count), 50);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+
+        // Make sure a subsequent timeout fires, and the cancelled one did not
+        final CountDownLatch latch = new CountDownLatch(1);
+        this.scheduler.schedule(new CountDownTask(latch), 100);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void scheduleAtFixedRate() throws InterruptedException {
+        final AtomicInteger count = new AtomicInteger();
+        TimeoutScheduler.Timeout timeout = this.scheduler.scheduleAtFixedRate(new CountTask(count), 10, 20);
+        Thread.sleep(200);
+        assertTrue(timeout.cancel());
+        int executions = count.get();
+        assertTrue(String.valueOf(executions), executions >= 5);
+
+        // Allow for an execution already in flight, then verify no further executions occur
+        Thread.sleep(20);
+        executions = count.get();
+        Thread.sleep(100);
+        assertEquals(executions, count.get());
+    }
+
+    @Test
+    public void manyTimeouts() throws InterruptedException {
+        int size = 10000;
+        final CountDownLatch latch = new CountDownLatch(size / 2);
+        final AtomicInteger cancelledCount = new AtomicInteger();
+        TimeoutScheduler.Timeout[] timeouts = new TimeoutScheduler.Timeout[size];
+        for (int i = 0; i < size; ++i) {
+            // Even timeouts will fire, odd timeouts will be cancelled
+            timeouts[i] = this.scheduler.schedule((i % 2) == 0 ? new CountDownTask(latch) : new CountTask(cancelledCount), i % 200);
+        }
+        for (int i = 1; i < size; i += 2) {
+            timeouts[i].cancel();
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Thread.sleep(250);
+        assertEquals(0, this.scheduler.getPendingCount());
+        // Only timeouts whose cancellation lost the race against expiration may have run
+        for (int i = 1; i < size; i += 2) {
+            assertFalse(timeouts[i].cancel());
+        }
+        assertTrue(cancelledCount.get() < size / 2);
+    }
+
+    private static class CountDownTask implements Runnable {
+        private final CountDownLatch latch;
+
+        CountDownTask(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            this.latch.countDown();
+        }
+    }
+
+    private static class CountTask implements Runnable {
+        private final AtomicInteger count;
+
+        CountTask(AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Override
+        public void run() {
+            this.count.incrementAndGet();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import javax.ejb.Local;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
 
+import org.wildfly.clustering.dispatcher.AsyncCommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.group.Group;
@@ -23,6 +24,11 @@ public class CommandDispatcherFactoryBean implements CommandDispatcherFactory {
         return this.factory.createCommandDispatcher(service, context);
     }
 
+    @Override
+    public <C> AsyncCommandDispatcher<C> createAsyncCommandDispatcher(Object service, C context) {
+        return this.factory.createAsyncCommandDispatcher(service, context);
+    }
+
     @Override
     public Group getGroup() {
         return this.factory.getGroup();
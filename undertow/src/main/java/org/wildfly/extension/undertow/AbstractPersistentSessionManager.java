@@ -41,12 +41,15 @@ import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.undertow.logging.UndertowLogger;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.AbstractMap;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Persistent session manager
@@ -67,23 +70,29 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
         try {
             final Marshaller marshaller = createMarshaller();
             try {
-                final Map<String, SessionEntry> serializedData = new HashMap<String, SessionEntry>();
-                for (Map.Entry<String, PersistentSession> sessionEntry : sessionData.entrySet()) {
-                    Map<String, byte[]> data = new HashMap<String, byte[]>();
-                    for (Map.Entry<String, Object> sessionAttribute : sessionEntry.getValue().getSessionData().entrySet()) {
-                        try {
-                            final ByteArrayOutputStream out = new ByteArrayOutputStream();
-                            marshaller.start(new OutputStreamByteOutput(out));
-                            marshaller.writeObject(sessionAttribute.getValue());
-                            marshaller.finish();
-                            data.put(sessionAttribute.getKey(), out.toByteArray());
-                        } catch (Exception e) {
-                            UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(sessionAttribute.getKey(), sessionAttribute.getValue(), sessionEntry.getKey(), e);
+                final SessionEntryWriter writer = createSessionEntryWriter(deploymentName);
+                try {
+                    // Sessions are written one at a time, so only the serialized form of a single session is held in memory
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    for (Map.Entry<String, PersistentSession> sessionEntry : sessionData.entrySet()) {
+                        Map<String, byte[]> data = new HashMap<String, byte[]>();
+                        for (Map.Entry<String, Object> sessionAttribute : sessionEntry.getValue().getSessionData().entrySet()) {
+                            try {
+                                out.reset();
+                                marshaller.start(new OutputStreamByteOutput(out));
+                                marshaller.writeObject(sessionAttribute.getValue());
+                                marshaller.finish();
+                                data.put(sessionAttribute.getKey(), out.toByteArray());
+                            } catch (Exception e) {
+                                UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(sessionAttribute.getKey(), sessionAttribute.getValue(), sessionEntry.getKey(), e);
+                            }
                         }
+                        writer.write(sessionEntry.getKey(), new SessionEntry(sessionEntry.getValue().getExpiration(), data));
                     }
-                    serializedData.put(sessionEntry.getKey(), new SessionEntry(sessionEntry.getValue().getExpiration(), data));
+                    writer.commit();
+                } finally {
+                    writer.close();
                 }
-                persistSerializedSessions(deploymentName, serializedData);
             } finally {
                 marshaller.close();
             }
@@ -93,34 +102,37 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
 
     }
 
-    protected abstract void persistSerializedSessions(String deploymentName, Map<String, SessionEntry> serializedData) throws IOException;
+    /**
+     * Creates a writer of the serialized sessions of the specified deployment.
+     * @param deploymentName the name of a deployment
+     * @return a session entry writer
+     * @throws IOException if the writer could not be created
+     */
+    protected abstract SessionEntryWriter createSessionEntryWriter(String deploymentName) throws IOException;
 
+    /**
+     * Loads the serialized sessions of the specified deployment.
+     * The serialized attributes of each session need not be read until they are first accessed.
+     * @param deploymentName the name of a deployment
+     * @return the serialized sessions, or null if there are none
+     * @throws IOException if the sessions could not be loaded
+     */
     protected abstract Map<String, SessionEntry> loadSerializedSessions(final String deploymentName) throws IOException;
 
     @Override
     public Map<String, PersistentSession> loadSessionAttributes(String deploymentName, final ClassLoader classLoader) {
         try {
-            Unmarshaller unmarshaller = createUnmarshaller();
-            try {
-                long time = System.currentTimeMillis();
-                Map<String, SessionEntry> data = loadSerializedSessions(deploymentName);
-                if (data != null) {
-                    Map<String, PersistentSession> ret = new HashMap<String, PersistentSession>();
-                    for (Map.Entry<String, SessionEntry> sessionEntry : data.entrySet()) {
-                        if (sessionEntry.getValue().expiry.getTime() > time) {
-                            Map<String, Object> session = new HashMap<String, Object>();
-                            for (Map.Entry<String, byte[]> sessionAttribute : sessionEntry.getValue().data.entrySet()) {
-                                unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(sessionAttribute.getValue())));
-                                session.put(sessionAttribute.getKey(), unmarshaller.readObject());
-                                unmarshaller.finish();
-                            }
-                            ret.put(sessionEntry.getKey(), new PersistentSession(sessionEntry.getValue().expiry, session));
-                        }
+            long time = System.currentTimeMillis();
+            Map<String, SessionEntry> data = loadSerializedSessions(deploymentName);
+            if (data != null) {
+                Map<String, PersistentSession> ret = new HashMap<String, PersistentSession>();
+                for (Map.Entry<String, SessionEntry> sessionEntry : data.entrySet()) {
+                    if (sessionEntry.getValue().expiry.getTime() > time) {
+                        // Session attributes are unmarshalled when the session is restored, i.e. when first requested
+                        ret.put(sessionEntry.getKey(), new PersistentSession(sessionEntry.getValue().expiry, new SessionAttributes(sessionEntry.getKey(), sessionEntry.getValue().getData())));
                     }
-                    return ret;
                 }
-            } finally {
-                unmarshaller.close();
+                return ret;
             }
         } catch (Exception e) {
             UndertowServletLogger.ROOT_LOGGER.failedtoLoadPersistentSessions(e);
@@ -166,7 +178,7 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
         private final Date expiry;
         private final Map<String, byte[]> data;
 
-        private SessionEntry(Date expiry, Map<String, byte[]> data) {
+        protected SessionEntry(Date expiry, Map<String, byte[]> data) {
             this.expiry = expiry;
             this.data = data;
         }
@@ -179,4 +191,74 @@ public abstract class AbstractPersistentSessionManager implements SessionPersist
             return data;
         }
     }
+
+    /**
+     * Writes the serialized sessions of a deployment, one session at a time.
+     */
+    protected interface SessionEntryWriter extends Closeable {
+        /**
+         * Writes the specified serialized session.
+         * @param sessionId a session identifier
+         * @param entry a serialized session
+         * @throws IOException if the session could not be written
+         */
+        void write(String sessionId, SessionEntry entry) throws IOException;
+
+        /**
+         * Completes the written sessions, replacing any sessions previously persisted for the deployment.
+         * @throws IOException if the sessions could not be completed
+         */
+        void commit() throws IOException;
+
+        /**
+         * Releases the resources of this writer, discarding the written sessions if they were not committed.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Attributes of a persistent session that are unmarshalled on first access.
+     */
+    private class SessionAttributes extends AbstractMap<String, Object> {
+        private final String sessionId;
+        private final Map<String, byte[]> data;
+        private Map<String, Object> attributes;
+
+        SessionAttributes(String sessionId, Map<String, byte[]> data) {
+            this.sessionId = sessionId;
+            this.data = data;
+        }
+
+        @Override
+        public synchronized Set<Entry<String, Object>> entrySet() {
+            if (this.attributes == null) {
+                this.attributes = this.unmarshal();
+            }
+            return this.attributes.entrySet();
+        }
+
+        private Map<String, Object> unmarshal() {
+            Map<String, Object> attributes = new HashMap<String, Object>();
+            try {
+                Unmarshaller unmarshaller = createUnmarshaller();
+                try {
+                    for (Map.Entry<String, byte[]> sessionAttribute : this.data.entrySet()) {
+                        try {
+                            unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(sessionAttribute.getValue())));
+                            attributes.put(sessionAttribute.getKey(), unmarshaller.readObject());
+                            unmarshaller.finish();
+                        } catch (Exception e) {
+                            UndertowLogger.ROOT_LOGGER.failedToRestoreSessionAttribute(sessionAttribute.getKey(), this.sessionId, e);
+                        }
+                    }
+                } finally {
+                    unmarshaller.close();
+                }
+            } catch (IOException e) {
+                UndertowServletLogger.ROOT_LOGGER.failedtoLoadPersistentSessions(e);
+            }
+            return attributes;
+        }
+    }
 }
@@ -59,11 +59,13 @@ class AccessLogAdd extends AbstractAddStepHandler {
         final boolean rotate = AccessLogDefinition.ROTATE.resolveModelAttribute(context, model).asBoolean();
         final ModelNode relativeToNode = AccessLogDefinition.RELATIVE_TO.resolveModelAttribute(context, model);
         final String relativeTo = relativeToNode.isDefined() ? relativeToNode.asString() : null;
+        final ModelNode queueSizeNode = AccessLogDefinition.QUEUE_SIZE.resolveModelAttribute(context, model);
+        final Integer queueSize = queueSizeNode.isDefined() ? queueSizeNode.asInt() : null;
         final AccessLogService service;
         if (useServerLog) {
             service = new AccessLogService(pattern);
         } else {
-            service = new AccessLogService(pattern, directory, relativeTo, filePrefix, fileSuffix, rotate);
+            service = new AccessLogService(pattern, directory, relativeTo, filePrefix, fileSuffix, rotate, queueSize);
         }
 
         final String serverName = serverAddress.getLastElement().getValue();
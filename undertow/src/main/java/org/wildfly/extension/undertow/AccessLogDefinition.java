@@ -25,7 +25,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PersistentResourceDefinition;
 import org.jboss.as.controller.ReloadRequiredRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
@@ -33,11 +37,16 @@ import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.access.constraint.SensitivityClassification;
 import org.jboss.as.controller.access.management.AccessConstraintDefinition;
 import org.jboss.as.controller.access.management.SensitiveTargetAccessConstraintDefinition;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.dmr.ValueExpression;
+import org.jboss.msc.service.ServiceController;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
 
 /**
  * @author Tomaz Cerar (c) 2013 Red Hat Inc.
@@ -87,6 +96,20 @@ public class AccessLogDefinition extends PersistentResourceDefinition {
             .setAllowExpression(true)
             .build();
 
+    protected static final SimpleAttributeDefinition QUEUE_SIZE = new SimpleAttributeDefinitionBuilder(Constants.QUEUE_SIZE, ModelType.INT)
+            .setAllowNull(true)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .setAllowExpression(true)
+            .build();
+
+    static final SimpleAttributeDefinition QUEUE_DEPTH = new SimpleAttributeDefinitionBuilder("queue-depth", ModelType.INT)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition DROPPED_ENTRIES = new SimpleAttributeDefinitionBuilder("dropped-entries", ModelType.LONG)
+            .setStorageRuntime()
+            .build();
+
 
     static final Collection<SimpleAttributeDefinition> ATTRIBUTES = Arrays.asList(
             // IMPORTANT -- keep these in xsd order as this order controls marshalling
@@ -97,7 +120,8 @@ public class AccessLogDefinition extends PersistentResourceDefinition {
             ROTATE,
             DIRECTORY,
             USE_SERVER_LOG,
-            RELATIVE_TO
+            RELATIVE_TO,
+            QUEUE_SIZE
     );
     static final AccessLogDefinition INSTANCE = new AccessLogDefinition();
     private final List<AccessConstraintDefinition> accessConstraints;
@@ -119,4 +143,36 @@ public class AccessLogDefinition extends PersistentResourceDefinition {
         //noinspection unchecked
         return (Collection) ATTRIBUTES;
     }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        resourceRegistration.registerMetric(QUEUE_DEPTH, AccessLogStatisticsHandler.INSTANCE);
+        resourceRegistration.registerMetric(DROPPED_ENTRIES, AccessLogStatisticsHandler.INSTANCE);
+    }
+
+    private static class AccessLogStatisticsHandler extends AbstractRuntimeOnlyHandler {
+
+        static final AccessLogStatisticsHandler INSTANCE = new AccessLogStatisticsHandler();
+
+        private AccessLogStatisticsHandler() {
+        }
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final PathAddress hostAddress = context.getCurrentAddress().getParent();
+            final String serverName = hostAddress.getParent().getLastElement().getValue();
+            final String hostName = hostAddress.getLastElement().getValue();
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.accessLogServiceName(serverName, hostName));
+            final AccessLogService service = (controller != null && controller.getState() == ServiceController.State.UP) ? (AccessLogService) controller.getValue() : null;
+            final String name = operation.require(ModelDescriptionConstants.NAME).asString();
+            if (QUEUE_DEPTH.getName().equals(name)) {
+                context.getResult().set((service != null) ? service.getQueueDepth() : 0);
+            } else if (DROPPED_ENTRIES.getName().equals(name)) {
+                context.getResult().set((service != null) ? service.getDroppedEntryCount() : 0L);
+            } else {
+                context.getFailureDescription().set(UndertowLogger.ROOT_LOGGER.unknownMetric(name));
+            }
+        }
+    }
 }
@@ -53,6 +53,7 @@ class AccessLogService implements Service<AccessLogService> {
     private final String fileSuffix;
     private final boolean rotate;
     private final boolean useServerLog;
+    private final Integer queueSize;
     private volatile AccessLogReceiver logReceiver;
 
 
@@ -71,9 +72,10 @@ class AccessLogService implements Service<AccessLogService> {
         this.fileSuffix = null;
         this.useServerLog = true;
         this.rotate = false; //doesn't really matter
+        this.queueSize = null;
     }
 
-    AccessLogService(String pattern, String path, String pathRelativeTo, String filePrefix, String fileSuffix, boolean rotate) {
+    AccessLogService(String pattern, String path, String pathRelativeTo, String filePrefix, String fileSuffix, boolean rotate, Integer queueSize) {
         this.pattern = pattern;
         this.path = path;
         this.pathRelativeTo = pathRelativeTo;
@@ -81,6 +83,7 @@ class AccessLogService implements Service<AccessLogService> {
         this.fileSuffix = fileSuffix;
         this.rotate = rotate;
         this.useServerLog = false;
+        this.queueSize = queueSize;
     }
 
     @Override
@@ -98,7 +101,11 @@ class AccessLogService implements Service<AccessLogService> {
                 }
             }
             try {
-                logReceiver = new DefaultAccessLogReceiver(worker.getValue(), directory, filePrefix, fileSuffix, rotate);
+                if (queueSize != null) {
+                    logReceiver = new BatchingAccessLogReceiver(worker.getValue(), directory, filePrefix, fileSuffix, rotate, queueSize);
+                } else {
+                    logReceiver = new DefaultAccessLogReceiver(worker.getValue(), directory, filePrefix, fileSuffix, rotate);
+                }
             } catch (IllegalStateException e) {
                 throw new StartException(e);
             }
@@ -113,6 +120,9 @@ class AccessLogService implements Service<AccessLogService> {
             callbackHandle.remove();
             callbackHandle = null;
         }
+        if (logReceiver instanceof BatchingAccessLogReceiver) {
+            ((BatchingAccessLogReceiver) logReceiver).close();
+        }
     }
 
     @Override
@@ -143,4 +153,12 @@ class AccessLogService implements Service<AccessLogService> {
     String getPath() {
         return path;
     }
+
+    int getQueueDepth() {
+        return (logReceiver instanceof BatchingAccessLogReceiver) ? ((BatchingAccessLogReceiver) logReceiver).getQueueSize() : 0;
+    }
+
+    long getDroppedEntryCount() {
+        return (logReceiver instanceof BatchingAccessLogReceiver) ? ((BatchingAccessLogReceiver) logReceiver).getDroppedMessageCount() : 0L;
+    }
 }
@@ -0,0 +1,244 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.undertow.server.handlers.accesslog.AccessLogReceiver;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+import org.xnio.IoUtils;
+
+/**
+ * Access log receiver that queues log messages in a bounded, non-blocking queue, from which they are written in batches.
+ * Batches are encoded into a reusable buffer and written to the log file via a {@link FileChannel}.
+ * Messages logged while the queue is full are dropped, rather than blocking the request thread.
+ * Once closed, messages are dropped and the log file is no longer opened.
+ */
+class BatchingAccessLogReceiver implements AccessLogReceiver, Runnable, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final Executor executor;
+    private final File directory;
+    private final String filePrefix;
+    private final String fileSuffix;
+    private final boolean rotate;
+    private final File file;
+    private final int maxQueueSize;
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed = false;
+
+    // Guarded by this
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private FileChannel channel;
+    private long changeOverPoint;
+    private String currentDate;
+
+    BatchingAccessLogReceiver(Executor executor, File directory, String filePrefix, String fileSuffix, boolean rotate, int maxQueueSize) {
+        this.executor = executor;
+        this.directory = directory;
+        this.filePrefix = filePrefix;
+        this.fileSuffix = fileSuffix;
+        this.rotate = rotate;
+        this.file = new File(directory, filePrefix + fileSuffix);
+        this.maxQueueSize = maxQueueSize;
+        this.calculateChangeOverPoint();
+    }
+
+    @Override
+    public void logMessage(String message) {
+        if (this.closed) {
+            this.droppedMessages.incrementAndGet();
+            return;
+        }
+        if (this.queueSize.incrementAndGet() > this.maxQueueSize) {
+            this.queueSize.decrementAndGet();
+            this.droppedMessages.incrementAndGet();
+            return;
+        }
+        this.queue.add(message);
+        this.schedule();
+    }
+
+    /**
+     * Returns the number of messages waiting to be written.
+     * @return a number of messages
+     */
+    int getQueueSize() {
+        return this.queueSize.get();
+    }
+
+    /**
+     * Returns the number of messages dropped because the queue was full.
+     * @return a number of messages
+     */
+    long getDroppedMessageCount() {
+        return this.droppedMessages.get();
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Bound the size of a batch, so that we do not monopolize the worker thread under sustained load
+            this.write(this.maxQueueSize);
+        } finally {
+            this.scheduled.set(false);
+            if (!this.queue.isEmpty()) {
+                this.schedule();
+            }
+        }
+    }
+
+    private void schedule() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // The worker is shutting down. Keep the messages queued, so that the next message, or close(), writes them.
+                this.scheduled.set(false);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        this.write(Integer.MAX_VALUE);
+        this.closed = true;
+        IoUtils.safeClose(this.channel);
+        this.channel = null;
+    }
+
+    private synchronized void write(int maxMessages) {
+        if (this.closed) {
+            // Discard messages queued concurrently with close()
+            while (this.queue.poll() != null) {
+                this.queueSize.decrementAndGet();
+            }
+            return;
+        }
+        try {
+            if (this.rotate && (System.currentTimeMillis() > this.changeOverPoint)) {
+                this.rotate();
+            }
+            for (int i = 0; i < maxMessages; ++i) {
+                String message = this.queue.poll();
+                if (message == null) break;
+                this.queueSize.decrementAndGet();
+                this.encode(message);
+            }
+            this.flush();
+        } catch (IOException e) {
+            UndertowLogger.ROOT_LOGGER.failedToWriteAccessLog(this.file, e);
+            this.buffer.clear();
+            // Reopen the log file on the next write
+            IoUtils.safeClose(this.channel);
+            this.channel = null;
+        }
+    }
+
+    private void encode(String message) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(message);
+        while (this.encoder.encode(chars, this.buffer, true) == CoderResult.OVERFLOW) {
+            this.flush();
+        }
+        while (this.encoder.flush(this.buffer) == CoderResult.OVERFLOW) {
+            this.flush();
+        }
+        this.encoder.reset();
+        if (this.buffer.remaining() < LINE_SEPARATOR.length) {
+            this.flush();
+        }
+        this.buffer.put(LINE_SEPARATOR);
+    }
+
+    private void flush() throws IOException {
+        if (this.buffer.position() == 0) return;
+        if (this.channel == null) {
+            if (this.closed) {
+                this.buffer.clear();
+                return;
+            }
+            this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        this.buffer.flip();
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+        } finally {
+            this.buffer.clear();
+        }
+    }
+
+    private void rotate() throws IOException {
+        this.flush();
+        IoUtils.safeClose(this.channel);
+        this.channel = null;
+        if (this.file.exists()) {
+            File rotated = new File(this.directory, this.filePrefix + this.currentDate + this.fileSuffix);
+            int count = 0;
+            while (rotated.exists()) {
+                rotated = new File(this.directory, this.filePrefix + this.currentDate + "-" + (++count) + this.fileSuffix);
+            }
+            Files.move(this.file.toPath(), rotated.toPath());
+        }
+        this.calculateChangeOverPoint();
+    }
+
+    private void calculateChangeOverPoint() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        this.currentDate = new SimpleDateFormat("yyyy-MM-dd").format(new Date(calendar.getTimeInMillis()));
+        calendar.add(Calendar.DATE, 1);
+        this.changeOverPoint = calendar.getTimeInMillis();
+    }
+}
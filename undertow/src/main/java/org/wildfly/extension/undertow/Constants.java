@@ -212,4 +212,7 @@ public interface Constants {
     String ELECTED = "elected";
     String PROACTIVE_AUTHENTICATION = "proactive-authentication";
     String SESSION_ID_LENGTH = "session-id-length";
+    String RESOURCE_CACHE_SIZE = "resource-cache-size";
+    String MAX_CACHED_RESOURCE_SIZE = "max-cached-resource-size";
+    String QUEUE_SIZE = "queue-size";
 }
@@ -28,6 +28,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 
+import io.undertow.server.handlers.resource.ResourceManager;
 import io.undertow.server.session.SessionManager;
 import io.undertow.server.session.SessionManagerStatistics;
 import io.undertow.servlet.api.Deployment;
@@ -45,8 +46,11 @@ import org.jboss.as.controller.registry.Resource;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceController;
+import org.wildfly.extension.undertow.deployment.CachingServletResourceManager;
+import org.wildfly.extension.undertow.deployment.DelegatingResourceManager;
 import org.wildfly.extension.undertow.deployment.UndertowDeploymentService;
 import org.wildfly.extension.undertow.logging.UndertowLogger;
+import org.wildfly.extension.undertow.session.DistributableSessionManagerStatistics;
 
 /**
  * @author Tomaz Cerar
@@ -72,6 +76,24 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
         for (SessionStat stat : SessionStat.values()) {
             resourceRegistration.registerMetric(stat.definition, SessionManagerStatsHandler.getInstance());
         }
+        for (ResourceCacheStat stat : ResourceCacheStat.values()) {
+            resourceRegistration.registerMetric(stat.definition, ResourceCacheStatsHandler.INSTANCE);
+        }
+        for (RequestStat stat : RequestStat.values()) {
+            resourceRegistration.registerMetric(stat.definition, RequestStatsHandler.INSTANCE);
+        }
+    }
+
+    static UndertowDeploymentService getDeploymentService(OperationContext context, PathAddress address) throws OperationFailedException {
+        final Resource web = context.readResourceFromRoot(address, false);
+        final ModelNode subModel = web.getModel();
+
+        final String host = VIRTUAL_HOST.resolveModelAttribute(context, subModel).asString();
+        final String path = CONTEXT_ROOT.resolveModelAttribute(context, subModel).asString();
+        final String server = SERVER.resolveModelAttribute(context, subModel).asString();
+
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.deploymentServiceName(server, host, path));
+        return (controller != null) ? (UndertowDeploymentService) controller.getService() : null;
     }
 
     static class SessionManagerStatsHandler extends AbstractRuntimeOnlyHandler {
@@ -88,17 +110,7 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
         @Override
         protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
 
-            final PathAddress address = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR));
-
-            final Resource web = context.readResourceFromRoot(address.subAddress(0, address.size()), false);
-            final ModelNode subModel = web.getModel();
-
-            final String host = VIRTUAL_HOST.resolveModelAttribute(context, subModel).asString();
-            final String path = CONTEXT_ROOT.resolveModelAttribute(context, subModel).asString();
-            final String server = SERVER.resolveModelAttribute(context, subModel).asString();
-
-            final ServiceController<?> controller = context.getServiceRegistry(false).getService(UndertowService.deploymentServiceName(server, host, path));
-            final UndertowDeploymentService deploymentService = (UndertowDeploymentService) controller.getService();
+            final UndertowDeploymentService deploymentService = getDeploymentService(context, PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR)));
 
             SessionStat stat = SessionStat.getStat(operation.require(ModelDescriptionConstants.NAME).asString());
 
@@ -152,6 +164,34 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
                             result.set((int)sms.getMaxSessionAliveTime());
                         }
                         break;
+                    case SUPPRESSED_ATTRIBUTE_REPLICATIONS:
+                        if (sms instanceof DistributableSessionManagerStatistics) {
+                            result.set(((DistributableSessionManagerStatistics) sms).getSuppressedAttributeReplicationCount());
+                        } else {
+                            result.set(0L);
+                        }
+                        break;
+                    case MAX_EXPIRATION_LAG:
+                        if (sms instanceof DistributableSessionManagerStatistics) {
+                            result.set(((DistributableSessionManagerStatistics) sms).getMaxExpirationLag());
+                        } else {
+                            result.set(0L);
+                        }
+                        break;
+                    case AVERAGE_EXPIRATION_LAG:
+                        if (sms instanceof DistributableSessionManagerStatistics) {
+                            result.set(((DistributableSessionManagerStatistics) sms).getAverageExpirationLag());
+                        } else {
+                            result.set(0L);
+                        }
+                        break;
+                    case NON_LOCAL_SESSION_IDS:
+                        if (sms instanceof DistributableSessionManagerStatistics) {
+                            result.set(((DistributableSessionManagerStatistics) sms).getNonLocalSessionIdentifierCount());
+                        } else {
+                            result.set(0L);
+                        }
+                        break;
                     case REJECTED_SESSIONS:
                         if(sms == null) {
                             result.set(0);
@@ -167,6 +207,82 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
         }
     }
 
+    static class ResourceCacheStatsHandler extends AbstractRuntimeOnlyHandler {
+
+        static final ResourceCacheStatsHandler INSTANCE = new ResourceCacheStatsHandler();
+
+        private ResourceCacheStatsHandler() {
+        }
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final UndertowDeploymentService deploymentService = getDeploymentService(context, PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR)));
+
+            ResourceCacheStat stat = ResourceCacheStat.getStat(operation.require(ModelDescriptionConstants.NAME).asString());
+
+            if (stat == null) {
+                context.getFailureDescription().set(UndertowLogger.ROOT_LOGGER.unknownMetric(operation.require(ModelDescriptionConstants.NAME).asString()));
+            } else {
+                CachingServletResourceManager cache = findResourceCache(deploymentService.getDeployment().getDeploymentInfo().getResourceManager());
+                ModelNode result = new ModelNode();
+                switch (stat) {
+                    case RESOURCE_CACHE_HITS:
+                        result.set((cache != null) ? cache.getHitCount() : 0L);
+                        break;
+                    case RESOURCE_CACHE_MISSES:
+                        result.set((cache != null) ? cache.getMissCount() : 0L);
+                        break;
+                    default:
+                        throw new IllegalStateException(UndertowLogger.ROOT_LOGGER.unknownMetric(stat));
+                }
+                context.getResult().set(result);
+            }
+        }
+
+        private static CachingServletResourceManager findResourceCache(ResourceManager manager) {
+            if (manager instanceof CachingServletResourceManager) {
+                return (CachingServletResourceManager) manager;
+            }
+            if (manager instanceof DelegatingResourceManager) {
+                for (ResourceManager delegate : ((DelegatingResourceManager) manager).getDelegates()) {
+                    CachingServletResourceManager cache = findResourceCache(delegate);
+                    if (cache != null) {
+                        return cache;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    public enum ResourceCacheStat {
+        RESOURCE_CACHE_HITS(new SimpleAttributeDefinitionBuilder("resource-cache-hits", ModelType.LONG, false).setStorageRuntime().build()),
+        RESOURCE_CACHE_MISSES(new SimpleAttributeDefinitionBuilder("resource-cache-misses", ModelType.LONG, false).setStorageRuntime().build());
+
+        private static final Map<String, ResourceCacheStat> MAP = new HashMap<>();
+
+        static {
+            for (ResourceCacheStat stat : EnumSet.allOf(ResourceCacheStat.class)) {
+                MAP.put(stat.toString(), stat);
+            }
+        }
+
+        final AttributeDefinition definition;
+
+        private ResourceCacheStat(final AttributeDefinition definition) {
+            this.definition = definition;
+        }
+
+        @Override
+        public final String toString() {
+            return definition.getName();
+        }
+
+        public static ResourceCacheStat getStat(final String stringForm) {
+            return MAP.get(stringForm);
+        }
+    }
+
     public enum SessionStat {
         ACTIVE_SESSIONS(new SimpleAttributeDefinitionBuilder("active-sessions", ModelType.INT, false).setStorageRuntime().build()),
         EXPIRED_SESSIONS(new SimpleAttributeDefinitionBuilder("expired-sessions", ModelType.INT, false).setStorageRuntime().build()),
@@ -175,7 +291,11 @@ public class DeploymentDefinition extends SimpleResourceDefinition {
         SESSION_AVG_ALIVE_TIME(new SimpleAttributeDefinitionBuilder("session-avg-alive-time", ModelType.INT, false).setStorageRuntime().build()),
         SESSION_MAX_ALIVE_TIME(new SimpleAttributeDefinitionBuilder("session-max-alive-time", ModelType.INT, false).setStorageRuntime().build()),
         REJECTED_SESSIONS(new SimpleAttributeDefinitionBuilder("rejected-sessions", ModelType.INT, false).setStorageRuntime().build()),
-        MAX_ACTIVE_SESSIONS(new SimpleAttributeDefinitionBuilder("max-active-sessions", ModelType.INT, false).setStorageRuntime().build());
+        MAX_ACTIVE_SESSIONS(new SimpleAttributeDefinitionBuilder("max-active-sessions", ModelType.INT, false).setStorageRuntime().build()),
+        SUPPRESSED_ATTRIBUTE_REPLICATIONS(new SimpleAttributeDefinitionBuilder("suppressed-attribute-replications", ModelType.LONG, false).setStorageRuntime().build()),
+        MAX_EXPIRATION_LAG(new SimpleAttributeDefinitionBuilder("max-expiration-lag", ModelType.LONG, false).setStorageRuntime().build()),
+        AVERAGE_EXPIRATION_LAG(new SimpleAttributeDefinitionBuilder("average-expiration-lag", ModelType.LONG, false).setStorageRuntime().build()),
+        NON_LOCAL_SESSION_IDS(new SimpleAttributeDefinitionBuilder("non-local-session-ids", ModelType.LONG, false).setStorageRuntime().build());
 
         private static final Map<String, SessionStat> MAP = new HashMap<>();
 
@@ -100,6 +100,9 @@ public class DeploymentServletDefinition extends SimpleResourceDefinition {
                 }
             }
         });
+        for (RequestStat stat : RequestStat.values()) {
+            registration.registerMetric(stat.definition, RequestStatsHandler.INSTANCE);
+        }
     }
 
     abstract static class AbstractMetricsHandler implements OperationStepHandler {
@@ -23,8 +23,6 @@ package org.wildfly.extension.undertow;
 
 import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.marshalling.InputStreamByteInput;
-import org.jboss.marshalling.Marshaller;
-import org.jboss.marshalling.OutputStreamByteOutput;
 import org.jboss.marshalling.Unmarshaller;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
@@ -33,18 +31,40 @@ import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.undertow.logging.UndertowLogger;
 import org.xnio.IoUtils;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * Persistent session manager that stores persistent session information to disk
+ * Persistent session manager that stores persistent session information to disk.
+ * Sessions are streamed to a file, one record per session, which is read back sequentially when loaded.
+ * Each record is kept as read, and the attributes of a session are only parsed from its record when the session is restored.
  *
  * @author Stuart Douglas
  */
 public class DiskBasedModularPersistentSessionManager extends AbstractPersistentSessionManager {
+    // File header: magic number, format version
+    private static final int MAGIC = 0x57465053;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final String path;
     private final String pathRelativeTo;
     private File baseDir;
@@ -84,21 +104,11 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
 
 
     @Override
-    protected void persistSerializedSessions(String deploymentName, Map<String, SessionEntry> serializedData) throws IOException {
+    protected SessionEntryWriter createSessionEntryWriter(String deploymentName) throws IOException {
         File file = new File(baseDir, deploymentName);
-        FileOutputStream out = new FileOutputStream(file, false);
-        try {
-            Marshaller marshaller = createMarshaller();
-            try {
-                marshaller.start(new OutputStreamByteOutput(out));
-                marshaller.writeObject(serializedData);
-                marshaller.finish();
-            } finally {
-                marshaller.close();
-            }
-        } finally {
-            IoUtils.safeClose(out);
-        }
+        // Write to a separate file, so that the previous sessions are only replaced once all sessions were written
+        File tempFile = new File(baseDir, deploymentName + ".tmp");
+        return new SessionFileWriter(file, tempFile);
     }
 
     @Override
@@ -107,6 +117,39 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
         if (!file.exists()) {
             return null;
         }
+        long size = file.length();
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        try {
+            if ((size < HEADER_SIZE) || (input.readInt() != MAGIC)) {
+                // Sessions persisted by a previous release
+                return loadLegacySerializedSessions(file);
+            }
+            if (input.readInt() != VERSION) {
+                throw UndertowLogger.ROOT_LOGGER.invalidPersistentSessionFile(file);
+            }
+            Map<String, SessionEntry> entries = new HashMap<String, SessionEntry>();
+            long remaining = size - HEADER_SIZE;
+            while (remaining > 0) {
+                int recordSize = (remaining >= 4) ? input.readInt() : -1;
+                if ((recordSize < 0) || (recordSize > remaining - 4)) {
+                    // Truncated record
+                    throw UndertowLogger.ROOT_LOGGER.invalidPersistentSessionFile(file);
+                }
+                byte[] bytes = new byte[recordSize];
+                input.readFully(bytes);
+                ByteBuffer record = ByteBuffer.wrap(bytes);
+                String sessionId = readString(record);
+                Date expiry = new Date(record.getLong());
+                entries.put(sessionId, new SessionEntry(expiry, new RecordSessionData(record.slice())));
+                remaining -= 4 + recordSize;
+            }
+            return entries;
+        } finally {
+            IoUtils.safeClose(input);
+        }
+    }
+
+    private Map<String, SessionEntry> loadLegacySerializedSessions(File file) throws IOException {
         FileInputStream in = new FileInputStream(file);
         try {
             Unmarshaller unMarshaller = createUnmarshaller();
@@ -125,7 +168,105 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
         } finally {
             IoUtils.safeClose(in);
         }
+    }
+
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
 
+    /**
+     * Streams sessions to a file, one record per session.
+     * Each record consists of its size, followed by the session identifier, expiration time, and serialized attributes.
+     */
+    private static class SessionFileWriter implements SessionEntryWriter {
+        private final File file;
+        private final File tempFile;
+        private final DataOutputStream output;
+        // Reused buffer for the current record
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+        private final DataOutputStream recordOutput = new DataOutputStream(this.record);
+        private boolean committed = false;
+
+        SessionFileWriter(File file, File tempFile) throws IOException {
+            this.file = file;
+            this.tempFile = tempFile;
+            this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile, false)));
+            this.output.writeInt(MAGIC);
+            this.output.writeInt(VERSION);
+        }
+
+        @Override
+        public void write(String sessionId, SessionEntry entry) throws IOException {
+            this.record.reset();
+            writeString(this.recordOutput, sessionId);
+            this.recordOutput.writeLong(entry.getExpiry().getTime());
+            Map<String, byte[]> data = entry.getData();
+            this.recordOutput.writeInt(data.size());
+            for (Map.Entry<String, byte[]> attribute : data.entrySet()) {
+                writeString(this.recordOutput, attribute.getKey());
+                this.recordOutput.writeInt(attribute.getValue().length);
+                this.recordOutput.write(attribute.getValue());
+            }
+            this.output.writeInt(this.record.size());
+            this.record.writeTo(this.output);
+        }
+
+        @Override
+        public void commit() throws IOException {
+            this.output.close();
+            try {
+                Files.move(this.tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(this.tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            this.committed = true;
+        }
+
+        @Override
+        public void close() {
+            IoUtils.safeClose(this.output);
+            if (!this.committed) {
+                this.tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Serialized session attributes that are parsed from a session record on first access.
+     */
+    private static class RecordSessionData extends AbstractMap<String, byte[]> {
+        // Record content following the session identifier and expiration time
+        private final ByteBuffer buffer;
+        private Map<String, byte[]> data;
+
+        RecordSessionData(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public synchronized Set<Entry<String, byte[]>> entrySet() {
+            if (this.data == null) {
+                ByteBuffer buffer = this.buffer.duplicate();
+                int size = buffer.getInt();
+                Map<String, byte[]> data = new HashMap<String, byte[]>(size);
+                for (int i = 0; i < size; ++i) {
+                    String name = readString(buffer);
+                    byte[] value = new byte[buffer.getInt()];
+                    buffer.get(value);
+                    data.put(name, value);
+                }
+                this.data = data;
+            }
+            return this.data.entrySet();
+        }
     }
 
     public InjectedValue<PathManager> getPathManager() {
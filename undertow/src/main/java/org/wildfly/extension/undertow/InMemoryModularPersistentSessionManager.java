@@ -38,8 +38,23 @@ public class InMemoryModularPersistentSessionManager extends AbstractPersistentS
     private final Map<String, Map<String, SessionEntry>> sessionData = Collections.synchronizedMap(new HashMap<String, Map<String, SessionEntry>>());
 
     @Override
-    protected void persistSerializedSessions(String deploymentName, Map<String, SessionEntry> serializedData) {
-        sessionData.put(deploymentName, serializedData);
+    protected SessionEntryWriter createSessionEntryWriter(final String deploymentName) {
+        final Map<String, SessionEntry> serializedData = new HashMap<String, SessionEntry>();
+        return new SessionEntryWriter() {
+            @Override
+            public void write(String sessionId, SessionEntry entry) {
+                serializedData.put(sessionId, entry);
+            }
+
+            @Override
+            public void commit() {
+                sessionData.put(deploymentName, serializedData);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
     }
 
     @Override
@@ -0,0 +1,107 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.wildfly.extension.undertow.deployment.RequestMetrics;
+
+/**
+ * Request metrics of a deployment or servlet.
+ */
+enum RequestStat {
+    REQUEST_TIME_P50(new SimpleAttributeDefinitionBuilder("request-time-p50", ModelType.LONG, true).setMeasurementUnit(MeasurementUnit.MICROSECONDS).setStorageRuntime().build()) {
+        @Override
+        void read(RequestMetrics metrics, ModelNode result) {
+            result.set(metrics.getLatency(50) / 1000);
+        }
+    },
+    REQUEST_TIME_P99(new SimpleAttributeDefinitionBuilder("request-time-p99", ModelType.LONG, true).setMeasurementUnit(MeasurementUnit.MICROSECONDS).setStorageRuntime().build()) {
+        @Override
+        void read(RequestMetrics metrics, ModelNode result) {
+            result.set(metrics.getLatency(99) / 1000);
+        }
+    },
+    REQUEST_TIME_P999(new SimpleAttributeDefinitionBuilder("request-time-p999", ModelType.LONG, true).setMeasurementUnit(MeasurementUnit.MICROSECONDS).setStorageRuntime().build()) {
+        @Override
+        void read(RequestMetrics metrics, ModelNode result) {
+            result.set(metrics.getLatency(99.9) / 1000);
+        }
+    },
+    REQUEST_RATE(new SimpleAttributeDefinitionBuilder("request-rate", ModelType.DOUBLE, true).setMeasurementUnit(MeasurementUnit.PER_SECOND).setStorageRuntime().build()) {
+        @Override
+        void read(RequestMetrics metrics, ModelNode result) {
+            result.set(metrics.getRequestRate());
+        }
+    },
+    REQUESTS_IN_FLIGHT(new SimpleAttributeDefinitionBuilder("requests-in-flight", ModelType.INT, true).setStorageRuntime().build()) {
+        @Override
+        void read(RequestMetrics metrics, ModelNode result) {
+            result.set(metrics.getRequestsInFlight());
+        }
+    },
+    BYTES_RECEIVED(new SimpleAttributeDefinitionBuilder("bytes-received", ModelType.LONG, true).setMeasurementUnit(MeasurementUnit.BYTES).setStorageRuntime().build()) {
+        @Override
+        void read(RequestMetrics metrics, ModelNode result) {
+            result.set(metrics.getBytesReceived());
+        }
+    },
+    BYTES_SENT(new SimpleAttributeDefinitionBuilder("bytes-sent", ModelType.LONG, true).setMeasurementUnit(MeasurementUnit.BYTES).setStorageRuntime().build()) {
+        @Override
+        void read(RequestMetrics metrics, ModelNode result) {
+            result.set(metrics.getBytesSent());
+        }
+    },
+    ;
+
+    private static final Map<String, RequestStat> MAP = new HashMap<>();
+
+    static {
+        for (RequestStat stat : EnumSet.allOf(RequestStat.class)) {
+            MAP.put(stat.toString(), stat);
+        }
+    }
+
+    final AttributeDefinition definition;
+
+    RequestStat(final AttributeDefinition definition) {
+        this.definition = definition;
+    }
+
+    abstract void read(RequestMetrics metrics, ModelNode result);
+
+    @Override
+    public final String toString() {
+        return definition.getName();
+    }
+
+    static RequestStat getStat(final String stringForm) {
+        return MAP.get(stringForm);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import io.undertow.servlet.api.MetricsCollector;
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.dmr.ModelNode;
+import org.wildfly.extension.undertow.deployment.RequestMetrics;
+import org.wildfly.extension.undertow.deployment.UndertowDeploymentService;
+import org.wildfly.extension.undertow.deployment.UndertowMetricsCollector;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+
+/**
+ * Reads the {@link RequestStat} metrics of a deployment, or of one of its servlets.
+ */
+class RequestStatsHandler extends AbstractRuntimeOnlyHandler {
+
+    static final RequestStatsHandler INSTANCE = new RequestStatsHandler();
+
+    private RequestStatsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String name = operation.require(ModelDescriptionConstants.NAME).asString();
+        final RequestStat stat = RequestStat.getStat(name);
+        if (stat == null) {
+            context.getFailureDescription().set(UndertowLogger.ROOT_LOGGER.unknownMetric(name));
+            return;
+        }
+        final PathAddress address = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR));
+        final boolean servlet = address.getLastElement().getKey().equals(DeploymentServletDefinition.INSTANCE.getPathElement().getKey());
+        final UndertowDeploymentService deploymentService = DeploymentDefinition.getDeploymentService(context, servlet ? address.getParent() : address);
+        final MetricsCollector collector = (deploymentService != null) ? deploymentService.getDeploymentInfoInjectedValue().getValue().getMetricsCollector() : null;
+        RequestMetrics metrics = null;
+        if (collector instanceof UndertowMetricsCollector) {
+            UndertowMetricsCollector undertowCollector = (UndertowMetricsCollector) collector;
+            metrics = servlet ? undertowCollector.getRequestMetrics(address.getLastElement().getValue()) : undertowCollector.getDeploymentRequestMetrics();
+        }
+        final ModelNode result = new ModelNode();
+        if (metrics != null) {
+            stat.read(metrics, result);
+        } else {
+            result.set(0);
+        }
+        context.getResult().set(result);
+    }
+}
@@ -79,6 +79,8 @@ final class ServletContainerAdd extends AbstractBoottimeAddStepHandler {
         final boolean eagerFilterInit = ServletContainerDefinition.EAGER_FILTER_INIT.resolveModelAttribute(context, model).asBoolean();
         final boolean disableCachingForSecuredPages = ServletContainerDefinition.DISABLE_CACHING_FOR_SECURED_PAGES.resolveModelAttribute(context, model).asBoolean();
         final int sessionIdLength = ServletContainerDefinition.SESSION_ID_LENGTH.resolveModelAttribute(context, model).asInt();
+        final int resourceCacheSize = ServletContainerDefinition.RESOURCE_CACHE_SIZE.resolveModelAttribute(context, model).asInt();
+        final long maxCachedResourceSize = ServletContainerDefinition.MAX_CACHED_RESOURCE_SIZE.resolveModelAttribute(context, model).asLong();
 
         Boolean directoryListingEnabled = null;
         if(model.hasDefined(Constants.DIRECTORY_LISTING)) {
@@ -114,7 +116,7 @@ final class ServletContainerAdd extends AbstractBoottimeAddStepHandler {
                 sessionTimeout,
                 disableCachingForSecuredPages, info != null, info != null && info.isDispatchToWorker(),
                 mimeMappings,
-                welcomeFiles, directoryListingEnabled, proactiveAuth, sessionIdLength);
+                welcomeFiles, directoryListingEnabled, proactiveAuth, sessionIdLength, resourceCacheSize, maxCachedResourceSize);
 
         final ServiceTarget target = context.getServiceTarget();
         final ServiceBuilder<ServletContainerService> builder = target.addService(UndertowService.SERVLET_CONTAINER.append(name), container);
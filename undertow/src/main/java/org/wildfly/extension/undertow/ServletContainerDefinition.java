@@ -37,6 +37,7 @@ import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -132,6 +133,23 @@ class ServletContainerDefinition extends PersistentResourceDefinition {
                     .setDefaultValue(new ModelNode(30))
                     .build(); //30 minutes
 
+    protected static final AttributeDefinition RESOURCE_CACHE_SIZE =
+            new SimpleAttributeDefinitionBuilder(Constants.RESOURCE_CACHE_SIZE, ModelType.INT, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(0, true, true))
+                    .setDefaultValue(new ModelNode(100))
+                    .build();
+
+    protected static final AttributeDefinition MAX_CACHED_RESOURCE_SIZE =
+            new SimpleAttributeDefinitionBuilder(Constants.MAX_CACHED_RESOURCE_SIZE, ModelType.LONG, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setValidator(new LongRangeValidator(0, true, true))
+                    .setMeasurementUnit(MeasurementUnit.BYTES)
+                    .setDefaultValue(new ModelNode(10L * 1024 * 1024))
+                    .build();
+
     private static final List<? extends PersistentResourceDefinition> CHILDREN;
     static final Collection<AttributeDefinition> ATTRIBUTES = Arrays.asList(
             ALLOW_NON_STANDARD_WRAPPERS,
@@ -145,7 +163,9 @@ class ServletContainerDefinition extends PersistentResourceDefinition {
             DISABLE_CACHING_FOR_SECURED_PAGES,
             DIRECTORY_LISTING,
             PROACTIVE_AUTHENTICATION,
-            SESSION_ID_LENGTH
+            SESSION_ID_LENGTH,
+            RESOURCE_CACHE_SIZE,
+            MAX_CACHED_RESOURCE_SIZE
             );
 
     static final ServletContainerDefinition INSTANCE = new ServletContainerDefinition();
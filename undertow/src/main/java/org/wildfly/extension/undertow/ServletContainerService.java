@@ -63,6 +63,8 @@ public class ServletContainerService implements Service<ServletContainerService>
     private final boolean disableCachingForSecuredPages;
     private final Boolean directoryListingEnabled;
     private final int sessionIdLength;
+    private final int resourceCacheSize;
+    private final long maxCachedResourceSize;
 
     private final boolean websocketsEnabled;
     private final InjectedValue<Pool<ByteBuffer>> websocketsBufferPool = new InjectedValue<>();
@@ -74,7 +76,8 @@ public class ServletContainerService implements Service<ServletContainerService>
 
     public ServletContainerService(boolean allowNonStandardWrappers, ServletStackTraces stackTraces, SessionCookieConfig sessionCookieConfig, JSPConfig jspConfig,
                                    String defaultEncoding, boolean useListenerEncoding, boolean ignoreFlush, boolean eagerFilterInit, int defaultSessionTimeout,
-                                   boolean disableCachingForSecuredPages, boolean websocketsEnabled, boolean dispatchWebsocketInvocationToWorker, Map<String, String> mimeMappings, List<String> welcomeFiles, Boolean directoryListingEnabled, boolean proactiveAuth, int sessionIdLength) {
+                                   boolean disableCachingForSecuredPages, boolean websocketsEnabled, boolean dispatchWebsocketInvocationToWorker, Map<String, String> mimeMappings, List<String> welcomeFiles, Boolean directoryListingEnabled, boolean proactiveAuth, int sessionIdLength,
+                                   int resourceCacheSize, long maxCachedResourceSize) {
         this.allowNonStandardWrappers = allowNonStandardWrappers;
         this.stackTraces = stackTraces;
         this.sessionCookieConfig = sessionCookieConfig;
@@ -92,6 +95,8 @@ public class ServletContainerService implements Service<ServletContainerService>
         this.welcomeFiles = new ArrayList<>(welcomeFiles);
         this.mimeMappings = new HashMap<>(mimeMappings);
         this.sessionIdLength = sessionIdLength;
+        this.resourceCacheSize = resourceCacheSize;
+        this.maxCachedResourceSize = maxCachedResourceSize;
     }
 
     public void start(StartContext context) throws StartException {
@@ -202,4 +207,12 @@ public class ServletContainerService implements Service<ServletContainerService>
     public int getSessionIdLength() {
         return sessionIdLength;
     }
+
+    public int getResourceCacheSize() {
+        return resourceCacheSize;
+    }
+
+    public long getMaxCachedResourceSize() {
+        return maxCachedResourceSize;
+    }
 }
@@ -105,7 +105,7 @@ public class UndertowSubsystemParser_3_0 extends PersistentResourceXMLParser {
                                                                 )
                                                 ).addChild(
                                                 builder(AccessLogDefinition.INSTANCE)
-                                                        .addAttributes(AccessLogDefinition.PATTERN, AccessLogDefinition.DIRECTORY, AccessLogDefinition.RELATIVE_TO, AccessLogDefinition.PREFIX, AccessLogDefinition.SUFFIX, AccessLogDefinition.WORKER, AccessLogDefinition.ROTATE, AccessLogDefinition.USE_SERVER_LOG)
+                                                        .addAttributes(AccessLogDefinition.PATTERN, AccessLogDefinition.DIRECTORY, AccessLogDefinition.RELATIVE_TO, AccessLogDefinition.PREFIX, AccessLogDefinition.SUFFIX, AccessLogDefinition.WORKER, AccessLogDefinition.ROTATE, AccessLogDefinition.USE_SERVER_LOG, AccessLogDefinition.QUEUE_SIZE)
                                         ).addChild(
                                                 builder(FilterRefDefinition.INSTANCE)
                                                         .addAttributes(FilterRefDefinition.PREDICATE, FilterRefDefinition.PRIORITY)
@@ -129,6 +129,8 @@ public class UndertowSubsystemParser_3_0 extends PersistentResourceXMLParser {
                                 .addAttribute(ServletContainerDefinition.DIRECTORY_LISTING)
                                 .addAttribute(ServletContainerDefinition.PROACTIVE_AUTHENTICATION)
                                 .addAttribute(ServletContainerDefinition.SESSION_ID_LENGTH)
+                                .addAttribute(ServletContainerDefinition.RESOURCE_CACHE_SIZE)
+                                .addAttribute(ServletContainerDefinition.MAX_CACHED_RESOURCE_SIZE)
                                 .addChild(
                                         builder(JspDefinition.INSTANCE)
                                                 .setXmlElementName(Constants.JSP_CONFIG)
@@ -231,6 +233,7 @@ public class UndertowSubsystemParser_3_0 extends PersistentResourceXMLParser {
                                         .addAttributes(ResponseHeaderFilter.NAME, ResponseHeaderFilter.VALUE)
                         ).addChild(
                                 builder(GzipFilter.INSTANCE)
+                                        .addAttributes(GzipFilter.CACHE_SIZE, GzipFilter.MAX_CACHED_RESPONSE_SIZE)
                         ).addChild(
                                 builder(ErrorPageDefinition.INSTANCE)
                                         .addAttributes(ErrorPageDefinition.CODE, ErrorPageDefinition.PATH)
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.undertow.server.handlers.cache.DirectBufferCache;
+import io.undertow.server.handlers.resource.CachingResourceManager;
+import io.undertow.server.handlers.resource.Resource;
+import io.undertow.server.handlers.resource.ResourceChangeListener;
+import io.undertow.server.handlers.resource.ResourceManager;
+
+/**
+ * Caching resource manager for the static resources of a deployment.
+ * Resolved resources, including their ETag and last modified date, are cached up to the configured number of entries,
+ * while the content of resources up to the configured size is cached in direct buffers.
+ * Records the number of lookups that were, or were not, served from the cache.
+ */
+public class CachingServletResourceManager extends CachingResourceManager {
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong misses;
+
+    public CachingServletResourceManager(int metadataCacheSize, long maxFileSize, DirectBufferCache dataCache, ResourceManager resourceManager, int maxAge) {
+        this(metadataCacheSize, maxFileSize, dataCache, resourceManager, maxAge, new AtomicLong());
+    }
+
+    private CachingServletResourceManager(int metadataCacheSize, long maxFileSize, DirectBufferCache dataCache, ResourceManager resourceManager, int maxAge, AtomicLong misses) {
+        super(metadataCacheSize, maxFileSize, dataCache, new CountingResourceManager(resourceManager, misses), maxAge);
+        this.misses = misses;
+    }
+
+    @Override
+    public Resource getResource(String path) throws IOException {
+        this.lookups.incrementAndGet();
+        return super.getResource(path);
+    }
+
+    /**
+     * Returns the number of resource lookups served from the cache.
+     * @return a number of lookups
+     */
+    public long getHitCount() {
+        return Math.max(this.lookups.get() - this.misses.get(), 0L);
+    }
+
+    /**
+     * Returns the number of resource lookups that needed to be resolved by the underlying resource manager.
+     * @return a number of lookups
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * Resource manager that counts the lookups delegated to it.
+     */
+    private static class CountingResourceManager implements ResourceManager {
+        private final ResourceManager resourceManager;
+        private final AtomicLong count;
+
+        CountingResourceManager(ResourceManager resourceManager, AtomicLong count) {
+            this.resourceManager = resourceManager;
+            this.count = count;
+        }
+
+        @Override
+        public Resource getResource(String path) throws IOException {
+            this.count.incrementAndGet();
+            return this.resourceManager.getResource(path);
+        }
+
+        @Override
+        public boolean isResourceChangeListenerSupported() {
+            return this.resourceManager.isResourceChangeListenerSupported();
+        }
+
+        @Override
+        public void registerResourceChangeListener(ResourceChangeListener listener) {
+            this.resourceManager.registerResourceChangeListener(listener);
+        }
+
+        @Override
+        public void removeResourceChangeListener(ResourceChangeListener listener) {
+            this.resourceManager.removeResourceChangeListener(listener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.resourceManager.close();
+        }
+    }
+}
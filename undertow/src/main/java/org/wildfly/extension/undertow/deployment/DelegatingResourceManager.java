@@ -29,6 +29,7 @@ import org.xnio.IoUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -42,6 +43,10 @@ public class DelegatingResourceManager implements ResourceManager {
         this.delegates = new ArrayList<>(delegates);
     }
 
+    public List<ResourceManager> getDelegates() {
+        return Collections.unmodifiableList(delegates);
+    }
+
     @Override
     public Resource getResource(String path) throws IOException {
         for(ResourceManager d : delegates) {
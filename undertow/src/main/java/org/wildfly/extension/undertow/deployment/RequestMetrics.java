@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free recorder of request latencies, request rate, in-flight requests and transferred bytes.
+ * Latencies are counted in a log-linear histogram, in the style of HDR histogram, with a relative error of about 3%,
+ * so that percentiles can be computed without retaining individual samples.
+ * Like the request rate, latencies are recorded per one minute interval, such that percentiles reflect only the requests
+ * completed during the current and the previous interval, rather than all requests since the deployment started.
+ */
+public class RequestMetrics {
+
+    // Each power of 2 is split into 2^5 sub-buckets
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Latencies of 2^44 ns (almost 5 hours) or more are counted in the last bucket
+    private static final int MAX_EXPONENT = 43;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) << SUB_BUCKET_BITS;
+
+    private static final long RATE_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    // Latency histograms of the current and previous interval, indexed by interval parity
+    private final AtomicLongArray buckets = new AtomicLongArray(2 * BUCKET_COUNT);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    // Intervals and request counts of the current and previous interval, indexed by interval parity
+    private final AtomicLongArray intervals = new AtomicLongArray(2);
+    private final AtomicLongArray intervalRequests = new AtomicLongArray(2);
+
+    public void requestStarted() {
+        this.inFlight.increment();
+    }
+
+    /**
+     * Records a completed request.
+     * @param nanos the request latency in nanoseconds
+     * @param received the number of request body bytes read
+     * @param sent the number of bytes sent
+     */
+    public void requestCompleted(long nanos, long received, long sent) {
+        this.requestCompleted(nanos, received, sent, System.currentTimeMillis());
+    }
+
+    void requestCompleted(long nanos, long received, long sent, long time) {
+        this.inFlight.decrement();
+        this.requests.increment();
+        if (received > 0) {
+            this.bytesReceived.add(received);
+        }
+        if (sent > 0) {
+            this.bytesSent.add(sent);
+        }
+        long interval = time / RATE_INTERVAL;
+        int slot = (int) (interval & 1);
+        long slotInterval = this.intervals.get(slot);
+        if ((slotInterval != interval) && this.intervals.compareAndSet(slot, slotInterval, interval)) {
+            // Requests recorded concurrently with this reset may be lost, which is tolerable for statistics
+            this.intervalRequests.set(slot, 0);
+            for (int i = slot * BUCKET_COUNT; i < (slot + 1) * BUCKET_COUNT; ++i) {
+                this.buckets.set(i, 0);
+            }
+        }
+        this.intervalRequests.incrementAndGet(slot);
+        this.buckets.incrementAndGet(slot * BUCKET_COUNT + bucket(nanos));
+    }
+
+    public long getRequestCount() {
+        return this.requests.sum();
+    }
+
+    public int getRequestsInFlight() {
+        return this.inFlight.intValue();
+    }
+
+    public long getBytesReceived() {
+        return this.bytesReceived.sum();
+    }
+
+    public long getBytesSent() {
+        return this.bytesSent.sum();
+    }
+
+    /**
+     * Returns the average number of requests per second completed during the previous minute.
+     * @return a request rate
+     */
+    public double getRequestRate() {
+        long interval = (System.currentTimeMillis() / RATE_INTERVAL) - 1;
+        int slot = (int) (interval & 1);
+        return (this.intervals.get(slot) == interval) ? this.intervalRequests.get(slot) * 1000d / RATE_INTERVAL : 0d;
+    }
+
+    /**
+     * Returns the latency below which the specified percentage of the requests completed during the current and previous minute completed.
+     * @param percentile a percentage, e.g. 99.9
+     * @return a latency in nanoseconds
+     */
+    public long getLatency(double percentile) {
+        return this.getLatency(percentile, System.currentTimeMillis());
+    }
+
+    long getLatency(double percentile, long time) {
+        long interval = time / RATE_INTERVAL;
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int slot = 0; slot < 2; ++slot) {
+            long slotInterval = this.intervals.get(slot);
+            if ((slotInterval == interval) || (slotInterval == interval - 1)) {
+                for (int i = 0; i < BUCKET_COUNT; ++i) {
+                    long count = this.buckets.get(slot * BUCKET_COUNT + i);
+                    counts[i] += count;
+                    total += count;
+                }
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long threshold = Math.max((long) Math.ceil(total * percentile / 100d), 1L);
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            count += counts[i];
+            if (count >= threshold) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(BUCKET_COUNT - 1);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) Math.max(value, 0L);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long highestEquivalentValue(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        long lowest = ((long) ((bucket & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
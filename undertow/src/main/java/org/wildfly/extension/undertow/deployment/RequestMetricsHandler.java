@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.undertow.server.ConduitWrapper;
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HandlerWrapper;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.ConduitFactory;
+import org.xnio.IoUtils;
+import org.xnio.channels.StreamSinkChannel;
+import org.xnio.conduits.AbstractStreamSourceConduit;
+import org.xnio.conduits.ConduitReadableByteChannel;
+import org.xnio.conduits.StreamSourceConduit;
+
+/**
+ * {@link HttpHandler} that records the requests it handles to {@link RequestMetrics}.
+ * The bytes received by a request are counted as its body is read, so that chunked requests are counted as well.
+ */
+public class RequestMetricsHandler implements HttpHandler {
+
+    private final HttpHandler next;
+    private final RequestMetrics metrics;
+
+    public RequestMetricsHandler(HttpHandler next, RequestMetrics metrics) {
+        this.next = next;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        final long start = System.nanoTime();
+        final AtomicLong received = new AtomicLong();
+        this.metrics.requestStarted();
+        exchange.addRequestWrapper(new ConduitWrapper<StreamSourceConduit>() {
+            @Override
+            public StreamSourceConduit wrap(ConduitFactory<StreamSourceConduit> factory, HttpServerExchange exchange) {
+                return new CountingStreamSourceConduit(factory.create(), received);
+            }
+        });
+        exchange.addExchangeCompleteListener(new ExchangeCompletionListener() {
+            @Override
+            public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+                metrics.requestCompleted(System.nanoTime() - start, received.get(), exchange.getResponseBytesSent());
+                nextListener.proceed();
+            }
+        });
+        this.next.handleRequest(exchange);
+    }
+
+    /**
+     * Conduit that counts the bytes read through it.
+     */
+    private static class CountingStreamSourceConduit extends AbstractStreamSourceConduit<StreamSourceConduit> {
+        private final AtomicLong count;
+
+        CountingStreamSourceConduit(StreamSourceConduit next, AtomicLong count) {
+            super(next);
+            this.count = count;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int read = this.next.read(dst);
+            if (read > 0) {
+                this.count.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offs, int len) throws IOException {
+            long read = this.next.read(dsts, offs, len);
+            if (read > 0) {
+                this.count.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long transferTo(long position, long count, FileChannel target) throws IOException {
+            return target.transferFrom(new ConduitReadableByteChannel(this), position, count);
+        }
+
+        @Override
+        public long transferTo(long count, ByteBuffer throughBuffer, StreamSinkChannel target) throws IOException {
+            return IoUtils.transfer(new ConduitReadableByteChannel(this), count, throughBuffer, target);
+        }
+    }
+
+    public static HandlerWrapper wrapper(final RequestMetrics metrics) {
+        return new HandlerWrapper() {
+            @Override
+            public HttpHandler wrap(HttpHandler handler) {
+                return new RequestMetricsHandler(handler, metrics);
+            }
+        };
+    }
+}
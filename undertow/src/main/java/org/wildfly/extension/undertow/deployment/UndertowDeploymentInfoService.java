@@ -31,7 +31,6 @@ import io.undertow.server.HandlerWrapper;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.builder.PredicatedHandler;
-import io.undertow.server.handlers.resource.CachingResourceManager;
 import io.undertow.server.handlers.resource.FileResourceManager;
 import io.undertow.server.handlers.resource.ResourceManager;
 import io.undertow.server.session.SecureRandomSessionIdGenerator;
@@ -399,7 +398,12 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
             }
             deploymentInfo.setServerName("WildFly " + Version.AS_VERSION);
             if (undertowService.getValue().isStatisticsEnabled()) {
-                deploymentInfo.setMetricsCollector(new UndertowMetricsCollector());
+                UndertowMetricsCollector collector = new UndertowMetricsCollector();
+                deploymentInfo.setMetricsCollector(collector);
+                deploymentInfo.addOuterHandlerChainWrapper(RequestMetricsHandler.wrapper(collector.getDeploymentRequestMetrics()));
+                for (ServletInfo servlet : deploymentInfo.getServlets().values()) {
+                    servlet.addHandlerChainWrapper(collector.createRequestMetricsWrapper(servlet.getName()));
+                }
             }
 
             ControlPoint controlPoint = controlPointInjectedValue.getOptionalValue();
@@ -564,10 +568,11 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
             d.setHostName(host.getValue().getName());
             final ServletContainerService servletContainer = container.getValue();
             try {
-                //TODO: make the caching limits configurable
                 ResourceManager resourceManager = new ServletResourceManager(deploymentRoot, overlays, explodedDeployment, mergedMetaData.isSymbolicLinkingEnabled());
 
-                resourceManager = new CachingResourceManager(100, 10 * 1024 * 1024, servletContainer.getBufferCache(), resourceManager, explodedDeployment ? 2000 : -1);
+                if (servletContainer.getResourceCacheSize() > 0) {
+                    resourceManager = new CachingServletResourceManager(servletContainer.getResourceCacheSize(), servletContainer.getMaxCachedResourceSize(), servletContainer.getBufferCache(), resourceManager, explodedDeployment ? 2000 : -1);
+                }
                 if(externalResources != null && !externalResources.isEmpty()) {
                     //TODO: we don't cache external deployments, as they are intended for development use
                     //should be make this configurable or something?
@@ -24,9 +24,10 @@
 
 package org.wildfly.extension.undertow.deployment;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import io.undertow.server.HandlerWrapper;
 import io.undertow.server.handlers.MetricsHandler;
 import io.undertow.servlet.api.MetricsCollector;
 
@@ -34,7 +35,9 @@ import io.undertow.servlet.api.MetricsCollector;
  * @author Tomaz Cerar (c) 2014 Red Hat Inc.
  */
 public class UndertowMetricsCollector implements MetricsCollector {
-    private final Map<String, MetricsHandler> metrics = new HashMap<>();
+    private final Map<String, MetricsHandler> metrics = new ConcurrentHashMap<>();
+    private final Map<String, RequestMetrics> requestMetrics = new ConcurrentHashMap<>();
+    private final RequestMetrics deploymentRequestMetrics = new RequestMetrics();
 
     @Override
     public void registerMetric(String name, MetricsHandler handler) {
@@ -42,9 +45,30 @@ public class UndertowMetricsCollector implements MetricsCollector {
     }
 
     public MetricsHandler.MetricResult getMetrics(String name) {
-        if (metrics.containsKey(name)) {
-            return metrics.get(name).getMetrics();
-        }
-        return null;
+        MetricsHandler handler = metrics.get(name);
+        return (handler != null) ? handler.getMetrics() : null;
+    }
+
+    /**
+     * Creates a handler wrapper that records requests to the metrics of the specified servlet.
+     * @param name a servlet name
+     * @return a handler wrapper
+     */
+    public HandlerWrapper createRequestMetricsWrapper(String name) {
+        RequestMetrics metrics = new RequestMetrics();
+        RequestMetrics existing = requestMetrics.putIfAbsent(name, metrics);
+        return RequestMetricsHandler.wrapper((existing != null) ? existing : metrics);
+    }
+
+    public RequestMetrics getRequestMetrics(String name) {
+        return requestMetrics.get(name);
+    }
+
+    /**
+     * Returns the metrics of all requests to the deployment.
+     * @return request metrics
+     */
+    public RequestMetrics getDeploymentRequestMetrics() {
+        return deploymentRequestMetrics;
     }
 }
@@ -0,0 +1,283 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.undertow.server.ConduitWrapper;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.encoding.ContentEncodingProvider;
+import io.undertow.util.ConduitFactory;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import io.undertow.util.StatusCodes;
+import org.xnio.Buffers;
+import org.xnio.IoUtils;
+import org.xnio.channels.Channels;
+import org.xnio.channels.StreamSourceChannel;
+import org.xnio.conduits.AbstractStreamSinkConduit;
+import org.xnio.conduits.ConduitWritableByteChannel;
+import org.xnio.conduits.Conduits;
+import org.xnio.conduits.StreamSinkConduit;
+
+/**
+ * Content encoding provider that caches the encoded form of responses carrying an ETag, e.g. static resources.
+ * Subsequent requests for the same resource with the same ETag are served from the cache, without encoding the response again.
+ * Encoded responses are stored in direct buffers, in a cache bounded by its total size, from which the least recently used responses are evicted.
+ */
+class CachingContentEncodingProvider implements ContentEncodingProvider {
+
+    private final ContentEncodingProvider provider;
+    private final long maxCacheSize;
+    private final long maxResponseSize;
+    // Encoded responses keyed by request and ETag, in access order
+    private final Map<String, ByteBuffer> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cacheSize = 0;
+
+    CachingContentEncodingProvider(ContentEncodingProvider provider, long maxCacheSize, long maxResponseSize) {
+        this.provider = provider;
+        this.maxCacheSize = maxCacheSize;
+        this.maxResponseSize = Math.min(maxResponseSize, maxCacheSize);
+    }
+
+    @Override
+    public ConduitWrapper<StreamSinkConduit> getResponseWrapper() {
+        final ConduitWrapper<StreamSinkConduit> wrapper = this.provider.getResponseWrapper();
+        return new ConduitWrapper<StreamSinkConduit>() {
+            @Override
+            public StreamSinkConduit wrap(final ConduitFactory<StreamSinkConduit> factory, HttpServerExchange exchange) {
+                final String key = createKey(exchange);
+                if (key == null) {
+                    return wrapper.wrap(factory, exchange);
+                }
+                ByteBuffer content = get(key);
+                if (content != null) {
+                    exchange.getResponseHeaders().put(Headers.CONTENT_LENGTH, content.remaining());
+                    return new CachedContentStreamSinkConduit(factory.create(), content);
+                }
+                return wrapper.wrap(new ConduitFactory<StreamSinkConduit>() {
+                    @Override
+                    public StreamSinkConduit create() {
+                        return new CachingStreamSinkConduit(factory.create(), key);
+                    }
+                }, exchange);
+            }
+        };
+    }
+
+    /**
+     * Creates the cache key for the response of the specified exchange.
+     * @return a cache key, or null if the response is not cacheable
+     */
+    private static String createKey(HttpServerExchange exchange) {
+        if (!exchange.getRequestMethod().equals(Methods.GET) || (exchange.getStatusCode() != StatusCodes.OK)) {
+            return null;
+        }
+        String etag = exchange.getResponseHeaders().getFirst(Headers.ETAG);
+        if (etag == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(exchange.getHostName()).append(exchange.getRequestURI());
+        if (!exchange.getQueryString().isEmpty()) {
+            key.append('?').append(exchange.getQueryString());
+        }
+        return key.append(' ').append(etag).toString();
+    }
+
+    synchronized ByteBuffer get(String key) {
+        ByteBuffer content = this.cache.get(key);
+        return (content != null) ? content.duplicate() : null;
+    }
+
+    synchronized void put(String key, ByteArrayOutputStream output) {
+        ByteBuffer content = ByteBuffer.allocateDirect(output.size());
+        content.put(output.toByteArray()).flip();
+        ByteBuffer previous = this.cache.put(key, content);
+        if (previous != null) {
+            this.cacheSize -= previous.capacity();
+        }
+        this.cacheSize += content.capacity();
+        Iterator<ByteBuffer> entries = this.cache.values().iterator();
+        while ((this.cacheSize > this.maxCacheSize) && entries.hasNext()) {
+            this.cacheSize -= entries.next().capacity();
+            entries.remove();
+        }
+    }
+
+    /**
+     * Conduit that records the encoded response written through it, and caches it once the response is complete.
+     */
+    private class CachingStreamSinkConduit extends AbstractStreamSinkConduit<StreamSinkConduit> {
+        private final String key;
+        private ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        CachingStreamSinkConduit(StreamSinkConduit next, String key) {
+            super(next);
+            this.key = key;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int position = src.position();
+            int written = this.next.write(src);
+            if ((this.output != null) && (written > 0)) {
+                if (this.output.size() + written > CachingContentEncodingProvider.this.maxResponseSize) {
+                    // Response too large to cache
+                    this.output = null;
+                } else {
+                    ByteBuffer buffer = src.duplicate();
+                    buffer.position(position);
+                    buffer.limit(position + written);
+                    byte[] bytes = new byte[written];
+                    buffer.get(bytes);
+                    this.output.write(bytes, 0, written);
+                }
+            }
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offs, int len) throws IOException {
+            long total = 0;
+            for (int i = offs; i < offs + len; ++i) {
+                if (srcs[i].hasRemaining()) {
+                    total += this.write(srcs[i]);
+                    if (srcs[i].hasRemaining()) break;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public int writeFinal(ByteBuffer src) throws IOException {
+            return Conduits.writeFinalBasic(this, src);
+        }
+
+        @Override
+        public long writeFinal(ByteBuffer[] srcs, int offs, int len) throws IOException {
+            return Conduits.writeFinalBasic(this, srcs, offs, len);
+        }
+
+        @Override
+        public long transferFrom(FileChannel src, long position, long count) throws IOException {
+            return src.transferTo(position, count, new ConduitWritableByteChannel(this));
+        }
+
+        @Override
+        public long transferFrom(StreamSourceChannel source, long count, ByteBuffer throughBuffer) throws IOException {
+            return IoUtils.transfer(source, count, throughBuffer, new ConduitWritableByteChannel(this));
+        }
+
+        @Override
+        public void terminateWrites() throws IOException {
+            if (this.output != null) {
+                put(this.key, this.output);
+                this.output = null;
+            }
+            this.next.terminateWrites();
+        }
+
+        @Override
+        public void truncateWrites() throws IOException {
+            this.output = null;
+            this.next.truncateWrites();
+        }
+    }
+
+    /**
+     * Conduit that discards the unencoded response, and instead writes the cached encoded response once the response is complete.
+     */
+    private static class CachedContentStreamSinkConduit extends AbstractStreamSinkConduit<StreamSinkConduit> {
+        private final ByteBuffer content;
+        private boolean terminated = false;
+        private boolean nextTerminated = false;
+
+        CachedContentStreamSinkConduit(StreamSinkConduit next, ByteBuffer content) {
+            super(next);
+            this.content = content;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int remaining = src.remaining();
+            src.position(src.limit());
+            return remaining;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offs, int len) throws IOException {
+            long remaining = Buffers.remaining(srcs, offs, len);
+            for (int i = offs; i < offs + len; ++i) {
+                srcs[i].position(srcs[i].limit());
+            }
+            return remaining;
+        }
+
+        @Override
+        public int writeFinal(ByteBuffer src) throws IOException {
+            return Conduits.writeFinalBasic(this, src);
+        }
+
+        @Override
+        public long writeFinal(ByteBuffer[] srcs, int offs, int len) throws IOException {
+            return Conduits.writeFinalBasic(this, srcs, offs, len);
+        }
+
+        @Override
+        public long transferFrom(FileChannel src, long position, long count) throws IOException {
+            return Math.max(Math.min(count, src.size() - position), 0L);
+        }
+
+        @Override
+        public long transferFrom(StreamSourceChannel source, long count, ByteBuffer throughBuffer) throws IOException {
+            throughBuffer.clear().flip();
+            return Channels.drain(source, count);
+        }
+
+        @Override
+        public void terminateWrites() throws IOException {
+            this.terminated = true;
+        }
+
+        @Override
+        public boolean flush() throws IOException {
+            if (this.terminated) {
+                while (this.content.hasRemaining()) {
+                    if (this.next.write(this.content) == 0) {
+                        return false;
+                    }
+                }
+                if (!this.nextTerminated) {
+                    this.next.terminateWrites();
+                    this.nextTerminated = true;
+                }
+            }
+            return this.next.flush();
+        }
+    }
+}
@@ -24,19 +24,43 @@
 
 package org.wildfly.extension.undertow.filters;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import io.undertow.predicate.Predicate;
 import io.undertow.predicate.Predicates;
 import io.undertow.server.HttpHandler;
+import io.undertow.server.handlers.encoding.ContentEncodingProvider;
 import io.undertow.server.handlers.encoding.ContentEncodingRepository;
 import io.undertow.server.handlers.encoding.EncodingHandler;
 import io.undertow.server.handlers.encoding.GzipEncodingProvider;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
 
 /**
  * @author Tomaz Cerar (c) 2014 Red Hat Inc.
  */
 public class GzipFilter extends Filter {
 
+    public static final AttributeDefinition CACHE_SIZE = new SimpleAttributeDefinitionBuilder("cache-size", ModelType.LONG)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .setValidator(new LongRangeValidator(0, true, true))
+            .setMeasurementUnit(MeasurementUnit.BYTES)
+            .setDefaultValue(new ModelNode(0L))
+            .build();
+
+    public static final AttributeDefinition MAX_CACHED_RESPONSE_SIZE = new SimpleAttributeDefinitionBuilder("max-cached-response-size", ModelType.LONG)
+            .setAllowExpression(true)
+            .setAllowNull(true)
+            .setValidator(new LongRangeValidator(0, true, true))
+            .setMeasurementUnit(MeasurementUnit.BYTES)
+            .setDefaultValue(new ModelNode(1024L * 1024))
+            .build();
 
     public static final GzipFilter INSTANCE = new GzipFilter();
 
@@ -44,10 +68,20 @@ public class GzipFilter extends Filter {
         super("gzip");
     }
 
+    @Override
+    public Collection<AttributeDefinition> getAttributes() {
+        return Arrays.asList(CACHE_SIZE, MAX_CACHED_RESPONSE_SIZE);
+    }
+
     @Override
     public HttpHandler createHttpHandler(final Predicate predicate, ModelNode model, HttpHandler next) {
+        ContentEncodingProvider provider = new GzipEncodingProvider();
+        long cacheSize = model.get(CACHE_SIZE.getName()).asLong();
+        if (cacheSize > 0) {
+            provider = new CachingContentEncodingProvider(provider, cacheSize, model.get(MAX_CACHED_RESPONSE_SIZE.getName()).asLong());
+        }
         EncodingHandler encodingHandler = new EncodingHandler(new ContentEncodingRepository()
-                .addEncodingHandler("gzip", new GzipEncodingProvider(), 50, predicate != null ? predicate : Predicates.truePredicate()));
+                .addEncodingHandler("gzip", provider, 50, predicate != null ? predicate : Predicates.truePredicate()));
         encodingHandler.setNext(next);
         return encodingHandler;
     }
@@ -56,4 +90,4 @@ public class GzipFilter extends Filter {
     protected Class[] getConstructorSignature() {
         throw new IllegalStateException(); //should not be used, as the handler is constructed above
     }
-}
\ No newline at end of file
+}
@@ -27,6 +27,7 @@ import static org.jboss.logging.Logger.Level.INFO;
 import static org.jboss.logging.Logger.Level.WARN;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.List;
 
@@ -327,4 +328,21 @@ public interface UndertowLogger extends BasicLogger {
     @Message(id = 76, value = "Cannot remove resource of type %s")
     IllegalArgumentException cannotRemoveResourceOfType(String type);
 
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 77, value = "Failed to restore session attribute %s for session %s")
+    void failedToRestoreSessionAttribute(String attributeName, String sessionID, @Cause Exception e);
+
+    @Message(id = 78, value = "Invalid persistent sessions file %s")
+    IOException invalidPersistentSessionFile(File file);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 79, value = "Failed to write access log to %s")
+    void failedToWriteAccessLog(File file, @Cause IOException e);
+
+    @Message(id = 80, value = "Context parameter %s must be a non-negative integer, but was %s")
+    IllegalArgumentException invalidContextParameter(String name, String value);
+
+    @Message(id = 81, value = "Context parameter %s names resource %s, which was not found in the deployment")
+    IllegalArgumentException contextParameterResourceNotFound(String name, String value);
+
 }
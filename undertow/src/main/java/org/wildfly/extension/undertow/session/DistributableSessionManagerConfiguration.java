@@ -29,6 +29,16 @@ public interface DistributableSessionManagerConfiguration {
 
     ReplicationGranularity getGranularity();
 
+    int getDeltaSnapshotThreshold();
+
+    boolean isContentMutationDetectionEnabled();
+
+    long getNearCacheLifespan();
+
+    boolean isCompressionEnabled();
+
+    String getCompressionDictionary();
+
     String getDeploymentName();
 
     Module getModule();
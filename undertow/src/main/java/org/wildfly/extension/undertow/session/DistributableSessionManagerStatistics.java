@@ -0,0 +1,49 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.session;
+
+import io.undertow.server.session.SessionManagerStatistics;
+
+/**
+ * Statistics of a distributable session manager.
+ */
+public interface DistributableSessionManagerStatistics extends SessionManagerStatistics {
+    /**
+     * @return the number of replications of mutable session attributes that were suppressed, since their marshalled form did not change
+     */
+    long getSuppressedAttributeReplicationCount();
+
+    /**
+     * @return the longest delay, in milliseconds, between the time a session became eligible for expiration and the time it was expired
+     */
+    long getMaxExpirationLag();
+
+    /**
+     * @return the average delay, in milliseconds, between the time a session became eligible for expiration and the time it was expired
+     */
+    long getAverageExpirationLag();
+
+    /**
+     * @return the number of session identifiers whose primary owner is another member, since no identifier owned by the local member could be generated
+     */
+    long getNonLocalSessionIdentifierCount();
+}
@@ -21,10 +21,14 @@
  */
 package org.wildfly.extension.undertow.session;
 
+import java.util.List;
+
+import org.jboss.metadata.javaee.spec.ParamValueMetaData;
 import org.jboss.metadata.web.jboss.JBossWebMetaData;
 import org.jboss.metadata.web.jboss.ReplicationConfig;
 import org.jboss.metadata.web.jboss.ReplicationGranularity;
 import org.jboss.modules.Module;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
 
 /**
  * Simple {@link DistributableSessionManagerConfiguration} implementation that delegates to {@link JBossWebMetaData}.
@@ -32,22 +36,54 @@ import org.jboss.modules.Module;
  */
 public class SimpleDistributableSessionManagerConfiguration implements DistributableSessionManagerConfiguration {
 
+    /**
+     * Context parameter specifying the number of distinct attributes a coarse session may replicate as a delta before replicating all of its attributes.
+     */
+    public static final String DELTA_SNAPSHOT_THRESHOLD_PARAMETER = "org.wildfly.clustering.web.session.delta-snapshot-threshold";
+    /**
+     * Context parameter indicating whether mutable session attributes that were only read are replicated only if their marshalled form changed.
+     */
+    public static final String CONTENT_MUTATION_DETECTION_PARAMETER = "org.wildfly.clustering.web.session.content-mutation-detection";
+    /**
+     * Context parameter specifying the number of milliseconds for which a session read from a remote owner may be retained locally.
+     */
+    public static final String NEAR_CACHE_LIFESPAN_PARAMETER = "org.wildfly.clustering.web.session.near-cache-lifespan";
+    /**
+     * Context parameter indicating whether the replicated/persisted form of session attributes is compressed.
+     */
+    public static final String COMPRESSION_PARAMETER = "org.wildfly.clustering.web.session.compression";
+    /**
+     * Context parameter specifying a deployment resource containing a preset dictionary with which to compress session attributes.
+     * Implies compression.
+     */
+    public static final String COMPRESSION_DICTIONARY_PARAMETER = "org.wildfly.clustering.web.session.compression-dictionary";
+
     private final Integer maxActiveSessions;
     private final ReplicationConfig replicationConfig;
+    private final int deltaSnapshotThreshold;
+    private final boolean contentMutationDetection;
+    private final long nearCacheLifespan;
+    private final boolean compression;
+    private final String compressionDictionary;
     private final String deploymentName;
     private final Module module;
 
     public SimpleDistributableSessionManagerConfiguration(JBossWebMetaData metaData, String deploymentName, Module module) {
-        this(metaData.getMaxActiveSessions(), metaData.getReplicationConfig(), deploymentName, module);
+        this(metaData.getMaxActiveSessions(), metaData.getReplicationConfig(), getDeltaSnapshotThreshold(metaData.getContextParams()), Boolean.parseBoolean(getContextParameter(metaData.getContextParams(), CONTENT_MUTATION_DETECTION_PARAMETER)), getNearCacheLifespan(metaData.getContextParams()), Boolean.parseBoolean(getContextParameter(metaData.getContextParams(), COMPRESSION_PARAMETER)), getCompressionDictionary(metaData.getContextParams(), module), deploymentName, module);
     }
 
     public SimpleDistributableSessionManagerConfiguration(SharedSessionManagerConfig config, String deploymentName, Module module) {
-        this(config.getMaxActiveSessions(), config.getReplicationConfig(), deploymentName, module);
+        this(config.getMaxActiveSessions(), config.getReplicationConfig(), 0, false, 0L, false, null, deploymentName, module);
     }
 
-    private SimpleDistributableSessionManagerConfiguration(Integer maxActiveSessions, ReplicationConfig replicationConfig, String deploymentName, Module module) {
+    private SimpleDistributableSessionManagerConfiguration(Integer maxActiveSessions, ReplicationConfig replicationConfig, int deltaSnapshotThreshold, boolean contentMutationDetection, long nearCacheLifespan, boolean compression, String compressionDictionary, String deploymentName, Module module) {
         this.maxActiveSessions = maxActiveSessions;
         this.replicationConfig = replicationConfig;
+        this.deltaSnapshotThreshold = deltaSnapshotThreshold;
+        this.contentMutationDetection = contentMutationDetection;
+        this.nearCacheLifespan = nearCacheLifespan;
+        this.compression = compression || (compressionDictionary != null);
+        this.compressionDictionary = compressionDictionary;
         this.deploymentName = deploymentName;
         this.module = module;
     }
@@ -62,6 +98,31 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
         return ((this.replicationConfig != null) && (this.replicationConfig.getReplicationGranularity() != null)) ? this.replicationConfig.getReplicationGranularity() : ReplicationGranularity.SESSION;
     }
 
+    @Override
+    public int getDeltaSnapshotThreshold() {
+        return this.deltaSnapshotThreshold;
+    }
+
+    @Override
+    public boolean isContentMutationDetectionEnabled() {
+        return this.contentMutationDetection;
+    }
+
+    @Override
+    public long getNearCacheLifespan() {
+        return this.nearCacheLifespan;
+    }
+
+    @Override
+    public boolean isCompressionEnabled() {
+        return this.compression;
+    }
+
+    @Override
+    public String getCompressionDictionary() {
+        return this.compressionDictionary;
+    }
+
     @Override
     public String getDeploymentName() {
         return this.deploymentName;
@@ -76,4 +137,55 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
     public String getCacheName() {
         return (this.replicationConfig != null) ? this.replicationConfig.getCacheName() : null;
     }
+
+    private static int getDeltaSnapshotThreshold(List<ParamValueMetaData> params) {
+        String value = getContextParameter(params, DELTA_SNAPSHOT_THRESHOLD_PARAMETER);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            int threshold = Integer.parseInt(value);
+            if (threshold >= 0) {
+                return threshold;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw UndertowLogger.ROOT_LOGGER.invalidContextParameter(DELTA_SNAPSHOT_THRESHOLD_PARAMETER, value);
+    }
+
+    private static long getNearCacheLifespan(List<ParamValueMetaData> params) {
+        String value = getContextParameter(params, NEAR_CACHE_LIFESPAN_PARAMETER);
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            long lifespan = Long.parseLong(value);
+            if (lifespan >= 0L) {
+                return lifespan;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw UndertowLogger.ROOT_LOGGER.invalidContextParameter(NEAR_CACHE_LIFESPAN_PARAMETER, value);
+    }
+
+    private static String getCompressionDictionary(List<ParamValueMetaData> params, Module module) {
+        String value = getContextParameter(params, COMPRESSION_DICTIONARY_PARAMETER);
+        if ((value != null) && (module != null) && (module.getClassLoader().getResource(value) == null)) {
+            throw UndertowLogger.ROOT_LOGGER.contextParameterResourceNotFound(COMPRESSION_DICTIONARY_PARAMETER, value);
+        }
+        return value;
+    }
+
+    private static String getContextParameter(List<ParamValueMetaData> params, String name) {
+        if (params != null) {
+            for (ParamValueMetaData param : params) {
+                if (name.equals(param.getParamName())) {
+                    return (param.getParamValue() != null) ? param.getParamValue().trim() : null;
+                }
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link BatchingAccessLogReceiver}
+ */
+public class BatchingAccessLogReceiverTestCase {
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable task) {
+            task.run();
+        }
+    };
+
+    private File directory;
+    private File file;
+
+    @Before
+    public void init() throws IOException {
+        this.directory = Files.createTempDirectory("access-log").toFile();
+        this.file = new File(this.directory, "access_log.log");
+    }
+
+    @After
+    public void destroy() {
+        for (File file : this.directory.listFiles()) {
+            file.delete();
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void close() throws IOException {
+        BatchingAccessLogReceiver receiver = new BatchingAccessLogReceiver(DIRECT_EXECUTOR, this.directory, "access_log", ".log", false, 10);
+
+        receiver.logMessage("first");
+        receiver.logMessage("second");
+
+        assertEquals(Arrays.asList("first", "second"), Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8));
+
+        receiver.close();
+
+        // Messages logged after close are dropped, and the log file is not reopened
+        assertTrue(this.file.delete());
+
+        receiver.logMessage("third");
+        receiver.run();
+
+        assertFalse(this.file.exists());
+        assertEquals(0, receiver.getQueueSize());
+        assertEquals(1L, receiver.getDroppedMessageCount());
+    }
+
+    @Test
+    public void rejected() throws IOException {
+        final AtomicBoolean reject = new AtomicBoolean(true);
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                if (reject.get()) {
+                    throw new RejectedExecutionException();
+                }
+                task.run();
+            }
+        };
+        BatchingAccessLogReceiver receiver = new BatchingAccessLogReceiver(executor, this.directory, "access_log", ".log", false, 10);
+
+        // A rejected drain must neither reach the request thread, nor prevent later messages from being written
+        receiver.logMessage("first");
+        assertEquals(1, receiver.getQueueSize());
+
+        reject.set(false);
+        receiver.logMessage("second");
+
+        assertEquals(Arrays.asList("first", "second"), Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8));
+        assertEquals(0, receiver.getQueueSize());
+        assertEquals(0L, receiver.getDroppedMessageCount());
+
+        receiver.close();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import io.undertow.servlet.api.SessionPersistenceManager.PersistentSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.modules.Module;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.extension.undertow.AbstractPersistentSessionManager.SessionEntry;
+
+/**
+ * Unit test for {@link DiskBasedModularPersistentSessionManager}
+ */
+public class DiskBasedModularPersistentSessionManagerTestCase {
+
+    private static final String DEPLOYMENT = "test.war";
+
+    private File dir;
+    private DiskBasedModularPersistentSessionManager manager;
+
+    @Before
+    public void init() throws Exception {
+        this.dir = Files.createTempDirectory("sessions").toFile();
+        PathManager pathManager = mock(PathManager.class);
+        when(pathManager.resolveRelativePathEntry("sessions", null)).thenReturn(this.dir.getAbsolutePath());
+        this.manager = new DiskBasedModularPersistentSessionManager("sessions", null);
+        this.manager.getPathManager().inject(pathManager);
+        this.manager.getModuleLoaderInjectedValue().inject(Module.getBootModuleLoader());
+        this.manager.start(null);
+    }
+
+    @After
+    public void destroy() {
+        this.manager.stop(null);
+        for (File file : this.dir.listFiles()) {
+            file.delete();
+        }
+        this.dir.delete();
+    }
+
+    @Test
+    public void persistAndLoad() {
+        Date expiry = new Date(System.currentTimeMillis() + 60000L);
+        char[] large = new char[256 * 1024];
+        Arrays.fill(large, 'x');
+        Map<String, PersistentSession> sessions = new HashMap<String, PersistentSession>();
+        for (int i = 0; i < 100; ++i) {
+            sessions.put("session" + i, new PersistentSession(expiry, Collections.<String, Object>singletonMap("attribute", "value" + i)));
+        }
+        // A record larger than the read buffer
+        sessions.put("large", new PersistentSession(expiry, Collections.<String, Object>singletonMap("attribute", new String(large))));
+        // Expired sessions are not restored
+        sessions.put("expired", new PersistentSession(new Date(System.currentTimeMillis() - 60000L), Collections.<String, Object>singletonMap("attribute", "value")));
+
+        this.manager.persistSessions(DEPLOYMENT, sessions);
+
+        Map<String, PersistentSession> result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+
+        assertNotNull(result);
+        assertEquals(101, result.size());
+        assertFalse(result.containsKey("expired"));
+        for (int i = 0; i < 100; ++i) {
+            PersistentSession session = result.get("session" + i);
+            assertEquals(expiry, session.getExpiration());
+            assertEquals(Collections.singletonMap("attribute", "value" + i), session.getSessionData());
+        }
+        assertEquals(new String(large), result.get("large").getSessionData().get("attribute"));
+
+        // The persisted sessions can be replaced while the previous sessions are still referenced
+        this.manager.persistSessions(DEPLOYMENT, Collections.singletonMap("session", new PersistentSession(expiry, Collections.<String, Object>singletonMap("attribute", "value"))));
+
+        result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+
+        assertEquals(Collections.singleton("session"), result.keySet());
+        assertEquals(Collections.singletonMap("attribute", "value"), result.get("session").getSessionData());
+        assertFalse(new File(this.dir, DEPLOYMENT + ".tmp").exists());
+    }
+
+    @Test
+    public void loadLegacy() throws IOException {
+        Date expiry = new Date(System.currentTimeMillis() + 60000L);
+        Map<String, SessionEntry> entries = new HashMap<String, SessionEntry>();
+        entries.put("session", new SessionEntry(expiry, this.serialize("attribute", "value")));
+        entries.put("expired", new SessionEntry(new Date(System.currentTimeMillis() - 60000L), this.serialize("attribute", "value")));
+
+        // Sessions persisted by a previous release are a marshalled map of session entries
+        FileOutputStream out = new FileOutputStream(new File(this.dir, DEPLOYMENT));
+        try {
+            Marshaller marshaller = this.manager.createMarshaller();
+            try {
+                marshaller.start(new OutputStreamByteOutput(out));
+                marshaller.writeObject(entries);
+                marshaller.finish();
+            } finally {
+                marshaller.close();
+            }
+        } finally {
+            out.close();
+        }
+
+        Map<String, PersistentSession> result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+
+        assertNotNull(result);
+        assertEquals(Collections.singleton("session"), result.keySet());
+        assertEquals(expiry, result.get("session").getExpiration());
+        assertEquals(Collections.singletonMap("attribute", "value"), result.get("session").getSessionData());
+    }
+
+    @Test
+    public void loadMissing() {
+        assertNull(this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader()));
+    }
+
+    private HashMap<String, byte[]> serialize(String name, Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Marshaller marshaller = this.manager.createMarshaller();
+        try {
+            marshaller.start(new OutputStreamByteOutput(out));
+            marshaller.writeObject(value);
+            marshaller.finish();
+        } finally {
+            marshaller.close();
+        }
+        HashMap<String, byte[]> data = new HashMap<String, byte[]>();
+        data.put(name, out.toByteArray());
+        return data;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.deployment;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link RequestMetrics}
+ */
+public class RequestMetricsTestCase {
+
+    @Test
+    public void bucket() {
+        // Small values are counted exactly
+        for (long value = 0; value < 64; ++value) {
+            int bucket = RequestMetrics.bucket(value);
+            assertEquals(value, bucket);
+            assertEquals(value, RequestMetrics.highestEquivalentValue(bucket));
+        }
+        // Larger values are counted within 1/32 relative error
+        for (long value = 64; value < (1L << 44); value = (value * 3) / 2) {
+            long highest = RequestMetrics.highestEquivalentValue(RequestMetrics.bucket(value));
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / 32);
+        }
+        assertEquals(RequestMetrics.BUCKET_COUNT - 1, RequestMetrics.bucket(Long.MAX_VALUE));
+        assertEquals(0, RequestMetrics.bucket(-1L));
+    }
+
+    @Test
+    public void latency() {
+        RequestMetrics metrics = new RequestMetrics();
+
+        assertEquals(0L, metrics.getLatency(50));
+
+        for (int i = 1; i <= 1000; ++i) {
+            metrics.requestStarted();
+            metrics.requestCompleted(i * 1000L, -1L, 10L);
+        }
+
+        assertEquals(1000L, metrics.getRequestCount());
+        assertEquals(0, metrics.getRequestsInFlight());
+        assertEquals(0L, metrics.getBytesReceived());
+        assertEquals(10000L, metrics.getBytesSent());
+
+        assertLatency(500000L, metrics.getLatency(50));
+        assertLatency(990000L, metrics.getLatency(99));
+        assertLatency(999000L, metrics.getLatency(99.9));
+        assertLatency(1000000L, metrics.getLatency(100));
+    }
+
+    @Test
+    public void latencyInterval() {
+        RequestMetrics metrics = new RequestMetrics();
+        long minute = TimeUnit.MINUTES.toMillis(1);
+
+        for (int i = 0; i < 100; ++i) {
+            metrics.requestStarted();
+            metrics.requestCompleted(1000L, -1L, 0L, 0L);
+        }
+
+        assertLatency(1000L, metrics.getLatency(50, 0L));
+
+        for (int i = 0; i < 300; ++i) {
+            metrics.requestStarted();
+            metrics.requestCompleted(1000000L, -1L, 0L, minute);
+        }
+
+        // Requests of the current and previous minute
+        assertLatency(1000L, metrics.getLatency(25, minute));
+        assertLatency(1000000L, metrics.getLatency(50, minute));
+        // Requests of the previous minute only
+        assertLatency(1000000L, metrics.getLatency(1, 2 * minute));
+        assertEquals(0L, metrics.getLatency(50, 3 * minute));
+
+        // Recording into an expired interval discards its previous latencies
+        metrics.requestStarted();
+        metrics.requestCompleted(1000000000L, -1L, 0L, 2 * minute);
+
+        assertLatency(1000000L, metrics.getLatency(1, 2 * minute));
+        assertLatency(1000000000L, metrics.getLatency(100, 2 * minute));
+        assertEquals(401L, metrics.getRequestCount());
+    }
+
+    @Test
+    public void requestsInFlight() {
+        RequestMetrics metrics = new RequestMetrics();
+
+        metrics.requestStarted();
+        metrics.requestStarted();
+
+        assertEquals(2, metrics.getRequestsInFlight());
+
+        metrics.requestCompleted(1L, 100L, 0L);
+
+        assertEquals(1, metrics.getRequestsInFlight());
+        assertEquals(100L, metrics.getBytesReceived());
+    }
+
+    private static void assertLatency(long expected, long actual) {
+        assertTrue(String.valueOf(actual), actual >= expected);
+        assertTrue(String.valueOf(actual), actual - expected <= expected / 32);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.filters;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import io.undertow.Undertow;
+import io.undertow.server.ConduitWrapper;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.encoding.ContentEncodingProvider;
+import io.undertow.server.handlers.encoding.ContentEncodingRepository;
+import io.undertow.server.handlers.encoding.EncodingHandler;
+import io.undertow.server.handlers.encoding.GzipEncodingProvider;
+import io.undertow.util.ConduitFactory;
+import io.undertow.util.Headers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xnio.conduits.StreamSinkConduit;
+
+/**
+ * Unit test for {@link CachingContentEncodingProvider}
+ */
+public class CachingContentEncodingProviderTestCase {
+
+    private static final long MAX_CACHE_SIZE = 64 * 1024;
+    private static final long MAX_RESPONSE_SIZE = 1024;
+
+    // Number of responses encoded by the gzip provider
+    private final AtomicInteger encodings = new AtomicInteger();
+    private volatile String etag;
+    private volatile byte[] content;
+    private Undertow server;
+    private URL url;
+
+    @Before
+    public void start() throws IOException {
+        final ContentEncodingProvider gzip = new GzipEncodingProvider();
+        ContentEncodingProvider provider = new ContentEncodingProvider() {
+            @Override
+            public ConduitWrapper<StreamSinkConduit> getResponseWrapper() {
+                final ConduitWrapper<StreamSinkConduit> wrapper = gzip.getResponseWrapper();
+                return new ConduitWrapper<StreamSinkConduit>() {
+                    @Override
+                    public StreamSinkConduit wrap(ConduitFactory<StreamSinkConduit> factory, HttpServerExchange exchange) {
+                        CachingContentEncodingProviderTestCase.this.encodings.incrementAndGet();
+                        return wrapper.wrap(factory, exchange);
+                    }
+                };
+            }
+        };
+        HttpHandler handler = new HttpHandler() {
+            @Override
+            public void handleRequest(HttpServerExchange exchange) {
+                exchange.getResponseHeaders().put(Headers.ETAG, CachingContentEncodingProviderTestCase.this.etag);
+                exchange.getResponseSender().send(ByteBuffer.wrap(CachingContentEncodingProviderTestCase.this.content));
+            }
+        };
+        ContentEncodingRepository repository = new ContentEncodingRepository().addEncodingHandler("gzip", new CachingContentEncodingProvider(provider, MAX_CACHE_SIZE, MAX_RESPONSE_SIZE), 50);
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        this.server = Undertow.builder().addHttpListener(port, "localhost").setHandler(new EncodingHandler(handler, repository)).build();
+        this.server.start();
+        this.url = new URL("http", "localhost", port, "/resource");
+    }
+
+    @After
+    public void stop() {
+        this.server.stop();
+    }
+
+    @Test
+    public void cache() throws IOException {
+        byte[] content = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+        this.etag = "\"1\"";
+        this.content = content;
+
+        // Miss
+        byte[] encoded = this.request(content, false);
+        assertEquals(1, this.encodings.get());
+
+        // Hit
+        assertArrayEquals(encoded, this.request(content, true));
+        assertEquals(1, this.encodings.get());
+
+        // Changed ETag
+        content = "Pack my box with five dozen liquor jugs".getBytes(StandardCharsets.UTF_8);
+        this.etag = "\"2\"";
+        this.content = content;
+
+        encoded = this.request(content, false);
+        assertEquals(2, this.encodings.get());
+
+        assertArrayEquals(encoded, this.request(content, true));
+        assertEquals(2, this.encodings.get());
+
+        // Oversized response, i.e. an incompressible response larger than the maximum cached response size
+        content = new byte[(int) MAX_RESPONSE_SIZE * 4];
+        new Random(0).nextBytes(content);
+        this.etag = "\"3\"";
+        this.content = content;
+
+        this.request(content, false);
+        assertEquals(3, this.encodings.get());
+
+        this.request(content, false);
+        assertEquals(4, this.encodings.get());
+    }
+
+    /**
+     * Requests the resource, and verifies the decoded response body and the Content-Length of the encoded response body.
+     * @param expected the expected decoded response body
+     * @param cached indicates whether the response is expected to be served from the cache, and must therefore specify its Content-Length
+     * @return the encoded response body
+     */
+    private byte[] request(byte[] expected, boolean cached) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) this.url.openConnection();
+        connection.setRequestProperty(Headers.ACCEPT_ENCODING_STRING, "gzip");
+        assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+        assertEquals("gzip", connection.getHeaderField(Headers.CONTENT_ENCODING_STRING));
+        byte[] encoded;
+        try (InputStream input = connection.getInputStream()) {
+            encoded = read(input);
+        }
+        String length = connection.getHeaderField(Headers.CONTENT_LENGTH_STRING);
+        if (cached) {
+            assertNotNull(length);
+        }
+        if (length != null) {
+            assertEquals(encoded.length, Integer.parseInt(length));
+        }
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            assertArrayEquals(expected, read(input));
+        }
+        return encoded;
+    }
+
+    private static byte[] read(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read = input.read(buffer);
+        while (read >= 0) {
+            output.write(buffer, 0, read);
+            read = input.read(buffer);
+        }
+        return output.toByteArray();
+    }
+}